@@ -0,0 +1,68 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.model.Animal;
+import br.ufpa.fazenda.model.Cercado;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cercado.atualizarTempo. Cercados não têm solos nem máquinas, então o parâmetro é
+ * quantos cercados e quantos deles têm animais (os vazios saem no primeiro teste).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchCercado {
+
+    private static final double DELTA = 1e-9;
+
+    @Param({"3", "1000"})
+    public int cercados;
+
+    @Param({"CHEIOS", "METADE"})
+    public String ocupacao;
+
+    private Cercado[] lista;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        Animal[] especies = Animal.values();
+        lista = new Cercado[cercados];
+        for (int i = 0; i < cercados; i++) {
+            lista[i] = new Cercado(i);
+            if (ocupacao.equals("CHEIOS") || i % 2 == 0) {
+                lista[i].adicionarAnimal(especies[i % especies.length]);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarProducao() {
+        for (Cercado cercado : lista) {
+            if (!cercado.isVazio()) {
+                cercado.restaurar(cercado.getEspecie(), cercado.getQuantidade(), 0.0, false);
+            }
+        }
+    }
+
+    @Benchmark
+    public void atualizarTempo() {
+        for (Cercado cercado : lista) {
+            cercado.atualizarTempo(DELTA);
+        }
+    }
+}
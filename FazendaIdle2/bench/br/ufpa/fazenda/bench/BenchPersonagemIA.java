@@ -0,0 +1,79 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.bench.CenarioFazenda.MixMaquinas;
+import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.model.ArmazenamentoSolos;
+import br.ufpa.fazenda.model.FazendaEstado;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PersonagemIA.atualizar com o intervalo entre ações já vencido: cada operação reavalia
+ * a fazenda inteira e executa a melhor tarefa.
+ *
+ * Para a IA sempre ter o que fazer, cada operação também amadurece os solos plantados
+ * (atualizarCrescimento com um passo grande, custo O(solos) medido à parte em BenchSolo).
+ * O println de cada ação vai para um stream nulo, mas a montagem da mensagem continua
+ * na conta, como no jogo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchPersonagemIA {
+
+    private static final double INTERVALO_VENCIDO = 0.5;
+    private static final double AMADURECER = 1e6;
+
+    @Param({"6", "1000", "10000"})
+    public int solos;
+
+    @Param({"NENHUMA", "TRATOR_ARADOR", "MISTA"})
+    public MixMaquinas mix;
+
+    private FazendaEstado fazenda;
+    private ArmazenamentoSolos armazenamento;
+    private PersonagemIA ia;
+    private PrintStream saidaOriginal;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        fazenda = CenarioFazenda.criar(solos, mix);
+        armazenamento = fazenda.getArmazenamentoSolos();
+        ia = new PersonagemIA(fazenda);
+        ia.ativar();
+    }
+
+    @Setup(Level.Iteration)
+    public void replantar() {
+        CenarioFazenda.replantar(fazenda);
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarSaida() {
+        System.setOut(saidaOriginal);
+    }
+
+    @Benchmark
+    public boolean atualizar() {
+        armazenamento.atualizarCrescimento(AMADURECER, null);
+        return ia.atualizar(INTERVALO_VENCIDO);
+    }
+}
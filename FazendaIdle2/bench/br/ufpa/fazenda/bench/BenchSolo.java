@@ -0,0 +1,71 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.bench.CenarioFazenda.MixMaquinas;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Solo;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Solo.atualizarTempo e Solo.calcularValorVenda chamados solo a solo (pela visão Solo,
+ * não pela varredura em lote do ArmazenamentoSolos). Uma operação = uma passada por
+ * todos os solos da fazenda.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchSolo {
+
+    // Passo minúsculo: nenhum solo amadurece durante a iteração (o caminho medido é o de crescer)
+    private static final double DELTA = 1e-9;
+
+    @Param({"6", "1000", "100000"})
+    public int solos;
+
+    @Param({"NENHUMA", "IRRIGADOR", "TODAS", "MISTA"})
+    public MixMaquinas mix;
+
+    private FazendaEstado fazenda;
+    private List<Solo> lista;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        fazenda = CenarioFazenda.criar(solos, mix);
+        lista = fazenda.getSolos();
+    }
+
+    @Setup(Level.Iteration)
+    public void replantar() {
+        CenarioFazenda.replantar(fazenda);
+    }
+
+    @Benchmark
+    public void atualizarTempo() {
+        for (int i = 0; i < lista.size(); i++) {
+            lista.get(i).atualizarTempo(DELTA);
+        }
+    }
+
+    @Benchmark
+    public void calcularValorVenda(Blackhole bh) {
+        for (int i = 0; i < lista.size(); i++) {
+            bh.consume(lista.get(i).calcularValorVenda());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Solo;
+import br.ufpa.fazenda.model.Vegetal;
+import java.util.List;
+
+/**
+ * Monta as fazendas usadas pelos benchmarks: todos os solos desbloqueados, plantados
+ * (alface, cenoura e abóbora alternadas) e com as máquinas do mix escolhido.
+ */
+public final class CenarioFazenda {
+
+    /**
+     * Quais máquinas cada solo recebe.
+     */
+    public enum MixMaquinas {
+        NENHUMA,
+        IRRIGADOR,
+        TRATOR_ARADOR,   // Colheita e replantio automáticos
+        TODAS,
+        MISTA;           // Um quarto de cada um dos anteriores, intercalados
+
+        private static final Maquina[] SEM = {};
+        private static final Maquina[] SO_IRRIGADOR = { Maquina.IRRIGADOR };
+        private static final Maquina[] AUTOMATICAS = { Maquina.TRATOR, Maquina.ARADOR };
+
+        Maquina[] para(int solo) {
+            switch (this) {
+                case IRRIGADOR: return SO_IRRIGADOR;
+                case TRATOR_ARADOR: return AUTOMATICAS;
+                case TODAS: return Maquina.values();
+                case MISTA: return values()[solo % 4].para(solo);
+                default: return SEM;
+            }
+        }
+    }
+
+    private static final Vegetal[] ROTACAO = Vegetal.values();
+
+    private CenarioFazenda() {
+    }
+
+    public static FazendaEstado criar(int quantidadeSolos, MixMaquinas mix) {
+        FazendaEstado fazenda = FazendaEstado.criar(quantidadeSolos, quantidadeSolos);
+        fazenda.ganharCentavos(1_000L * quantidadeSolos * 100); // R$ 1000 por solo paga qualquer mix
+        for (int i = 0; i < quantidadeSolos; i++) {
+            for (Maquina maquina : mix.para(i)) {
+                fazenda.comprarMaquina(maquina);
+                fazenda.instalarMaquina(i, maquina);
+            }
+        }
+        replantar(fazenda);
+        return fazenda;
+    }
+
+    /**
+     * Replanta todos os solos (progresso zero), para cada iteração começar igual.
+     */
+    public static void replantar(FazendaEstado fazenda) {
+        List<Solo> solos = fazenda.getSolos();
+        for (int i = 0; i < solos.size(); i++) {
+            solos.get(i).plantarSubstituindo(ROTACAO[i % ROTACAO.length]);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.engine.PlanejadorIA;
+import br.ufpa.fazenda.engine.SimuladorHeadless;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Solo;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quanto o PlanejadorIA rende a mais que a IA gulosa: a mesma fazenda, os mesmos dias,
+ * só a IA trabalhando (sem ninguém comprar nada), uma vez com cada política.
+ * Não é JMH: o que interessa aqui é o dinheiro no fim, não o tempo.
+ *
+ * Fazenda: 6 solos de níveis 1, 1, 2, 3, 5 e 5, Arador nos dois de nível 5 (replanta
+ * o último vegetal plantado, por isso a ordem dos plantios importa), irrigador no de
+ * nível 3, fertilizante ativado em todos com um lote em estoque, e os 3 cercados iniciais.
+ *
+ * Uso: ComparacaoPlanejador [dias] [orçamento em ms por decisão, 0 = sem limite]
+ */
+public final class ComparacaoPlanejador {
+
+    private static final int[] NIVEIS = { 1, 1, 2, 3, 5, 5 };
+
+    private ComparacaoPlanejador() {
+    }
+
+    public static FazendaEstado criarFazenda() {
+        FazendaEstado fazenda = FazendaEstado.criar(NIVEIS.length, NIVEIS.length);
+        fazenda.ganharCentavos(1_000_000); // Paga os upgrades e as máquinas abaixo
+        for (int i = 0; i < NIVEIS.length; i++) {
+            Solo solo = fazenda.getSolos().get(i);
+            while (solo.getNivel() < NIVEIS[i]) {
+                solo.upgrade();
+            }
+            solo.setFertilizanteAtivado(true);
+        }
+        for (int i = 4; i < 6; i++) {
+            fazenda.comprarMaquina(Maquina.ARADOR);
+            fazenda.instalarMaquina(i, Maquina.ARADOR);
+        }
+        fazenda.comprarMaquina(Maquina.IRRIGADOR);
+        fazenda.instalarMaquina(3, Maquina.IRRIGADOR);
+        fazenda.comprarFertilizante();
+        // Todos começam com o mesmo saldo, independente do que a montagem custou
+        fazenda.restaurarGlobais(50_000, 1, fazenda.getEstoqueFertilizante(), fazenda.getUltimoVegetalPlantado());
+        return fazenda;
+    }
+
+    /**
+     * Simula 'dias' com a IA (gulosa se planejador == null) e devolve o saldo final em R$.
+     */
+    public static double simular(int dias, PlanejadorIA planejador) {
+        FazendaEstado fazenda = criarFazenda();
+        SimuladorHeadless simulador = new SimuladorHeadless(fazenda);
+        simulador.getLoop().ativarIA();
+        simulador.getLoop().usarPlanejador(planejador);
+        simulador.simularDias(dias);
+        return fazenda.getDinheiro();
+    }
+
+    public static void main(String[] args) {
+        int dias = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long orcamentoMs = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        PrintStream saidaOriginal = System.out; // A IA avisa cada ação no console
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        PlanejadorIA planejador = new PlanejadorIA();
+        planejador.setOrcamento(orcamentoMs, TimeUnit.MILLISECONDS);
+        double gulosa, planejada;
+        long nanos;
+        try {
+            gulosa = simular(dias, null);
+            long inicio = System.nanoTime();
+            planejada = simular(dias, planejador);
+            nanos = System.nanoTime() - inicio;
+        } finally {
+            planejador.encerrar();
+            System.setOut(saidaOriginal);
+        }
+
+        double inicial = 500.0;
+        System.out.printf("=== GULOSA x PLANEJADOR (%d dias, orçamento %s) ===%n",
+            dias, orcamentoMs == 0 ? "sem limite" : orcamentoMs + " ms");
+        System.out.printf("Gulosa:     R$ %10.2f (renda R$ %.2f)%n", gulosa, gulosa - inicial);
+        System.out.printf("Planejador: R$ %10.2f (renda R$ %.2f, %+.1f%%)%n", planejada, planejada - inicial,
+            100.0 * (planejada - gulosa) / (gulosa - inicial));
+        System.out.printf("%d decisões, %d diferentes da gulosa, %d simulações, %d orçamentos estourados, %.1f s%n",
+            planejador.getDecisoes(), planejador.getDecisoesDiferentesDaGulosa(), planejador.getSimulacoes(),
+            planejador.getOrcamentosEstourados(), nanos / 1e9);
+    }
+}
@@ -0,0 +1,65 @@
+package br.ufpa.fazenda.bench;
+
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import java.util.Objects;
+
+/**
+ * Compara duas fotografias campo a campo, com os doubles bit a bit: é o "igual" das
+ * verificações de persistência (salvar e carregar, repetir o diário), que prometem
+ * devolver exatamente o estado gravado, não um parecido.
+ */
+public final class EstadoFazenda {
+
+    private EstadoFazenda() {
+    }
+
+    /**
+     * @return null se as duas descrevem o mesmo estado, senão a primeira diferença
+     */
+    public static String diferenca(FotografiaFazenda a, FotografiaFazenda b) {
+        if (a.getTick() != b.getTick()) return "tick " + a.getTick() + " x " + b.getTick();
+        if (!igual(a.getTempoNoDia(), b.getTempoNoDia())) return "tempo no dia " + a.getTempoNoDia() + " x " + b.getTempoNoDia();
+        if (!igual(a.getTempoAnimais(), b.getTempoAnimais())) return "tempo dos animais " + a.getTempoAnimais() + " x " + b.getTempoAnimais();
+        if (a.getCentavos() != b.getCentavos()) return "centavos " + a.getCentavos() + " x " + b.getCentavos();
+        if (a.getDiaAtual() != b.getDiaAtual()) return "dia " + a.getDiaAtual() + " x " + b.getDiaAtual();
+        if (a.getEstoqueFertilizante() != b.getEstoqueFertilizante()) {
+            return "fertilizante " + a.getEstoqueFertilizante() + " x " + b.getEstoqueFertilizante();
+        }
+        if (a.getUltimoVegetalPlantado() != b.getUltimoVegetalPlantado()) {
+            return "último vegetal " + a.getUltimoVegetalPlantado() + " x " + b.getUltimoVegetalPlantado();
+        }
+        for (Maquina maquina : Maquina.values()) {
+            if (a.getQuantidadeInventario(maquina) != b.getQuantidadeInventario(maquina)) {
+                return "inventário de " + maquina;
+            }
+        }
+        if (a.getQuantidadeSolos() != b.getQuantidadeSolos()) return "quantidade de solos";
+        for (int i = 0; i < a.getQuantidadeSolos(); i++) {
+            boolean mesmo = igual(a.getProgresso(i), b.getProgresso(i))
+                && a.getVegetal(i) == b.getVegetal(i)
+                && a.getNivel(i) == b.getNivel(i)
+                && a.isDesbloqueado(i) == b.isDesbloqueado(i)
+                && a.isFertilizanteAtivado(i) == b.isFertilizanteAtivado(i)
+                && a.isEstaComFertilizanteAplicado(i) == b.isEstaComFertilizanteAplicado(i);
+            for (Maquina maquina : Maquina.values()) {
+                mesmo &= a.temMaquina(i, maquina) == b.temMaquina(i, maquina);
+            }
+            if (!mesmo) return "solo " + i;
+        }
+        if (a.getQuantidadeCercados() != b.getQuantidadeCercados()) return "quantidade de cercados";
+        for (int i = 0; i < a.getQuantidadeCercados(); i++) {
+            if (!Objects.equals(a.getEspecie(i), b.getEspecie(i))
+                    || a.getQuantidadeAnimais(i) != b.getQuantidadeAnimais(i)
+                    || !igual(a.getProgressoCercado(i), b.getProgressoCercado(i))
+                    || a.isProdutoPronto(i) != b.isProdutoPronto(i)) {
+                return "cercado " + i;
+            }
+        }
+        return null;
+    }
+
+    private static boolean igual(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+}
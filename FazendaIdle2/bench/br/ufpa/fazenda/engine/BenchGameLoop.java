@@ -0,0 +1,69 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.bench.CenarioFazenda;
+import br.ufpa.fazenda.bench.CenarioFazenda.MixMaquinas;
+import br.ufpa.fazenda.util.Constantes;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo de um tick completo do GameLoop (comandos, crescimento, máquinas, animais, dia,
+ * IA e fotografia), sem a thread nem o relógio.
+ *
+ * Fica no pacote engine (mesmo pacote, outra árvore de fontes) para chamar o
+ * atualizarJogo, que é visível só no pacote, como faz o SimuladorHeadless.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchGameLoop {
+
+    @Param({"6", "1000", "100000"})
+    public int solos;
+
+    @Param({"NENHUMA", "TRATOR_ARADOR", "TODAS", "MISTA"})
+    public MixMaquinas mix;
+
+    @Param({"false", "true"})
+    public boolean ia;
+
+    private GameLoop loop;
+    private PrintStream saidaOriginal;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        saidaOriginal = System.out; // A IA e os eventos escrevem no console
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        loop = new GameLoop(CenarioFazenda.criar(solos, mix), null);
+        if (ia) {
+            loop.enviar(new Comando(TipoComando.ATIVAR_IA, 1));
+        }
+        loop.atualizarJogo(Constantes.PASSO_SIMULACAO_SEGUNDOS);
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarSaida() {
+        System.setOut(saidaOriginal);
+    }
+
+    @Benchmark
+    public void tick() {
+        loop.atualizarJogo(Constantes.PASSO_SIMULACAO_SEGUNDOS);
+    }
+}
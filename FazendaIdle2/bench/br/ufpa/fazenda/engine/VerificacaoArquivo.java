@@ -0,0 +1,224 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.bench.EstadoFazenda;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.persistencia.ArquivoFazenda;
+import br.ufpa.fazenda.util.Constantes;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+/**
+ * Verifica o formato do ArquivoFazenda: salva a fotografia de uma partida jogada (IA,
+ * máquinas, animais, solos em todos os estados), carrega de volta pelos dois caminhos
+ * (fazenda nova e por cima de uma existente) e exige o mesmo estado, bit a bit. Faz o
+ * mesmo com o arquivo reescrito como versões 1 e 2 (CRC só do corpo; a 1 sem alinhamento
+ * final, montada pelo layout documentado), e confere que um byte trocado no corpo ou no
+ * cabeçalho, ou um arquivo cortado, são recusados com IOException sem mexer na fazenda
+ * de destino.
+ *
+ * Uso: VerificacaoArquivo [solos...] [semente]. Sai com código 1 se algo diferir.
+ */
+public final class VerificacaoArquivo {
+
+    private static final int CABECALHO = 64;
+
+    private VerificacaoArquivo() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanhos = args.length > 0
+            ? Arrays.stream(args, 0, Math.max(1, args.length - 1)).mapToInt(Integer::parseInt).toArray()
+            : new int[] { 6, 64, 200_000 };
+        long semente = args.length > 1 ? Long.parseLong(args[args.length - 1]) : 42;
+
+        Path pasta = Files.createTempDirectory("verificacao-arquivo");
+        int falhas = 0;
+        try {
+            for (int solos : tamanhos) {
+                falhas += verificar(solos, pasta.resolve("fazenda-" + solos + ".sav"), new Random(semente + solos));
+            }
+        } finally {
+            try (var arquivos = Files.list(pasta)) {
+                for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                    Files.delete(arquivo);
+                }
+            }
+            Files.delete(pasta);
+        }
+        System.out.println(falhas == 0 ? "OK" : falhas + " FALHA(S)");
+        if (falhas > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int verificar(int solos, Path arquivo, Random aleatorio) throws Exception {
+        FotografiaFazenda original = jogar(solos, aleatorio);
+        int falhas = 0;
+
+        // Versão atual (3), só a base
+        ArquivoFazenda.salvar(original, arquivo);
+        falhas += relatar(solos, "v3 em fazenda nova", carregarNova(arquivo, original));
+        falhas += relatar(solos, "v3 por cima", carregarPorCima(arquivo, original));
+
+        // Versões antigas: mesma base, com o CRC só do corpo; a 1 termina no CRC
+        byte[] v3 = Files.readAllBytes(arquivo);
+        int fimBase = fimBase(solos, original.getQuantidadeCercados());
+        Path arquivoAntigo = arquivo.resolveSibling(arquivo.getFileName() + ".antigo");
+        for (int versao = 1; versao <= 2; versao++) {
+            byte[] antigo = versaoAntiga(v3, versao, versao == 1 ? fimBase : v3.length, fimBase);
+            Files.write(arquivoAntigo, antigo);
+            falhas += relatar(solos, "v" + versao + " em fazenda nova (" + antigo.length + " bytes)",
+                              carregarNova(arquivoAntigo, original));
+            falhas += relatar(solos, "v" + versao + " por cima", carregarPorCima(arquivoAntigo, original));
+        }
+
+        // Corpo com um byte trocado: o CRC tem de recusar
+        Path arquivoCorrompido = arquivo.resolveSibling(arquivo.getFileName() + ".corrompido");
+        int posicao = CABECALHO + aleatorio.nextInt(fimBase - CABECALHO);
+        falhas += relatar(solos, "byte " + posicao + " do corpo trocado",
+                          recusa(trocarByte(v3, posicao, aleatorio), arquivoCorrompido, original));
+
+        // Cabeçalho com um byte trocado (tick, relógios, dinheiro, dia, estoque, último vegetal)
+        posicao = 20 + aleatorio.nextInt(CABECALHO - 20);
+        falhas += relatar(solos, "byte " + posicao + " do cabeçalho trocado",
+                          recusa(trocarByte(v3, posicao, aleatorio), arquivoCorrompido, original));
+
+        // Cortado antes do fim da base
+        falhas += relatar(solos, "cortado", recusa(Arrays.copyOf(v3, CABECALHO + aleatorio.nextInt(fimBase - CABECALHO)),
+                                                   arquivoCorrompido, original));
+
+        Files.delete(arquivoAntigo);
+        Files.delete(arquivoCorrompido);
+        Files.delete(arquivo);
+        return falhas;
+    }
+
+    /**
+     * Uma partida curta com a IA e comandos aleatórios: solos vazios, crescendo, prontos,
+     * evoluídos, com máquinas e fertilizante, e cercados com animais.
+     */
+    private static FotografiaFazenda jogar(int solos, Random aleatorio) {
+        PrintStream saidaOriginal = System.out; // A IA avisa cada ação no console
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try {
+            FazendaEstado fazenda = FazendaEstado.criar(solos, Math.max(1, solos * 3 / 4));
+            fazenda.ganharCentavos(500_000_000);
+            GameLoop loop = new GameLoop(fazenda, null);
+            loop.enviar(TipoComando.ATIVAR_IA, 1, 0);
+            loop.enviar(TipoComando.COMPRAR_FERTILIZANTE, 0, 0);
+            for (int c = 0; c < fazenda.getCercados().size(); c++) {
+                loop.enviar(TipoComando.COMPRAR_ANIMAL, c, 0);
+            }
+            for (int t = 0; t < 600; t++) {
+                if (t % 3 == 0) {
+                    int solo = aleatorio.nextInt(solos);
+                    switch (aleatorio.nextInt(5)) {
+                        case 0:
+                            int maquina = aleatorio.nextInt(Maquina.values().length);
+                            loop.enviar(TipoComando.COMPRAR_MAQUINA, maquina, 0);
+                            loop.enviar(TipoComando.INSTALAR_MAQUINA, solo, maquina);
+                            break;
+                        case 1: loop.enviar(TipoComando.PLANTAR, solo, aleatorio.nextInt(Vegetal.values().length)); break;
+                        case 2: loop.enviar(TipoComando.EVOLUIR_SOLO, solo, 0); break;
+                        case 3: loop.enviar(TipoComando.ATIVAR_FERTILIZANTE, solo, 1); break;
+                        default: loop.enviar(TipoComando.DESBLOQUEAR_SOLO, solo, 0); break;
+                    }
+                }
+                loop.atualizarJogo(Constantes.PASSO_SIMULACAO_SEGUNDOS);
+            }
+            return loop.getFotografia();
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+    }
+
+    private static String carregarNova(Path arquivo, FotografiaFazenda original) throws IOException {
+        FazendaEstado carregada = ArquivoFazenda.carregar(arquivo);
+        return EstadoFazenda.diferenca(original,
+            carregada.fotografar(original.getTick(), original.getTempoNoDia(), original.getTempoAnimais()));
+    }
+
+    private static String carregarPorCima(Path arquivo, FotografiaFazenda original) throws IOException {
+        FazendaEstado destino = FazendaEstado.criar(original.getQuantidadeSolos(), 0);
+        ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.carregar(arquivo, destino);
+        return EstadoFazenda.diferenca(original,
+            destino.fotografar(cabecalho.getTick(), cabecalho.getTempoNoDia(), cabecalho.getTempoAnimais()));
+    }
+
+    /**
+     * O arquivo tem de ser recusado pelos dois caminhos, e por cima de uma fazenda sem
+     * mexer nela (nada é aplicado antes de tudo ser validado).
+     */
+    private static String recusa(byte[] bytes, Path arquivo, FotografiaFazenda original) throws IOException {
+        Files.write(arquivo, bytes);
+        try {
+            ArquivoFazenda.carregar(arquivo);
+            return "carregou um arquivo inválido";
+        } catch (IOException e) {
+            // esperado
+        }
+        FazendaEstado destino = FazendaEstado.criar(original.getQuantidadeSolos(), 0);
+        ArquivoFazenda.salvar(original, arquivo.resolveSibling("intacto"));
+        ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.carregar(arquivo.resolveSibling("intacto"), destino);
+        Files.delete(arquivo.resolveSibling("intacto"));
+        try {
+            ArquivoFazenda.carregar(arquivo, destino);
+            return "carregou um arquivo inválido por cima";
+        } catch (IOException e) {
+            String problema = EstadoFazenda.diferenca(original,
+                destino.fotografar(cabecalho.getTick(), cabecalho.getTempoNoDia(), cabecalho.getTempoAnimais()));
+            return problema == null ? null : "a fazenda mudou mesmo recusando: " + problema;
+        }
+    }
+
+    private static byte[] trocarByte(byte[] bytes, int posicao, Random aleatorio) {
+        byte[] corrompido = bytes.clone();
+        corrompido[posicao] ^= (byte) (1 + aleatorio.nextInt(255));
+        return corrompido;
+    }
+
+    /**
+     * O arquivo como uma versão antiga gravaria: versão no cabeçalho, CRC só do corpo e
+     * 'tamanho' bytes.
+     */
+    private static byte[] versaoAntiga(byte[] v3, int versao, int tamanho, int fimBase) {
+        byte[] antigo = Arrays.copyOf(v3, tamanho);
+        ByteBuffer buffer = ByteBuffer.wrap(antigo).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(4, (short) versao);
+        CRC32C crc = new CRC32C();
+        crc.update(antigo, CABECALHO, fimBase - 4 - CABECALHO);
+        buffer.putInt(fimBase - 4, (int) crc.getValue());
+        return antigo;
+    }
+
+    /**
+     * Fim da base (depois do CRC) pelo layout da documentação do ArquivoFazenda.
+     */
+    static int fimBase(int solos, int cercados) {
+        int inicioCercados = CABECALHO + Maquina.values().length * 4;
+        int inicioSolos = (inicioCercados + cercados * 17 + 7) & ~7;
+        return inicioSolos + solos * 12 + 4;
+    }
+
+    /**
+     * Onde começam os blocos de alterações num arquivo versão 2.
+     */
+    static int inicioBlocos(int solos, int cercados) {
+        return (fimBase(solos, cercados) + 7) & ~7;
+    }
+
+    private static int relatar(int solos, String caso, String problema) {
+        System.out.printf("%7d solos  %-36s %s%n", solos, caso, problema == null ? "ok" : "FALHOU: " + problema);
+        return problema == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,203 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.bench.EstadoFazenda;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.persistencia.ArquivoFazenda;
+import br.ufpa.fazenda.util.Constantes;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Verifica o salvamento incremental (SalvamentoIncremental + blocos do ArquivoFazenda):
+ * joga uma partida com o salvamento automático ligado, comandos aleatórios e a IA,
+ * guarda a fotografia de cada tick e depois exige que a base mais os blocos reproduzam,
+ * bit a bit, o estado do jogo no tick do último bloco aplicado:
+ *
+ * 1. arquivo inteiro: volta até o último bloco;
+ * 2. arquivo cortado em um byte aleatório depois da base: volta até o último bloco inteiro;
+ * 3. um byte aleatório de um bloco trocado: volta até o bloco anterior a ele.
+ *
+ * Uso: VerificacaoSalvamento [ticks] [cortes] [semente]. Sai com código 1 se algo diferir.
+ */
+public final class VerificacaoSalvamento {
+
+    // Base bem maior que cada bloco (muitos solos, poucos desbloqueados): vários blocos
+    // se acumulam antes de o salvamento compactar o arquivo numa base nova
+    private static final int SOLOS = 4096;
+    private static final int DESBLOQUEADOS = 300;
+    private static final int TICKS_ENTRE_SALVAMENTOS = 10;
+    private static final int MINIMO_BLOCOS = 3;
+
+    private VerificacaoSalvamento() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int cortes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long semente = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        Path pasta = Files.createTempDirectory("verificacao-salvamento");
+        Path arquivo = pasta.resolve("fazenda.sav");
+        Path copia = pasta.resolve("copia.sav");
+        int falhas = 0;
+        try {
+            Map<Long, FotografiaFazenda> jogadas = jogar(arquivo, ticks, semente);
+            byte[] bytes = Files.readAllBytes(arquivo);
+            ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.lerCabecalho(arquivo);
+            int inicioBlocos = VerificacaoArquivo.inicioBlocos(cabecalho.getQuantidadeSolos(),
+                                                               cabecalho.getQuantidadeCercados());
+            List<long[]> blocos = blocos(bytes, inicioBlocos); // {início, fim, tick}
+            System.out.printf("base no tick %d (%d bytes), %d blocos (%d bytes) até o tick %d%n",
+                              cabecalho.getTick(), inicioBlocos, blocos.size(), bytes.length - inicioBlocos,
+                              blocos.get(blocos.size() - 1)[2]);
+            falhas += verificar("arquivo inteiro", arquivo, jogadas, blocos.get(blocos.size() - 1)[2]);
+
+            Random aleatorio = new Random(semente);
+            for (int i = 0; i < cortes; i++) {
+                int corte = inicioBlocos + aleatorio.nextInt(bytes.length - inicioBlocos);
+                long esperado = cabecalho.getTick();
+                for (long[] bloco : blocos) {
+                    if (bloco[1] <= corte) esperado = bloco[2];
+                }
+                Files.write(copia, Arrays.copyOf(bytes, corte));
+                falhas += verificar("cortado em " + corte + "/" + bytes.length, copia, jogadas, esperado);
+            }
+            for (int i = 0; i < cortes; i++) {
+                int posicao = inicioBlocos + aleatorio.nextInt(bytes.length - inicioBlocos);
+                long esperado = cabecalho.getTick();
+                for (long[] bloco : blocos) {
+                    if (bloco[1] <= posicao) esperado = bloco[2];
+                }
+                byte[] corrompido = bytes.clone();
+                corrompido[posicao] ^= (byte) (1 + aleatorio.nextInt(255));
+                Files.write(copia, corrompido);
+                falhas += verificar("byte " + posicao + "/" + bytes.length + " trocado", copia, jogadas, esperado);
+            }
+        } finally {
+            Files.deleteIfExists(copia);
+            Files.deleteIfExists(arquivo);
+            Files.delete(pasta);
+        }
+        System.out.println(falhas == 0 ? "OK" : falhas + " FALHA(S)");
+        if (falhas > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A partida: IA ligada desde o início e, a cada 7 ticks, um comando aleatório. Cada
+     * salvamento termina antes do tick seguinte (sem isso o loop sem espera passa na
+     * frente do disco e pula salvamentos), e a partida segue até o arquivo ter alguns
+     * blocos depois da base mais recente.
+     * @return a fotografia de cada tick com salvamento
+     */
+    private static Map<Long, FotografiaFazenda> jogar(Path arquivo, int ticks, long semente) throws Exception {
+        PrintStream saidaOriginal = System.out; // A IA avisa cada ação no console
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try {
+            FazendaEstado fazenda = FazendaEstado.criar(SOLOS, DESBLOQUEADOS);
+            fazenda.ganharCentavos(50_000_000);
+            GameLoop loop = new GameLoop(fazenda, null);
+            loop.usarSalvamentoAutomatico(arquivo, TICKS_ENTRE_SALVAMENTOS);
+            loop.enviar(TipoComando.ATIVAR_IA, 1, 0);
+
+            Map<Long, FotografiaFazenda> jogadas = new HashMap<>();
+            Random aleatorio = new Random(semente);
+            for (int t = 0; t < ticks || (t % TICKS_ENTRE_SALVAMENTOS != 0) || contarBlocos(arquivo) < MINIMO_BLOCOS; t++) {
+                if (t % 7 == 0) {
+                    int solo = aleatorio.nextInt(SOLOS);
+                    switch (aleatorio.nextInt(6)) {
+                        case 0: loop.enviar(TipoComando.COMPRAR_MAQUINA, aleatorio.nextInt(Maquina.values().length), 0); break;
+                        case 1: loop.enviar(TipoComando.INSTALAR_MAQUINA, solo, aleatorio.nextInt(Maquina.values().length)); break;
+                        case 2: loop.enviar(TipoComando.PLANTAR, solo, aleatorio.nextInt(Vegetal.values().length)); break;
+                        case 3: loop.enviar(TipoComando.EVOLUIR_SOLO, solo, 0); break;
+                        case 4: loop.enviar(TipoComando.DESBLOQUEAR_SOLO, solo, 0); break;
+                        default: loop.enviar(TipoComando.COMPRAR_ANIMAL, aleatorio.nextInt(3), 0); break;
+                    }
+                }
+                loop.atualizarJogo(Constantes.PASSO_SIMULACAO_SEGUNDOS);
+                if (loop.getTick() % TICKS_ENTRE_SALVAMENTOS == 0) {
+                    jogadas.put(loop.getTick(), loop.getFotografia());
+                    esperarSalvamento(loop, loop.getTick());
+                }
+            }
+            loop.encerrarDiario();
+            return jogadas;
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+    }
+
+    private static void esperarSalvamento(GameLoop loop, long tick) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (loop.getUltimoCheckpoint() < tick) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("O salvamento do tick " + tick + " não terminou");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static int contarBlocos(Path arquivo) throws IOException {
+        ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.lerCabecalho(arquivo);
+        return blocos(Files.readAllBytes(arquivo), VerificacaoArquivo.inicioBlocos(
+            cabecalho.getQuantidadeSolos(), cabecalho.getQuantidadeCercados())).size();
+    }
+
+    /**
+     * Percorre os blocos pelo cabeçalho de cada um (sem conferir o CRC).
+     */
+    private static List<long[]> blocos(byte[] bytes, int inicio) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        List<long[]> blocos = new ArrayList<>();
+        int posicao = inicio;
+        while (posicao + 16 <= bytes.length && buffer.getInt(posicao) == ArquivoFazenda.MAGICO_BLOCO) {
+            int tamanho = buffer.getInt(posicao + 4);
+            if (tamanho <= 0 || posicao + tamanho > bytes.length) break;
+            blocos.add(new long[] { posicao, posicao + tamanho, buffer.getLong(posicao + 8) });
+            posicao += tamanho;
+        }
+        return blocos;
+    }
+
+    /**
+     * Carrega o arquivo numa fazenda nova e compara com a partida no tick esperado.
+     * @return 0 se passou, 1 se não
+     */
+    private static int verificar(String caso, Path arquivo, Map<Long, FotografiaFazenda> jogadas,
+                                 long tickEsperado) {
+        String problema;
+        long tick = -1;
+        try {
+            FazendaEstado destino = FazendaEstado.criar(SOLOS, 0);
+            ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.carregar(arquivo, destino);
+            tick = cabecalho.getTick();
+            FotografiaFazenda esperada = jogadas.get(tick);
+            if (tick != tickEsperado) {
+                problema = "parou no tick " + tick + ", esperado " + tickEsperado;
+            } else if (esperada == null) {
+                problema = "tick " + tick + " não existe na partida";
+            } else {
+                problema = EstadoFazenda.diferenca(esperada,
+                    destino.fotografar(tick, cabecalho.getTempoNoDia(), cabecalho.getTempoAnimais()));
+            }
+        } catch (IOException | RuntimeException e) {
+            problema = "erro: " + e;
+        }
+        System.out.printf("%-32s tick %6d  %s%n", caso, tick, problema == null ? "igual" : "DIFERENTE: " + problema);
+        return problema == null ? 0 : 1;
+    }
+}
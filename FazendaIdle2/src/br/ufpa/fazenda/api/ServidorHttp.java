@@ -0,0 +1,318 @@
+package br.ufpa.fazenda.api;
+
+import br.ufpa.fazenda.engine.Comando;
+import br.ufpa.fazenda.engine.GameLoop;
+import br.ufpa.fazenda.model.Animal;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.sessao.InterpretadorComandos;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API HTTP local (com.sun.net.httpserver) para inspecionar e comandar fazendas sem a
+ * tela nem o console.
+ *
+ * <pre>
+ * GET  /fazendas                  ids registrados
+ * GET  /fazendas/{id}             estado (dinheiro, dia, solos, cercados, IA) em JSON
+ * POST /fazendas/{id}/comandos    corpo = uma linha de comando, como nas sessões
+ *                                 ("plantar 0 alface", "comprar-maquina trator", "ia liga"...)
+ *                                 ?aguardar=nao responde 202 sem esperar o tick
+ * </pre>
+ *
+ * Nenhum handler bloqueia: leituras usam a fotografia publicada pelo GameLoop, e o JSON
+ * dela fica em cache por até IDADE_MAXIMA_CACHE_MS (a fotografia muda a cada tick, então
+ * sem isso quase toda leitura remontaria o JSON); comandos entram na fila do loop e são
+ * respondidos pelo pool do servidor quando o future do comando completa, já fora do
+ * handler (nunca na thread do loop).
+ */
+public class ServidorHttp {
+
+    private static final long ESPERA_MAXIMA_COMANDO_MS = 5000;
+    private static final long IDADE_MAXIMA_CACHE_MS = 100; // Atraso máximo de uma leitura
+
+    /**
+     * Fazenda registrada e o JSON da última fotografia servida.
+     */
+    private static final class FazendaRegistrada {
+        final GameLoop loop;
+        volatile JsonEmCache cache;
+
+        FazendaRegistrada(GameLoop loop) {
+            this.loop = loop;
+        }
+    }
+
+    private static final class JsonEmCache {
+        final FotografiaFazenda foto;
+        final byte[] json;
+        final long criadoNanos;
+
+        JsonEmCache(FotografiaFazenda foto, byte[] json, long criadoNanos) {
+            this.foto = foto;
+            this.json = json;
+            this.criadoNanos = criadoNanos;
+        }
+    }
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final Map<Integer, FazendaRegistrada> fazendas = new ConcurrentHashMap<>();
+
+    /**
+     * @param porta porta local (0 = qualquer livre, ver getPorta)
+     * @param threads threads que rodam os handlers
+     */
+    public ServidorHttp(int porta, int threads) throws IOException {
+        ligarNoDelay();
+        this.servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", porta), 1024);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread t = new Thread(tarefa, "api-http-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        servidor.setExecutor(executor);
+        servidor.createContext("/fazendas", this::tratar);
+    }
+
+    /**
+     * Liga TCP_NODELAY nos servidores do com.sun.net.httpserver, a menos que quem rodou
+     * o processo já tenha escolhido (-Dsun.net.httpserver.nodelay=...). Sem ele o
+     * servidor manda cabeçalho e corpo em segmentos separados e o ACK atrasado do
+     * cliente põe ~40 ms em toda resposta. A propriedade é lida uma vez por processo, no
+     * primeiro HttpServer.create(), então vale para todos os servidores criados depois
+     * e não muda nada se outro servidor já tiver sido criado antes deste.
+     */
+    private static void ligarNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public void registrar(int id, GameLoop loop) {
+        fazendas.put(id, new FazendaRegistrada(loop));
+    }
+
+    public void remover(int id) {
+        fazendas.remove(id);
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public void parar() {
+        servidor.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    // --- Rotas ---
+
+    private void tratar(HttpExchange troca) {
+        try {
+            String[] partes = troca.getRequestURI().getPath().split("/");
+            // "", "fazendas", id, "comandos"
+            String metodo = troca.getRequestMethod();
+            if (partes.length == 2 && metodo.equals("GET")) {
+                responder(troca, 200, listar());
+                return;
+            }
+            FazendaRegistrada fazenda = partes.length >= 3 ? buscar(partes[2]) : null;
+            if (fazenda == null) {
+                responder(troca, 404, erro("fazenda não encontrada"));
+            } else if (partes.length == 3 && metodo.equals("GET")) {
+                responder(troca, 200, estado(fazenda));
+            } else if (partes.length == 4 && partes[3].equals("comandos") && metodo.equals("POST")) {
+                comandar(troca, fazenda);
+            } else {
+                responder(troca, 405, erro("rota ou método não suportado"));
+            }
+        } catch (IOException | RuntimeException e) {
+            falhar(troca, e);
+        }
+    }
+
+    private FazendaRegistrada buscar(String id) {
+        try {
+            return fazendas.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] listar() {
+        StringBuilder sb = new StringBuilder("{\"fazendas\":[");
+        boolean primeira = true;
+        for (Integer id : fazendas.keySet()) {
+            if (!primeira) sb.append(',');
+            sb.append(id);
+            primeira = false;
+        }
+        return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] estado(FazendaRegistrada fazenda) {
+        FotografiaFazenda foto = fazenda.loop.getFotografia();
+        JsonEmCache cache = fazenda.cache;
+        long agora = System.nanoTime();
+        if (cache == null || (cache.foto != foto
+                && agora - cache.criadoNanos > TimeUnit.MILLISECONDS.toNanos(IDADE_MAXIMA_CACHE_MS))) {
+            cache = new JsonEmCache(foto, paraJson(foto, fazenda.loop).getBytes(StandardCharsets.UTF_8), agora);
+            fazenda.cache = cache;
+        }
+        return cache.json;
+    }
+
+    private void comandar(HttpExchange troca, FazendaRegistrada fazenda) throws IOException {
+        String linha;
+        try (InputStream corpo = troca.getRequestBody()) {
+            linha = new String(corpo.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Comando comando;
+        try {
+            comando = InterpretadorComandos.traduzir(linha);
+        } catch (IllegalArgumentException e) {
+            responder(troca, 400, erro(e.getMessage()));
+            return;
+        }
+        fazenda.loop.enviar(comando);
+
+        String consulta = troca.getRequestURI().getQuery();
+        if (consulta != null && consulta.contains("aguardar=nao")) {
+            responder(troca, 202, "{\"aceito\":true}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        // Responde quando o loop aplicar o comando, pelo pool do servidor: quem completa o
+        // future é a thread do loop, no meio do tick, e um cliente lento a seguraria
+        comando.getResultado().orTimeout(ESPERA_MAXIMA_COMANDO_MS, TimeUnit.MILLISECONDS)
+            .whenCompleteAsync((sucesso, falha) -> {
+                try {
+                    if (falha != null) {
+                        responder(troca, 503, erro("a fazenda não respondeu: " + falha));
+                    } else {
+                        String json = String.format(Locale.ROOT, "{\"ok\":%b,\"valor\":%.2f}", sucesso, comando.getValor());
+                        responder(troca, 200, json.getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    falhar(troca, e);
+                }
+            }, executor);
+    }
+
+    private static void responder(HttpExchange troca, int status, byte[] corpo) throws IOException {
+        troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        troca.sendResponseHeaders(status, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    /**
+     * Erro inesperado ao tratar a troca: registra no System.err e responde 500, se a
+     * resposta ainda não tinha começado (senão, ou se nem o 500 sai, só fecha a troca).
+     */
+    private static void falhar(HttpExchange troca, Exception e) {
+        System.err.println("API HTTP: erro em " + troca.getRequestMethod() + " "
+                           + troca.getRequestURI() + ": " + e);
+        if (troca.getResponseCode() == -1) {
+            try {
+                responder(troca, 500, erro("erro interno: " + e));
+            } catch (IOException | RuntimeException falha) {
+                // O cliente já foi embora: nada mais a responder
+            }
+        }
+        troca.close();
+    }
+
+    private static byte[] erro(String mensagem) {
+        return ("{\"erro\":" + texto(mensagem) + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // --- JSON ---
+
+    private static String paraJson(FotografiaFazenda foto, GameLoop loop) {
+        StringBuilder sb = new StringBuilder(256 + foto.getQuantidadeSolos() * 96);
+        sb.append("{\"tick\":").append(foto.getTick())
+          .append(",\"dinheiro\":").append(String.format(Locale.ROOT, "%.2f", foto.getDinheiro()))
+          .append(",\"dia\":").append(foto.getDiaAtual())
+          .append(",\"fertilizante\":").append(foto.getEstoqueFertilizante())
+          .append(",\"inventario\":{");
+        for (Maquina maquina : Maquina.values()) {
+            if (maquina.ordinal() > 0) sb.append(',');
+            sb.append('"').append(maquina.name()).append("\":").append(foto.getQuantidadeInventario(maquina));
+        }
+        sb.append("},\"ia\":{\"ativa\":").append(loop.isIAActivo())
+          .append(",\"status\":").append(texto(loop.getStatusIA())).append('}');
+
+        sb.append(",\"solos\":[");
+        for (int i = 0; i < foto.getQuantidadeSolos(); i++) {
+            if (i > 0) sb.append(',');
+            Vegetal vegetal = foto.getVegetal(i);
+            sb.append("{\"id\":").append(i)
+              .append(",\"desbloqueado\":").append(foto.isDesbloqueado(i))
+              .append(",\"nivel\":").append(foto.getNivel(i))
+              .append(",\"vegetal\":").append(vegetal == null ? "null" : '"' + vegetal.name() + '"')
+              .append(",\"progresso\":").append(String.format(Locale.ROOT, "%.4f", foto.getProgresso(i)))
+              .append(",\"maquinas\":[");
+            boolean primeira = true;
+            for (Maquina maquina : Maquina.values()) {
+                if (!foto.temMaquina(i, maquina)) continue;
+                if (!primeira) sb.append(',');
+                sb.append('"').append(maquina.name()).append('"');
+                primeira = false;
+            }
+            sb.append("]}");
+        }
+
+        sb.append("],\"cercados\":[");
+        for (int i = 0; i < foto.getQuantidadeCercados(); i++) {
+            if (i > 0) sb.append(',');
+            Animal especie = foto.getEspecie(i);
+            sb.append("{\"id\":").append(i)
+              .append(",\"especie\":").append(especie == null ? "null" : '"' + especie.name() + '"')
+              .append(",\"quantidade\":").append(foto.getQuantidadeAnimais(i))
+              .append(",\"progresso\":").append(String.format(Locale.ROOT, "%.4f", foto.getProgressoCercado(i)))
+              .append(",\"pronto\":").append(foto.isProdutoPronto(i)).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String texto(String valor) {
+        StringBuilder sb = new StringBuilder(valor.length() + 2).append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
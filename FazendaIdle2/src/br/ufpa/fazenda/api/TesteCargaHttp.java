@@ -0,0 +1,93 @@
+package br.ufpa.fazenda.api;
+
+import br.ufpa.fazenda.engine.HospedeiroFazendas;
+import br.ufpa.fazenda.engine.HospedeiroFazendas.FazendaHospedada;
+import br.ufpa.fazenda.model.FazendaEstado;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de carga da API: sobe fazendas hospedadas e o ServidorHttp no mesmo processo e
+ * dispara requisições com um número fixo de requisições em voo (90% leituras de estado,
+ * 10% comandos que esperam o tick). Mostra vazão e percentis de latência.
+ *
+ * Uso: TesteCargaHttp [requisicoes] [emVoo] [fazendas]
+ */
+public class TesteCargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int emVoo = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int quantidadeFazendas = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        HospedeiroFazendas hospedeiro = new HospedeiroFazendas(nucleos);
+        ServidorHttp servidor = new ServidorHttp(0, Math.max(2, nucleos));
+        for (int i = 0; i < quantidadeFazendas; i++) {
+            FazendaHospedada hospedada = hospedeiro.adicionar(FazendaEstado.criar());
+            servidor.registrar(hospedada.getId(), hospedada.getLoop());
+        }
+        hospedeiro.iniciar();
+        servidor.iniciar();
+        String base = "http://127.0.0.1:" + servidor.getPorta() + "/fazendas/";
+
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // Aquecimento (JIT e conexões)
+        executar(cliente, base, Math.min(total, 5_000), emVoo, quantidadeFazendas);
+        executar(cliente, base, total, emVoo, quantidadeFazendas);
+
+        hospedeiro.parar();
+        servidor.parar();
+    }
+
+    private static long[] executar(HttpClient cliente, String base, int total, int emVoo,
+                                   int quantidadeFazendas) throws InterruptedException {
+        long[] latencias = new long[total];
+        Semaphore vagas = new Semaphore(emVoo);
+        AtomicInteger erros = new AtomicInteger();
+        String[] comandos = { "plantar 0 alface", "colher 0", "comprar-fertilizante", "plantar 1 cenoura", "colher 1" };
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            int fazenda = i % quantidadeFazendas;
+            HttpRequest pedido;
+            if (i % 10 == 9) {
+                pedido = HttpRequest.newBuilder(URI.create(base + fazenda + "/comandos"))
+                    .POST(HttpRequest.BodyPublishers.ofString(comandos[(i / 10) % comandos.length])).build();
+            } else {
+                pedido = HttpRequest.newBuilder(URI.create(base + fazenda)).GET().build();
+            }
+            vagas.acquire();
+            int indice = i;
+            long enviado = System.nanoTime();
+            CompletableFuture<HttpResponse<byte[]>> resposta =
+                cliente.sendAsync(pedido, HttpResponse.BodyHandlers.ofByteArray());
+            resposta.whenComplete((r, falha) -> {
+                latencias[indice] = System.nanoTime() - enviado;
+                if (falha != null || r.statusCode() >= 400) erros.incrementAndGet();
+                vagas.release();
+            });
+        }
+        vagas.acquire(emVoo); // Espera as últimas
+        long nanos = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        System.out.printf("%d requisições (%d em voo) em %.2f s: %.0f req/s | erros %d%n",
+            total, emVoo, nanos / 1e9, total * 1e9 / nanos, erros.get());
+        System.out.printf("latência p50 %.2f ms | p90 %.2f ms | p99 %.2f ms | p99.9 %.2f ms | máx %.2f ms%n",
+            percentil(latencias, 0.50), percentil(latencias, 0.90), percentil(latencias, 0.99),
+            percentil(latencias, 0.999), latencias[total - 1] / 1e6);
+        return latencias;
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+}
@@ -0,0 +1,146 @@
+package br.ufpa.fazenda.controller;
+
+import java.util.Arrays;
+
+/**
+ * Heap indexado das tarefas candidatas da IA: cada candidata ocupa uma posição fixa
+ * ("slot", ex.: colher o solo 7) e pode ser inserida, ter o valor trocado ou sair em
+ * O(log n), sem reconstruir nada. A melhor fica sempre no topo.
+ *
+ * Ordem: maior valor primeiro; empate vai para a tarefa de menor ordinal e depois para
+ * o menor alvo. É a mesma escolha que a PriorityQueue reconstruída a cada ciclo fazia
+ * (inserindo colheitas, plantios, coletas e fertilizantes, cada grupo por id crescente,
+ * ela devolvia a primeira inserida entre as de maior valor).
+ *
+ * Arrays paralelos, sem objeto por entrada (como na AgendaProntidao). Só a thread da IA usa.
+ */
+class IndiceTarefas {
+
+    private static final int FORA = -1;
+
+    private final int[] posicao; // slot -> posição no heap (FORA se não está)
+
+    private int[] heapSlot = new int[16];
+    private double[] heapValor = new double[16];
+    private int[] heapAlvo = new int[16];
+    private byte[] heapTarefa = new byte[16];
+    private byte[] heapVegetal = new byte[16]; // ordinal, -1 = nenhum
+    private int tamanho = 0;
+
+    IndiceTarefas(int quantidadeSlots) {
+        posicao = new int[quantidadeSlots];
+        Arrays.fill(posicao, FORA);
+    }
+
+    /**
+     * Insere a candidata do slot ou atualiza a que já estava lá.
+     */
+    void definir(int slot, double valor, int tarefa, int alvo, int vegetal) {
+        int i = posicao[slot];
+        if (i == FORA) {
+            garantirCapacidade();
+            i = tamanho++;
+            heapSlot[i] = slot;
+            posicao[slot] = i;
+        } else if (heapValor[i] == valor && heapVegetal[i] == vegetal) {
+            return; // Nada mudou
+        }
+        heapValor[i] = valor;
+        heapAlvo[i] = alvo;
+        heapTarefa[i] = (byte) tarefa;
+        heapVegetal[i] = (byte) vegetal;
+        if (!subir(i)) {
+            descer(i);
+        }
+    }
+
+    void remover(int slot) {
+        int i = posicao[slot];
+        if (i == FORA) return;
+        posicao[slot] = FORA;
+        tamanho--;
+        if (i == tamanho) return;
+        mover(tamanho, i);
+        if (!subir(i)) {
+            descer(i);
+        }
+    }
+
+    void limpar() {
+        for (int i = 0; i < tamanho; i++) {
+            posicao[heapSlot[i]] = FORA;
+        }
+        tamanho = 0;
+    }
+
+    boolean isVazio() { return tamanho == 0; }
+    int getTamanho() { return tamanho; }
+
+    // --- Topo (só com !isVazio()) ---
+
+    int getSlotTopo() { return heapSlot[0]; }
+    double getValorTopo() { return heapValor[0]; }
+    int getAlvoTopo() { return heapAlvo[0]; }
+    int getTarefaTopo() { return heapTarefa[0]; }
+    int getVegetalTopo() { return heapVegetal[0]; }
+
+    // --- Heap ---
+
+    /** a vem antes de b? */
+    private boolean antes(int a, int b) {
+        if (heapValor[a] != heapValor[b]) return heapValor[a] > heapValor[b];
+        if (heapTarefa[a] != heapTarefa[b]) return heapTarefa[a] < heapTarefa[b];
+        return heapAlvo[a] < heapAlvo[b];
+    }
+
+    private boolean subir(int i) {
+        int inicio = i;
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (!antes(i, pai)) break;
+            trocar(i, pai);
+            i = pai;
+        }
+        return i != inicio;
+    }
+
+    private void descer(int i) {
+        while (true) {
+            int filho = 2 * i + 1;
+            if (filho >= tamanho) return;
+            if (filho + 1 < tamanho && antes(filho + 1, filho)) filho++;
+            if (!antes(filho, i)) return;
+            trocar(i, filho);
+            i = filho;
+        }
+    }
+
+    private void trocar(int a, int b) {
+        int slot = heapSlot[a]; heapSlot[a] = heapSlot[b]; heapSlot[b] = slot;
+        double valor = heapValor[a]; heapValor[a] = heapValor[b]; heapValor[b] = valor;
+        int alvo = heapAlvo[a]; heapAlvo[a] = heapAlvo[b]; heapAlvo[b] = alvo;
+        byte tarefa = heapTarefa[a]; heapTarefa[a] = heapTarefa[b]; heapTarefa[b] = tarefa;
+        byte vegetal = heapVegetal[a]; heapVegetal[a] = heapVegetal[b]; heapVegetal[b] = vegetal;
+        posicao[heapSlot[a]] = a;
+        posicao[heapSlot[b]] = b;
+    }
+
+    private void mover(int de, int para) {
+        heapSlot[para] = heapSlot[de];
+        heapValor[para] = heapValor[de];
+        heapAlvo[para] = heapAlvo[de];
+        heapTarefa[para] = heapTarefa[de];
+        heapVegetal[para] = heapVegetal[de];
+        posicao[heapSlot[para]] = para;
+    }
+
+    private void garantirCapacidade() {
+        if (tamanho < heapSlot.length) return;
+        int novo = heapSlot.length * 2;
+        heapSlot = Arrays.copyOf(heapSlot, novo);
+        heapValor = Arrays.copyOf(heapValor, novo);
+        heapAlvo = Arrays.copyOf(heapAlvo, novo);
+        heapTarefa = Arrays.copyOf(heapTarefa, novo);
+        heapVegetal = Arrays.copyOf(heapVegetal, novo);
+    }
+}
@@ -2,16 +2,21 @@ package br.ufpa.fazenda.controller;
 
 import br.ufpa.fazenda.model.*;
 import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Sistema de IA que simula um personagem autônomo realizando ações na fazenda.
  * Trabalha em paralelo com as máquinas (trator, arador) e pode ser ativado/desativado independentemente.
  * 
  * Funcionamento:
- * 1. Mantém uma fila de tarefas prioritárias baseadas em lucro
- * 2. A cada ciclo, processa a tarefa mais lucrativa disponível
- * 3. Pode trabalhar simultaneamente com máquinas autônomas
+ * 1. Mantém um índice (heap indexado) das tarefas possíveis, por lucro
+ * 2. Quando um solo/cercado muda, só as tarefas dele são reavaliadas (observador da fazenda)
+ * 3. A cada ciclo, executa a tarefa do topo (ou as K do topo, em lote): O(log n) cada, sem varrer a fazenda
+ * 4. Pode trabalhar simultaneamente com máquinas autônomas
+ * 5. Pode ter vários ajudantes (setAjudantes): cada um cuida de uma região da fazenda,
+ *    reserva o alvo antes de ir até ele e, sem trabalho na sua região, ajuda na mais cheia
  * 
  * REGRA: A IA NÃO COMPRA NADA (animais, máquinas, fertilizante, etc). Apenas usa o que já está disponível.
  */
@@ -47,38 +52,188 @@ public class PersonagemIA {
         }
     }
     
+    /**
+     * Escolhe a próxima ação no lugar da regra gulosa (ex.: engine.PlanejadorIA, que olha
+     * adiante simulando cópias da fazenda). Chamado pela thread da IA, só quando há tarefa.
+     */
+    public interface Planejador {
+        /**
+         * @param gulosa a tarefa de maior valor agora (o que a IA faria sozinha)
+         * @return a ação a executar (tipo NADA = esperar um intervalo), ou null para
+         *         seguir a gulosa (ex.: o orçamento de tempo acabou sem resultado)
+         */
+        Decisao escolher(Decisao gulosa);
+    }
+    
+    /**
+     * Números de um ajudante desde que a equipe foi montada (setAjudantes).
+     */
+    public static class EstatisticasAjudante {
+        public final int ajudante;
+        public final long acoes;           // Executadas com sucesso
+        public final long falhas;          // O alvo mudou no caminho (ex.: outro já colheu)
+        public final long roubos;          // Tarefas pegas da região de outro ajudante
+        public final long conflitos;       // Melhor alvo já reservado por outro ajudante
+        public final double segundos;      // Tempo de jogo com a IA ativa
+        public final double segundosOcioso; // Sem nada para fazer
+        
+        public EstatisticasAjudante(int ajudante, long acoes, long falhas, long roubos, long conflitos,
+                                    double segundos, double segundosOcioso) {
+            this.ajudante = ajudante;
+            this.acoes = acoes;
+            this.falhas = falhas;
+            this.roubos = roubos;
+            this.conflitos = conflitos;
+            this.segundos = segundos;
+            this.segundosOcioso = segundosOcioso;
+        }
+        
+        public double getAcoesPorSegundo() {
+            return segundos > 0 ? acoes / segundos : 0.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Ajudante %d: %d ações (%.2f/s), %d falhas, %d roubos, %d conflitos, %.0f%% ocioso",
+                ajudante + 1, acoes, getAcoesPorSegundo(), falhas, roubos, conflitos,
+                segundos > 0 ? 100.0 * segundosOcioso / segundos : 0.0);
+        }
+    }
+    
     // ----- ATRIBUTOS -----
     
     private boolean ativo = false;
     private FazendaEstado fazenda;
-    private PriorityQueue<Decisao> filaTarefas;
     private double tempoUltimaAcao = 0;
-    private static final double INTERVALO_ENTRE_ACOES = 0.5; // 0.5 segundos entre ações
+    private Decisao ultimaDecisao; // Última decisão executada com sucesso
+    public static final double INTERVALO_ENTRE_ACOES = 0.5; // 0.5 segundos entre ações
     
     // Configurações da IA
     private boolean priorizarLucroImediato = true;
+    private int acoesPorCiclo = 1;   // Orçamento de ações por intervalo (lote)
+    private Planejador planejador;   // null = gulosa
+    private boolean silenciosa;      // Sem mensagens no console (simulações do planejador)
+    
+    // ----- ÍNDICE DE TAREFAS -----
+    
+    // Slots do índice: 3 por solo (colher, plantar, fertilizar) e depois 1 por cercado
+    private static final int SLOT_COLHER = 0;
+    private static final int SLOT_PLANTAR = 1;
+    private static final int SLOT_FERTILIZAR = 2;
+    private static final int SLOTS_POR_SOLO = 3;
+    
+    private final int quantidadeSolos;
+    private final int quantidadeCercados;
+    
+    // Um índice por região: a região r tem os solos [inicioSolos[r], inicioSolos[r+1]) e os
+    // cercados [inicioCercados[r], inicioCercados[r+1]), com os slots numerados a partir de 0.
+    // Com um só ajudante a região é a fazenda inteira.
+    private IndiceTarefas[] regioes;
+    private int[] inicioSolos;
+    private int[] inicioCercados;
+    
+    // Solos/cercados que mudaram desde a última reavaliação (bit i da palavra i/64).
+    // Marcados pelo observador, que no tick paralelo roda nas threads do pool.
+    private final AtomicLongArray solosAlterados;
+    private final AtomicLongArray cercadosAlterados;
+    private volatile boolean haAlteracoes;
+    
+    // O estoque de fertilizante é global e não avisa ninguém: quando ele zera ou volta,
+    // o plantio (lucro com fertilizante) e a aplicação mudam em todos os solos
+    private boolean indexadoComEstoque;
+    
+    private final ObservadorEstado observador = new ObservadorEstado() {
+        @Override
+        public void aoMudarSolo(Solo solo) {
+            marcar(solosAlterados, solo.getId(), quantidadeSolos);
+        }
+        
+        @Override
+        public void aoMudarCercado(Cercado cercado) {
+            marcar(cercadosAlterados, cercado.getId(), quantidadeCercados);
+        }
+    };
+    
+    // Status em texto só é refeito quando a próxima tarefa muda
+    private String status;
+    private int slotDoStatus = -1;
+    private double valorDoStatus;
+    
+    // ----- AJUDANTES -----
+    
+    // Com mais de um, cada ajudante reserva o alvo ao escolher e só age um intervalo
+    // depois (o tempo de ir até lá); a reserva impede outro de escolher o mesmo alvo.
+    // Com um só, a IA escolhe e age no mesmo instante, como sempre.
+    public static final int MAXIMO_AJUDANTES = TabelaConcessoes.MAXIMO_AJUDANTES;
+    private static final long VALIDADE_CONCESSAO_MS = (long) (2 * INTERVALO_ENTRE_ACOES * 1000);
+    
+    private static final class Ajudante {
+        final int id;
+        Decisao decisao;  // Tarefa reservada, executada quando o intervalo fechar
+        int alvo = -1;    // Na tabela de concessões
+        double tempo;     // Desde que reservou
+        // Só a thread do loop escreve; o console lê
+        volatile long acoes, falhas, roubos, conflitos;
+        volatile double segundos, segundosOcioso;
+        
+        Ajudante(int id) {
+            this.id = id;
+        }
+    }
+    
+    private volatile Ajudante[] ajudantes;
+    private TabelaConcessoes concessoes; // null com um só ajudante
+    private double relogio;              // Segundos de jogo (vencimento das concessões)
+    
+    // Ações executadas no último atualizar(), na ordem (o GameLoop registra cada uma)
+    private final List<Decisao> decisoesDoCiclo = new ArrayList<>();
+    private final List<Decisao> decisoesDoCicloLeitura = Collections.unmodifiableList(decisoesDoCiclo);
+    private int conflitosDoCiclo;
+    private int ocupadosDoStatus = -1, pendentesDoStatus = -1;
     
     // ----- CONSTRUTOR -----
     
     public PersonagemIA(FazendaEstado fazenda) {
         this.fazenda = fazenda;
-        // Comparador baseado no valor esperado (maior primeiro)
-        this.filaTarefas = new PriorityQueue<>(
-            (d1, d2) -> Double.compare(d2.valorEsperado, d1.valorEsperado)
-        );
+        this.quantidadeSolos = fazenda.getSolos().size();
+        this.quantidadeCercados = fazenda.getCercados().size();
+        this.solosAlterados = new AtomicLongArray((quantidadeSolos + 63) >>> 6);
+        this.cercadosAlterados = new AtomicLongArray((quantidadeCercados + 63) >>> 6);
+        montarEquipe(1);
     }
     
     // ----- MÉTODOS PÚBLICOS -----
     
     public void ativar() {
+        if (!ativo) {
+            // Passa a acompanhar as mudanças e indexa a fazenda inteira uma vez
+            fazenda.adicionarObservador(observador);
+            marcarTudo();
+        }
         this.ativo = true;
-        System.out.println("IA do Personagem ATIVADA - Trabalhando em paralelo com máquinas");
+        if (!silenciosa) {
+            System.out.println("IA do Personagem ATIVADA - Trabalhando em paralelo com máquinas");
+        }
     }
     
     public void desativar() {
+        if (ativo) {
+            fazenda.removerObservador(observador);
+        }
         this.ativo = false;
-        this.filaTarefas.clear();
-        System.out.println("IA do Personagem DESATIVADA");
+        for (IndiceTarefas indice : regioes) {
+            indice.limpar();
+        }
+        for (Ajudante ajudante : ajudantes) {
+            ajudante.decisao = null;
+            ajudante.alvo = -1;
+        }
+        if (concessoes != null) {
+            concessoes.limpar();
+        }
+        if (!silenciosa) {
+            System.out.println("IA do Personagem DESATIVADA");
+        }
     }
     
     public boolean isAtivo() {
@@ -91,8 +246,17 @@ public class PersonagemIA {
      * @return true se uma ação foi executada
      */
     public boolean atualizar(double deltaTempo) {
+        decisoesDoCiclo.clear();
+        conflitosDoCiclo = 0;
         if (!ativo) return false;
         
+        if (ajudantes.length > 1) {
+            atualizarAjudantes(deltaTempo);
+            return !decisoesDoCiclo.isEmpty();
+        }
+        
+        Ajudante unico = ajudantes[0];
+        unico.segundos += deltaTempo;
         tempoUltimaAcao += deltaTempo;
         
         // Só age após o intervalo mínimo (simula tempo de movimento/execução)
@@ -100,210 +264,441 @@ public class PersonagemIA {
             return false;
         }
         
-        // 1. Recalcular tarefas disponíveis
-        recalcularFilaTarefas();
+        // 1. Reavaliar só o que mudou desde o último ciclo
+        atualizarIndice();
         
-        // 2. Executar próxima tarefa (se houver)
-        if (!filaTarefas.isEmpty()) {
-            Decisao decisao = filaTarefas.poll();
+        // 2. Executar a melhor tarefa (se houver), ou a que o planejador preferir
+        IndiceTarefas indice = regioes[0];
+        if (!indice.isVazio() && acoesPorCiclo > 1 && planejador == null) {
+            return executarLote(indice, unico);
+        }
+        if (!indice.isVazio()) {
+            Decisao decisao = decisaoDoTopo(indice);
+            if (planejador != null) {
+                Decisao planejada = planejador.escolher(decisao);
+                if (planejada != null && planejada.tipo == Tarefa.NADA) {
+                    tempoUltimaAcao = 0; // Esperar também ocupa um intervalo
+                    return false;
+                }
+                if (planejada != null) {
+                    decisao = new Decisao(planejada.tipo, planejada.alvoId, planejada.vegetal,
+                        planejada.valorEsperado,
+                        descrever(planejada.tipo, planejada.alvoId,
+                                  planejada.vegetal == null ? -1 : planejada.vegetal.ordinal()));
+                }
+            }
             boolean sucesso = executarDecisao(decisao);
             
             if (sucesso) {
+                // O alvo mudou: reavalia já, para o status mostrar a próxima de verdade
+                atualizarIndice();
                 tempoUltimaAcao = 0;
-                System.out.println("IA executou: " + decisao.descricao + 
-                                 " (Lucro estimado: R$" + String.format("%.2f", decisao.valorEsperado) + ")");
+                ultimaDecisao = decisao;
+                decisoesDoCiclo.add(decisao);
+                unico.acoes++;
+                if (!silenciosa) {
+                    System.out.println("IA executou: " + decisao.descricao + 
+                                     " (Lucro estimado: R$" + String.format("%.2f", decisao.valorEsperado) + ")");
+                }
                 return true;
             }
+            unico.falhas++;
+        } else {
+            unico.segundosOcioso += deltaTempo;
         }
         
         return false;
     }
     
-    // ----- LÓGICA DE DECISÃO -----
+    /**
+     * Até acoesPorCiclo tarefas do topo, todas da mesma reavaliação (a do início do ciclo).
+     * Cada alvo atendido sai do índice junto com as outras tarefas dele, que podem ter
+     * ficado velhas (ex.: fertilizar o solo que acabou de ser colhido), e é marcado para
+     * voltar na reavaliação do fim do lote.
+     */
+    private boolean executarLote(IndiceTarefas indice, Ajudante unico) {
+        int feitas = 0;
+        while (feitas < acoesPorCiclo && !indice.isVazio()) {
+            Decisao decisao = decisaoDoTopo(indice);
+            tirarDoIndice(0, decisao.tipo.ordinal(), decisao.alvoId);
+            marcarAlvo(decisao);
+            if (executarDecisao(decisao)) {
+                feitas++;
+                ultimaDecisao = decisao;
+                decisoesDoCiclo.add(decisao);
+                unico.acoes++;
+                if (!silenciosa) {
+                    System.out.println("IA executou: " + decisao.descricao + 
+                                     " (Lucro estimado: R$" + String.format("%.2f", decisao.valorEsperado) + ")");
+                }
+            } else {
+                unico.falhas++;
+            }
+        }
+        atualizarIndice();
+        if (feitas == 0) return false;
+        tempoUltimaAcao = 0;
+        return true;
+    }
     
-    private void recalcularFilaTarefas() {
-        filaTarefas.clear();
-        
-        // Apenas processa tarefas que não estão sendo feitas por máquinas
-        // OU que são complementares às máquinas
-        
-        // 1. COLHEITA MANUAL (em solos desbloqueados, sem trator)
-        avaliarColheitas();
-        
-        // 2. PLANTIO MANUAL (em solos desbloqueados, sem arador)
-        avaliarPlantios();
-        
-        // 3. COLETA DE ANIMAIS (sempre manual)
-        avaliarColetaAnimais();
-        
-        // 4. APLICAÇÃO DE FERTILIZANTE (se configurado, com estoque e solo desbloqueado)
-        avaliarAplicacaoFertilizante();
+    /**
+     * Executa de novo uma decisão já tomada (ex.: repetindo o diário de comandos, ou uma
+     * sequência do PlanejadorIA), sem reavaliar nada. Com sucesso, conta como uma ação
+     * (zera o intervalo); NADA sempre conta, como esperar na atualizar().
+     */
+    public boolean repetirDecisao(Tarefa tipo, int alvoId, Vegetal vegetal) {
+        Decisao decisao = new Decisao(tipo, alvoId, vegetal, 0.0, "Repetição: " + tipo);
+        boolean sucesso = tipo == Tarefa.NADA || executarDecisao(decisao);
+        if (sucesso) {
+            tempoUltimaAcao = 0;
+            ultimaDecisao = decisao;
+        }
+        return sucesso;
     }
     
-    private void avaliarColheitas() {
-        List<Solo> solos = fazenda.getSolos();
-        
-        for (int i = 0; i < solos.size(); i++) {
-            Solo solo = solos.get(i);
-            
-            // Só colhe se: solo desbloqueado, estiver pronto E NÃO tiver trator
-            if (solo.isDesbloqueado() && solo.isPronto() && !solo.temMaquina(Maquina.TRATOR)) {
-                double valorEsperado = solo.calcularValorVenda();
-                filaTarefas.add(new Decisao(
-                    Tarefa.COLHER_SOLO,
-                    i,
-                    valorEsperado,
-                    "Colher " + solo.getVegetal().getNome() + " no Solo " + (i+1)
-                ));
-            }
+    /**
+     * Deixa o tempo passar sem agir (durante a repetição, as ações vêm do diário).
+     */
+    public void avancarTempoSemAgir(double deltaTempo) {
+        if (ativo) {
+            tempoUltimaAcao += deltaTempo;
         }
     }
     
-    private void avaliarPlantios() {
-        List<Solo> solos = fazenda.getSolos();
-        Vegetal ultimoVegetal = fazenda.getUltimoVegetalPlantado();
-        
-        for (int i = 0; i < solos.size(); i++) {
-            Solo solo = solos.get(i);
-            
-            // Só planta se: solo desbloqueado, estiver vazio E NÃO tiver arador
-            if (solo.isDesbloqueado() && !solo.isOcupado() && !solo.temMaquina(Maquina.ARADOR)) {
-                // Escolhe o vegetal mais lucrativo que o solo suporta
-                Vegetal melhorVegetal = escolherMelhorVegetalPara(solo);
-                
-                if (melhorVegetal != null) {
-                    // Estima lucro baseado no valor de venda e tempo
-                    double valorEsperado = calcularLucroEsperado(melhorVegetal, solo);
-                    
-                    filaTarefas.add(new Decisao(
-                        Tarefa.PLANTAR_SOLO,
-                        i,
-                        melhorVegetal,
-                        valorEsperado,
-                        "Plantar " + melhorVegetal.getNome() + " no Solo " + (i+1)
-                    ));
-                }
+    /**
+     * Segundos desde a última ação (a próxima sai quando passar de INTERVALO_ENTRE_ACOES).
+     */
+    public double getTempoDesdeUltimaAcao() {
+        return tempoUltimaAcao;
+    }
+    
+    // ----- AJUDANTES -----
+    
+    /**
+     * Cada ajudante, na ordem: se o intervalo da tarefa reservada fechou, executa e
+     * devolve o alvo; livre, reserva a próxima (na sua região ou, sem nada lá, na
+     * região com mais tarefas). A ordem fixa mantém o resultado igual a cada execução.
+     */
+    private void atualizarAjudantes(double deltaTempo) {
+        relogio += deltaTempo;
+        for (Ajudante ajudante : ajudantes) {
+            ajudante.segundos += deltaTempo;
+            ajudante.tempo += deltaTempo;
+            if (ajudante.decisao != null) {
+                if (ajudante.tempo < INTERVALO_ENTRE_ACOES) continue;
+                concluir(ajudante);
+            }
+            if (!reservar(ajudante)) {
+                ajudante.segundosOcioso += deltaTempo;
             }
         }
     }
     
-    private void avaliarColetaAnimais() {
-        List<Cercado> cercados = fazenda.getCercados();
-        
-        for (int i = 0; i < cercados.size(); i++) {
-            Cercado cercado = cercados.get(i);
-            
-            if (cercado.isProdutoPronto()) {
-                double valorEsperado = cercado.getEspecie().getProdutoValor() * cercado.getQuantidade();
-                
-                filaTarefas.add(new Decisao(
-                    Tarefa.COLETAR_ANIMAIS,
-                    i,
-                    valorEsperado,
-                    "Coletar " + cercado.getEspecie().getProduto() + 
-                    " do Cercado " + (i+1) + " (" + cercado.getQuantidade() + " animais)"
-                ));
+    private void concluir(Ajudante ajudante) {
+        Decisao decisao = ajudante.decisao;
+        boolean sucesso = executarDecisao(decisao);
+        concessoes.liberar(ajudante.alvo, ajudante.id);
+        marcarAlvo(decisao); // Volta ao índice mesmo se nada mudou (pode ter saído por conflito)
+        ajudante.decisao = null;
+        ajudante.alvo = -1;
+        if (sucesso) {
+            ajudante.acoes++;
+            ultimaDecisao = decisao;
+            decisoesDoCiclo.add(decisao);
+            if (!silenciosa) {
+                System.out.println("IA (ajudante " + (ajudante.id + 1) + ") executou: " + decisao.descricao +
+                                 " (Lucro estimado: R$" + String.format("%.2f", decisao.valorEsperado) + ")");
             }
+        } else {
+            ajudante.falhas++;
         }
     }
     
-    private void avaliarAplicacaoFertilizante() {
-        // Só aplica se tiver estoque
-        if (fazenda.getEstoqueFertilizante() <= 0) {
-            return;
+    private boolean reservar(Ajudante ajudante) {
+        atualizarIndice();
+        Decisao decisao = melhorLivre(ajudante, ajudante.id);
+        boolean roubo = false;
+        // Nada em casa: ajuda a região mais cheia (se todas as dela estiverem reservadas,
+        // elas saem do índice e a próxima mais cheia é tentada)
+        for (int tentativa = 1; decisao == null && tentativa < regioes.length; tentativa++) {
+            int vitima = regiaoMaisCheia(ajudante.id);
+            if (vitima < 0) break;
+            decisao = melhorLivre(ajudante, vitima);
+            roubo = decisao != null;
         }
+        if (decisao == null) return false;
         
-        List<Solo> solos = fazenda.getSolos();
-        
-        for (int i = 0; i < solos.size(); i++) {
-            Solo solo = solos.get(i);
-            
-            // Só em solos desbloqueados
-            if (!solo.isDesbloqueado()) continue;
-            
-            // Condições para aplicar fertilizante:
-            // 1. Solo ocupado
-            // 2. Fertilizante ativado para este solo
-            // 3. Ainda não tem fertilizante aplicado
-            // 4. Planta vale a pena (ex: Abóbora ou Cenoura)
-            if (solo.isOcupado() && 
-                solo.isFertilizanteAtivado() && 
-                !solo.isEstaComFertilizanteAplicado()) {
-                
-                Vegetal vegetal = solo.getVegetal();
-                double custoFertilizante = Constantes.CUSTO_FERTILIZANTE_LOTE / Constantes.QTD_FERTILIZANTE_LOTE; // R$15
-                double beneficio = vegetal.getValorVenda() * Constantes.BONUS_FERTILIZANTE_VALOR; // +50%
-                
-                // Só aplica se o benefício for maior que o custo
-                if (beneficio > custoFertilizante) {
-                    double valorEsperado = beneficio - custoFertilizante;
-                    
-                    filaTarefas.add(new Decisao(
-                        Tarefa.APLICAR_FERTILIZANTE,
-                        i,
-                        valorEsperado,
-                        "Aplicar fertilizante em " + vegetal.getNome() + 
-                        " no Solo " + (i+1) + " (+" + (int)(Constantes.BONUS_FERTILIZANTE_VALOR*100) + "%)"
-                    ));
-                }
+        int alvo = alvoDaConcessao(decisao.tipo.ordinal(), decisao.alvoId);
+        if (!concessoes.reivindicar(alvo, ajudante.id, relogioMs(), VALIDADE_CONCESSAO_MS)) {
+            return false; // Só com ajudantes em threads diferentes
+        }
+        ajudante.decisao = decisao;
+        ajudante.alvo = alvo;
+        ajudante.tempo = 0;
+        if (roubo) ajudante.roubos++;
+        return true;
+    }
+    
+    /**
+     * A melhor tarefa da região cujo alvo não está reservado por outro ajudante
+     * (null se nenhuma). Alvos reservados saem do índice até serem liberados.
+     */
+    private Decisao melhorLivre(Ajudante ajudante, int regiao) {
+        IndiceTarefas indice = regioes[regiao];
+        long agora = relogioMs();
+        while (!indice.isVazio()) {
+            int tarefa = indice.getTarefaTopo();
+            int alvo = indice.getAlvoTopo();
+            if (concessoes.isLivre(alvoDaConcessao(tarefa, alvo), ajudante.id, agora)) {
+                return decisaoDoTopo(indice);
             }
+            ajudante.conflitos++;
+            conflitosDoCiclo++;
+            tirarDoIndice(regiao, tarefa, alvo);
         }
+        return null;
     }
     
-    // ----- CÁLCULOS AUXILIARES -----
+    /**
+     * Tira do índice da região todas as tarefas do alvo (um solo tem até três).
+     */
+    private void tirarDoIndice(int regiao, int tarefa, int alvo) {
+        IndiceTarefas indice = regioes[regiao];
+        if (tarefa == Tarefa.COLETAR_ANIMAIS.ordinal()) {
+            indice.remover(slotDoCercado(regiao, alvo));
+        } else {
+            int base = slotBaseDoSolo(regiao, alvo);
+            indice.remover(base + SLOT_COLHER);
+            indice.remover(base + SLOT_PLANTAR);
+            indice.remover(base + SLOT_FERTILIZAR);
+        }
+    }
     
-    private Vegetal escolherMelhorVegetalPara(Solo solo) {
-        Vegetal melhor = null;
-        double melhorLucro = 0;
-        
-        for (Vegetal vegetal : Vegetal.values()) {
-            // Verifica se o solo tem nível suficiente
-            if (vegetal.getNivelMinimo() <= solo.getNivel()) {
-                double lucro = calcularLucroEsperado(vegetal, solo);
-                
-                if (lucro > melhorLucro) {
-                    melhorLucro = lucro;
-                    melhor = vegetal;
-                }
+    private void marcarAlvo(Decisao decisao) {
+        if (decisao.tipo == Tarefa.COLETAR_ANIMAIS) {
+            marcar(cercadosAlterados, decisao.alvoId, quantidadeCercados);
+        } else {
+            marcar(solosAlterados, decisao.alvoId, quantidadeSolos);
+        }
+    }
+    
+    private int regiaoMaisCheia(int exceto) {
+        int melhor = -1;
+        for (int r = 0; r < regioes.length; r++) {
+            if (r != exceto && regioes[r].getTamanho() > 0
+                    && (melhor < 0 || regioes[r].getTamanho() > regioes[melhor].getTamanho())) {
+                melhor = r;
             }
         }
-        
         return melhor;
     }
     
-    private double calcularLucroEsperado(Vegetal vegetal, Solo solo) {
-        double valorBase = vegetal.getValorVenda();
-        
-        // Aplica bônus do solo
-        double bonusSolo = 1.0 + (solo.getNivel() - 1) * Constantes.BONUS_SOLO_NV_VALOR;
-        
-        // Considera bônus de irrigador (se instalado)
-        if (solo.temMaquina(Maquina.IRRIGADOR)) {
-            bonusSolo += Constantes.BONUS_IRRIGADOR_VALOR;
+    private int alvoDaConcessao(int tarefa, int alvo) {
+        return tarefa == Tarefa.COLETAR_ANIMAIS.ordinal() ? quantidadeSolos + alvo : alvo;
+    }
+    
+    private long relogioMs() {
+        return (long) (relogio * 1000);
+    }
+    
+    /**
+     * Divide a fazenda em 'quantidade' regiões contíguas (uma por ajudante) e reindexa.
+     */
+    private void montarEquipe(int quantidade) {
+        inicioSolos = new int[quantidade + 1];
+        inicioCercados = new int[quantidade + 1];
+        for (int r = 0; r <= quantidade; r++) {
+            inicioSolos[r] = (int) ((long) r * quantidadeSolos / quantidade);
+            inicioCercados[r] = (int) ((long) r * quantidadeCercados / quantidade);
         }
-        
-        // Considera fertilizante (se ativado e com estoque)
-        if (solo.isFertilizanteAtivado() && fazenda.getEstoqueFertilizante() > 0) {
-            bonusSolo += Constantes.BONUS_FERTILIZANTE_VALOR;
+        IndiceTarefas[] novas = new IndiceTarefas[quantidade];
+        Ajudante[] equipe = new Ajudante[quantidade];
+        for (int r = 0; r < quantidade; r++) {
+            novas[r] = new IndiceTarefas((inicioSolos[r + 1] - inicioSolos[r]) * SLOTS_POR_SOLO
+                                         + inicioCercados[r + 1] - inicioCercados[r]);
+            equipe[r] = new Ajudante(r);
         }
+        regioes = novas;
+        ajudantes = equipe;
+        concessoes = quantidade > 1 ? new TabelaConcessoes(quantidadeSolos + quantidadeCercados) : null;
+        relogio = 0;
+        status = null;
+        slotDoStatus = -1;
+        ocupadosDoStatus = -1;
+    }
+    
+    /** Região do elemento i entre 'total' divididos como em montarEquipe */
+    private int regiao(int i, int total) {
+        return regioes.length == 1 ? 0 : (int) (((long) (i + 1) * regioes.length - 1) / total);
+    }
+    
+    private int slotBaseDoSolo(int regiao, int i) {
+        return (i - inicioSolos[regiao]) * SLOTS_POR_SOLO;
+    }
+    
+    private int slotDoCercado(int regiao, int i) {
+        return (inicioSolos[regiao + 1] - inicioSolos[regiao]) * SLOTS_POR_SOLO + i - inicioCercados[regiao];
+    }
+    
+    // ----- LÓGICA DE DECISÃO -----
+    
+    /**
+     * Reavalia as tarefas dos solos e cercados marcados desde a última chamada.
+     * Custo O(alterados * log n) mais uma passada pelas palavras do bitmap (n/64).
+     */
+    private void atualizarIndice() {
+        boolean temEstoque = fazenda.getEstoqueFertilizante() > 0;
+        if (temEstoque != indexadoComEstoque) {
+            indexadoComEstoque = temEstoque;
+            marcarTudo();
+        }
+        if (!haAlteracoes) return;
+        haAlteracoes = false;
         
-        double valorFinal = valorBase * bonusSolo;
-        
-        // Penaliza por tempo (lucro por segundo)
-        double tempoCrescimento = vegetal.getTempoEmSegundos();
-        
-        // Aplica reduções de tempo
-        double reducaoTempo = 0;
-        if (solo.temMaquina(Maquina.IRRIGADOR)) reducaoTempo += Constantes.BONUS_IRRIGADOR_TEMPO;
-        if (solo.isFertilizanteAtivado() && fazenda.getEstoqueFertilizante() > 0) {
-            reducaoTempo += Constantes.BONUS_FERTILIZANTE_TEMPO;
+        List<Solo> solos = fazenda.getSolos();
+        for (int palavra = 0; palavra < solosAlterados.length(); palavra++) {
+            if (solosAlterados.get(palavra) == 0) continue;
+            long bits = solosAlterados.getAndSet(palavra, 0);
+            while (bits != 0) {
+                int i = (palavra << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                avaliarSolo(i, solos.get(i));
+            }
+        }
+        List<Cercado> cercados = fazenda.getCercados();
+        for (int palavra = 0; palavra < cercadosAlterados.length(); palavra++) {
+            long bits = cercadosAlterados.getAndSet(palavra, 0);
+            while (bits != 0) {
+                int i = (palavra << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                avaliarCercado(i, cercados.get(i));
+            }
+        }
+    }
+    
+    /**
+     * As três tarefas possíveis de um solo, com as mesmas regras de sempre.
+     */
+    private void avaliarSolo(int i, Solo solo) {
+        int regiao = regiao(i, quantidadeSolos);
+        IndiceTarefas indice = regioes[regiao];
+        int base = slotBaseDoSolo(regiao, i);
+        boolean desbloqueado = solo.isDesbloqueado();
+        
+        // 1. COLHEITA MANUAL: solo desbloqueado, pronto E sem trator
+        if (desbloqueado && solo.isPronto() && !solo.temMaquina(Maquina.TRATOR)) {
+            indice.definir(base + SLOT_COLHER, solo.calcularValorVenda(),
+                           Tarefa.COLHER_SOLO.ordinal(), i, -1);
+        } else {
+            indice.remover(base + SLOT_COLHER);
         }
-        reducaoTempo += (solo.getNivel() - 1) * Constantes.BONUS_SOLO_NV_CRESCIMENTO;
         
-        tempoCrescimento *= (1.0 - Math.min(reducaoTempo, 0.9));
+        // 2. PLANTIO MANUAL: solo desbloqueado, vazio E sem arador,
+        // com o vegetal mais lucrativo que o solo suporta (consulta à TabelaLucro)
+        Vegetal melhorVegetal = null;
+        int nivel = 0;
+        boolean irrigador = false, fertilizante = false;
+        if (desbloqueado && !solo.isOcupado() && !solo.temMaquina(Maquina.ARADOR)) {
+            nivel = solo.getNivel();
+            irrigador = solo.temMaquina(Maquina.IRRIGADOR);
+            fertilizante = solo.isFertilizanteAtivado() && indexadoComEstoque;
+            melhorVegetal = TabelaLucro.getMelhorVegetal(nivel, irrigador, fertilizante);
+        }
+        if (melhorVegetal != null) {
+            indice.definir(base + SLOT_PLANTAR, TabelaLucro.getLucroPorSegundo(melhorVegetal, nivel, irrigador, fertilizante),
+                           Tarefa.PLANTAR_SOLO.ordinal(), i, melhorVegetal.ordinal());
+        } else {
+            indice.remover(base + SLOT_PLANTAR);
+        }
         
-        // Lucro por segundo (quanto maior, melhor)
-        return valorFinal / tempoCrescimento;
+        // 3. APLICAÇÃO DE FERTILIZANTE: com estoque, solo ocupado, fertilizante ativado
+        // e ainda não aplicado, se a planta vale a pena (ex: Abóbora ou Cenoura)
+        double valorFertilizante = 0;
+        if (indexadoComEstoque && desbloqueado && solo.isOcupado()
+                && solo.isFertilizanteAtivado() && !solo.isEstaComFertilizanteAplicado()) {
+            long beneficio = Dinheiro.multiplicar(solo.getVegetal().getValorVendaCentavos(),
+                                                  Constantes.BONUS_FERTILIZANTE_VALOR_PB); // +50%
+            // Só aplica se o benefício for maior que o custo
+            if (beneficio > Constantes.CUSTO_FERTILIZANTE_UNIDADE_CENTAVOS) {
+                valorFertilizante = Dinheiro.paraReais(beneficio - Constantes.CUSTO_FERTILIZANTE_UNIDADE_CENTAVOS);
+            }
+        }
+        if (valorFertilizante > 0) {
+            indice.definir(base + SLOT_FERTILIZAR, valorFertilizante,
+                           Tarefa.APLICAR_FERTILIZANTE.ordinal(), i, -1);
+        } else {
+            indice.remover(base + SLOT_FERTILIZAR);
+        }
+    }
+    
+    /**
+     * COLETA DE ANIMAIS (sempre manual)
+     */
+    private void avaliarCercado(int i, Cercado cercado) {
+        int regiao = regiao(i, quantidadeCercados);
+        IndiceTarefas indice = regioes[regiao];
+        int slot = slotDoCercado(regiao, i);
+        if (cercado.isProdutoPronto()) {
+            double valorEsperado = cercado.getEspecie().getProdutoValor() * cercado.getQuantidade();
+            indice.definir(slot, valorEsperado, Tarefa.COLETAR_ANIMAIS.ordinal(), i, -1);
+        } else {
+            indice.remover(slot);
+        }
+    }
+    
+    private void marcarTudo() {
+        for (int palavra = 0; palavra < solosAlterados.length(); palavra++) {
+            solosAlterados.set(palavra, mascaraPalavra(palavra, quantidadeSolos));
+        }
+        for (int palavra = 0; palavra < cercadosAlterados.length(); palavra++) {
+            cercadosAlterados.set(palavra, mascaraPalavra(palavra, quantidadeCercados));
+        }
+        haAlteracoes = true;
+    }
+    
+    private static long mascaraPalavra(int palavra, int quantidade) {
+        int resto = quantidade - (palavra << 6);
+        return resto >= 64 ? -1L : (1L << resto) - 1;
+    }
+    
+    private void marcar(AtomicLongArray alterados, int id, int quantidade) {
+        if (id < 0 || id >= quantidade) return; // Solo avulso, fora desta fazenda
+        int palavra = id >>> 6;
+        long bit = 1L << id;
+        if ((alterados.get(palavra) & bit) == 0) {
+            alterados.getAndAccumulate(palavra, bit, (atual, novo) -> atual | novo);
+        }
+        haAlteracoes = true;
+    }
+    
+    /**
+     * Monta a Decisao da tarefa do topo (a descrição só é montada para a escolhida).
+     */
+    private Decisao decisaoDoTopo(IndiceTarefas indice) {
+        Tarefa tipo = Tarefa.values()[indice.getTarefaTopo()];
+        int alvo = indice.getAlvoTopo();
+        int vegetal = indice.getVegetalTopo();
+        return new Decisao(tipo, alvo, vegetal < 0 ? null : Vegetal.values()[vegetal],
+                           indice.getValorTopo(), descrever(tipo, alvo, vegetal));
+    }
+    
+    private String descrever(Tarefa tipo, int alvo, int vegetal) {
+        switch (tipo) {
+            case COLHER_SOLO:
+                return "Colher " + fazenda.getSolos().get(alvo).getVegetal().getNome() + " no Solo " + (alvo+1);
+            case PLANTAR_SOLO:
+                return "Plantar " + Vegetal.values()[vegetal].getNome() + " no Solo " + (alvo+1);
+            case COLETAR_ANIMAIS: {
+                Cercado cercado = fazenda.getCercados().get(alvo);
+                return "Coletar " + cercado.getEspecie().getProduto() + 
+                       " do Cercado " + (alvo+1) + " (" + cercado.getQuantidade() + " animais)";
+            }
+            case APLICAR_FERTILIZANTE:
+                return "Aplicar fertilizante em " + fazenda.getSolos().get(alvo).getVegetal().getNome() + 
+                       " no Solo " + (alvo+1) + " (+" + (int)(Constantes.BONUS_FERTILIZANTE_VALOR*100) + "%)";
+            default:
+                return tipo.name();
+        }
     }
     
     // ----- EXECUÇÃO DE DECISÕES -----
@@ -339,8 +734,7 @@ public class PersonagemIA {
         Solo solo = fazenda.getSolos().get(soloId);
         if (!solo.isDesbloqueado() || !solo.isPronto()) return false;
         
-        double valor = solo.colher();
-        fazenda.ganharDinheiro(valor);
+        fazenda.ganharCentavos(solo.colherCentavos());
         
         // Atualiza último vegetal plantado (para arador)
         if (solo.getVegetal() != null) {
@@ -376,9 +770,9 @@ public class PersonagemIA {
         Cercado cercado = fazenda.getCercados().get(cercadoId);
         if (!cercado.isProdutoPronto()) return false;
         
-        double valor = cercado.coletarProdutos();
-        fazenda.ganharDinheiro(valor);
-        return valor > 0;
+        long centavos = cercado.coletarProdutosCentavos();
+        fazenda.ganharCentavos(centavos);
+        return centavos > 0;
     }
     
     private boolean executarAplicacaoFertilizante(int soloId) {
@@ -396,19 +790,136 @@ public class PersonagemIA {
         this.priorizarLucroImediato = priorizar;
     }
     
+    /**
+     * Quantas tarefas a IA pode executar por intervalo (1 = uma, como sempre). Com mais,
+     * esvazia acúmulos (ex.: depois de uma pausa ou de dias offline) sem reavaliar a
+     * fazenda a cada ação. Não vale com planejador nem com vários ajudantes, que seguem
+     * uma ação por intervalo cada.
+     */
+    public void setAcoesPorCiclo(int acoes) {
+        if (acoes < 1) {
+            throw new IllegalArgumentException("Ações por ciclo deve ser >= 1: " + acoes);
+        }
+        this.acoesPorCiclo = acoes;
+    }
+    
+    public int getAcoesPorCiclo() {
+        return acoesPorCiclo;
+    }
+    
+    /**
+     * Troca a regra gulosa por um planejador (null volta para a gulosa).
+     */
+    public void setPlanejador(Planejador planejador) {
+        this.planejador = planejador;
+    }
+    
+    /**
+     * Só vale com um ajudante: com vários, cada um segue a regra gulosa na sua região.
+     */
+    public Planejador getPlanejador() {
+        return planejador;
+    }
+    
+    public void setSilenciosa(boolean silenciosa) {
+        this.silenciosa = silenciosa;
+    }
+    
+    /**
+     * Última decisão executada com sucesso (null se nenhuma)
+     */
+    public Decisao getUltimaDecisao() {
+        return ultimaDecisao;
+    }
+    
+    /**
+     * Ações executadas no último atualizar(), na ordem (uma por ajudante, ou até
+     * getAcoesPorCiclo() com um só).
+     */
+    public List<Decisao> getDecisoesDoCiclo() {
+        return decisoesDoCicloLeitura;
+    }
+    
+    /**
+     * Vezes em que, no último atualizar(), um ajudante achou o melhor alvo reservado por outro.
+     */
+    public int getConflitosDoCiclo() {
+        return conflitosDoCiclo;
+    }
+    
+    /**
+     * Troca a quantidade de ajudantes (1 = a IA de sempre). Desfaz as reservas e zera as
+     * estatísticas. Pela thread do loop (ou antes de ele começar).
+     */
+    public void setAjudantes(int quantidade) {
+        if (quantidade < 1 || quantidade > MAXIMO_AJUDANTES) {
+            throw new IllegalArgumentException(
+                "Quantidade de ajudantes fora de 1.." + MAXIMO_AJUDANTES + ": " + quantidade);
+        }
+        montarEquipe(quantidade);
+        if (ativo) {
+            marcarTudo();
+        }
+    }
+    
+    public int getAjudantes() {
+        return ajudantes.length;
+    }
+    
+    /**
+     * Pode ser lido de qualquer thread (os números podem estar um tick atrasados).
+     */
+    public List<EstatisticasAjudante> getEstatisticasAjudantes() {
+        List<EstatisticasAjudante> lista = new ArrayList<>();
+        for (Ajudante a : ajudantes) {
+            lista.add(new EstatisticasAjudante(a.id, a.acoes, a.falhas, a.roubos, a.conflitos,
+                                               a.segundos, a.segundosOcioso));
+        }
+        return lista;
+    }
+    
+    /**
+     * Quantas tarefas possíveis estão no índice (inclui a próxima).
+     */
     public int getTarefasPendentes() {
-        return filaTarefas.size();
+        int total = 0;
+        for (IndiceTarefas indice : regioes) {
+            total += indice.getTamanho();
+        }
+        return total;
     }
     
+    /**
+     * Só pela thread que roda a IA (de fora, use GameLoop.getStatusIA).
+     */
     public String getStatus() {
         if (!ativo) return "INATIVO";
         
-        if (filaTarefas.isEmpty()) {
+        if (ajudantes.length > 1) {
+            int ocupados = 0;
+            for (Ajudante ajudante : ajudantes) {
+                if (ajudante.decisao != null) ocupados++;
+            }
+            int pendentes = getTarefasPendentes();
+            if (status == null || ocupados != ocupadosDoStatus || pendentes != pendentesDoStatus) {
+                ocupadosDoStatus = ocupados;
+                pendentesDoStatus = pendentes;
+                status = String.format("ATIVO - %d ajudantes (%d trabalhando), %d tarefas na fila",
+                    ajudantes.length, ocupados, pendentes);
+            }
+            return status;
+        }
+        IndiceTarefas indice = regioes[0];
+        if (indice.isVazio()) {
             return "ATIVO - Aguardando tarefas...";
-        } else {
-            Decisao proxima = filaTarefas.peek();
-            return String.format("ATIVO - Próxima: %s (Lucro: R$%.2f)", 
-                proxima.descricao, proxima.valorEsperado);
         }
+        if (status == null || indice.getSlotTopo() != slotDoStatus || indice.getValorTopo() != valorDoStatus) {
+            slotDoStatus = indice.getSlotTopo();
+            valorDoStatus = indice.getValorTopo();
+            status = String.format("ATIVO - Próxima: %s (Lucro: R$%.2f)", 
+                descrever(Tarefa.values()[indice.getTarefaTopo()], indice.getAlvoTopo(), indice.getVegetalTopo()),
+                valorDoStatus);
+        }
+        return status;
     }
 }
\ No newline at end of file
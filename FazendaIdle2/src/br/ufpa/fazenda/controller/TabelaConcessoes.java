@@ -0,0 +1,69 @@
+package br.ufpa.fazenda.controller;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concessões ("leases") dos alvos entre os ajudantes da IA: quem reivindica um solo ou
+ * cercado fica com ele até liberar (depois de agir) ou até a concessão vencer, e nenhum
+ * outro ajudante o escolhe enquanto isso. Sem ela, dois ajudantes andariam até o mesmo
+ * solo pronto e um deles perderia a viagem.
+ *
+ * Alvo: o id do solo, ou quantidadeSolos + id do cercado. Dono e vencimento ficam na
+ * mesma palavra, trocada por CAS, então a tabela vale também para ajudantes em threads
+ * diferentes (hoje todos rodam na thread do loop, em ordem).
+ */
+class TabelaConcessoes {
+
+    /** Ids de ajudante cabem nos bits baixos da palavra (0 = livre) */
+    static final int MAXIMO_AJUDANTES = 0xFFFE;
+
+    private static final int BITS_DONO = 16;
+    private static final long MASCARA_DONO = (1L << BITS_DONO) - 1;
+    private static final long LIVRE = 0;
+
+    // (vencimento em ms de jogo << BITS_DONO) | (ajudante + 1)
+    private final AtomicLongArray concessao;
+
+    TabelaConcessoes(int quantidadeAlvos) {
+        concessao = new AtomicLongArray(quantidadeAlvos);
+    }
+
+    /**
+     * O alvo está livre para este ajudante? (ninguém tem, já é dele, ou a concessão venceu)
+     */
+    boolean isLivre(int alvo, int ajudante, long agoraMs) {
+        return livre(concessao.get(alvo), ajudante, agoraMs);
+    }
+
+    /**
+     * Fica com o alvo até agoraMs + validadeMs (renova, se já era dele).
+     * @return false se outro ajudante tem uma concessão válida (ou ganhou a corrida)
+     */
+    boolean reivindicar(int alvo, int ajudante, long agoraMs, long validadeMs) {
+        long atual = concessao.get(alvo);
+        if (!livre(atual, ajudante, agoraMs)) return false;
+        return concessao.compareAndSet(alvo, atual, ((agoraMs + validadeMs) << BITS_DONO) | (ajudante + 1));
+    }
+
+    /**
+     * Devolve o alvo (só se ainda é deste ajudante).
+     */
+    void liberar(int alvo, int ajudante) {
+        long atual = concessao.get(alvo);
+        if ((atual & MASCARA_DONO) == ajudante + 1) {
+            concessao.compareAndSet(alvo, atual, LIVRE);
+        }
+    }
+
+    void limpar() {
+        for (int i = 0; i < concessao.length(); i++) {
+            concessao.set(i, LIVRE);
+        }
+    }
+
+    private static boolean livre(long atual, int ajudante, long agoraMs) {
+        return atual == LIVRE
+            || (atual & MASCARA_DONO) == ajudante + 1
+            || (atual >>> BITS_DONO) <= agoraMs;
+    }
+}
@@ -0,0 +1,322 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.model.Cercado;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.ObservadorEstado;
+import br.ufpa.fazenda.model.Solo;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Agenda de prontidão: em vez de varrer todos os solos a cada quadro, guarda em um
+ * min-heap o instante em que cada solo/cercado "fica pronto" e só entrega os vencidos.
+ *
+ * Funcionamento:
+ * 1. Quando um solo/cercado muda (plantou, colheu, ganhou máquina...), ele entra na lista de pendentes
+ * 2. processarPendentes() recalcula o instante de prontidão de cada pendente e o coloca no heap
+ * 3. retirarVencido() devolve o próximo item cujo instante já passou (O(log n) por item)
+ *
+ * O progresso dos solos e cercados só é materializado quando necessário (antes de uma
+ * mudança, ao vencer ou em sincronizarTodos()), por isso o custo por quadro é O(vencidos).
+ * Entradas antigas são descartadas pela versão (Solo.getVersao / Cercado.getVersao).
+ */
+public class AgendaProntidao implements ObservadorEstado {
+
+    /** Retornado por retirarVencido() quando não há nada vencido */
+    public static final int NENHUM = Integer.MIN_VALUE;
+
+    private final FazendaEstado fazenda;
+
+    // Relógio da simulação (segundos de jogo desde a criação da agenda)
+    private double agora = 0.0;
+
+    // Instante da última sincronização de cada entidade
+    private double[] sincronizadoSolo = new double[16];
+    private double[] sincronizadoCercado = new double[4];
+
+    // Heap de (instante, chave, versão) em arrays paralelos, sem alocação por entrada.
+    // Chave >= 0 é um solo; chave < 0 é um cercado (~id).
+    private double[] heapInstante = new double[64];
+    private int[] heapChave = new int[64];
+    private int[] heapVersao = new int[64];
+    private int tamanhoHeap = 0;
+
+    // Pendentes de reagendamento (pilha + marcação para não repetir)
+    private int[] pendentes = new int[64];
+    private int quantidadePendentes = 0;
+    private boolean[] pendenteSolo = new boolean[16];
+    private boolean[] pendenteCercado = new boolean[4];
+
+    public AgendaProntidao(FazendaEstado fazenda) {
+        this.fazenda = fazenda;
+    }
+
+    // --- Chaves ---
+
+    public static boolean isCercado(int chave) {
+        return chave < 0;
+    }
+
+    public static int getId(int chave) {
+        return chave < 0 ? ~chave : chave;
+    }
+
+    // --- Relógio ---
+
+    public synchronized void avancarRelogio(double delta) {
+        agora += delta;
+    }
+
+    public synchronized double getAgora() {
+        return agora;
+    }
+
+    // --- Observação (chamado pelos solos/cercados) ---
+
+    @Override
+    public synchronized void antesDeMudarSolo(Solo solo) {
+        sincronizar(solo);
+    }
+
+    @Override
+    public synchronized void aoMudarSolo(Solo solo) {
+        marcarPendente(solo.getId());
+    }
+
+    @Override
+    public synchronized void antesDeMudarCercado(Cercado cercado) {
+        sincronizar(cercado);
+    }
+
+    @Override
+    public synchronized void aoMudarCercado(Cercado cercado) {
+        marcarPendente(~cercado.getId());
+    }
+
+    // --- Agendamento ---
+
+    /**
+     * Coloca todos os solos e cercados como pendentes (usado ao ligar a agenda).
+     */
+    public synchronized void agendarTodos() {
+        for (Solo solo : fazenda.getSolos()) {
+            garantirCapacidadeSolo(solo.getId());
+            sincronizadoSolo[solo.getId()] = agora;
+            marcarPendente(solo.getId());
+        }
+        for (Cercado cercado : fazenda.getCercados()) {
+            garantirCapacidadeCercado(cercado.getId());
+            sincronizadoCercado[cercado.getId()] = agora;
+            marcarPendente(~cercado.getId());
+        }
+    }
+
+    /**
+     * Recalcula o instante de prontidão de tudo que mudou desde a última chamada.
+     */
+    public synchronized void processarPendentes() {
+        List<Solo> solos = fazenda.getSolos();
+        List<Cercado> cercados = fazenda.getCercados();
+
+        while (quantidadePendentes > 0) {
+            int chave = pendentes[--quantidadePendentes];
+            if (isCercado(chave)) {
+                pendenteCercado[~chave] = false;
+                agendar(cercados.get(~chave));
+            } else {
+                pendenteSolo[chave] = false;
+                agendar(solos.get(chave));
+            }
+        }
+    }
+
+    /**
+     * Retira o próximo solo/cercado cujo instante de prontidão já passou,
+     * já com o progresso sincronizado até agora.
+     * @return chave do item (ver isCercado/getId) ou NENHUM
+     */
+    public synchronized int retirarVencido() {
+        while (tamanhoHeap > 0 && heapInstante[0] <= agora) {
+            int chave = heapChave[0];
+            int versao = heapVersao[0];
+            removerTopo();
+
+            if (isCercado(chave)) {
+                Cercado cercado = fazenda.getCercados().get(~chave);
+                if (cercado.getVersao() != versao) continue; // Entrada antiga
+                sincronizar(cercado);
+                if (!cercado.isProdutoPronto()) {
+                    // Arredondamento: ainda falta um pouquinho, tenta no próximo quadro
+                    inserir(Math.nextUp(agora), chave, cercado.getVersao());
+                    continue;
+                }
+            } else {
+                Solo solo = fazenda.getSolos().get(chave);
+                if (solo.getVersao() != versao) continue; // Entrada antiga
+                sincronizar(solo);
+                if (solo.isOcupado() && !solo.isPronto()) {
+                    // Arredondamento: ainda falta um pouquinho, tenta no próximo quadro
+                    inserir(Math.nextUp(agora), chave, solo.getVersao());
+                    continue;
+                }
+            }
+            return chave;
+        }
+        return NENHUM;
+    }
+
+    /**
+     * Traz o progresso de todos os solos e cercados até o instante atual.
+     * Custa O(solos); use para leitura completa do estado (ex.: tela de status, salvar).
+     */
+    public synchronized void sincronizarTodos() {
+        for (Solo solo : fazenda.getSolos()) {
+            sincronizar(solo);
+        }
+        for (Cercado cercado : fazenda.getCercados()) {
+            sincronizar(cercado);
+        }
+    }
+
+    public synchronized int getTamanho() {
+        return tamanhoHeap;
+    }
+
+    // --- Cálculo dos instantes ---
+
+    private void agendar(Solo solo) {
+        if (!solo.isDesbloqueado()) return;
+
+        double instante;
+        if (solo.isOcupado() && !solo.isPronto()) {
+            // Crescendo: vence quando o progresso chegar a 1.0
+            instante = agora + (1.0 - solo.getProgresso()) * solo.getTempoCrescimentoEfetivo();
+        } else if (solo.isPronto() && solo.temMaquina(Maquina.TRATOR)) {
+            instante = agora; // Trator colhe já
+        } else if (!solo.isOcupado() && solo.temMaquina(Maquina.ARADOR)
+                   && fazenda.getUltimoVegetalPlantado() != null) {
+            instante = agora; // Arador planta já
+        } else {
+            return; // Nada vai acontecer sozinho até a próxima mudança
+        }
+        inserir(instante, solo.getId(), solo.getVersao());
+    }
+
+    private void agendar(Cercado cercado) {
+        if (cercado.isVazio() || cercado.isProdutoPronto()) return; // Coleta é manual
+
+        double tempoProducao = cercado.getEspecie().getTempoProducaoSegundos();
+        double instante = agora + (1.0 - cercado.getProgresso()) * tempoProducao;
+        inserir(instante, ~cercado.getId(), cercado.getVersao());
+    }
+
+    private void sincronizar(Solo solo) {
+        int id = solo.getId();
+        garantirCapacidadeSolo(id);
+        double decorrido = agora - sincronizadoSolo[id];
+        sincronizadoSolo[id] = agora;
+        if (decorrido > 0) {
+            solo.atualizarTempo(decorrido);
+        }
+    }
+
+    private void sincronizar(Cercado cercado) {
+        int id = cercado.getId();
+        garantirCapacidadeCercado(id);
+        double decorrido = agora - sincronizadoCercado[id];
+        sincronizadoCercado[id] = agora;
+        if (decorrido > 0) {
+            cercado.atualizarTempo(decorrido);
+        }
+    }
+
+    private void marcarPendente(int chave) {
+        if (isCercado(chave)) {
+            garantirCapacidadeCercado(~chave);
+            if (pendenteCercado[~chave]) return;
+            pendenteCercado[~chave] = true;
+        } else {
+            garantirCapacidadeSolo(chave);
+            if (pendenteSolo[chave]) return;
+            pendenteSolo[chave] = true;
+        }
+        if (quantidadePendentes == pendentes.length) {
+            pendentes = Arrays.copyOf(pendentes, pendentes.length * 2);
+        }
+        pendentes[quantidadePendentes++] = chave;
+    }
+
+    private void garantirCapacidadeSolo(int id) {
+        if (id >= sincronizadoSolo.length) {
+            int novo = Math.max(id + 1, sincronizadoSolo.length * 2);
+            double[] sincronizado = Arrays.copyOf(sincronizadoSolo, novo);
+            // Solos novos começam sincronizados no instante atual
+            Arrays.fill(sincronizado, sincronizadoSolo.length, novo, agora);
+            sincronizadoSolo = sincronizado;
+            pendenteSolo = Arrays.copyOf(pendenteSolo, novo);
+        }
+    }
+
+    private void garantirCapacidadeCercado(int id) {
+        if (id >= sincronizadoCercado.length) {
+            int novo = Math.max(id + 1, sincronizadoCercado.length * 2);
+            double[] sincronizado = Arrays.copyOf(sincronizadoCercado, novo);
+            Arrays.fill(sincronizado, sincronizadoCercado.length, novo, agora);
+            sincronizadoCercado = sincronizado;
+            pendenteCercado = Arrays.copyOf(pendenteCercado, novo);
+        }
+    }
+
+    // --- Min-heap binário ---
+
+    private void inserir(double instante, int chave, int versao) {
+        if (tamanhoHeap == heapInstante.length) {
+            int novo = heapInstante.length * 2;
+            heapInstante = Arrays.copyOf(heapInstante, novo);
+            heapChave = Arrays.copyOf(heapChave, novo);
+            heapVersao = Arrays.copyOf(heapVersao, novo);
+        }
+        int i = tamanhoHeap++;
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (heapInstante[pai] <= instante) break;
+            mover(pai, i);
+            i = pai;
+        }
+        heapInstante[i] = instante;
+        heapChave[i] = chave;
+        heapVersao[i] = versao;
+    }
+
+    private void removerTopo() {
+        int ultimo = --tamanhoHeap;
+        if (ultimo == 0) return;
+
+        double instante = heapInstante[ultimo];
+        int chave = heapChave[ultimo];
+        int versao = heapVersao[ultimo];
+
+        int i = 0;
+        int metade = ultimo >>> 1;
+        while (i < metade) {
+            int filho = 2 * i + 1;
+            int direito = filho + 1;
+            if (direito < ultimo && heapInstante[direito] < heapInstante[filho]) {
+                filho = direito;
+            }
+            if (instante <= heapInstante[filho]) break;
+            mover(filho, i);
+            i = filho;
+        }
+        heapInstante[i] = instante;
+        heapChave[i] = chave;
+        heapVersao[i] = versao;
+    }
+
+    private void mover(int de, int para) {
+        heapInstante[para] = heapInstante[de];
+        heapChave[para] = heapChave[de];
+        heapVersao[para] = heapVersao[de];
+    }
+}
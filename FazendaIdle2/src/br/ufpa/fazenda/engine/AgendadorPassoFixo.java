@@ -0,0 +1,104 @@
+package br.ufpa.fazenda.engine;
+
+/**
+ * Agendador de passo fixo para o GameLoop.
+ *
+ * Funcionamento:
+ * 1. Mede o tempo real com relógio monotônico (System.nanoTime)
+ * 2. Acumula o tempo passado e o converte em passos de simulação de tamanho fixo
+ * 3. Limita quantos passos podem ser recuperados por quadro (evita a "espiral da morte")
+ * 4. Expõe o fator de interpolação (alfa) entre o último passo e o próximo, para a renderização
+ */
+public class AgendadorPassoFixo {
+
+    private final long passoNanos;
+    private final double passoSegundos;
+    private final int maxPassosPorQuadro;
+
+    // Controle de tempo
+    private long ultimoInstante;
+    private long acumuladorNanos;
+    private boolean iniciado = false;
+
+    // Estatísticas
+    private long passosExecutados = 0;
+    private long passosDescartados = 0;
+
+    public AgendadorPassoFixo(double passoSegundos, int maxPassosPorQuadro) {
+        if (passoSegundos <= 0) {
+            throw new IllegalArgumentException("Passo deve ser positivo: " + passoSegundos);
+        }
+        if (maxPassosPorQuadro < 1) {
+            throw new IllegalArgumentException("Máximo de passos por quadro deve ser >= 1: " + maxPassosPorQuadro);
+        }
+        this.passoSegundos = passoSegundos;
+        this.passoNanos = Math.round(passoSegundos * 1_000_000_000L);
+        this.maxPassosPorQuadro = maxPassosPorQuadro;
+    }
+
+    /**
+     * Zera o acumulador e passa a medir o tempo a partir de agora.
+     */
+    public void reiniciar(long agoraNanos) {
+        this.ultimoInstante = agoraNanos;
+        this.acumuladorNanos = 0;
+        this.iniciado = true;
+    }
+
+    /**
+     * Calcula quantos passos fixos devem ser simulados neste quadro.
+     * Se o atraso for maior que o limite, o excesso é descartado (o jogo "desacelera"
+     * em vez de tentar recuperar tudo de uma vez).
+     * @param agoraNanos Instante atual (System.nanoTime)
+     * @return Número de passos a executar (0 a maxPassosPorQuadro)
+     */
+    public int calcularPassos(long agoraNanos) {
+        if (!iniciado) {
+            reiniciar(agoraNanos);
+            return 0;
+        }
+
+        long decorrido = agoraNanos - ultimoInstante;
+        ultimoInstante = agoraNanos;
+        if (decorrido > 0) {
+            acumuladorNanos += decorrido;
+        }
+
+        long passos = acumuladorNanos / passoNanos;
+        if (passos > maxPassosPorQuadro) {
+            passosDescartados += passos - maxPassosPorQuadro;
+            passos = maxPassosPorQuadro;
+            // Mantém apenas a fração do passo atual para a interpolação
+            acumuladorNanos = acumuladorNanos % passoNanos;
+        } else {
+            acumuladorNanos -= passos * passoNanos;
+        }
+
+        passosExecutados += passos;
+        return (int) passos;
+    }
+
+    /**
+     * Quanto falta (em nanossegundos) para o próximo passo ficar disponível.
+     */
+    public long nanosAteProximoPasso(long agoraNanos) {
+        long pendente = acumuladorNanos + (agoraNanos - ultimoInstante);
+        long falta = passoNanos - pendente;
+        return Math.max(0, falta);
+    }
+
+    /**
+     * Fração (0.0 a 1.0) do próximo passo que já se passou.
+     * A interface pode usar para interpolar entre o estado anterior e o próximo.
+     */
+    public double getAlfa() {
+        return (double) acumuladorNanos / passoNanos;
+    }
+
+    // --- Getters ---
+    public double getPassoSegundos() { return passoSegundos; }
+    public long getPassoNanos() { return passoNanos; }
+    public int getMaxPassosPorQuadro() { return maxPassosPorQuadro; }
+    public long getPassosExecutados() { return passosExecutados; }
+    public long getPassosDescartados() { return passosDescartados; }
+}
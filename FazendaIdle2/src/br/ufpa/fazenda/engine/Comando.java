@@ -0,0 +1,68 @@
+package br.ufpa.fazenda.engine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Um pedido de mudança na fazenda, aplicado pela thread do GameLoop no início de um tick.
+ *
+ * Quem envia recebe o resultado pelo future (true = deu certo). Comandos que rendem
+ * dinheiro (COLHER, COLETAR_CERCADO) também informam o valor em getValor(), que já
+ * está preenchido quando o future completa.
+ */
+public class Comando {
+
+    private final TipoComando tipo;
+    private final int arg1;
+    private final int arg2;
+    private final CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+    private double valor;
+
+    public Comando(TipoComando tipo, int arg1, int arg2) {
+        if (tipo == null) {
+            throw new IllegalArgumentException("Tipo de comando é obrigatório");
+        }
+        this.tipo = tipo;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+    }
+
+    public Comando(TipoComando tipo, int arg1) {
+        this(tipo, arg1, 0);
+    }
+
+    public Comando(TipoComando tipo) {
+        this(tipo, 0, 0);
+    }
+
+    // Chamado pela thread do loop
+    void concluir(boolean sucesso, double valorObtido) {
+        this.valor = valorObtido;
+        resultado.complete(sucesso);
+    }
+
+    void falhar(Throwable erro) {
+        resultado.completeExceptionally(erro);
+    }
+
+    public TipoComando getTipo() { return tipo; }
+    public int getArg1() { return arg1; }
+    public int getArg2() { return arg2; }
+    public CompletableFuture<Boolean> getResultado() { return resultado; }
+
+    /**
+     * Dinheiro obtido (só COLHER e COLETAR_CERCADO). Leia depois do future completar.
+     */
+    public double getValor() { return valor; }
+
+    /**
+     * Espera o loop aplicar o comando e devolve se deu certo.
+     */
+    public boolean aguardar() {
+        return resultado.join();
+    }
+
+    @Override
+    public String toString() {
+        return tipo + "(" + arg1 + ", " + arg2 + ")";
+    }
+}
@@ -0,0 +1,387 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.model.Solo;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entrega os eventos do motor em uma thread própria, para que uma tela lenta
+ * (println, setText, repaint...) nunca segure o tick da simulação.
+ *
+ * É um GerenciadorEventos "de fachada": o GameLoop chama os métodos normalmente, eles só
+ * colocam o evento em um anel (buffer circular) limitado, sem travas, e a thread
+ * consumidora repassa para o ouvinte real na mesma ordem.
+ *
+ * Quando o anel enche, vale a política escolhida:
+ * - DESCARTAR: o evento novo é jogado fora (e contado)
+ * - COALESCER: HUD, alfa e solos alterados não usam o anel; só o último valor (ou a união
+ *              dos solos) fica guardado e é entregue quando der. Mensagens que não couberem
+ *              são descartadas
+ * - BLOQUEAR:  quem publica espera abrir espaço (a simulação desacelera junto com a tela)
+ *
+ * No modo COALESCER os eventos de estado podem chegar fora de ordem em relação às mensagens.
+ *
+ * A thread consumidora nunca lê a fazenda: aoAtualizarSolo entrega uma cópia do solo
+ * feita na hora do aviso (Solo.copiar, pela thread do loop), e aoAtualizarSolos só
+ * os ids (o destino lê os valores de GameLoop.getFotografia()).
+ */
+public class DespachanteEventos implements GerenciadorEventos {
+
+    public enum PoliticaTransbordo {
+        DESCARTAR,
+        COALESCER,
+        BLOQUEAR
+    }
+
+    // Tipos de entrada do anel
+    private static final int MENSAGEM = 0;
+    private static final int EVENTO = 1;
+    private static final int SOLO = 2;
+    private static final int SOLOS = 3;
+    private static final int STATUS = 4;
+    private static final int ALFA = 5;
+
+    private final GerenciadorEventos destino;
+    private final PoliticaTransbordo politica;
+
+    // --- Anel (vários produtores, um consumidor) ---
+    // Cada posição tem um número de sequência: igual à cauda = livre para escrever,
+    // cauda + 1 = publicado para ler. Os campos do evento ficam em arrays paralelos.
+    private final int capacidade;
+    private final int mascara;
+    private final AtomicLongArray sequencia;
+    private final int[] tipo;
+    private final int[] inteiro1;
+    private final int[] inteiro2;
+    private final double[] decimal;
+    private final Object[] referencia;
+    private final AtomicLong cauda = new AtomicLong(); // Próxima posição de escrita
+    private volatile long cabeca = 0;                  // Próxima posição de leitura (só o consumidor escreve)
+
+    // --- Caixas do modo COALESCER (só guardam o último valor) ---
+    private final Object travaCaixas = new Object();
+    private boolean statusPendente;
+    private double statusDinheiro;
+    private int statusDia;
+    private int statusFertilizante;
+    private boolean alfaPendente;
+    private double alfa;
+    private final BitSet solosPendentes = new BitSet();
+    private final Map<Integer, Solo> copiasPendentes = new HashMap<>(); // Último aviso de cada solo
+    private final BitSet solosEntrega = new BitSet(); // Cópia entregue (só o consumidor usa)
+    private final Map<Integer, Solo> copiasEntrega = new HashMap<>(); // Idem
+
+    // --- Contadores ---
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong coalescidos = new AtomicLong();
+    private final AtomicLong entregues = new AtomicLong();
+
+    // --- Thread consumidora ---
+    private volatile Thread consumidor; // Criada em iniciar() (null antes: unpark ignora)
+    private volatile boolean rodando = true;
+    private volatile boolean dormindo = false;
+
+    public DespachanteEventos(GerenciadorEventos destino, PoliticaTransbordo politica) {
+        this(destino, politica, 1024);
+    }
+
+    /**
+     * @param capacidade tamanho do anel (arredondado para potência de 2)
+     */
+    public DespachanteEventos(GerenciadorEventos destino, PoliticaTransbordo politica, int capacidade) {
+        if (destino == null || politica == null) {
+            throw new IllegalArgumentException("Destino e política são obrigatórios");
+        }
+        if (capacidade < 2) {
+            throw new IllegalArgumentException("Capacidade mínima é 2: " + capacidade);
+        }
+        this.destino = destino;
+        this.politica = politica;
+        this.capacidade = Integer.highestOneBit(capacidade - 1) << 1;
+        this.mascara = this.capacidade - 1;
+        this.sequencia = new AtomicLongArray(this.capacidade);
+        for (int i = 0; i < this.capacidade; i++) {
+            sequencia.set(i, i);
+        }
+        this.tipo = new int[this.capacidade];
+        this.inteiro1 = new int[this.capacidade];
+        this.inteiro2 = new int[this.capacidade];
+        this.decimal = new double[this.capacidade];
+        this.referencia = new Object[this.capacidade];
+    }
+
+    public void iniciar() {
+        if (consumidor != null) {
+            throw new IllegalStateException("Despachante já iniciado");
+        }
+        Thread thread = new Thread(this::consumir, "despachante-eventos");
+        thread.setDaemon(true);
+        consumidor = thread;
+        thread.start();
+    }
+
+    /**
+     * Para a thread consumidora depois de entregar o que já estava na fila.
+     */
+    public void encerrar() {
+        rodando = false;
+        LockSupport.unpark(consumidor);
+    }
+
+    // --- Lado do motor (produtores) ---
+
+    @Override
+    public void aoAtualizarStatusFazenda(double dinheiro, int dia, int estoqueFertilizante) {
+        if (politica == PoliticaTransbordo.COALESCER) {
+            synchronized (travaCaixas) {
+                if (statusPendente) coalescidos.incrementAndGet();
+                statusPendente = true;
+                statusDinheiro = dinheiro;
+                statusDia = dia;
+                statusFertilizante = estoqueFertilizante;
+            }
+            acordarConsumidor();
+            return;
+        }
+        publicar(STATUS, dia, estoqueFertilizante, dinheiro, null);
+    }
+
+    @Override
+    public void aoAtualizarSolo(Solo solo) {
+        Solo copia = solo.copiar(); // A visão lê os arrays que o próximo tick altera
+        if (politica == PoliticaTransbordo.COALESCER) {
+            marcarSolos(null, copia);
+            return;
+        }
+        publicar(SOLO, solo.getId(), 0, 0.0, copia);
+    }
+
+    @Override
+    public double getTaxaEntregaSolosHz() {
+        return destino.getTaxaEntregaSolosHz();
+    }
+
+    @Override
+    public void aoAtualizarSolos(BitSet alterados) {
+        if (politica == PoliticaTransbordo.COALESCER) {
+            marcarSolos(alterados, null);
+            return;
+        }
+        publicar(SOLOS, 0, 0, 0.0, alterados.clone()); // O BitSet do motor não pode ser guardado
+    }
+
+    @Override
+    public void aoNotificarEvento(String mensagem) {
+        publicar(MENSAGEM, 0, 0, 0.0, mensagem);
+    }
+
+    @Override
+    public void aoEventoJogo(TipoEvento tipoEvento, int alvoId, int ordinal, double valor) {
+        publicar(EVENTO, alvoId, ordinal, valor, tipoEvento);
+    }
+
+    @Override
+    public void aoInterpolarQuadro(double alfaQuadro) {
+        if (politica == PoliticaTransbordo.COALESCER) {
+            synchronized (travaCaixas) {
+                if (alfaPendente) coalescidos.incrementAndGet();
+                alfaPendente = true;
+                alfa = alfaQuadro;
+            }
+            acordarConsumidor();
+            return;
+        }
+        publicar(ALFA, 0, 0, alfaQuadro, null);
+    }
+
+    private void marcarSolos(BitSet alterados, Solo copia) {
+        synchronized (travaCaixas) {
+            if (!solosPendentes.isEmpty()) coalescidos.incrementAndGet();
+            if (alterados != null) {
+                solosPendentes.or(alterados);
+            } else {
+                solosPendentes.set(copia.getId());
+                copiasPendentes.put(copia.getId(), copia);
+            }
+        }
+        acordarConsumidor();
+    }
+
+    /**
+     * Coloca um evento no anel, aplicando a política se estiver cheio.
+     */
+    private void publicar(int tipoEntrada, int valor1, int valor2, double valorDecimal, Object ref) {
+        while (!tentarPublicar(tipoEntrada, valor1, valor2, valorDecimal, ref)) {
+            if (politica != PoliticaTransbordo.BLOQUEAR || !rodando) {
+                descartados.incrementAndGet();
+                return;
+            }
+            // BLOQUEAR: espera o consumidor abrir espaço
+            acordarConsumidor();
+            LockSupport.parkNanos(50_000);
+        }
+        acordarConsumidor();
+    }
+
+    private boolean tentarPublicar(int tipoEntrada, int valor1, int valor2, double valorDecimal, Object ref) {
+        long posicao = cauda.get();
+        while (true) {
+            int i = (int) (posicao & mascara);
+            long diferenca = sequencia.get(i) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    tipo[i] = tipoEntrada;
+                    inteiro1[i] = valor1;
+                    inteiro2[i] = valor2;
+                    decimal[i] = valorDecimal;
+                    referencia[i] = ref;
+                    sequencia.set(i, posicao + 1); // Publica (escrita volatile)
+                    return true;
+                }
+                posicao = cauda.get(); // Outro produtor pegou a posição
+            } else if (diferenca < 0) {
+                return false; // Cheio: o consumidor ainda não liberou esta posição
+            } else {
+                posicao = cauda.get();
+            }
+        }
+    }
+
+    private void acordarConsumidor() {
+        if (dormindo) {
+            LockSupport.unpark(consumidor);
+        }
+    }
+
+    // --- Lado da tela (consumidor) ---
+
+    private void consumir() {
+        while (true) {
+            boolean entregou = entregarAnel();
+            entregou |= entregarCaixas();
+            if (entregou) continue;
+
+            if (!rodando) break;
+
+            // Nada a fazer: dorme até um produtor acordar (ou por segurança, 10 ms)
+            dormindo = true;
+            if (getProfundidadeFila() == 0 && !temCaixaPendente()) {
+                LockSupport.parkNanos(10_000_000L);
+            }
+            dormindo = false;
+        }
+    }
+
+    private boolean entregarAnel() {
+        boolean entregou = false;
+        long posicao = cabeca;
+        while (true) {
+            int i = (int) (posicao & mascara);
+            if (sequencia.get(i) != posicao + 1) break; // Vazio (ou ainda sendo escrito)
+
+            int tipoEntrada = tipo[i];
+            int valor1 = inteiro1[i];
+            int valor2 = inteiro2[i];
+            double valorDecimal = decimal[i];
+            Object ref = referencia[i];
+            referencia[i] = null;
+            sequencia.set(i, posicao + capacidade); // Libera a posição para a próxima volta
+            posicao++;
+            cabeca = posicao;
+
+            entregar(tipoEntrada, valor1, valor2, valorDecimal, ref);
+            entregou = true;
+        }
+        return entregou;
+    }
+
+    private void entregar(int tipoEntrada, int valor1, int valor2, double valorDecimal, Object ref) {
+        try {
+            switch (tipoEntrada) {
+                case MENSAGEM: destino.aoNotificarEvento((String) ref); break;
+                case EVENTO:   destino.aoEventoJogo((TipoEvento) ref, valor1, valor2, valorDecimal); break;
+                case SOLO:     destino.aoAtualizarSolo((Solo) ref); break;
+                case SOLOS:    destino.aoAtualizarSolos((BitSet) ref); break;
+                case STATUS:   destino.aoAtualizarStatusFazenda(valorDecimal, valor1, valor2); break;
+                case ALFA:     destino.aoInterpolarQuadro(valorDecimal); break;
+                default: break;
+            }
+            entregues.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Um erro na tela não pode matar a entrega dos próximos eventos
+            e.printStackTrace();
+        }
+    }
+
+    private boolean temCaixaPendente() {
+        synchronized (travaCaixas) {
+            return statusPendente || alfaPendente || !solosPendentes.isEmpty();
+        }
+    }
+
+    private boolean entregarCaixas() {
+        boolean temStatus, temAlfa;
+        double dinheiro = 0.0, alfaAtual = 0.0;
+        int dia = 0, fertilizante = 0;
+        synchronized (travaCaixas) {
+            temStatus = statusPendente;
+            temAlfa = alfaPendente;
+            if (temStatus) {
+                dinheiro = statusDinheiro;
+                dia = statusDia;
+                fertilizante = statusFertilizante;
+                statusPendente = false;
+            }
+            if (temAlfa) {
+                alfaAtual = alfa;
+                alfaPendente = false;
+            }
+            solosEntrega.clear();
+            solosEntrega.or(solosPendentes);
+            solosPendentes.clear();
+            copiasEntrega.clear();
+            copiasEntrega.putAll(copiasPendentes);
+            copiasPendentes.clear();
+        }
+
+        boolean temSolos = !solosEntrega.isEmpty();
+        if (temSolos) {
+            if (destino.getTaxaEntregaSolosHz() > 0) {
+                entregar(SOLOS, 0, 0, 0.0, solosEntrega);
+            } else {
+                // Sem lote o motor avisa solo a solo, então cada id tem a sua cópia
+                for (int i = solosEntrega.nextSetBit(0); i >= 0; i = solosEntrega.nextSetBit(i + 1)) {
+                    Solo copia = copiasEntrega.get(i);
+                    if (copia != null) {
+                        entregar(SOLO, i, 0, 0.0, copia);
+                    }
+                }
+            }
+        }
+        if (temStatus) {
+            entregar(STATUS, dia, fertilizante, dinheiro, null);
+        }
+        if (temAlfa) {
+            entregar(ALFA, 0, 0, alfaAtual, null);
+        }
+        return temStatus || temAlfa || temSolos;
+    }
+
+    // --- Métricas ---
+
+    /** Eventos no anel esperando entrega */
+    public int getProfundidadeFila() {
+        return (int) Math.max(0, cauda.get() - cabeca);
+    }
+
+    public int getCapacidade() { return capacidade; }
+    public long getDescartados() { return descartados.get(); }
+    public long getCoalescidos() { return coalescidos.get(); }
+    public long getEntregues() { return entregues.get(); }
+    public PoliticaTransbordo getPolitica() { return politica; }
+    public GerenciadorEventos getDestino() { return destino; }
+}
@@ -0,0 +1,358 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.model.AlteracoesFazenda;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.persistencia.ArquivoFazenda;
+import br.ufpa.fazenda.persistencia.DiarioComandos;
+import br.ufpa.fazenda.persistencia.SalvamentoIncremental;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Durabilidade de um GameLoop: salvamento incremental em segundo plano, diário de
+ * comandos/decisões da IA entre um salvamento e outro, e a recuperação que repete o
+ * diário sobre o último checkpoint.
+ *
+ * O loop só agenda: chama os ganchos do tick (registrar*, concluirTick e, na
+ * repetição, aplicarComandosRepetidos/repetirDecisoesIA) pela própria thread, e os
+ * métodos públicos dele (usarSalvamentoAutomatico, usarDiario, recuperar...) delegam
+ * para cá. A gravação roda numa thread própria, como antes.
+ */
+final class Durabilidade {
+
+    private final GameLoop loop;
+    private final FazendaEstado fazenda;
+
+    private SalvamentoIncremental salvamento;
+    private DiarioComandos diario;
+    private int ticksEntreCheckpoints;
+    private ExecutorService executorCheckpoint;
+    private final AtomicBoolean checkpointEmAndamento = new AtomicBoolean();
+    private final AtomicReference<CompletableFuture<Long>> checkpointPedido = new AtomicReference<>();
+    private volatile long ultimoCheckpoint = -1;
+    private volatile boolean baseCompletaPendente; // Uma gravação falhou: a próxima grava tudo
+
+    // Registros do diário do tick sendo repetido (só durante recuperar(); null no jogo normal)
+    private List<DiarioComandos.Registro> registrosDoPasso;
+
+    Durabilidade(GameLoop loop) {
+        this.loop = loop;
+        this.fazenda = loop.getFazenda();
+    }
+
+    // --- Ligar ---
+
+    /**
+     * Ver GameLoop.usarSalvamentoAutomatico.
+     */
+    void usarSalvamentoAutomatico(Path arquivo, int ticksEntreSalvamentos) throws IOException {
+        if (ticksEntreSalvamentos < 1) {
+            throw new IllegalArgumentException("Intervalo de salvamentos deve ser >= 1: " + ticksEntreSalvamentos);
+        }
+        if (salvamento != null) return;
+
+        // Base inicial síncrona: inclui o que foi mudado direto na fazenda antes do loop
+        loop.publicarFotografia();
+        fazenda.descartarAlteracoes();
+        SalvamentoIncremental novo = new SalvamentoIncremental(arquivo);
+        novo.gravarCompleto(loop.getFotografia());
+        ultimoCheckpoint = loop.getTick();
+
+        this.salvamento = novo;
+        this.ticksEntreCheckpoints = ticksEntreSalvamentos;
+        this.executorCheckpoint = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread t = new Thread(tarefa, "checkpoint-fazenda");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Ver GameLoop.usarDiario.
+     */
+    void usarDiario(Path arquivoCheckpoint, Path pastaDiario, long intervaloCommitMillis,
+                    int ticksEntreCheckpoints) throws IOException {
+        if (!loop.isPassoFixo()) {
+            throw new IllegalStateException("O diário precisa do passo fixo para a repetição ser igual");
+        }
+        if (loop.isAgendaProntidaoAtiva()) {
+            throw new IllegalStateException("O diário não funciona com a agenda de prontidão: a repetição seria diferente");
+        }
+        if (diario != null) return;
+        if (salvamento != null) {
+            // O diário precisa começar junto com uma base nova
+            throw new IllegalStateException("Ligue o diário no lugar de usarSalvamentoAutomatico, não depois");
+        }
+        usarSalvamentoAutomatico(arquivoCheckpoint, ticksEntreCheckpoints);
+
+        long tick = loop.getTick();
+        this.diario = new DiarioComandos(pastaDiario, tick, intervaloCommitMillis);
+        diario.descartarSegmentosAntes(tick);
+        registrarEstadoIA(tick);
+    }
+
+    // --- Recuperação ---
+
+    /**
+     * Ver GameLoop.recuperar.
+     */
+    long recuperar(Path arquivoCheckpoint, Path pastaDiario) throws IOException {
+        if (diario != null || loop.isAgendaProntidaoAtiva()) {
+            throw new IllegalStateException("Recupere antes de ligar o diário ou a agenda");
+        }
+        if (Files.exists(arquivoCheckpoint)) {
+            ArquivoFazenda.Cabecalho cabecalho = ArquivoFazenda.carregar(arquivoCheckpoint, fazenda);
+            loop.restaurarRelogios(cabecalho.getTick(), cabecalho.getTempoNoDia(), cabecalho.getTempoAnimais());
+        }
+        long inicio = loop.getTick();
+
+        List<DiarioComandos.Registro> registros = DiarioComandos.ler(pastaDiario, inicio);
+        // Só vale o que uma marca confirma (marca M: os ticks < M terminaram). Depois da
+        // última pode haver só parte de um tick (commit cortado na queda), e repeti-lo pela
+        // metade daria um estado que o jogo nunca teve
+        long confirmado = inicio;
+        for (DiarioComandos.Registro registro : registros) {
+            if (registro.getOrigem() == DiarioComandos.ORIGEM_MARCA) {
+                confirmado = Math.max(confirmado, registro.getTick());
+            }
+        }
+        List<DiarioComandos.Registro> doPasso = new ArrayList<>();
+        GerenciadorEventos ouvinteOriginal = loop.trocarOuvinte(null);
+        try {
+            double passo = loop.getAgendador().getPassoSegundos();
+            for (DiarioComandos.Registro registro : registros) {
+                if (registro.getOrigem() == DiarioComandos.ORIGEM_MARCA || registro.getTick() >= confirmado) {
+                    continue;
+                }
+                // Comando/decisão do tick t: roda até chegar em t
+                while (loop.getTick() < registro.getTick()) {
+                    repetirPasso(passo, doPasso);
+                }
+                doPasso.add(registro);
+            }
+            while (loop.getTick() < confirmado) {
+                repetirPasso(passo, doPasso);
+            }
+            // Os modos pedidos depois (ex.: a IA ligada no início do segmento) continuam
+            // valendo no próximo tick; eles não mexem na fazenda
+            for (DiarioComandos.Registro registro : registros) {
+                if (registro.getTick() >= confirmado && registro.getOrigem() == DiarioComandos.ORIGEM_COMANDO
+                        && (registro.getTipo() == TipoComando.ATIVAR_IA.ordinal()
+                            || registro.getTipo() == TipoComando.AJUDANTES_IA.ordinal())) {
+                    loop.aplicarComando(new Comando(TipoComando.values()[registro.getTipo()],
+                                                    registro.getArg1(), registro.getArg2()));
+                }
+            }
+        } finally {
+            loop.trocarOuvinte(ouvinteOriginal);
+        }
+        loop.publicarFotografia();
+        return loop.getTick() - inicio;
+    }
+
+    private void repetirPasso(double passo, List<DiarioComandos.Registro> doPasso) {
+        registrosDoPasso = doPasso;
+        try {
+            loop.atualizarJogo(passo);
+        } finally {
+            registrosDoPasso = null;
+            doPasso.clear();
+        }
+    }
+
+    /**
+     * O tick em andamento é uma repetição do diário (no lugar da fila e da IA).
+     */
+    boolean isRepetindo() {
+        return registrosDoPasso != null;
+    }
+
+    void aplicarComandosRepetidos() {
+        TipoComando[] tipos = TipoComando.values();
+        for (DiarioComandos.Registro registro : registrosDoPasso) {
+            if (registro.getOrigem() == DiarioComandos.ORIGEM_COMANDO) {
+                try {
+                    loop.aplicarComando(new Comando(tipos[registro.getTipo()], registro.getArg1(), registro.getArg2()));
+                } catch (RuntimeException e) {
+                    // Falhou igual no jogo original: segue a repetição
+                }
+            }
+        }
+    }
+
+    void repetirDecisoesIA(double delta) {
+        PersonagemIA personagemIA = loop.getPersonagemIA();
+        personagemIA.avancarTempoSemAgir(delta);
+        PersonagemIA.Tarefa[] tarefas = PersonagemIA.Tarefa.values();
+        Vegetal[] vegetais = Vegetal.values();
+        for (DiarioComandos.Registro registro : registrosDoPasso) {
+            if (registro.getOrigem() == DiarioComandos.ORIGEM_IA) {
+                int vegetal = registro.getArg2();
+                PersonagemIA.Tarefa tarefa = tarefas[registro.getTipo()];
+                MetricasTick m = loop.getMetricas();
+                if (personagemIA.repetirDecisao(tarefa, registro.getArg1(),
+                                                vegetal < 0 ? null : vegetais[vegetal]) && m != null) {
+                    GameLoop.contarAcaoIA(m, tarefa);
+                }
+            }
+        }
+    }
+
+    // --- Ganchos do tick (thread do loop) ---
+
+    void registrarComando(long tick, Comando comando) {
+        if (diario != null) {
+            diario.registrar(tick, DiarioComandos.ORIGEM_COMANDO, comando.getTipo().ordinal(),
+                             comando.getArg1(), comando.getArg2());
+        }
+    }
+
+    void registrarDecisaoIA(long tick, PersonagemIA.Decisao decisao) {
+        if (diario != null) {
+            diario.registrar(tick, DiarioComandos.ORIGEM_IA, decisao.tipo.ordinal(), decisao.alvoId,
+                             decisao.vegetal == null ? -1 : decisao.vegetal.ordinal());
+        }
+    }
+
+    /**
+     * Fim do tick 'tick' (já contado e com a fotografia publicada, se era a vez dela):
+     * marca o tick no diário e, se for a hora ou houver um pedido, começa um checkpoint.
+     */
+    void concluirTick(long tick) {
+        if (diario != null) {
+            diario.marcarTickConcluido(tick);
+        }
+        if (salvamento != null) {
+            CompletableFuture<Long> pedido = checkpointPedido.get();
+            if ((tick % ticksEntreCheckpoints == 0 || pedido != null) && iniciarCheckpoint(tick)) {
+                checkpointPedido.compareAndSet(pedido, null);
+                agendarGravacao(tick, pedido);
+            }
+        }
+    }
+
+    // --- Checkpoints ---
+
+    /**
+     * Ver GameLoop.salvarAgora.
+     */
+    CompletableFuture<Long> salvarAgora() {
+        if (salvamento == null) {
+            throw new IllegalStateException("Salvamento automático desligado (ver usarSalvamentoAutomatico)");
+        }
+        CompletableFuture<Long> novo = new CompletableFuture<>();
+        CompletableFuture<Long> atual = checkpointPedido.compareAndExchange(null, novo);
+        return atual != null ? atual : novo;
+    }
+
+    long getUltimoCheckpoint() {
+        return ultimoCheckpoint;
+    }
+
+    DiarioComandos getDiario() {
+        return diario;
+    }
+
+    /**
+     * Ver GameLoop.encerrarDiario.
+     */
+    void encerrar() {
+        if (salvamento == null) return;
+        try {
+            executorCheckpoint.shutdown();
+            executorCheckpoint.awaitTermination(30, TimeUnit.SECONDS);
+            if (diario != null) diario.fechar();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o diário: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Abre um segmento novo do diário na fronteira deste tick.
+     * @return false se o salvamento anterior ainda está gravando (tenta de novo depois;
+     *         as marcas de alteração continuam acumulando até lá)
+     */
+    private boolean iniciarCheckpoint(long tick) {
+        if (!checkpointEmAndamento.compareAndSet(false, true)) {
+            return false;
+        }
+        if (diario != null) {
+            diario.iniciarSegmento(tick);
+            registrarEstadoIA(tick);
+        }
+        return true;
+    }
+
+    /**
+     * Copia, nesta thread e na fronteira do tick, o que precisa ser gravado (só as
+     * alterações, ou a fotografia inteira quando é hora de compactar ou a gravação anterior
+     * falhou) e grava em outra thread; só depois apaga os segmentos antigos do diário.
+     */
+    private void agendarGravacao(long tickGravado, CompletableFuture<Long> pedido) {
+        boolean fotografiaAtrasada = loop.getFotografia().getTick() != tickGravado;
+        Gravacao gravacao;
+        if (baseCompletaPendente || salvamento.precisaCompactar()) {
+            baseCompletaPendente = false;
+            if (fotografiaAtrasada) {
+                loop.publicarFotografia();
+            }
+            FotografiaFazenda foto = loop.getFotografia();
+            fazenda.descartarAlteracoes();
+            gravacao = () -> salvamento.gravarCompleto(foto);
+        } else {
+            if (fotografiaAtrasada) {
+                loop.sincronizarProgresso(); // Com a agenda, materializa o progresso (e as marcas) dos solos
+            }
+            AlteracoesFazenda alteracoes = fazenda.coletarAlteracoes(tickGravado, loop.getTempoNoDia(),
+                                                                     loop.getTempoAnimais());
+            gravacao = () -> salvamento.acrescentar(alteracoes);
+        }
+
+        executorCheckpoint.execute(() -> {
+            try {
+                gravacao.gravar();
+                if (diario != null) diario.descartarSegmentosAntes(tickGravado);
+                ultimoCheckpoint = tickGravado;
+                if (pedido != null) pedido.complete(tickGravado);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Erro ao gravar checkpoint: " + e.getMessage());
+                baseCompletaPendente = true; // As marcas já foram limpas: só a base inteira recupera
+                if (pedido != null) pedido.completeExceptionally(e);
+            } finally {
+                checkpointEmAndamento.set(false);
+            }
+        });
+    }
+
+    private interface Gravacao {
+        void gravar() throws IOException;
+    }
+
+    /**
+     * O modo IA não está no checkpoint: cada segmento começa dizendo se ele está ligado.
+     */
+    private void registrarEstadoIA(long tick) {
+        PersonagemIA personagemIA = loop.getPersonagemIA();
+        if (personagemIA.getAjudantes() > 1) {
+            diario.registrar(tick, DiarioComandos.ORIGEM_COMANDO, TipoComando.AJUDANTES_IA.ordinal(),
+                             personagemIA.getAjudantes(), 0);
+        }
+        if (loop.isIAActivo()) {
+            diario.registrar(tick, DiarioComandos.ORIGEM_COMANDO, TipoComando.ATIVAR_IA.ordinal(), 1, 0);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package br.ufpa.fazenda.engine;
 
 import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.model.ArmazenamentoSolos;
 import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.FotografiaFazenda;
 import br.ufpa.fazenda.model.Maquina;
 import br.ufpa.fazenda.model.Solo;
 import br.ufpa.fazenda.model.Vegetal;
 import br.ufpa.fazenda.model.Cercado;
 import br.ufpa.fazenda.model.Animal;
+import br.ufpa.fazenda.persistencia.DiarioComandos;
 import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.JMException;
 
 public class GameLoop extends Thread {
     
-    private boolean rodando = true;
+    private volatile boolean rodando = true;
     private final FazendaEstado fazenda;
     private GerenciadorEventos ouvinte; // A tela da Enya
     
@@ -19,29 +33,117 @@ public class GameLoop extends Thread {
     private long ultimaAtualizacao;
     private double acumuladorTempoDia = 0.0;
     
+    // Passo fixo (relógio monotônico + acumulador)
+    private boolean passoFixo = true;
+    private final AgendadorPassoFixo agendador = new AgendadorPassoFixo(
+        Constantes.PASSO_SIMULACAO_SEGUNDOS, Constantes.MAX_PASSOS_POR_QUADRO);
+    
     // Controle de tempo para animais
     private double acumuladorTempoAnimal = 0.0;
     private static final double INTERVALO_ANIMAL = 0.5; // Atualizar animais a cada 0.5s
     
+    // Partições do tick (montadas sob demanda) e pool do tick paralelo (null = sequencial)
+    private ParticaoTick[] particoes;
+    private int particoesSolos, particoesCercados;
+    private ParticaoTick particaoAgenda;
+    private ForkJoinPool poolParticoes;
+    
+    // Solos alterados ainda não entregues à tela (modo em lote)
+    private final BitSet solosSujos = new BitSet();
+    private long ultimaEntregaSolos;
+    
+    // Agenda de prontidão (opcional): só processa solos/cercados que venceram
+    private AgendaProntidao agenda;
+    
+    // Fotografia do estado publicada a cada tick (leitura sem travas por outras threads)
+    private volatile FotografiaFazenda fotografia;
+    private volatile String statusIA = "INATIVO"; // PersonagemIA.getStatus() do mesmo tick
+    private long tick = 0;
+    private int intervaloFotografia = 1; // Publica a cada N ticks
+    
+    // Comandos de outras threads (console, tela), aplicados só por esta thread no início do tick
+    private final ConcurrentLinkedQueue<Comando> filaComandos = new ConcurrentLinkedQueue<>();
+    
+    // Durabilidade (opcional): salvamento incremental em segundo plano e diário de
+    // comandos/decisões da IA entre um salvamento e outro. null = nada é gravado
+    private Durabilidade durabilidade;
+    
+    // Instrumentação do tick (opcional, ver usarMetricas): null = nada é medido
+    private volatile MetricasTick metricas;
+    private boolean medindo;          // metricas != null neste tick (lido pelas partições)
+    private long nanosNotificacao;    // Avisos à tela somados ao longo do tick
+    
     // Sistema de IA do Personagem
     private PersonagemIA personagemIA;
-    private boolean modoIAActivo = false;
+    private volatile boolean modoIAActivo = false; // Lido também pela API (isIAActivo)
+    private PlanejadorIA planejador; // null = IA gulosa
+    private boolean hospedado; // Roda numa rodada do HospedeiroFazendas (ver marcarHospedado)
     
     public GameLoop(GerenciadorEventos ouvinte) {
-        this.fazenda = FazendaEstado.getInstance();
+        this(FazendaEstado.getInstance(), ouvinte);
+    }
+    
+    public GameLoop(FazendaEstado fazenda, GerenciadorEventos ouvinte) {
+        this.fazenda = fazenda;
         this.ouvinte = ouvinte;
         this.personagemIA = new PersonagemIA(fazenda);
-        this.ultimaAtualizacao = System.currentTimeMillis();
+        this.ultimaAtualizacao = System.nanoTime();
+        this.fotografia = fazenda.fotografar(0, 0.0, 0.0);
     }
     
     @Override
     public void run() {
+        try {
+            if (passoFixo) {
+                executarPassoFixo();
+            } else {
+                executarPassoVariavel();
+            }
+        } finally {
+            encerrarDiario();
+        }
+    }
+    
+    /**
+     * Modo padrão: a simulação sempre avança em passos de PASSO_SIMULACAO_SEGUNDOS.
+     * Um quadro lento gera mais passos (até MAX_PASSOS_POR_QUADRO), nunca um delta gigante.
+     */
+    private void executarPassoFixo() {
+        agendador.reiniciar(System.nanoTime());
+        double passo = agendador.getPassoSegundos();
+        
+        while (rodando) {
+            int passos = agendador.calcularPassos(System.nanoTime());
+            for (int i = 0; i < passos; i++) {
+                atualizarJogo(passo);
+            }
+            entregarSolosEmLote(System.nanoTime());
+            
+            // Avisa a tela quanto do próximo passo já passou (para interpolar animações)
+            if (ouvinte != null) {
+                ouvinte.aoInterpolarQuadro(agendador.getAlfa());
+            }
+            
+            // Dorme só o necessário até o próximo passo
+            long espera = agendador.nanosAteProximoPasso(System.nanoTime());
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+        }
+    }
+    
+    /**
+     * Modo antigo: delta variável medido entre quadros (aprox. 60 FPS).
+     */
+    private void executarPassoVariavel() {
+        ultimaAtualizacao = System.nanoTime();
         while (rodando) {
-            long agora = System.currentTimeMillis();
-            double deltaSegundos = (agora - ultimaAtualizacao) / 1000.0;
+            long agora = System.nanoTime();
+            double deltaSegundos = (agora - ultimaAtualizacao) / 1_000_000_000.0;
             ultimaAtualizacao = agora;
             
             atualizarJogo(deltaSegundos);
+            entregarSolosEmLote(agora);
             
             try {
                 // Dorme um pouco para não fritar o processador (aprox. 60 FPS)
@@ -52,7 +154,29 @@ public class GameLoop extends Thread {
         }
     }
     
-    private void atualizarJogo(double delta) {
+    /**
+     * Avança a simulação em 'delta' segundos de jogo.
+     * Visível no pacote para o SimuladorHeadless (e o BenchGameLoop, em bench/) poderem
+     * chamar sem a thread.
+     */
+    void atualizarJogo(double delta) {
+        // Sem métricas nenhum relógio é lido: só o teste de null abaixo
+        MetricasTick m = metricas;
+        medindo = m != null;
+        long inicio = medindo ? System.nanoTime() : 0;
+        long marca = inicio;
+        nanosNotificacao = 0;
+        Durabilidade d = durabilidade;
+        boolean repetindo = d != null && d.isRepetindo();
+        
+        // 0. Aplicar os comandos pedidos desde o último tick (ou os do diário, na recuperação)
+        if (repetindo) {
+            d.aplicarComandosRepetidos();
+        } else {
+            aplicarComandosPendentes();
+        }
+        if (medindo) marca = medir(m, MetricasTick.Fase.COMANDOS, marca);
+        
         // 1. Atualizar Ciclo do Dia
         acumuladorTempoDia += delta;
         if (acumuladorTempoDia >= Constantes.SEGUNDOS_POR_DIA) {
@@ -60,55 +184,47 @@ public class GameLoop extends Thread {
             fazenda.avancarDia();
             // Notifica a tela que o dia mudou
             if (ouvinte != null) {
-                ouvinte.aoNotificarEvento("Um novo dia começou! (Dia " + fazenda.getDiaAtual() + ")" +
-                                          " Custo de manutenção aplicado.");
+                ouvinte.aoEventoJogo(TipoEvento.NOVO_DIA, fazenda.getDiaAtual(), -1, 0.0);
+                if (medindo) m.contar(MetricasTick.Contador.NOTIFICACOES, 1);
             }
         }
+        if (medindo) marca = medir(m, MetricasTick.Fase.DIA, marca);
         
-        // 2. Atualizar cada Solo (Crescimento e Automação) - apenas solos desbloqueados
-        for (Solo solo : fazenda.getSolos()) {
-            // Ignorar solos bloqueados
-            if (!solo.isDesbloqueado()) continue;
-            
-            boolean houveMudanca = false;
-            
-            // A. Crescimento
-            if (solo.isOcupado() && !solo.isPronto()) {
-                solo.atualizarTempo(delta);
-                houveMudanca = true; // O progresso mudou, precisa redesenhar
-            }
-            
-            // B. Automação (A mágica dos robôs)
-            if (processarAutomacao(solo)) {
-                houveMudanca = true;
-            }
-            
-            // Se algo mudou, avisa a tela para redesenhar ESTE solo
-            if (houveMudanca && ouvinte != null) {
-                ouvinte.aoAtualizarSolo(solo);
-            }
+        // 2 e 3. Solos e Animais: varredura completa ou só o que venceu na agenda
+        // (as fases SOLOS, CERCADOS e NOTIFICACAO são medidas lá dentro)
+        if (agenda != null) {
+            atualizarPelaAgenda(delta);
+        } else {
+            atualizarSolosEAnimais(delta);
         }
+        if (medindo) marca = System.nanoTime();
         
-        // 3. Atualizar Animais (com intervalo controlado)
-        acumuladorTempoAnimal += delta;
-        if (acumuladorTempoAnimal >= INTERVALO_ANIMAL) {
-            acumuladorTempoAnimal = 0;
-            for (Cercado cercado : fazenda.getCercados()) {
-                cercado.atualizarTempo(INTERVALO_ANIMAL);
-                if (cercado.isProdutoPronto() && ouvinte != null) {
-                    ouvinte.aoNotificarEvento(cercado.getEspecie().getNome() + 
-                                            " no cercado " + (cercado.getId() + 1) + 
-                                            " produziu " + cercado.getEspecie().getProduto() + "!");
+        // 4. Atualizar PersonagemIA (se estiver ativo)
+        if (repetindo) {
+            d.repetirDecisoesIA(delta);
+        } else if (modoIAActivo) {
+            if (personagemIA.atualizar(delta)) {
+                // Com vários ajudantes, mais de uma ação por tick (registradas na ordem)
+                for (PersonagemIA.Decisao decisao : personagemIA.getDecisoesDoCiclo()) {
+                    if (d != null) d.registrarDecisaoIA(tick, decisao);
+                    if (medindo) contarAcaoIA(m, decisao.tipo);
                 }
             }
+            if (medindo) m.contar(MetricasTick.Contador.CONFLITOS_IA, personagemIA.getConflitosDoCiclo());
         }
+        if (medindo) marca = medir(m, MetricasTick.Fase.IA, marca);
         
-        // 4. Atualizar PersonagemIA (se estiver ativo)
-        if (modoIAActivo) {
-            personagemIA.atualizar(delta);
+        // 5. Publicar a fotografia do fim do tick (e o checkpoint, se for a hora)
+        tick++;
+        if (tick % intervaloFotografia == 0) {
+            publicarFotografia();
+        }
+        if (d != null) {
+            d.concluirTick(tick);
         }
+        if (medindo) marca = medir(m, MetricasTick.Fase.FOTOGRAFIA, marca);
         
-        // 5. Atualizar HUD Geral (sempre bom garantir)
+        // 6. Atualizar HUD Geral (sempre bom garantir)
         if (ouvinte != null) {
             ouvinte.aoAtualizarStatusFazenda(
                 fazenda.getDinheiro(), 
@@ -116,57 +232,603 @@ public class GameLoop extends Thread {
                 fazenda.getEstoqueFertilizante()
             );
         }
+        
+        if (medindo) {
+            long fim = System.nanoTime();
+            if (ouvinte != null) m.contar(MetricasTick.Contador.NOTIFICACOES, 1);
+            m.registrar(MetricasTick.Fase.NOTIFICACAO, nanosNotificacao + (fim - marca));
+            m.fecharTick(inicio, fim);
+        }
+    }
+    
+    /**
+     * Registra o tempo desde 'marca' na fase e devolve o instante atual (a próxima marca).
+     */
+    private static long medir(MetricasTick m, MetricasTick.Fase fase, long marca) {
+        long agora = System.nanoTime();
+        m.registrar(fase, agora - marca);
+        return agora;
+    }
+    
+    static void contarAcaoIA(MetricasTick m, PersonagemIA.Tarefa tarefa) {
+        m.contar(MetricasTick.Contador.ACOES_IA, 1);
+        if (tarefa == PersonagemIA.Tarefa.COLHER_SOLO) {
+            m.contar(MetricasTick.Contador.COLHEITAS, 1);
+        } else if (tarefa == PersonagemIA.Tarefa.PLANTAR_SOLO) {
+            m.contar(MetricasTick.Contador.PLANTIOS, 1);
+        }
+    }
+    
+    /**
+     * Etapas 2 e 3 em varredura completa, fatiada em partições (ver ParticaoTick).
+     * Com o tick paralelo ligado as partições rodam no ForkJoinPool; senão, em sequência
+     * nesta thread. Nos dois casos a consolidação é igual e na ordem dos índices,
+     * então o resultado é idêntico.
+     */
+    private void atualizarSolosEAnimais(double delta) {
+        // Animais só avançam a cada INTERVALO_ANIMAL
+        acumuladorTempoAnimal += delta;
+        boolean atualizarAnimais = acumuladorTempoAnimal >= INTERVALO_ANIMAL;
+        if (atualizarAnimais) {
+            acumuladorTempoAnimal = 0;
+        }
+        
+        // Lido uma vez por tick: as partições não leem o estado global da fazenda
+        Vegetal replantio = fazenda.getUltimoVegetalPlantado();
+        
+        ParticaoTick[] particoes = garantirParticoes();
+        if (poolParticoes != null && particoes.length > 1) {
+            poolParticoes.invoke(new TarefaParticoes(particoes, 0, particoes.length,
+                                                     delta, atualizarAnimais, replantio));
+        } else {
+            for (ParticaoTick particao : particoes) {
+                executarParticao(particao, delta, atualizarAnimais, replantio);
+            }
+        }
+        
+        // Receita das partições (soma de centavos: não depende da ordem nem das threads)
+        fazenda.consolidarReceitas();
+        MetricasTick m = metricas;
+        if (medindo && m != null) {
+            long nanosSolos = 0, nanosCercados = 0;
+            for (ParticaoTick particao : particoes) {
+                nanosSolos += particao.nanosSolos;
+                nanosCercados += particao.nanosCercados;
+                contarAutomacao(m, particao);
+            }
+            m.registrar(MetricasTick.Fase.SOLOS, nanosSolos);
+            if (atualizarAnimais) m.registrar(MetricasTick.Fase.CERCADOS, nanosCercados);
+        }
+        for (ParticaoTick particao : particoes) {
+            consolidar(particao);
+        }
+    }
+    
+    private static void contarAutomacao(MetricasTick m, ParticaoTick particao) {
+        m.contar(MetricasTick.Contador.COLHEITAS, particao.quantidadeColheitas);
+        m.contar(MetricasTick.Contador.PLANTIOS, particao.quantidadePlantios);
+    }
+    
+    /**
+     * Roda uma partição: só escreve nos solos/cercados dela e nos acumuladores dela.
+     */
+    private void executarParticao(ParticaoTick particao, double delta,
+                                  boolean atualizarAnimais, Vegetal replantio) {
+        particao.limpar();
+        long inicio = medindo ? System.nanoTime() : 0;
+        
+        // 2. Solos
+        // A. Crescimento: varredura linear nos arrays do armazenamento
+        ArmazenamentoSolos dados = fazenda.getArmazenamentoSolos();
+        dados.atualizarCrescimento(delta, particao.inicioSolos, particao.fimSolos, particao.solosAlterados);
+        
+        // B. Automação (A mágica dos robôs) - só onde Trator ou Arador tem o que fazer
+        boolean podeReplantar = replantio != null;
+        for (int i = particao.inicioSolos; i < particao.fimSolos; i++) {
+            if (dados.temAcaoAutomatica(i, podeReplantar) && processarAutomacao(dados.getSolo(i), replantio, particao)) {
+                particao.marcarSolo(i);
+            }
+        }
+        long fimSolos = medindo ? System.nanoTime() : 0;
+        particao.nanosSolos = fimSolos - inicio;
+        
+        // 3. Animais (com intervalo controlado)
+        if (atualizarAnimais) {
+            List<Cercado> cercados = fazenda.getCercados();
+            for (int i = particao.inicioCercados; i < particao.fimCercados; i++) {
+                Cercado cercado = cercados.get(i);
+                cercado.atualizarTempo(INTERVALO_ANIMAL);
+                if (cercado.isProdutoPronto()) {
+                    particao.registrarCercadoPronto(i);
+                }
+            }
+            if (medindo) particao.nanosCercados = System.nanoTime() - fimSolos;
+        }
+    }
+    
+    /**
+     * Avisa a tela do que aconteceu em uma partição (sempre nesta thread).
+     */
+    private void consolidar(ParticaoTick particao) {
+        if (ouvinte == null) return;
+        long inicio = medindo ? System.nanoTime() : 0;
+        int avisos = particao.quantidadeColheitas + particao.quantidadePlantios
+                   + particao.quantidadeCercadosProntos;
+        
+        for (int k = 0; k < particao.quantidadeColheitas; k++) {
+            ouvinte.aoEventoJogo(TipoEvento.COLHEITA_TRATOR, particao.colheitaSolo[k],
+                                 particao.colheitaVegetal[k], Dinheiro.paraReais(particao.colheitaCentavos[k]));
+        }
+        for (int k = 0; k < particao.quantidadePlantios; k++) {
+            ouvinte.aoEventoJogo(TipoEvento.PLANTIO_ARADOR, particao.plantioSolo[k],
+                                 particao.plantioVegetal[k], 0.0);
+        }
+        
+        // Avisa a tela para redesenhar cada solo alterado (ou junta para o fim do quadro)
+        List<Solo> solos = fazenda.getSolos();
+        BitSet alterados = particao.solosAlterados;
+        boolean emLote = ouvinte.getTaxaEntregaSolosHz() > 0;
+        for (int i = alterados.nextSetBit(0); i >= 0; i = alterados.nextSetBit(i + 1)) {
+            if (emLote) {
+                solosSujos.set(particao.inicioSolos + i);
+            } else {
+                ouvinte.aoAtualizarSolo(solos.get(particao.inicioSolos + i));
+                avisos++;
+            }
+        }
+        
+        for (int k = 0; k < particao.quantidadeCercadosProntos; k++) {
+            Cercado cercado = fazenda.getCercados().get(particao.cercadosProntos[k]);
+            ouvinte.aoEventoJogo(TipoEvento.PRODUCAO_CERCADO, cercado.getId(),
+                                 cercado.getEspecie().ordinal(), 0.0);
+        }
+        
+        MetricasTick m = metricas;
+        if (medindo && m != null) {
+            nanosNotificacao += System.nanoTime() - inicio;
+            m.contar(MetricasTick.Contador.NOTIFICACOES, avisos);
+        }
+    }
+    
+    /**
+     * Modo em lote: entrega de uma vez os solos alterados nos passos deste quadro,
+     * no máximo getTaxaEntregaSolosHz() vezes por segundo. Se ainda é cedo, os solos
+     * continuam acumulando (cada um aparece uma vez só, por mais que tenha mudado).
+     */
+    private void entregarSolosEmLote(long agoraNanos) {
+        if (ouvinte == null || solosSujos.isEmpty()) return;
+        
+        double taxa = ouvinte.getTaxaEntregaSolosHz();
+        if (taxa <= 0) {
+            solosSujos.clear(); // A tela voltou para o aviso solo a solo
+            return;
+        }
+        if (agoraNanos - ultimaEntregaSolos < (long) (1_000_000_000L / taxa)) return;
+        
+        ultimaEntregaSolos = agoraNanos;
+        ouvinte.aoAtualizarSolos(solosSujos);
+        solosSujos.clear();
+        MetricasTick m = metricas;
+        if (m != null) m.contar(MetricasTick.Contador.NOTIFICACOES, 1);
+    }
+    
+    /**
+     * Fatia os solos em blocos de TAMANHO_PARTICAO_SOLOS e os cercados em blocos de
+     * TAMANHO_PARTICAO_CERCADOS. O fatiamento não depende do número de threads.
+     */
+    private ParticaoTick[] garantirParticoes() {
+        int quantidadeSolos = fazenda.getSolos().size();
+        int quantidadeCercados = fazenda.getCercados().size();
+        if (particoes != null && particoesSolos == quantidadeSolos && particoesCercados == quantidadeCercados) {
+            return particoes;
+        }
+        
+        int porSolos = (quantidadeSolos + Constantes.TAMANHO_PARTICAO_SOLOS - 1) / Constantes.TAMANHO_PARTICAO_SOLOS;
+        int porCercados = (quantidadeCercados + Constantes.TAMANHO_PARTICAO_CERCADOS - 1) / Constantes.TAMANHO_PARTICAO_CERCADOS;
+        int quantidade = Math.max(1, Math.max(porSolos, porCercados));
+        
+        particoes = new ParticaoTick[quantidade];
+        for (int k = 0; k < quantidade; k++) {
+            particoes[k] = new ParticaoTick(
+                Math.min(k * Constantes.TAMANHO_PARTICAO_SOLOS, quantidadeSolos),
+                Math.min((k + 1) * Constantes.TAMANHO_PARTICAO_SOLOS, quantidadeSolos),
+                Math.min(k * Constantes.TAMANHO_PARTICAO_CERCADOS, quantidadeCercados),
+                Math.min((k + 1) * Constantes.TAMANHO_PARTICAO_CERCADOS, quantidadeCercados));
+        }
+        particoesSolos = quantidadeSolos;
+        particoesCercados = quantidadeCercados;
+        return particoes;
+    }
+    
+    /**
+     * Divide o vetor de partições ao meio até sobrar uma por tarefa.
+     */
+    private class TarefaParticoes extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient ParticaoTick[] particoes;
+        private final int de, ate;
+        private final double delta;
+        private final boolean atualizarAnimais;
+        private final Vegetal replantio;
+        
+        TarefaParticoes(ParticaoTick[] particoes, int de, int ate, double delta,
+                        boolean atualizarAnimais, Vegetal replantio) {
+            this.particoes = particoes;
+            this.de = de;
+            this.ate = ate;
+            this.delta = delta;
+            this.atualizarAnimais = atualizarAnimais;
+            this.replantio = replantio;
+        }
+        
+        @Override
+        protected void compute() {
+            if (ate - de == 1) {
+                executarParticao(particoes[de], delta, atualizarAnimais, replantio);
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new TarefaParticoes(particoes, de, meio, delta, atualizarAnimais, replantio),
+                      new TarefaParticoes(particoes, meio, ate, delta, atualizarAnimais, replantio));
+        }
+    }
+    
+    /**
+     * Versão orientada a eventos das etapas 2 e 3: só toca nos solos/cercados
+     * cujo instante de prontidão já passou (custo O(vencidos) por quadro).
+     */
+    private void atualizarPelaAgenda(double delta) {
+        long inicio = medindo ? System.nanoTime() : 0;
+        agenda.avancarRelogio(delta);
+        agenda.processarPendentes();
+        
+        // Uma única "partição" com a fazenda inteira, consolidada no fim
+        if (particaoAgenda == null
+                || particaoAgenda.fimSolos != fazenda.getSolos().size()
+                || particaoAgenda.fimCercados != fazenda.getCercados().size()) {
+            particaoAgenda = new ParticaoTick(0, fazenda.getSolos().size(), 0, fazenda.getCercados().size());
+        }
+        particaoAgenda.limpar();
+        Vegetal replantio = fazenda.getUltimoVegetalPlantado();
+        
+        int chave;
+        while ((chave = agenda.retirarVencido()) != AgendaProntidao.NENHUM) {
+            int id = AgendaProntidao.getId(chave);
+            
+            if (AgendaProntidao.isCercado(chave)) {
+                particaoAgenda.registrarCercadoPronto(id);
+            } else {
+                processarAutomacao(fazenda.getSolos().get(id), replantio, particaoAgenda);
+                particaoAgenda.marcarSolo(id);
+            }
+        }
+        
+        fazenda.consolidarReceitas();
+        MetricasTick m = metricas;
+        if (medindo && m != null) {
+            // Com a agenda não há varredura de cercados: o tempo deles entra em SOLOS
+            m.registrar(MetricasTick.Fase.SOLOS, System.nanoTime() - inicio);
+            contarAutomacao(m, particaoAgenda);
+        }
+        consolidar(particaoAgenda);
+        
+        // Reagenda o que a automação acabou de mudar
+        agenda.processarPendentes();
     }
     
     /**
      * Lógica dos Tratores e Aradores.
+     * Não mexe no saldo nem avisa a tela: a receita vai para a soma concorrente da fazenda
+     * e os avisos para a partição, e os dois são consolidados depois.
      * Retorna TRUE se alguma ação foi feita.
      */
-    private boolean processarAutomacao(Solo solo) {
+    private boolean processarAutomacao(Solo solo, Vegetal replantio, ParticaoTick particao) {
         boolean agiu = false;
         
         // TRATOR: Colhe se estiver pronto
         if (solo.temMaquina(Maquina.TRATOR) && solo.isPronto()) {
-            double valorColheita = solo.colher(); // Já inclui todos os bônus
+            Vegetal vegetalColhido = solo.getVegetal(); // Pega antes de limpar
+            long valorColheita = solo.colherCentavos(); // Já inclui todos os bônus
             
-            fazenda.ganharDinheiro(valorColheita);
+            fazenda.registrarReceitaConcorrente(valorColheita);
+            particao.registrarColheita(solo.getId(), vegetalColhido.ordinal(), valorColheita);
             agiu = true;
-            
-            if (ouvinte != null) {
-                Vegetal vegetalColhido = solo.getVegetal(); // Pega antes de limpar
-                if (vegetalColhido != null) {
-                    ouvinte.aoNotificarEvento("Trator vendeu " + vegetalColhido.getNome() + 
-                                            " por R$" + String.format("%.2f", valorColheita));
-                }
-            }
         }
         
         // ARADOR: Planta se estiver vazio
-        if (solo.temMaquina(Maquina.ARADOR) && !solo.isOcupado()) {
-            // Usa o último vegetal plantado na fazenda
-            Vegetal paraPlantar = fazenda.getUltimoVegetalPlantado();
-            
+        // Usa o último vegetal plantado na fazenda (lido no início do tick)
+        if (solo.temMaquina(Maquina.ARADOR) && !solo.isOcupado() && replantio != null) {
             // Verifica se tem dinheiro para o vegetal (simplificado)
-            // Em um sistema mais complexo, teríamos custo de sementes
-            if (paraPlantar != null) {
-                // Aplica fertilizante se estiver ativado e houver estoque
-                if (solo.isFertilizanteAtivado() && fazenda.getEstoqueFertilizante() > 0) {
-                    solo.aplicarFertilizante();
-                }
-                
-                solo.plantar(paraPlantar);
-                agiu = true;
-                
-                if (ouvinte != null) {
-                    ouvinte.aoNotificarEvento("Arador plantou " + paraPlantar.getNome() + 
-                                            " no Solo " + (solo.getId() + 1));
-                }
-            }
+            // Em um sistema mais complexo, teríamos custo de sementes.
+            // O fertilizante vem de plantar() quando está ativado no solo.
+            solo.plantar(replantio);
+            agiu = true;
+            particao.registrarPlantio(solo.getId(), replantio.ordinal());
         }
         
         return agiu;
     }
     
+    // --- Fotografia ---
+    
+    void publicarFotografia() {
+        if (agenda != null) {
+            agenda.sincronizarTodos(); // Com a agenda o progresso só é materializado sob demanda
+        }
+        fotografia = fazenda.fotografar(tick, acumuladorTempoDia, acumuladorTempoAnimal);
+        statusIA = modoIAActivo ? personagemIA.getStatus() : "INATIVO";
+    }
+    
+    /**
+     * Estado da fazenda no fim do último tick publicado (imutável).
+     * Pode ser lido de qualquer thread, sem travas.
+     */
+    public FotografiaFazenda getFotografia() {
+        return fotografia;
+    }
+    
+    /**
+     * PersonagemIA.getStatus() no fim do último tick publicado. A fila da IA só pode ser
+     * lida pela thread do loop; outras threads (API, console) leem esta cópia.
+     */
+    public String getStatusIA() {
+        return statusIA;
+    }
+    
+    /**
+     * Publica a fotografia só a cada 'ticks' ticks (padrão 1). Em fazendas muito grandes a
+     * cópia dos arrays custa O(solos), então leitores que não precisam de 60 Hz podem espaçar.
+     */
+    public void setIntervaloFotografia(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Intervalo deve ser >= 1: " + ticks);
+        }
+        this.intervaloFotografia = ticks;
+    }
+    
+    /**
+     * Quantos ticks (passos de simulação) já foram executados
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    // --- Salvamento automático, diário e checkpoints (ver Durabilidade) ---
+    
+    /**
+     * Liga o salvamento automático: grava agora o estado inteiro em 'arquivo' e, a cada
+     * 'ticksEntreSalvamentos', acrescenta a ele só o que mudou desde o salvamento anterior
+     * (solos, cercados e dados globais marcados como alterados; ver SalvamentoIncremental).
+     * As alterações são copiadas na fronteira do tick, em O(mudanças), e gravadas em outra
+     * thread: o tick não espera o disco. Chame antes de start().
+     */
+    public void usarSalvamentoAutomatico(Path arquivo, int ticksEntreSalvamentos) throws IOException {
+        durabilidade().usarSalvamentoAutomatico(arquivo, ticksEntreSalvamentos);
+    }
+    
+    /**
+     * Liga a durabilidade completa: o salvamento automático em 'arquivoCheckpoint' (cada
+     * salvamento é um checkpoint) e, entre um e outro, cada comando aplicado e cada decisão
+     * da IA no diário da pasta (group commit a cada 'intervaloCommitMillis').
+     * Uma queda perde no máximo um intervalo de commit (ver recuperar()).
+     * Exige o passo fixo e a agenda de prontidão desligada (a repetição avança tick a tick,
+     * e o progresso que a agenda materializa de uma vez sai com outros arredondamentos);
+     * chame antes de start() (e depois de recuperar(), se for o caso).
+     */
+    public void usarDiario(Path arquivoCheckpoint, Path pastaDiario, long intervaloCommitMillis,
+                           int ticksEntreCheckpoints) throws IOException {
+        durabilidade().usarDiario(arquivoCheckpoint, pastaDiario, intervaloCommitMillis, ticksEntreCheckpoints);
+    }
+    
+    /**
+     * Volta ao último estado gravado: carrega o checkpoint (se existir) e repete, passo a
+     * passo e com o mesmo passo fixo, os comandos e decisões da IA do diário a partir do
+     * tick dele, até o último tick que o diário confirma como terminado (ver
+     * DiarioComandos.ORIGEM_MARCA). Os eventos da repetição não vão para a tela.
+     * Chame antes de start() e de usarDiario(), com a agenda de prontidão desligada
+     * (o diário não a aceita).
+     * @return quantos ticks foram repetidos
+     */
+    public long recuperar(Path arquivoCheckpoint, Path pastaDiario) throws IOException {
+        return durabilidade().recuperar(arquivoCheckpoint, pastaDiario);
+    }
+    
+    /**
+     * Pede um checkpoint no fim do próximo tick (ex.: "Salvar jogo").
+     * @return completa com o tick gravado
+     */
+    public CompletableFuture<Long> salvarAgora() {
+        return durabilidade().salvarAgora();
+    }
+    
+    /**
+     * Tick do último checkpoint gravado (-1 = nenhum)
+     */
+    public long getUltimoCheckpoint() {
+        return durabilidade == null ? -1 : durabilidade.getUltimoCheckpoint();
+    }
+    
+    public DiarioComandos getDiario() {
+        return durabilidade == null ? null : durabilidade.getDiario();
+    }
+    
+    /**
+     * Espera o salvamento em andamento e grava o que falta do diário.
+     * Chamado no fim de run(); em uso sem thread (headless), chame à mão.
+     */
+    public void encerrarDiario() {
+        if (durabilidade != null) {
+            durabilidade.encerrar();
+        }
+    }
+    
+    private Durabilidade durabilidade() {
+        if (durabilidade == null) {
+            durabilidade = new Durabilidade(this);
+        }
+        return durabilidade;
+    }
+    
+    // --- Acesso da Durabilidade (mesma thread do loop) ---
+    
+    double getTempoNoDia() {
+        return acumuladorTempoDia;
+    }
+    
+    double getTempoAnimais() {
+        return acumuladorTempoAnimal;
+    }
+    
+    /**
+     * Põe o loop no tick e nos relógios de um checkpoint carregado (ver recuperar()).
+     */
+    void restaurarRelogios(long tick, double tempoNoDia, double tempoAnimais) {
+        this.tick = tick;
+        this.acumuladorTempoDia = tempoNoDia;
+        this.acumuladorTempoAnimal = tempoAnimais;
+    }
+    
+    /**
+     * Troca o ouvinte (null = ninguém) e devolve o anterior.
+     */
+    GerenciadorEventos trocarOuvinte(GerenciadorEventos novo) {
+        GerenciadorEventos anterior = ouvinte;
+        ouvinte = novo;
+        return anterior;
+    }
+    
+    private void contar(MetricasTick.Contador contador) {
+        MetricasTick m = metricas;
+        if (m != null) m.contar(contador, 1);
+    }
+    
+    // --- Comandos ---
+    
+    /**
+     * Pede uma mudança na fazenda a partir de qualquer thread.
+     * O comando entra em uma fila sem travas e é aplicado por esta thread no início
+     * do próximo tick; o resultado chega por comando.getResultado().
+     */
+    public Comando enviar(Comando comando) {
+        filaComandos.offer(comando);
+        return comando;
+    }
+    
+    public Comando enviar(TipoComando tipo, int arg1, int arg2) {
+        return enviar(new Comando(tipo, arg1, arg2));
+    }
+    
+    public int getComandosPendentes() {
+        return filaComandos.size();
+    }
+    
+    private void aplicarComandosPendentes() {
+        Comando comando;
+        while ((comando = filaComandos.poll()) != null) {
+            try {
+                aplicarComando(comando);
+            } catch (RuntimeException e) {
+                comando.falhar(e);
+            }
+        }
+    }
+    
+    void aplicarComando(Comando comando) {
+        int arg1 = comando.getArg1();
+        int arg2 = comando.getArg2();
+        Solo solo = soloValido(arg1) ? fazenda.getSolos().get(arg1) : null;
+        
+        boolean sucesso = false;
+        double valor = 0.0;
+        switch (comando.getTipo()) {
+            case PLANTAR:
+                if (solo != null && arg2 >= 0 && arg2 < Vegetal.values().length) {
+                    Vegetal vegetal = Vegetal.values()[arg2];
+                    sucesso = solo.plantar(vegetal);
+                    if (sucesso) {
+                        fazenda.setUltimoVegetalPlantado(vegetal);
+                        contar(MetricasTick.Contador.PLANTIOS);
+                    }
+                }
+                break;
+            case COLHER:
+                if (solo != null) {
+                    long centavos = solo.colherCentavos();
+                    fazenda.ganharCentavos(centavos);
+                    valor = Dinheiro.paraReais(centavos);
+                    sucesso = centavos > 0;
+                    if (sucesso) contar(MetricasTick.Contador.COLHEITAS);
+                }
+                break;
+            case ARRANCAR:
+                if (solo != null && solo.isOcupado()) {
+                    solo.arrancar();
+                    sucesso = true;
+                }
+                break;
+            case ATIVAR_FERTILIZANTE:
+                if (solo != null) {
+                    solo.setFertilizanteAtivado(arg2 != 0);
+                    sucesso = true;
+                }
+                break;
+            case COMPRAR_FERTILIZANTE:
+                int estoqueAntes = fazenda.getEstoqueFertilizante();
+                fazenda.comprarFertilizante();
+                sucesso = fazenda.getEstoqueFertilizante() > estoqueAntes;
+                break;
+            case DESBLOQUEAR_SOLO:
+                sucesso = desbloquearSolo(arg1);
+                break;
+            case EVOLUIR_SOLO:
+                sucesso = solo != null && solo.upgrade();
+                break;
+            case COMPRAR_MAQUINA:
+                sucesso = arg1 >= 0 && arg1 < Maquina.values().length
+                          && fazenda.comprarMaquina(Maquina.values()[arg1]);
+                break;
+            case INSTALAR_MAQUINA:
+                sucesso = arg2 >= 0 && arg2 < Maquina.values().length
+                          && fazenda.instalarMaquina(arg1, Maquina.values()[arg2]);
+                break;
+            case REMOVER_MAQUINA:
+                sucesso = arg2 >= 0 && arg2 < Maquina.values().length
+                          && fazenda.removerMaquina(arg1, Maquina.values()[arg2]);
+                break;
+            case COMPRAR_ANIMAL:
+                sucesso = comprarAnimal(arg1);
+                break;
+            case COLETAR_CERCADO:
+                valor = coletarProdutosAnimais(arg1);
+                sucesso = valor > 0;
+                break;
+            case ATIVAR_IA:
+                if (arg1 != 0) {
+                    ativarIA();
+                } else {
+                    desativarIA();
+                }
+                sucesso = true;
+                break;
+            case AJUDANTES_IA:
+                sucesso = arg1 >= 1 && arg1 <= PersonagemIA.MAXIMO_AJUDANTES;
+                if (sucesso) personagemIA.setAjudantes(arg1);
+                break;
+            default:
+                break;
+        }
+        Durabilidade d = durabilidade;
+        if (d != null) {
+            d.registrarComando(tick, comando);
+        }
+        comando.concluir(sucesso, valor);
+    }
+    
+    private boolean soloValido(int soloId) {
+        return soloId >= 0 && soloId < fazenda.getSolos().size();
+    }
+    
     /**
      * Método para coletar produtos dos animais manualmente (chamado pela interface)
      */
@@ -176,14 +838,14 @@ public class GameLoop extends Thread {
         }
         
         Cercado cercado = fazenda.getCercados().get(cercadoId);
-        double valor = cercado.coletarProdutos();
+        long centavos = cercado.coletarProdutosCentavos();
+        double valor = Dinheiro.paraReais(centavos);
         
-        if (valor > 0) {
-            fazenda.ganharDinheiro(valor);
+        if (centavos > 0) {
+            fazenda.ganharCentavos(centavos);
             if (ouvinte != null) {
-                ouvinte.aoNotificarEvento("Coletou " + cercado.getEspecie().getProduto() + 
-                                        " do cercado " + (cercadoId + 1) + 
-                                        " por R$" + String.format("%.2f", valor));
+                ouvinte.aoEventoJogo(TipoEvento.COLETA_CERCADO, cercadoId,
+                                     cercado.getEspecie().ordinal(), valor);
             }
         }
         
@@ -288,7 +950,260 @@ public class GameLoop extends Thread {
         return personagemIA;
     }
     
+    /**
+     * Quantos ajudantes a IA tem (1 = um personagem só, como sempre). Cada um cuida de uma
+     * região da fazenda e reserva o alvo antes de agir (ver PersonagemIA). Deve ser chamado
+     * antes de start() ou pela própria thread do loop; de fora, use TipoComando.AJUDANTES_IA.
+     */
+    public void setAjudantesIA(int quantidade) {
+        personagemIA.setAjudantes(quantidade);
+    }
+    
+    /**
+     * Quantas tarefas a IA pode executar por intervalo, todas da mesma avaliação
+     * (1 = uma, como sempre; ver PersonagemIA.setAcoesPorCiclo). Deve ser chamado
+     * antes de start() ou pela própria thread do loop.
+     */
+    public void setAcoesPorCicloIA(int acoes) {
+        personagemIA.setAcoesPorCiclo(acoes);
+    }
+    
+    /**
+     * Ações por segundo, roubos e conflitos de cada ajudante (de qualquer thread).
+     */
+    public List<PersonagemIA.EstatisticasAjudante> getEstatisticasAjudantesIA() {
+        return personagemIA.getEstatisticasAjudantes();
+    }
+    
+    // --- Planejamento da IA ---
+    
+    /**
+     * Liga o modo de planejamento da IA (ver PlanejadorIA): cada ação passa a ser escolhida
+     * simulando as candidatas em cópias da fazenda. null volta para a IA gulosa.
+     * O planejador pode ser compartilhado entre loops; quem o criou o encerra.
+     * Só para fazendas do jogo normal: cada decisão copia a fazenda várias vezes, então
+     * fazendas com mais de PlanejadorIA.MAXIMO_SOLOS solos e fazendas hospedadas (que
+     * dividem os trabalhadores do HospedeiroFazendas) são recusadas.
+     * Deve ser chamado antes de start() ou pela própria thread do loop.
+     */
+    public void usarPlanejador(PlanejadorIA planejador) {
+        if (planejador != null) {
+            if (hospedado) {
+                throw new IllegalStateException("O planejador não roda em fazendas hospedadas");
+            }
+            int solos = fazenda.getSolos().size();
+            if (solos > PlanejadorIA.MAXIMO_SOLOS) {
+                throw new IllegalArgumentException("Fazenda grande demais para o planejador: " + solos
+                                                   + " solos (máximo " + PlanejadorIA.MAXIMO_SOLOS + ")");
+            }
+        }
+        this.planejador = planejador;
+        personagemIA.setPlanejador(planejador == null ? null : gulosa -> planejador.escolher(this, gulosa));
+    }
+    
+    public PlanejadorIA getPlanejador() {
+        return planejador;
+    }
+    
+    /**
+     * Marca o loop como de uma fazenda hospedada (ver HospedeiroFazendas), que não pode
+     * usar o planejador.
+     */
+    void marcarHospedado() {
+        if (planejador != null) {
+            throw new IllegalStateException("O planejador não roda em fazendas hospedadas");
+        }
+        hospedado = true;
+    }
+    
+    /**
+     * Loop sem thread sobre uma cópia da fazenda, com o mesmo relógio do dia, dos animais
+     * e da IA (ligada e em silêncio). Não herda ouvinte, diário, métricas, agenda, tick
+     * paralelo nem planejador. Pela thread do loop, ou sobre um loop que ninguém
+     * está alterando (as cópias que o PlanejadorIA bifurca em paralelo).
+     */
+    GameLoop bifurcar() {
+        if (agenda != null) {
+            agenda.sincronizarTodos(); // Com a agenda o progresso só é materializado sob demanda
+        }
+        GameLoop copia = new GameLoop(fazenda.copiar(), null);
+        copia.acumuladorTempoDia = acumuladorTempoDia;
+        copia.acumuladorTempoAnimal = acumuladorTempoAnimal;
+        copia.tick = tick;
+        copia.intervaloFotografia = Integer.MAX_VALUE;
+        copia.personagemIA.setSilenciosa(true);
+        copia.modoIAActivo = true;
+        copia.personagemIA.ativar();
+        copia.personagemIA.avancarTempoSemAgir(personagemIA.isAtivo() ? personagemIA.getTempoDesdeUltimaAcao() : 0.0);
+        return copia;
+    }
+    
+    /**
+     * Avança 'segundos' de jogo em passos de 'passo' (o último pode ser parcial), como o
+     * SimuladorHeadless. Com iaAge false o relógio da IA anda, mas ela não age
+     * (no trecho em que o PlanejadorIA decide por ela).
+     */
+    void avancar(double segundos, double passo, boolean iaAge) {
+        boolean iaAntes = modoIAActivo;
+        modoIAActivo = iaAntes && iaAge;
+        long passosInteiros = (long) Math.floor(segundos / passo);
+        double resto = segundos - passosInteiros * passo;
+        for (long i = 0; i < passosInteiros; i++) {
+            atualizarJogo(passo);
+            if (!modoIAActivo) personagemIA.avancarTempoSemAgir(passo);
+        }
+        if (resto > 1e-9) {
+            atualizarJogo(resto);
+            if (!modoIAActivo) personagemIA.avancarTempoSemAgir(resto);
+        }
+        modoIAActivo = iaAntes;
+    }
+    
+    FazendaEstado getFazenda() {
+        return fazenda;
+    }
+    
+    /**
+     * Define o modo de agendamento (deve ser chamado antes de start()).
+     * true = passo fixo com acumulador (padrão), false = delta variável.
+     */
+    public void setPassoFixo(boolean passoFixo) {
+        this.passoFixo = passoFixo;
+    }
+    
+    public boolean isPassoFixo() {
+        return passoFixo;
+    }
+    
+    /**
+     * Liga/desliga a agenda de prontidão.
+     * Ligada: a cada quadro só os solos/cercados que ficaram prontos são processados,
+     * e o progresso dos que estão crescendo só é atualizado quando necessário
+     * (use sincronizarProgresso() antes de ler o progresso de todos).
+     * Não combina com o diário (ver usarDiario).
+     * Deve ser chamado antes de start() ou pela própria thread do loop.
+     */
+    public void setAgendaProntidao(boolean ativa) {
+        if (ativa == (agenda != null)) return;
+        
+        if (ativa) {
+            if (getDiario() != null) {
+                throw new IllegalStateException("A agenda de prontidão não funciona com o diário ligado");
+            }
+            agenda = new AgendaProntidao(fazenda);
+            fazenda.adicionarObservador(agenda);
+            agenda.agendarTodos();
+        } else {
+            agenda.sincronizarTodos();
+            fazenda.removerObservador(agenda);
+            agenda = null;
+        }
+    }
+    
+    public boolean isAgendaProntidaoAtiva() {
+        return agenda != null;
+    }
+    
+    /**
+     * Traz o progresso de todos os solos e cercados até o instante atual
+     * (só tem efeito com a agenda de prontidão ligada).
+     */
+    public void sincronizarProgresso() {
+        if (agenda != null) {
+            agenda.sincronizarTodos();
+        }
+    }
+    
+    /**
+     * Retorna o agendador de passo fixo (estatísticas de passos executados/descartados)
+     */
+    public AgendadorPassoFixo getAgendador() {
+        return agendador;
+    }
+    
+    /**
+     * Liga/desliga o tick paralelo: as partições de solos e cercados rodam em um
+     * ForkJoinPool com 'threads' trabalhadores (0 ou menos = desliga).
+     * O resultado é idêntico ao do tick sequencial. Observadores da fazenda passam a
+     * ser chamados também pelas threads do pool, então precisam ser thread-safe.
+     * Não tem efeito com a agenda de prontidão ligada.
+     * Deve ser chamado antes de start() ou pela própria thread do loop.
+     */
+    public void setTickParalelo(int threads) {
+        if (poolParticoes != null) {
+            poolParticoes.shutdown();
+            poolParticoes = null;
+        }
+        if (threads > 0) {
+            poolParticoes = new ForkJoinPool(threads);
+        }
+    }
+    
+    public void setTickParalelo(boolean ativo) {
+        setTickParalelo(ativo ? Runtime.getRuntime().availableProcessors() : 0);
+    }
+    
+    public boolean isTickParalelo() {
+        return poolParticoes != null;
+    }
+    
+    /**
+     * Liga a instrumentação do tick (duração de cada fase e contadores por segundo, ver
+     * MetricasTick) e publica no JMX como "br.ufpa.fazenda:type=MetricasTick,name=<nome>".
+     * Pode ser chamado com o loop rodando; vale a partir do próximo tick.
+     * @return as métricas (também legíveis direto, sem JMX)
+     */
+    public MetricasTick usarMetricas(String nome) throws JMException {
+        MetricasTick novas = new MetricasTick();
+        novas.registrarJmx(nome);
+        MetricasTick antigas = metricas;
+        metricas = novas;
+        if (antigas != null) {
+            antigas.removerJmx();
+        }
+        return novas;
+    }
+    
+    /**
+     * Desliga a instrumentação (o tick volta a não ler o relógio) e tira do JMX.
+     */
+    public void desligarMetricas() {
+        MetricasTick antigas = metricas;
+        metricas = null;
+        if (antigas != null) {
+            antigas.removerJmx();
+        }
+    }
+    
+    public MetricasTick getMetricas() {
+        return metricas;
+    }
+    
+    /**
+     * Passa a entregar os eventos para a tela em uma thread separada (ver DespachanteEventos),
+     * para que uma tela lenta não atrase a simulação. Chame antes de start().
+     * @return o despachante (para acompanhar fila e descartes)
+     */
+    public DespachanteEventos usarDespachoAssincrono(DespachanteEventos.PoliticaTransbordo politica) {
+        if (ouvinte instanceof DespachanteEventos) {
+            return (DespachanteEventos) ouvinte;
+        }
+        if (ouvinte == null) {
+            throw new IllegalStateException("GameLoop sem ouvinte: nada para despachar");
+        }
+        DespachanteEventos despachante = new DespachanteEventos(ouvinte, politica);
+        despachante.iniciar();
+        ouvinte = despachante;
+        return despachante;
+    }
+    
     public void parar() {
         this.rodando = false;
+        if (poolParticoes != null) {
+            poolParticoes.shutdown();
+        }
+        if (ouvinte instanceof DespachanteEventos) {
+            ((DespachanteEventos) ouvinte).encerrar();
+        }
     }
 }
\ No newline at end of file
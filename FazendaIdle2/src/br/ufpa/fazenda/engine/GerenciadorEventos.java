@@ -1,6 +1,7 @@
 package br.ufpa.fazenda.engine;
 
 import br.ufpa.fazenda.model.Solo;
+import java.util.BitSet;
 
 /**
  * Interface que a Interface Gráfica (GUI) deve implementar.
@@ -15,6 +16,33 @@ public interface GerenciadorEventos {
     // A Enya usará isso para trocar o sprite daquele quadrado específico
     void aoAtualizarSolo(Solo solo);
     
+    // (Opcional) Entrega em lote: em vez de um aoAtualizarSolo por solo, o motor junta os
+    // solos alterados e chama aoAtualizarSolos no fim do quadro. Retorne > 0 para ligar:
+    // é o máximo de entregas por segundo (Double.POSITIVE_INFINITY = todo quadro).
+    // 0 (padrão) mantém o aviso solo a solo.
+    default double getTaxaEntregaSolosHz() {
+        return 0.0;
+    }
+    
+    // (Opcional) Ids dos solos alterados desde a última entrega (modo em lote).
+    // O BitSet pertence ao motor: leia durante a chamada e não guarde a referência.
+    // Leia os valores de GameLoop.getFotografia(), não da fazenda: com o despacho
+    // assíncrono esta chamada vem de outra thread, no meio dos ticks.
+    default void aoAtualizarSolos(BitSet alterados) {
+    }
+    
     // (Opcional) Para tocar sons ou mostrar mensagens
     void aoNotificarEvento(String mensagem);
+    
+    // Evento do jogo em campos primitivos (ver TipoEvento), sem montar texto no loop.
+    // O padrão monta a mensagem e repassa para aoNotificarEvento; quem não mostra
+    // mensagens pode sobrescrever e ignorar (ou reagir só ao tipo).
+    default void aoEventoJogo(TipoEvento tipo, int alvoId, int ordinal, double valor) {
+        aoNotificarEvento(tipo.formatar(alvoId, ordinal, valor));
+    }
+    
+    // (Opcional) Chamado uma vez por quadro com a fração (0.0 a 1.0) do próximo passo
+    // de simulação que já passou. Serve para interpolar animações entre dois passos.
+    default void aoInterpolarQuadro(double alfa) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package br.ufpa.fazenda.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de durações (em nanossegundos) com baldes log-lineares: cada potência de 2
+ * é dividida em 16 baldes, então qualquer percentil sai com erro de no máximo ~6%,
+ * em 1024 contadores fixos (8 KB) para qualquer faixa de 1 ns a séculos.
+ *
+ * Um único escritor (a thread que roda o tick) e qualquer número de leitores: o escritor
+ * usa lazySet (sem instrução travada), e um leitor pode ver um registro pela metade
+ * entre contadores diferentes, o que só desloca um percentil por uma amostra.
+ */
+class HistogramaLatencia {
+
+    private static final int BITS_SUB = 4;
+    private static final int SUB = 1 << BITS_SUB; // Baldes por potência de 2
+    private static final int QUANTIDADE_BALDES = (64 - BITS_SUB + 1) * SUB;
+
+    private final AtomicLongArray baldes = new AtomicLongArray(QUANTIDADE_BALDES);
+    private final AtomicLongArray totais = new AtomicLongArray(3); // amostras, soma, máximo
+    private static final int AMOSTRAS = 0;
+    private static final int SOMA = 1;
+    private static final int MAXIMO = 2;
+
+    /**
+     * Só pela thread escritora.
+     */
+    void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int i = indice(nanos);
+        baldes.lazySet(i, baldes.get(i) + 1);
+        totais.lazySet(AMOSTRAS, totais.get(AMOSTRAS) + 1);
+        totais.lazySet(SOMA, totais.get(SOMA) + nanos);
+        if (nanos > totais.get(MAXIMO)) {
+            totais.lazySet(MAXIMO, nanos);
+        }
+    }
+
+    /**
+     * Só pela thread escritora (ver MetricasTick.reiniciar, que pede e espera o tick).
+     */
+    void zerar() {
+        for (int i = 0; i < QUANTIDADE_BALDES; i++) {
+            baldes.lazySet(i, 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            totais.lazySet(i, 0);
+        }
+    }
+
+    long getAmostras() { return totais.get(AMOSTRAS); }
+    long getMaximo() { return totais.get(MAXIMO); }
+
+    double getMedia() {
+        long amostras = totais.get(AMOSTRAS);
+        return amostras == 0 ? 0.0 : (double) totais.get(SOMA) / amostras;
+    }
+
+    /**
+     * Valor abaixo do qual estão 'fracao' das amostras (limite superior do balde,
+     * nunca acima do máximo visto).
+     */
+    long percentil(double fracao) {
+        long[] contagens = new long[QUANTIDADE_BALDES];
+        long amostras = 0;
+        for (int i = 0; i < QUANTIDADE_BALDES; i++) {
+            contagens[i] = baldes.get(i);
+            amostras += contagens[i];
+        }
+        if (amostras == 0) return 0;
+
+        long alvo = Math.max(1, (long) Math.ceil(fracao * amostras));
+        long acumulado = 0;
+        for (int i = 0; i < QUANTIDADE_BALDES; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), totais.get(MAXIMO));
+            }
+        }
+        return totais.get(MAXIMO);
+    }
+
+    static int indice(long valor) {
+        if (valor < SUB) return (int) valor;
+        int expoente = 63 - Long.numberOfLeadingZeros(valor); // >= BITS_SUB
+        int sub = (int) (valor >>> (expoente - BITS_SUB)) & (SUB - 1);
+        return (expoente - BITS_SUB + 1) * SUB + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUB) return indice;
+        int expoente = indice / SUB + BITS_SUB - 1;
+        long sub = indice % SUB;
+        return ((SUB + sub + 1) << (expoente - BITS_SUB)) - 1;
+    }
+}
@@ -0,0 +1,357 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.util.Constantes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roda muitas fazendas independentes (uma por jogador) no mesmo processo.
+ *
+ * Cada fazenda tem o próprio GameLoop, que nunca vira thread: uma única thread do
+ * hospedeiro mede o tempo com o AgendadorPassoFixo e, a cada passo, faz uma "rodada"
+ * que avança todas as fazendas um tick. As fazendas da rodada são divididas em blocos
+ * pegos por um número fixo de trabalhadores (quem termina antes pega o próximo bloco),
+ * então milhares de fazendas custam só 'threads' threads do sistema.
+ *
+ * Comandos para uma fazenda vão pelo loop dela (getLoop().enviar), como no jogo normal.
+ * A fotografia de cada fazenda sai a cada TICKS_ENTRE_FOTOGRAFIAS ticks, não todo tick.
+ */
+public class HospedeiroFazendas {
+
+    // Fazendas por bloco de trabalho (pequeno o bastante para equilibrar, grande o
+    // bastante para o contador compartilhado não virar gargalo)
+    private static final int FAZENDAS_POR_BLOCO = 32;
+
+    // Cada fazenda publica a fotografia a cada ~100 ms em vez de todo tick: com milhares
+    // delas a cópia por tick pesa na rodada, e quem lê de fora (a API, que guarda o JSON
+    // por até 100 ms) não precisa de mais. Ajustável por getLoop().setIntervaloFotografia
+    static final int TICKS_ENTRE_FOTOGRAFIAS =
+        Math.max(1, (int) Math.round(0.1 / Constantes.PASSO_SIMULACAO_SEGUNDOS));
+
+    /**
+     * Uma fazenda hospedada e o custo dos ticks dela.
+     */
+    public static final class FazendaHospedada {
+        private final int id;
+        private final FazendaEstado fazenda;
+        private final GameLoop loop;
+
+        // Escritos só pelo trabalhador que roda a fazenda na rodada
+        private volatile long nanosUltimoTick;
+        private volatile long nanosTotais;
+        private volatile long ticks;
+        private volatile RuntimeException erro; // != null: parou de rodar
+
+        FazendaHospedada(int id, FazendaEstado fazenda) {
+            this.id = id;
+            this.fazenda = fazenda;
+            this.loop = new GameLoop(fazenda, null);
+            this.loop.marcarHospedado();
+            this.loop.setIntervaloFotografia(TICKS_ENTRE_FOTOGRAFIAS);
+        }
+
+        void executarTick(double passo) {
+            long inicio = System.nanoTime();
+            try {
+                loop.atualizarJogo(passo);
+            } catch (RuntimeException e) {
+                erro = e;
+                System.err.println("Fazenda " + id + " parou: " + e);
+                return;
+            }
+            long custo = System.nanoTime() - inicio;
+            nanosUltimoTick = custo;
+            nanosTotais += custo;
+            ticks++;
+        }
+
+        public int getId() { return id; }
+        public FazendaEstado getFazenda() { return fazenda; }
+        public GameLoop getLoop() { return loop; }
+        public long getNanosUltimoTick() { return nanosUltimoTick; }
+        public long getTicks() { return ticks; }
+        public RuntimeException getErro() { return erro; }
+
+        /**
+         * Custo médio de um tick desta fazenda, em nanossegundos
+         */
+        public double getCustoMedioTickNanos() {
+            long n = ticks;
+            return n == 0 ? 0.0 : (double) nanosTotais / n;
+        }
+    }
+
+    private final int threads;
+    private final AgendadorPassoFixo agendador = new AgendadorPassoFixo(
+        Constantes.PASSO_SIMULACAO_SEGUNDOS, Constantes.MAX_PASSOS_POR_QUADRO);
+    private final ExecutorService trabalhadores; // null com uma thread só
+
+    // Entradas e saídas pedidas por outras threads, aplicadas no início da rodada
+    private final ConcurrentLinkedQueue<FazendaHospedada> entrando = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<FazendaHospedada> saindo = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger proximoId = new AtomicInteger();
+
+    // Fazendas da rodada (só a thread do hospedeiro mexe)
+    private FazendaHospedada[] fazendas = new FazendaHospedada[64];
+    private int quantidade = 0;
+    private final AtomicInteger proximoBloco = new AtomicInteger();
+
+    private Thread thread;
+    private volatile boolean rodando;
+
+    // Métricas
+    private volatile int quantidadeHospedada;
+    private volatile long rodadas;
+    private volatile long nanosUltimaRodada;
+    private volatile double ticksPorSegundo; // Ticks de fazenda por segundo, na última janela
+    private long ticksNaJanela;
+    private long inicioJanela;
+
+    /**
+     * @param threads quantos trabalhadores rodam as fazendas (>= 1)
+     */
+    public HospedeiroFazendas(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads deve ser >= 1: " + threads);
+        }
+        this.threads = threads;
+        if (threads > 1) {
+            AtomicInteger contador = new AtomicInteger();
+            this.trabalhadores = Executors.newFixedThreadPool(threads - 1, tarefa -> {
+                Thread t = new Thread(tarefa, "hospedeiro-trabalhador-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.trabalhadores = null;
+        }
+    }
+
+    // --- Fazendas ---
+
+    /**
+     * Hospeda uma fazenda (entra na próxima rodada). Pode ser chamado de qualquer thread.
+     */
+    public FazendaHospedada adicionar(FazendaEstado fazenda) {
+        FazendaHospedada hospedada = new FazendaHospedada(proximoId.getAndIncrement(), fazenda);
+        entrando.add(hospedada);
+        return hospedada;
+    }
+
+    /**
+     * Tira a fazenda do hospedeiro (sai na próxima rodada). Pode ser chamado de qualquer thread.
+     */
+    public void remover(FazendaHospedada hospedada) {
+        saindo.add(hospedada);
+    }
+
+    // --- Execução ---
+
+    /**
+     * Começa a rodar as fazendas em tempo real, em passos fixos.
+     */
+    public synchronized void iniciar() {
+        if (thread != null) return;
+        rodando = true;
+        thread = new Thread(this::executar, "hospedeiro-fazendas");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Para a thread do hospedeiro, os trabalhadores e o diário de cada fazenda.
+     */
+    public synchronized void parar() throws InterruptedException {
+        rodando = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+            thread = null;
+        }
+        if (trabalhadores != null) {
+            trabalhadores.shutdown();
+            trabalhadores.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        aplicarEntradasESaidas();
+        for (int i = 0; i < quantidade; i++) {
+            encerrar(fazendas[i]);
+        }
+    }
+
+    private void executar() {
+        agendador.reiniciar(System.nanoTime());
+        inicioJanela = System.nanoTime();
+        while (rodando) {
+            int passos = agendador.calcularPassos(System.nanoTime());
+            for (int i = 0; i < passos && rodando; i++) {
+                executarRodada();
+            }
+            long espera = agendador.nanosAteProximoPasso(System.nanoTime());
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+        }
+    }
+
+    /**
+     * Avança todas as fazendas um passo fixo, sem esperar o relógio (uso headless e testes).
+     * Não chame com o hospedeiro iniciado.
+     */
+    public void simularRodadas(int quantidadeRodadas) {
+        if (thread != null) {
+            throw new IllegalStateException("Hospedeiro rodando em tempo real");
+        }
+        if (inicioJanela == 0) inicioJanela = System.nanoTime();
+        for (int i = 0; i < quantidadeRodadas; i++) {
+            executarRodada();
+        }
+    }
+
+    private void executarRodada() {
+        long inicio = System.nanoTime();
+        aplicarEntradasESaidas();
+
+        int blocos = (quantidade + FAZENDAS_POR_BLOCO - 1) / FAZENDAS_POR_BLOCO;
+        proximoBloco.set(0);
+        int ajudantes = trabalhadores == null ? 0 : Math.min(threads - 1, blocos - 1);
+        if (ajudantes <= 0) {
+            trabalhar(blocos);
+        } else {
+            CountDownLatch fim = new CountDownLatch(ajudantes);
+            for (int i = 0; i < ajudantes; i++) {
+                trabalhadores.execute(() -> {
+                    try {
+                        trabalhar(blocos);
+                    } finally {
+                        fim.countDown();
+                    }
+                });
+            }
+            trabalhar(blocos); // A thread do hospedeiro também trabalha
+            try {
+                fim.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long agora = System.nanoTime();
+        nanosUltimaRodada = agora - inicio;
+        rodadas++;
+        ticksNaJanela += quantidade;
+        if (agora - inicioJanela >= 1_000_000_000L) {
+            ticksPorSegundo = ticksNaJanela * 1e9 / (agora - inicioJanela);
+            ticksNaJanela = 0;
+            inicioJanela = agora;
+        }
+    }
+
+    private void trabalhar(int blocos) {
+        double passo = agendador.getPassoSegundos();
+        int bloco;
+        while ((bloco = proximoBloco.getAndIncrement()) < blocos) {
+            int fimBloco = Math.min(quantidade, (bloco + 1) * FAZENDAS_POR_BLOCO);
+            for (int i = bloco * FAZENDAS_POR_BLOCO; i < fimBloco; i++) {
+                FazendaHospedada hospedada = fazendas[i];
+                if (hospedada.erro == null) {
+                    hospedada.executarTick(passo);
+                }
+            }
+        }
+    }
+
+    private void aplicarEntradasESaidas() {
+        FazendaHospedada hospedada;
+        while ((hospedada = entrando.poll()) != null) {
+            if (quantidade == fazendas.length) {
+                fazendas = Arrays.copyOf(fazendas, quantidade * 2);
+            }
+            fazendas[quantidade++] = hospedada;
+        }
+        while ((hospedada = saindo.poll()) != null) {
+            for (int i = 0; i < quantidade; i++) {
+                if (fazendas[i] == hospedada) {
+                    fazendas[i] = fazendas[--quantidade]; // A ordem não importa: fazendas são independentes
+                    fazendas[quantidade] = null;
+                    encerrar(hospedada);
+                    break;
+                }
+            }
+        }
+        quantidadeHospedada = quantidade;
+    }
+
+    private static void encerrar(FazendaHospedada hospedada) {
+        hospedada.loop.encerrarDiario();
+        hospedada.loop.parar();
+    }
+
+    // --- Métricas ---
+
+    public int getThreads() { return threads; }
+    public int getQuantidadeFazendas() { return quantidadeHospedada; }
+    public long getRodadas() { return rodadas; }
+    public long getNanosUltimaRodada() { return nanosUltimaRodada; }
+
+    /**
+     * Ticks de fazenda (uma fazenda avançando um passo) por segundo de relógio real,
+     * medidos na última janela de ~1 s.
+     */
+    public double getTicksPorSegundo() { return ticksPorSegundo; }
+
+    /**
+     * Passos que o hospedeiro não conseguiu rodar a tempo e descartou (rodadas lentas demais)
+     */
+    public long getRodadasDescartadas() { return agendador.getPassosDescartados(); }
+
+    /**
+     * As 'limite' fazendas com maior custo médio de tick (ver getCustoMedioTickNanos).
+     * Só uma leitura aproximada enquanto o hospedeiro roda.
+     */
+    public List<FazendaHospedada> getFazendasMaisCaras(int limite) {
+        FazendaHospedada[] copia = Arrays.copyOf(fazendas, quantidadeHospedada);
+        List<FazendaHospedada> lista = new ArrayList<>(Arrays.asList(copia));
+        lista.removeIf(h -> h == null);
+        lista.sort((a, b) -> Double.compare(b.getCustoMedioTickNanos(), a.getCustoMedioTickNanos()));
+        return lista.subList(0, Math.min(limite, lista.size()));
+    }
+
+    /**
+     * Roda fazendas em tempo real e mostra as métricas a cada segundo.
+     * Uso: HospedeiroFazendas [fazendas] [threads] [segundos]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int quantidadeFazendas = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        HospedeiroFazendas hospedeiro = new HospedeiroFazendas(threads);
+        for (int i = 0; i < quantidadeFazendas; i++) {
+            FazendaHospedada hospedada = hospedeiro.adicionar(FazendaEstado.criar());
+            hospedada.getLoop().enviar(TipoComando.PLANTAR, 0, i % Vegetal.values().length);
+        }
+        hospedeiro.iniciar();
+        for (int s = 1; s <= segundos; s++) {
+            Thread.sleep(1000);
+            System.out.printf("[%ds] %d fazendas | %.0f ticks/s | rodada %.2f ms | descartadas %d%n",
+                s, hospedeiro.getQuantidadeFazendas(), hospedeiro.getTicksPorSegundo(),
+                hospedeiro.getNanosUltimaRodada() / 1_000_000.0, hospedeiro.getRodadasDescartadas());
+        }
+        hospedeiro.parar();
+        for (FazendaHospedada hospedada : hospedeiro.getFazendasMaisCaras(3)) {
+            System.out.printf("Fazenda %d: %.1f us/tick em %d ticks | R$ %.2f%n", hospedada.getId(),
+                hospedada.getCustoMedioTickNanos() / 1000.0, hospedada.getTicks(),
+                hospedada.getFazenda().getDinheiro());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package br.ufpa.fazenda.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentação do tick de um GameLoop: quanto cada fase leva (histogramas com
+ * p50/p99/máximo) e quantas colheitas, plantios, ações da IA e avisos à tela acontecem
+ * por segundo. Ligada com GameLoop.usarMetricas; desligada (padrão), o tick não mede nada.
+ *
+ * Só a thread que roda o tick escreve; JMX e quem mais quiser leem de qualquer thread.
+ */
+public class MetricasTick implements MetricasTickMXBean {
+
+    /**
+     * Fases medidas. SOLOS e CERCADOS somam o tempo de todas as partições: com o tick
+     * paralelo ligado é tempo de CPU, não de relógio (TICK continua sendo o de relógio).
+     */
+    public enum Fase {
+        COMANDOS,     // Fila de comandos (ou o diário, na recuperação)
+        DIA,          // Virada do dia
+        SOLOS,        // Crescimento e automação (trator/arador)
+        CERCADOS,     // Produção dos animais
+        IA,           // PersonagemIA
+        NOTIFICACAO,  // Avisos à tela (eventos, solos alterados, HUD)
+        FOTOGRAFIA,   // Fotografia publicada e checkpoint
+        TICK          // O tick inteiro
+    }
+
+    /**
+     * Contadores por segundo.
+     */
+    public enum Contador {
+        COLHEITAS,
+        PLANTIOS,
+        ACOES_IA,
+        NOTIFICACOES,
+        CONFLITOS_IA    // Ajudante achou o melhor alvo reservado por outro
+    }
+
+    /**
+     * Uma fase, em microssegundos (aparece no JMX como CompositeData).
+     */
+    public static class ResumoFase {
+        private final long amostras;
+        private final double p50, p99, maximo, media;
+
+        ResumoFase(HistogramaLatencia histograma) {
+            this.amostras = histograma.getAmostras();
+            this.p50 = histograma.percentil(0.50) / 1000.0;
+            this.p99 = histograma.percentil(0.99) / 1000.0;
+            this.maximo = histograma.getMaximo() / 1000.0;
+            this.media = histograma.getMedia() / 1000.0;
+        }
+
+        public long getAmostras() { return amostras; }
+        public double getP50Micros() { return p50; }
+        public double getP99Micros() { return p99; }
+        public double getMaximoMicros() { return maximo; }
+        public double getMediaMicros() { return media; }
+    }
+
+    private static final long NANOS_JANELA = 1_000_000_000L;
+
+    private final HistogramaLatencia[] histogramas = new HistogramaLatencia[Fase.values().length];
+    private final AtomicLongArray totais = new AtomicLongArray(Contador.values().length);
+    private volatile long ticks;
+
+    // Janela de um segundo para as taxas (só a thread do tick mexe nos campos não voláteis)
+    private long inicioJanela = -1;
+    private final long[] totaisNoInicioJanela = new long[Contador.values().length];
+    private volatile double[] taxas = new double[Contador.values().length];
+
+    private volatile boolean reinicioPedido;
+    private ObjectName nomeRegistrado;
+
+    public MetricasTick() {
+        for (int i = 0; i < histogramas.length; i++) {
+            histogramas[i] = new HistogramaLatencia();
+        }
+    }
+
+    // --- Registro (thread do tick) ---
+
+    void registrar(Fase fase, long nanos) {
+        histogramas[fase.ordinal()].registrar(nanos);
+    }
+
+    void contar(Contador contador, long quantidade) {
+        if (quantidade != 0) {
+            int i = contador.ordinal();
+            totais.lazySet(i, totais.get(i) + quantidade);
+        }
+    }
+
+    /**
+     * Fecha o tick: registra a duração total e, a cada segundo, recalcula as taxas.
+     */
+    void fecharTick(long inicioNanos, long fimNanos) {
+        if (reinicioPedido) {
+            zerar();
+        }
+        registrar(Fase.TICK, fimNanos - inicioNanos);
+        ticks++;
+
+        if (inicioJanela < 0) {
+            abrirJanela(fimNanos);
+        } else if (fimNanos - inicioJanela >= NANOS_JANELA) {
+            double segundos = (fimNanos - inicioJanela) / 1e9;
+            double[] novas = new double[totaisNoInicioJanela.length];
+            for (int i = 0; i < novas.length; i++) {
+                novas[i] = (totais.get(i) - totaisNoInicioJanela[i]) / segundos;
+            }
+            taxas = novas;
+            abrirJanela(fimNanos);
+        }
+    }
+
+    private void abrirJanela(long agoraNanos) {
+        inicioJanela = agoraNanos;
+        for (int i = 0; i < totaisNoInicioJanela.length; i++) {
+            totaisNoInicioJanela[i] = totais.get(i);
+        }
+    }
+
+    private void zerar() {
+        reinicioPedido = false;
+        for (HistogramaLatencia histograma : histogramas) {
+            histograma.zerar();
+        }
+        for (int i = 0; i < totais.length(); i++) {
+            totais.lazySet(i, 0);
+        }
+        ticks = 0;
+        inicioJanela = -1;
+        taxas = new double[taxas.length];
+    }
+
+    // --- JMX ---
+
+    /**
+     * Registra no servidor MBean da plataforma como
+     * "br.ufpa.fazenda:type=MetricasTick,name=<nome>".
+     */
+    public void registrarJmx(String nome) throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objeto = new ObjectName("br.ufpa.fazenda:type=MetricasTick,name=" + ObjectName.quote(nome));
+        servidor.registerMBean(this, objeto);
+        nomeRegistrado = objeto;
+    }
+
+    public void removerJmx() {
+        if (nomeRegistrado == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nomeRegistrado);
+        } catch (JMException e) {
+            // Já não estava registrado
+        }
+        nomeRegistrado = null;
+    }
+
+    // --- Leitura (qualquer thread) ---
+
+    @Override
+    public long getTicks() { return ticks; }
+
+    public ResumoFase getFase(Fase fase) {
+        return new ResumoFase(histogramas[fase.ordinal()]);
+    }
+
+    @Override
+    public Map<String, ResumoFase> getFases() {
+        Map<String, ResumoFase> fases = new LinkedHashMap<>();
+        for (Fase fase : Fase.values()) {
+            fases.put(fase.name(), getFase(fase));
+        }
+        return fases;
+    }
+
+    public double getTaxa(Contador contador) { return taxas[contador.ordinal()]; }
+    public long getTotal(Contador contador) { return totais.get(contador.ordinal()); }
+
+    @Override public double getColheitasPorSegundo() { return getTaxa(Contador.COLHEITAS); }
+    @Override public double getPlantiosPorSegundo() { return getTaxa(Contador.PLANTIOS); }
+    @Override public double getAcoesIAPorSegundo() { return getTaxa(Contador.ACOES_IA); }
+    @Override public double getNotificacoesPorSegundo() { return getTaxa(Contador.NOTIFICACOES); }
+    @Override public long getTotalColheitas() { return getTotal(Contador.COLHEITAS); }
+    @Override public long getTotalPlantios() { return getTotal(Contador.PLANTIOS); }
+    @Override public long getTotalAcoesIA() { return getTotal(Contador.ACOES_IA); }
+    @Override public long getTotalNotificacoes() { return getTotal(Contador.NOTIFICACOES); }
+    @Override public double getConflitosIAPorSegundo() { return getTaxa(Contador.CONFLITOS_IA); }
+    @Override public long getTotalConflitosIA() { return getTotal(Contador.CONFLITOS_IA); }
+
+    @Override
+    public String getResumo() {
+        StringBuilder sb = new StringBuilder(String.format("%d ticks%n", ticks));
+        sb.append(String.format("%-12s %10s %10s %10s %10s%n", "fase (us)", "p50", "p99", "máx", "média"));
+        for (Fase fase : Fase.values()) {
+            ResumoFase resumo = getFase(fase);
+            sb.append(String.format("%-12s %10.1f %10.1f %10.1f %10.1f%n", fase.name().toLowerCase(),
+                resumo.getP50Micros(), resumo.getP99Micros(), resumo.getMaximoMicros(), resumo.getMediaMicros()));
+        }
+        for (Contador contador : Contador.values()) {
+            sb.append(String.format("%-12s %10.1f/s %12d no total%n", contador.name().toLowerCase(),
+                getTaxa(contador), getTotal(contador)));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reiniciar() {
+        reinicioPedido = true;
+    }
+}
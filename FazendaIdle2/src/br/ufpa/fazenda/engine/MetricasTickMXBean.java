@@ -0,0 +1,44 @@
+package br.ufpa.fazenda.engine;
+
+import java.util.Map;
+
+/**
+ * O que MetricasTick publica via JMX (jconsole, VisualVM...), em
+ * "br.ufpa.fazenda:type=MetricasTick,name=...".
+ */
+public interface MetricasTickMXBean {
+
+    long getTicks();
+
+    /**
+     * p50, p99, máximo e média de cada fase do tick, em microssegundos
+     * (fases: ver MetricasTick.Fase).
+     */
+    Map<String, MetricasTick.ResumoFase> getFases();
+
+    // Taxas do último segundo completo
+    double getColheitasPorSegundo();
+    double getPlantiosPorSegundo();
+    double getAcoesIAPorSegundo();
+    double getNotificacoesPorSegundo();
+
+    // Totais desde o início (ou o último reiniciar)
+    long getTotalColheitas();
+    long getTotalPlantios();
+    long getTotalAcoesIA();
+    long getTotalNotificacoes();
+
+    // Disputa entre os ajudantes da IA (alvo já reservado por outro)
+    double getConflitosIAPorSegundo();
+    long getTotalConflitosIA();
+
+    /**
+     * Tabela em texto com tudo acima.
+     */
+    String getResumo();
+
+    /**
+     * Zera histogramas e contadores (feito pela thread do loop, no próximo tick).
+     */
+    void reiniciar();
+}
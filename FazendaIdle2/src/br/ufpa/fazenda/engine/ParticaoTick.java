@@ -0,0 +1,96 @@
+package br.ufpa.fazenda.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Uma fatia (shard) do tick: um intervalo de solos e um de cercados, com acumuladores próprios.
+ *
+ * Durante o tick cada partição só escreve nos próprios solos/cercados e nos próprios
+ * acumuladores (a receita vai para FazendaEstado.registrarReceitaConcorrente, em centavos),
+ * então várias partições podem rodar ao mesmo tempo sem travas.
+ * Depois o GameLoop consolida as partições na fazenda, sempre na ordem dos índices,
+ * e o resultado não depende de quantas threads foram usadas.
+ */
+class ParticaoTick {
+
+    final int inicioSolos;
+    final int fimSolos;         // exclusivo
+    final int inicioCercados;
+    final int fimCercados;      // exclusivo
+
+    // --- Acumuladores do tick (zerados em limpar()) ---
+
+    // Solos que mudaram: bit (indice - inicioSolos)
+    final BitSet solosAlterados = new BitSet();
+
+    // Colheitas do Trator: solo, vegetal (ordinal) e valor em centavos
+    int[] colheitaSolo = new int[8];
+    int[] colheitaVegetal = new int[8];
+    long[] colheitaCentavos = new long[8];
+    int quantidadeColheitas;
+
+    // Plantios do Arador: solo e vegetal (ordinal)
+    int[] plantioSolo = new int[8];
+    int[] plantioVegetal = new int[8];
+    int quantidadePlantios;
+
+    // Cercados com produto pronto
+    int[] cercadosProntos = new int[4];
+    int quantidadeCercadosProntos;
+
+    // Duração de cada etapa nesta partição (só com MetricasTick ligadas)
+    long nanosSolos;
+    long nanosCercados;
+
+    ParticaoTick(int inicioSolos, int fimSolos, int inicioCercados, int fimCercados) {
+        this.inicioSolos = inicioSolos;
+        this.fimSolos = fimSolos;
+        this.inicioCercados = inicioCercados;
+        this.fimCercados = fimCercados;
+    }
+
+    void limpar() {
+        solosAlterados.clear();
+        quantidadeColheitas = 0;
+        quantidadePlantios = 0;
+        quantidadeCercadosProntos = 0;
+        nanosSolos = 0;
+        nanosCercados = 0;
+    }
+
+    void marcarSolo(int soloId) {
+        solosAlterados.set(soloId - inicioSolos);
+    }
+
+    void registrarColheita(int soloId, int vegetal, long centavos) {
+        if (quantidadeColheitas == colheitaSolo.length) {
+            int novo = colheitaSolo.length * 2;
+            colheitaSolo = Arrays.copyOf(colheitaSolo, novo);
+            colheitaVegetal = Arrays.copyOf(colheitaVegetal, novo);
+            colheitaCentavos = Arrays.copyOf(colheitaCentavos, novo);
+        }
+        colheitaSolo[quantidadeColheitas] = soloId;
+        colheitaVegetal[quantidadeColheitas] = vegetal;
+        colheitaCentavos[quantidadeColheitas] = centavos;
+        quantidadeColheitas++;
+    }
+
+    void registrarPlantio(int soloId, int vegetal) {
+        if (quantidadePlantios == plantioSolo.length) {
+            int novo = plantioSolo.length * 2;
+            plantioSolo = Arrays.copyOf(plantioSolo, novo);
+            plantioVegetal = Arrays.copyOf(plantioVegetal, novo);
+        }
+        plantioSolo[quantidadePlantios] = soloId;
+        plantioVegetal[quantidadePlantios] = vegetal;
+        quantidadePlantios++;
+    }
+
+    void registrarCercadoPronto(int cercadoId) {
+        if (quantidadeCercadosProntos == cercadosProntos.length) {
+            cercadosProntos = Arrays.copyOf(cercadosProntos, cercadosProntos.length * 2);
+        }
+        cercadosProntos[quantidadeCercadosProntos++] = cercadoId;
+    }
+}
@@ -0,0 +1,420 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.controller.PersonagemIA.Decisao;
+import br.ufpa.fazenda.controller.PersonagemIA.Tarefa;
+import br.ufpa.fazenda.model.Cercado;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Solo;
+import br.ufpa.fazenda.model.TabelaLucro;
+import br.ufpa.fazenda.model.Vegetal;
+import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo de planejamento da PersonagemIA (ver GameLoop.usarPlanejador): em vez de pegar a
+ * tarefa de maior valor agora, simula as ações candidatas em cópias da fazenda
+ * (GameLoop.bifurcar) até um horizonte e fica com a que deixa a fazenda mais rica no fim.
+ * Assim enxerga o que a gulosa não vê: colher agora para replantar algo melhor, o Arador
+ * replantando o último vegetal plantado, guardar fertilizante para a Abóbora...
+ *
+ * Busca em feixe: cada candidata é o início de uma sequência; as 'larguraFeixe' melhores
+ * ganham mais uma ação (as candidatas do intervalo seguinte da IA), até 'profundidade'
+ * ações. Depois da sequência o resto do horizonte roda com a própria IA gulosa, então a
+ * gulosa é sempre uma das sequências avaliadas (e ganha os empates).
+ *
+ * As simulações rodam em paralelo num ForkJoinPool, dentro de um orçamento de tempo por
+ * decisão: o que não terminou a tempo é descartado e, sem nenhum resultado, fica a
+ * gulosa. Sem orçamento (0) o resultado não depende do relógio nem do número de threads.
+ * Feito para fazendas do tamanho do jogo normal: cada simulação copia a fazenda inteira
+ * (ver MAXIMO_SOLOS).
+ */
+public class PlanejadorIA {
+
+    /**
+     * Maior fazenda (em solos) aceita por GameLoop.usarPlanejador.
+     */
+    public static final int MAXIMO_SOLOS = 256;
+
+    /**
+     * Uma sequência avaliada: a fazenda logo antes da próxima decisão e o valor no horizonte.
+     */
+    private static class Sequencia {
+        final Decisao primeira;
+        final GameLoop estado;
+        final double decorrido; // Segundos desde a decisão real até 'estado'
+        final double valor;
+
+        Sequencia(Decisao primeira, GameLoop estado, double decorrido, double valor) {
+            this.primeira = primeira;
+            this.estado = estado;
+            this.decorrido = decorrido;
+            this.valor = valor;
+        }
+    }
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final double INTERVALO = PersonagemIA.INTERVALO_ENTRE_ACOES;
+    private static final long CUSTO_FERTILIZANTE_CENTAVOS = Constantes.CUSTO_FERTILIZANTE_UNIDADE_CENTAVOS;
+
+    private final ForkJoinPool pool;
+    private final boolean poolProprio;
+
+    // Configuração (lida a cada decisão)
+    private volatile double horizonteSegundos = 2 * Constantes.SEGUNDOS_POR_DIA;
+    private volatile double passoSegundos = INTERVALO;
+    private volatile int profundidade = 2;
+    private volatile int larguraFeixe = 3;
+    private volatile int maximoCandidatas = 16;
+    private volatile long orcamentoNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // Estatísticas (o planejador pode ser compartilhado entre loops)
+    private final LongAdder decisoes = new LongAdder();
+    private final LongAdder simulacoes = new LongAdder();
+    private final LongAdder decisoesDiferentesDaGulosa = new LongAdder();
+    private final LongAdder orcamentosEstourados = new LongAdder();
+
+    /**
+     * Com um pool próprio, de uma thread por processador (encerrado em encerrar()).
+     */
+    public PlanejadorIA() {
+        this(new ForkJoinPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * Usando um pool de fora (ex.: um só para vários loops), que não é encerrado aqui.
+     */
+    public PlanejadorIA(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    private PlanejadorIA(ForkJoinPool pool, boolean poolProprio) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool nulo");
+        }
+        this.pool = pool;
+        this.poolProprio = poolProprio;
+    }
+
+    // --- Decisão ---
+
+    /**
+     * Escolhe a próxima ação da IA do 'loop' (pela thread do loop, no meio do tick).
+     * @return a primeira ação da melhor sequência, ou null (fica a gulosa)
+     */
+    Decisao escolher(GameLoop loop, Decisao gulosa) {
+        long inicio = System.nanoTime();
+        long orcamento = orcamentoNanos;
+        long prazo = orcamento > 0 ? inicio + orcamento : Long.MAX_VALUE;
+        double horizonte = horizonteSegundos;
+        double passo = passoSegundos;
+        decisoes.increment();
+
+        // A raiz é a única cópia feita nesta thread; as outras saem dela, em paralelo
+        GameLoop raiz = loop.bifurcar();
+        List<Sequencia> pais = new ArrayList<>();
+        pais.add(new Sequencia(null, raiz, 0.0, 0.0));
+        Sequencia melhor = null;
+
+        for (int nivel = 1; nivel <= profundidade && !pais.isEmpty(); nivel++) {
+            // Todas as (sequência do feixe, candidata) deste nível, em ordem
+            List<ForkJoinTask<Sequencia>> tarefas = new ArrayList<>();
+            for (Sequencia pai : pais) {
+                boolean primeiro = pai.primeira == null;
+                List<Decisao> candidatas = listarCandidatas(pai.estado.getFazenda(), primeiro ? gulosa : null);
+                for (Decisao candidata : candidatas) {
+                    tarefas.add(pool.submit(() -> simular(pai, candidata, primeiro, horizonte, passo)));
+                }
+            }
+            simulacoes.add(tarefas.size());
+
+            List<Sequencia> nivelAtual = coletar(tarefas, prazo);
+            if (nivelAtual.size() < tarefas.size()) {
+                // Comparar só parte das primeiras ações engana (quem ficou de fora pode ser
+                // a melhor): sem o nível 1 completo fica a gulosa; depois dele, o que já se sabe
+                orcamentosEstourados.increment();
+                break;
+            }
+            for (Sequencia sequencia : nivelAtual) {
+                if (melhor == null || sequencia.valor > melhor.valor) {
+                    melhor = sequencia;
+                }
+            }
+
+            // As melhores seguem para o próximo nível (ordenação estável: empate fica com a anterior)
+            nivelAtual.sort((a, b) -> Double.compare(b.valor, a.valor));
+            pais = nivelAtual.subList(0, Math.min(larguraFeixe, nivelAtual.size()));
+        }
+
+        if (melhor == null) return null;
+        if (!mesmaAcao(melhor.primeira, gulosa)) {
+            decisoesDiferentesDaGulosa.increment();
+        }
+        return melhor.primeira;
+    }
+
+    /**
+     * Aplica 'candidata' sobre uma cópia do 'pai', leva a cópia até logo antes da próxima
+     * decisão e avalia o resto do horizonte com a IA gulosa (em outra cópia).
+     *
+     * Relógio: a ação sai no mesmo ponto do tick que na IA real (depois do crescimento) e
+     * a próxima, INTERVALO depois. Por isso o estado guardado fica um passo antes dela:
+     * o rollout (ou a ação do nível seguinte) anda esse passo e age.
+     */
+    private static Sequencia simular(Sequencia pai, Decisao candidata, boolean primeiro,
+                                     double horizonte, double passo) {
+        GameLoop filho = pai.estado.bifurcar();
+        if (!primeiro) {
+            filho.avancar(passo, passo, false); // O passo que faltava até a decisão
+        }
+        filho.getPersonagemIA().repetirDecisao(candidata.tipo, candidata.alvoId, candidata.vegetal);
+        filho.avancar(INTERVALO - passo, passo, false);
+        double decorrido = pai.decorrido + (primeiro ? 0.0 : passo) + INTERVALO - passo;
+
+        GameLoop rollout = filho.bifurcar();
+        rollout.avancar(Math.max(0.0, horizonte - decorrido), passo, true);
+        double valor = avaliar(rollout.getFazenda());
+
+        Decisao primeira = primeiro ? candidata : pai.primeira;
+        return new Sequencia(primeira, filho, decorrido, valor);
+    }
+
+    /**
+     * Junta os resultados na ordem das tarefas, até o prazo; o resto é cancelado.
+     */
+    private static List<Sequencia> coletar(List<ForkJoinTask<Sequencia>> tarefas, long prazo) {
+        List<Sequencia> resultados = new ArrayList<>(tarefas.size());
+        for (int i = 0; i < tarefas.size(); i++) {
+            ForkJoinTask<Sequencia> tarefa = tarefas.get(i);
+            try {
+                if (prazo == Long.MAX_VALUE) {
+                    resultados.add(tarefa.join());
+                } else {
+                    long restante = prazo - System.nanoTime();
+                    if (restante <= 0 && !tarefa.isDone()) throw new TimeoutException();
+                    resultados.add(tarefa.get(Math.max(0, restante), TimeUnit.NANOSECONDS));
+                }
+            } catch (TimeoutException | CancellationException e) {
+                for (int j = i; j < tarefas.size(); j++) {
+                    tarefas.get(j).cancel(false);
+                }
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Uma simulação com erro não derruba o jogo: a candidata fica de fora
+                System.err.println("Erro no planejamento da IA: " + e.getCause());
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Ações possíveis agora (as mesmas regras da IA gulosa), com a gulosa primeiro e
+     * esperar (NADA) logo depois. Solos em estado idêntico dão uma candidata só.
+     */
+    private List<Decisao> listarCandidatas(FazendaEstado fazenda, Decisao gulosa) {
+        List<Decisao> candidatas = new ArrayList<>();
+        Set<Long> vistas = new HashSet<>();
+        if (gulosa != null) {
+            candidatas.add(gulosa);
+            vistas.add(assinatura(fazenda, gulosa));
+        }
+        candidatas.add(new Decisao(Tarefa.NADA, -1, 0.0, "Esperar"));
+
+        int limite = Math.max(maximoCandidatas, candidatas.size());
+        List<Solo> solos = fazenda.getSolos();
+        for (int i = 0; i < solos.size() && candidatas.size() < limite; i++) {
+            Solo solo = solos.get(i);
+            if (!solo.isDesbloqueado()) continue;
+
+            if (solo.isPronto() && !solo.temMaquina(Maquina.TRATOR)) {
+                adicionar(fazenda, candidatas, vistas,
+                          new Decisao(Tarefa.COLHER_SOLO, i, solo.calcularValorVenda(), "Colher"));
+            }
+            if (!solo.isOcupado() && !solo.temMaquina(Maquina.ARADOR)) {
+                for (Vegetal vegetal : VEGETAIS) {
+                    if (vegetal.getNivelMinimo() <= solo.getNivel()) {
+                        adicionar(fazenda, candidatas, vistas, new Decisao(Tarefa.PLANTAR_SOLO, i, vegetal,
+                                  TabelaLucro.getLucroPorSegundo(vegetal, solo), "Plantar"));
+                    }
+                }
+            }
+            if (fazenda.getEstoqueFertilizante() > 0 && solo.isOcupado()
+                    && solo.isFertilizanteAtivado() && !solo.isEstaComFertilizanteAplicado()) {
+                long beneficio = Dinheiro.multiplicar(solo.getVegetal().getValorVendaCentavos(),
+                                                      Constantes.BONUS_FERTILIZANTE_VALOR_PB);
+                if (beneficio > CUSTO_FERTILIZANTE_CENTAVOS) {
+                    adicionar(fazenda, candidatas, vistas, new Decisao(Tarefa.APLICAR_FERTILIZANTE, i,
+                              Dinheiro.paraReais(beneficio - CUSTO_FERTILIZANTE_CENTAVOS), "Fertilizar"));
+                }
+            }
+        }
+        List<Cercado> cercados = fazenda.getCercados();
+        for (int c = 0; c < cercados.size() && candidatas.size() < limite; c++) {
+            Cercado cercado = cercados.get(c);
+            if (cercado.isProdutoPronto()) {
+                adicionar(fazenda, candidatas, vistas, new Decisao(Tarefa.COLETAR_ANIMAIS, c,
+                          Dinheiro.paraReais(valorProdutosCentavos(cercado)), "Coletar"));
+            }
+        }
+        return candidatas;
+    }
+
+    private static void adicionar(FazendaEstado fazenda, List<Decisao> candidatas, Set<Long> vistas,
+                                  Decisao decisao) {
+        if (vistas.add(assinatura(fazenda, decisao))) {
+            candidatas.add(decisao);
+        }
+    }
+
+    /**
+     * Ação + estado do alvo. Solos com o mesmo estado levam ao mesmo futuro, então
+     * plantar Cenoura em qualquer um deles é uma candidata só. Cercados são poucos:
+     * cada um é o seu.
+     */
+    private static long assinatura(FazendaEstado fazenda, Decisao decisao) {
+        long a = decisao.tipo.ordinal();
+        a = a * 16 + (decisao.vegetal == null ? 15 : decisao.vegetal.ordinal());
+        if (decisao.tipo == Tarefa.COLETAR_ANIMAIS || decisao.tipo == Tarefa.NADA
+                || decisao.tipo == Tarefa.APLICAR_FERTILIZANTE) {
+            // Fertilizar depende do progresso, que quase nunca se repete
+            return (a << 32) | (decisao.alvoId & 0xFFFFFFFFL);
+        }
+        Solo solo = fazenda.getSolos().get(decisao.alvoId);
+        a = a * 16 + (solo.getVegetal() == null ? 15 : solo.getVegetal().ordinal());
+        a = a * 16 + solo.getNivel();
+        for (Maquina maquina : Maquina.values()) {
+            a = a * 2 + (solo.temMaquina(maquina) ? 1 : 0);
+        }
+        a = a * 2 + (solo.isFertilizanteAtivado() ? 1 : 0);
+        a = a * 2 + (solo.isEstaComFertilizanteAplicado() ? 1 : 0);
+        return (a << 32) | 0xFFFFFFFFL; // Sem o alvo: vale para todos os solos iguais
+    }
+
+    /**
+     * Valor da fazenda no fim do horizonte: dinheiro, mais o que está crescendo e
+     * produzindo (pela fração pronta, senão o planejador só gostaria do que termina antes
+     * do horizonte) e o fertilizante em estoque pelo custo.
+     */
+    static double avaliar(FazendaEstado fazenda) {
+        double valor = Dinheiro.paraReais(fazenda.getCentavos()
+                                          + fazenda.getEstoqueFertilizante() * CUSTO_FERTILIZANTE_CENTAVOS);
+        for (Solo solo : fazenda.getSolos()) {
+            if (solo.isOcupado()) {
+                valor += solo.getProgresso() * solo.calcularValorVenda();
+            }
+        }
+        for (Cercado cercado : fazenda.getCercados()) {
+            if (!cercado.isVazio()) {
+                valor += cercado.getProgresso() * Dinheiro.paraReais(valorProdutosCentavos(cercado));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * O que a coleta do cercado rende, como Cercado.coletarProdutosCentavos.
+     */
+    private static long valorProdutosCentavos(Cercado cercado) {
+        return cercado.getEspecie().getProdutoValorCentavos() * cercado.getQuantidade();
+    }
+
+    private static boolean mesmaAcao(Decisao a, Decisao b) {
+        return a.tipo == b.tipo && a.alvoId == b.alvoId && a.vegetal == b.vegetal;
+    }
+
+    // --- Configuração ---
+
+    /**
+     * Até onde cada sequência é simulada, em segundos de jogo (padrão: 2 dias).
+     */
+    public void setHorizonteSegundos(double segundos) {
+        if (!(segundos >= INTERVALO)) {
+            throw new IllegalArgumentException("Horizonte deve ser >= " + INTERVALO + ": " + segundos);
+        }
+        this.horizonteSegundos = segundos;
+    }
+
+    /**
+     * Passo das simulações (padrão 0,5 s, o intervalo da IA; o jogo usa
+     * PASSO_SIMULACAO_SEGUNDOS). Mais grosso = mais simulações no orçamento, com o
+     * crescimento arredondado ao passo.
+     */
+    public void setPassoSegundos(double passo) {
+        if (!(passo > 0 && passo <= INTERVALO)) {
+            throw new IllegalArgumentException("Passo deve estar em (0, " + INTERVALO + "]: " + passo);
+        }
+        this.passoSegundos = passo;
+    }
+
+    /**
+     * Quantas ações em sequência são escolhidas pela busca antes da gulosa assumir.
+     */
+    public void setProfundidade(int profundidade) {
+        if (profundidade < 1) {
+            throw new IllegalArgumentException("Profundidade deve ser >= 1: " + profundidade);
+        }
+        this.profundidade = profundidade;
+    }
+
+    /**
+     * Quantas sequências de um nível seguem para o próximo.
+     */
+    public void setLarguraFeixe(int largura) {
+        if (largura < 1) {
+            throw new IllegalArgumentException("Largura do feixe deve ser >= 1: " + largura);
+        }
+        this.larguraFeixe = largura;
+    }
+
+    /**
+     * Limite de candidatas por decisão (a gulosa e esperar entram sempre).
+     */
+    public void setMaximoCandidatas(int maximo) {
+        if (maximo < 2) {
+            throw new IllegalArgumentException("Máximo de candidatas deve ser >= 2: " + maximo);
+        }
+        this.maximoCandidatas = maximo;
+    }
+
+    /**
+     * Tempo real máximo por decisão (0 = sem limite; padrão 10 ms). A thread do loop
+     * espera esse tempo no meio do tick.
+     */
+    public void setOrcamento(long tempo, TimeUnit unidade) {
+        if (tempo < 0) {
+            throw new IllegalArgumentException("Orçamento negativo: " + tempo);
+        }
+        this.orcamentoNanos = unidade.toNanos(tempo);
+    }
+
+    // --- Estatísticas ---
+
+    public long getDecisoes() { return decisoes.sum(); }
+    public long getSimulacoes() { return simulacoes.sum(); }
+    public long getDecisoesDiferentesDaGulosa() { return decisoesDiferentesDaGulosa.sum(); }
+    public long getOrcamentosEstourados() { return orcamentosEstourados.sum(); }
+
+    /**
+     * Encerra o pool (só se foi criado aqui).
+     */
+    public void encerrar() {
+        if (poolProprio) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.util.Constantes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa a simulação "o mais rápido possível", sem interface e sem dormir.
+ * O tempo é um relógio virtual: cada passo avança exatamente PASSO_SIMULACAO_SEGUNDOS,
+ * então o resultado é o mesmo de um GameLoop em passo fixo, só que sem esperar o relógio real.
+ *
+ * Uso típico: cenários de balanceamento e regressão ("como está a fazenda depois de 3 meses?").
+ */
+public class SimuladorHeadless {
+
+    /**
+     * Resumo de uma chamada a simular().
+     */
+    public static class ResultadoSimulacao {
+        public final double segundosSimulados;
+        public final long passos;
+        public final long nanosReais;
+
+        public ResultadoSimulacao(double segundosSimulados, long passos, long nanosReais) {
+            this.segundosSimulados = segundosSimulados;
+            this.passos = passos;
+            this.nanosReais = nanosReais;
+        }
+
+        /**
+         * Quantos segundos de jogo foram simulados por segundo de relógio real.
+         */
+        public double getSegundosSimuladosPorSegundoReal() {
+            if (nanosReais <= 0) return Double.POSITIVE_INFINITY;
+            return segundosSimulados / (nanosReais / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0fs simulados em %d passos (%.1f ms reais, %.0fx tempo real)",
+                segundosSimulados, passos, nanosReais / 1_000_000.0, getSegundosSimuladosPorSegundoReal());
+        }
+    }
+
+    private final GameLoop loop; // Nunca é iniciado como thread
+    private final double passoSegundos;
+
+    // Relógio virtual
+    private double tempoSimulado = 0.0;
+    private long passosExecutados = 0;
+
+    public SimuladorHeadless(FazendaEstado fazenda) {
+        this(fazenda, Constantes.PASSO_SIMULACAO_SEGUNDOS);
+    }
+
+    public SimuladorHeadless(FazendaEstado fazenda, double passoSegundos) {
+        if (passoSegundos <= 0) {
+            throw new IllegalArgumentException("Passo deve ser positivo: " + passoSegundos);
+        }
+        this.loop = new GameLoop(fazenda, null); // Sem ouvinte: nada de HUD nem mensagens
+        this.passoSegundos = passoSegundos;
+    }
+
+    /**
+     * Simula 'duracaoSegundos' de jogo em sequência, sem pausas.
+     * Se a duração não for múltipla do passo, o último passo é parcial.
+     */
+    public ResultadoSimulacao simular(double duracaoSegundos) {
+        if (duracaoSegundos < 0) {
+            throw new IllegalArgumentException("Duração negativa: " + duracaoSegundos);
+        }
+
+        long passosInteiros = (long) Math.floor(duracaoSegundos / passoSegundos);
+        double resto = duracaoSegundos - passosInteiros * passoSegundos;
+
+        long inicio = System.nanoTime();
+        for (long i = 0; i < passosInteiros; i++) {
+            loop.atualizarJogo(passoSegundos);
+        }
+        long passos = passosInteiros;
+        if (resto > 1e-9) {
+            loop.atualizarJogo(resto);
+            passos++;
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        tempoSimulado += duracaoSegundos;
+        passosExecutados += passos;
+        return new ResultadoSimulacao(duracaoSegundos, passos, nanos);
+    }
+
+    /**
+     * Atalho para simular um número de dias do jogo.
+     */
+    public ResultadoSimulacao simularDias(int dias) {
+        return simular((double) dias * Constantes.SEGUNDOS_POR_DIA);
+    }
+
+    // --- Getters ---
+    public double getTempoSimulado() { return tempoSimulado; }
+    public long getPassosExecutados() { return passosExecutados; }
+    public double getPassoSegundos() { return passoSegundos; }
+
+    /**
+     * Loop interno (para ativar a IA, comprar coisas etc. antes de simular)
+     */
+    public GameLoop getLoop() { return loop; }
+
+    /**
+     * Roda um cenário pela linha de comando.
+     * Uso: SimuladorHeadless [dias] [--ia] [--planejador] [--ajudantes N] [--lote K] [--agenda] [--paralelo]
+     */
+    public static void main(String[] args) {
+        int dias = 30;
+        boolean comIA = false;
+        boolean comPlanejador = false;
+        boolean comAgenda = false;
+        boolean paralelo = false;
+        int ajudantes = 1;
+        int lote = 1;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--ia")) {
+                comIA = true;
+            } else if (arg.equals("--planejador")) {
+                comIA = true;
+                comPlanejador = true;
+            } else if (arg.equals("--ajudantes") && i + 1 < args.length) {
+                comIA = true;
+                ajudantes = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--lote") && i + 1 < args.length) {
+                comIA = true;
+                lote = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--agenda")) {
+                comAgenda = true;
+            } else if (arg.equals("--paralelo")) {
+                paralelo = true;
+            } else {
+                dias = Integer.parseInt(arg);
+            }
+        }
+
+        FazendaEstado fazenda = FazendaEstado.getInstance();
+        SimuladorHeadless simulador = new SimuladorHeadless(fazenda);
+        if (comIA) {
+            simulador.getLoop().setAjudantesIA(ajudantes);
+            simulador.getLoop().setAcoesPorCicloIA(lote);
+            simulador.getLoop().ativarIA();
+        }
+        PlanejadorIA planejador = null;
+        if (comPlanejador) {
+            planejador = new PlanejadorIA();
+            planejador.setOrcamento(0, TimeUnit.MILLISECONDS); // Mesmo resultado em qualquer máquina
+            simulador.getLoop().usarPlanejador(planejador);
+        }
+        if (comAgenda) {
+            simulador.getLoop().setAgendaProntidao(true);
+        }
+        if (paralelo) {
+            simulador.getLoop().setTickParalelo(true);
+        }
+
+        ResultadoSimulacao resultado = simulador.simularDias(dias);
+        if (planejador != null) {
+            planejador.encerrar();
+        }
+        simulador.getLoop().sincronizarProgresso();
+        simulador.getLoop().setTickParalelo(false);
+        System.out.println("=== SIMULAÇÃO HEADLESS ===");
+        System.out.println(resultado);
+        System.out.printf("Dia: %d | Dinheiro: R$ %.2f | Fertilizante: %d\n",
+            fazenda.getDiaAtual(), fazenda.getDinheiro(), fazenda.getEstoqueFertilizante());
+        if (ajudantes > 1) {
+            for (PersonagemIA.EstatisticasAjudante estatisticas : simulador.getLoop().getEstatisticasAjudantesIA()) {
+                System.out.println(estatisticas);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package br.ufpa.fazenda.engine;
+
+/**
+ * Intenções que quem está fora do loop (console, tela, IA externa) pode pedir.
+ * Os argumentos são sempre inteiros (ids e ordinais), para o comando poder ser
+ * guardado e repetido depois sem depender de objetos.
+ */
+public enum TipoComando {
+
+    /** arg1 = solo, arg2 = Vegetal (ordinal). Também vira o "último vegetal plantado" */
+    PLANTAR,
+
+    /** arg1 = solo. Valor = dinheiro ganho */
+    COLHER,
+
+    /** arg1 = solo */
+    ARRANCAR,
+
+    /** arg1 = solo, arg2 = 1 liga / 0 desliga */
+    ATIVAR_FERTILIZANTE,
+
+    /** Sem argumentos */
+    COMPRAR_FERTILIZANTE,
+
+    /** arg1 = solo */
+    DESBLOQUEAR_SOLO,
+
+    /** arg1 = solo */
+    EVOLUIR_SOLO,
+
+    /** arg1 = Maquina (ordinal) */
+    COMPRAR_MAQUINA,
+
+    /** arg1 = solo, arg2 = Maquina (ordinal) */
+    INSTALAR_MAQUINA,
+
+    /** arg1 = solo, arg2 = Maquina (ordinal) */
+    REMOVER_MAQUINA,
+
+    /** arg1 = cercado */
+    COMPRAR_ANIMAL,
+
+    /** arg1 = cercado. Valor = dinheiro ganho */
+    COLETAR_CERCADO,
+
+    /** arg1 = 1 ativa / 0 desativa */
+    ATIVAR_IA,
+
+    /** arg1 = quantidade de ajudantes da IA (1 = um personagem só) */
+    AJUDANTES_IA
+}
@@ -0,0 +1,54 @@
+package br.ufpa.fazenda.engine;
+
+import br.ufpa.fazenda.model.Animal;
+import br.ufpa.fazenda.model.Vegetal;
+
+/**
+ * Tipos de evento do jogo entregues por GerenciadorEventos.aoEventoJogo().
+ *
+ * O evento só carrega campos primitivos (alvo, ordinal, valor); o texto para o jogador
+ * é montado por formatar(), e só por quem realmente vai mostrá-lo.
+ */
+public enum TipoEvento {
+
+    /** alvo = número do dia */
+    NOVO_DIA,
+
+    /** alvo = solo, ordinal = Vegetal, valor = valor de venda */
+    COLHEITA_TRATOR,
+
+    /** alvo = solo, ordinal = Vegetal */
+    PLANTIO_ARADOR,
+
+    /** alvo = cercado, ordinal = Animal */
+    PRODUCAO_CERCADO,
+
+    /** alvo = cercado, ordinal = Animal, valor = valor da coleta */
+    COLETA_CERCADO;
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final Animal[] ANIMAIS = Animal.values();
+
+    /**
+     * Monta a mensagem do evento (a mesma que o jogo sempre mostrou).
+     */
+    public String formatar(int alvoId, int ordinal, double valor) {
+        switch (this) {
+            case NOVO_DIA:
+                return "Um novo dia começou! (Dia " + alvoId + ") Custo de manutenção aplicado.";
+            case COLHEITA_TRATOR:
+                return "Trator vendeu " + VEGETAIS[ordinal].getNome() +
+                       " por R$" + String.format("%.2f", valor);
+            case PLANTIO_ARADOR:
+                return "Arador plantou " + VEGETAIS[ordinal].getNome() + " no Solo " + (alvoId + 1);
+            case PRODUCAO_CERCADO:
+                return ANIMAIS[ordinal].getNome() + " no cercado " + (alvoId + 1) +
+                       " produziu " + ANIMAIS[ordinal].getProduto() + "!";
+            case COLETA_CERCADO:
+                return "Coletou " + ANIMAIS[ordinal].getProduto() + " do cercado " + (alvoId + 1) +
+                       " por R$" + String.format("%.2f", valor);
+            default:
+                return name();
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package br.ufpa.fazenda.main;
 
+import br.ufpa.fazenda.controller.PersonagemIA;
+import br.ufpa.fazenda.engine.Comando;
+import br.ufpa.fazenda.engine.DespachanteEventos;
 import br.ufpa.fazenda.engine.GameLoop;
 import br.ufpa.fazenda.engine.GerenciadorEventos;
+import br.ufpa.fazenda.engine.MetricasTick;
+import br.ufpa.fazenda.engine.TipoComando;
 import br.ufpa.fazenda.model.*;
+import br.ufpa.fazenda.persistencia.ArquivoFazenda;
+import br.ufpa.fazenda.util.Constantes;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Scanner;
+import javax.management.JMException;
 
 /**
  * Classe para testar a lógica SEM a interface gráfica.
+ * Depois que o loop começa, toda mudança na fazenda vai como Comando (loop.enviar),
+ * e o GameLoop aplica na thread dele; o console só lê o estado.
  */
 public class TesteConsole implements GerenciadorEventos {
 
@@ -21,21 +36,37 @@ public class TesteConsole implements GerenciadorEventos {
     public void iniciar() {
         System.out.println("=== INICIANDO SIMULAÇÃO FAZENDA IDLE ===");
         
-        // 1. Pega a fazenda
+        // 1. Pega a fazenda e prepara o GameLoop, continuando o jogo salvo se houver
+        // (último checkpoint + diário de comandos)
         FazendaEstado fazenda = FazendaEstado.getInstance();
+        loop = new GameLoop(this); // 'this' é a própria classe TesteConsole
+        boolean carregou = recuperarJogo();
         
         // Mostra estado inicial
         statusFazenda();
         
         // 2. Planta algo manualmente no Solo 0 para testar (se estiver desbloqueado)
         Solo solo0 = fazenda.getSolos().get(0);
-        if (solo0.isDesbloqueado()) {
+        if (!carregou && solo0.isDesbloqueado()) {
             System.out.println("\nPlantando Alface no Solo 1 (desbloqueado)...");
             solo0.plantar(Vegetal.ALFACE);
         }
         
-        // 3. Inicia o GameLoop
-        loop = new GameLoop(this); // 'this' é a própria classe TesteConsole
+        // 3. Inicia o GameLoop, registrando tudo no diário a partir daqui
+        try {
+            loop.usarDiario(Path.of(Constantes.ARQUIVO_JOGO_SALVO), Path.of(Constantes.PASTA_DIARIO),
+                            Constantes.INTERVALO_COMMIT_DIARIO_MS, Constantes.TICKS_ENTRE_CHECKPOINTS);
+        } catch (IOException e) {
+            System.out.println("Não foi possível ligar o salvamento automático: " + e.getMessage());
+        }
+        // Os println acontecem em outra thread, sem segurar a simulação
+        loop.usarDespachoAssincrono(DespachanteEventos.PoliticaTransbordo.COALESCER);
+        // Duração das fases do tick, no jconsole (MBean br.ufpa.fazenda) e na opção 11
+        try {
+            loop.usarMetricas("console");
+        } catch (JMException e) {
+            System.out.println("Métricas do tick indisponíveis: " + e.getMessage());
+        }
         loop.start();
         
         // 4. Menu de interação
@@ -57,7 +88,9 @@ public class TesteConsole implements GerenciadorEventos {
             System.out.println("7. Comprar animal");
             System.out.println("8. Evoluir solo");
             System.out.println("9. Comprar e instalar máquina");
-            System.out.println("10. Sair do menu (jogo continua rodando)");
+            System.out.println("10. Salvar jogo");
+            System.out.println("11. Métricas do tick");
+            System.out.println("12. Sair do menu (jogo continua rodando)");
             System.out.print("Escolha: ");
             
             try {
@@ -92,6 +125,12 @@ public class TesteConsole implements GerenciadorEventos {
                         comprarEInstalarMaquina();
                         break;
                     case 10:
+                        salvarJogo();
+                        break;
+                    case 11:
+                        metricasTick();
+                        break;
+                    case 12:
                         sair = true;
                         System.out.println("Saindo do menu. O jogo continua rodando...");
                         break;
@@ -104,12 +143,50 @@ public class TesteConsole implements GerenciadorEventos {
         }
     }
     
+    private void metricasTick() {
+        MetricasTick metricas = loop.getMetricas();
+        System.out.println(metricas == null ? "Métricas desligadas." : metricas.getResumo());
+    }
+    
+    private boolean recuperarJogo() {
+        Path arquivo = Path.of(Constantes.ARQUIVO_JOGO_SALVO);
+        if (!Files.exists(arquivo)) return false;
+        try {
+            long repetidos = loop.recuperar(arquivo, Path.of(Constantes.PASTA_DIARIO));
+            System.out.println("Jogo salvo carregado de " + arquivo + " (+" + repetidos + " ticks do diário)");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Não foi possível carregar o jogo salvo: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private void salvarJogo() {
+        if (loop.getDiario() == null) {
+            // Sem diário: grava a fotografia daqui mesmo (ela é imutável)
+            try {
+                ArquivoFazenda.salvar(loop.getFotografia(), Path.of(Constantes.ARQUIVO_JOGO_SALVO));
+                System.out.println("Jogo salvo em " + Constantes.ARQUIVO_JOGO_SALVO);
+            } catch (IOException e) {
+                System.out.println("Erro ao salvar: " + e.getMessage());
+            }
+            return;
+        }
+        try {
+            // O checkpoint é gravado em outra thread; o jogo não para
+            long tick = loop.salvarAgora().join();
+            System.out.println("Jogo salvo em " + Constantes.ARQUIVO_JOGO_SALVO + " (tick " + tick + ")");
+        } catch (RuntimeException e) {
+            System.out.println("Erro ao salvar: " + e.getMessage());
+        }
+    }
+    
     private void alternarIA() {
         if (loop.isIAActivo()) {
-            loop.desativarIA();
+            loop.enviar(TipoComando.ATIVAR_IA, 0, 0).aguardar();
             System.out.println("IA DESATIVADA");
         } else {
-            loop.ativarIA();
+            loop.enviar(TipoComando.ATIVAR_IA, 1, 0).aguardar();
             System.out.println("IA ATIVADA");
         }
     }
@@ -117,66 +194,74 @@ public class TesteConsole implements GerenciadorEventos {
     private void statusIA() {
         System.out.println("\n=== STATUS DA IA ===");
         System.out.println("Ativa: " + (loop.isIAActivo() ? "SIM" : "NÃO"));
-        System.out.println("Status: " + loop.getPersonagemIA().getStatus());
+        System.out.println("Status: " + loop.getStatusIA());
         System.out.println("Tarefas pendentes: " + loop.getPersonagemIA().getTarefasPendentes());
+        List<PersonagemIA.EstatisticasAjudante> ajudantes = loop.getEstatisticasAjudantesIA();
+        if (ajudantes.size() > 1) {
+            for (PersonagemIA.EstatisticasAjudante ajudante : ajudantes) {
+                System.out.println("  " + ajudante);
+            }
+        }
     }
     
     private void statusFazenda() {
-        FazendaEstado fazenda = FazendaEstado.getInstance();
+        // Lê a fotografia do último tick: consistente e sem disputar com a simulação
+        FotografiaFazenda foto = loop.getFotografia();
         System.out.println("\n=== STATUS DA FAZENDA ===");
-        System.out.printf("Dinheiro: R$ %.2f\n", fazenda.getDinheiro());
-        System.out.println("Dia: " + fazenda.getDiaAtual());
-        System.out.println("Estoque Fertilizante: " + fazenda.getEstoqueFertilizante());
+        System.out.printf("Dinheiro: R$ %.2f\n", foto.getDinheiro());
+        System.out.println("Dia: " + foto.getDiaAtual());
+        System.out.println("Estoque Fertilizante: " + foto.getEstoqueFertilizante());
         
         System.out.println("\n=== SOLOS ===");
-        for (Solo solo : fazenda.getSolos()) {
-            String status = solo.isDesbloqueado() ? "✅ DESBLOQUEADO" : "🔒 BLOQUEADO (R$300)";
+        for (int id = 0; id < foto.getQuantidadeSolos(); id++) {
+            String status = foto.isDesbloqueado(id) ? "✅ DESBLOQUEADO" : "🔒 BLOQUEADO (R$300)";
             String maquinas = "";
-            if (!solo.getMaquinasInstaladas().isEmpty()) {
-                maquinas = " [Máquinas: ";
-                for (Maquina maquina : solo.getMaquinasInstaladas()) {
+            for (Maquina maquina : Maquina.values()) {
+                if (foto.temMaquina(id, maquina)) {
                     maquinas += maquina.getNome().substring(0, 3) + " ";
                 }
-                maquinas += "]";
+            }
+            if (!maquinas.isEmpty()) {
+                maquinas = " [Máquinas: " + maquinas + "]";
             }
             
-            if (solo.isOcupado()) {
+            if (foto.isOcupado(id)) {
                 System.out.printf("Solo %d: %s - %s (%.1f%%) Nível %d %s %s\n", 
-                    solo.getId() + 1,
+                    id + 1,
                     status,
-                    solo.getVegetal().getNome(),
-                    solo.getProgresso() * 100,
-                    solo.getNivel(),
-                    solo.isPronto() ? "[PRONTO]" : "",
+                    foto.getVegetal(id).getNome(),
+                    foto.getProgresso(id) * 100,
+                    foto.getNivel(id),
+                    foto.isPronto(id) ? "[PRONTO]" : "",
                     maquinas);
             } else {
                 System.out.printf("Solo %d: %s - Vazio (Nível %d) %s\n", 
-                    solo.getId() + 1, status, solo.getNivel(), maquinas);
+                    id + 1, status, foto.getNivel(id), maquinas);
             }
         }
         
         System.out.println("\n=== CERCADOS ===");
-        for (int i = 0; i < fazenda.getCercados().size(); i++) {
-            var cercado = fazenda.getCercados().get(i);
-            String especieNome = cercado.isVazio() ? "Vazio" : cercado.getEspecie().getNome();
-            String produtoNome = cercado.isVazio() ? "" : cercado.getEspecie().getProduto();
-            double preco = cercado.isVazio() ? 0 : cercado.getEspecie().getPrecoCompra();
+        for (int i = 0; i < foto.getQuantidadeCercados(); i++) {
+            Animal especie = foto.getEspecie(i);
+            boolean vazio = foto.isCercadoVazio(i);
+            String especieNome = vazio ? "Vazio" : especie.getNome();
+            String produtoNome = vazio ? "" : especie.getProduto();
+            double preco = vazio ? 0 : especie.getPrecoCompra();
             
             System.out.printf("Cercado %d: %s (%d/3) - Preço: R$%.2f %s %s\n",
                 i + 1,
                 especieNome,
-                cercado.getQuantidade(),
+                foto.getQuantidadeAnimais(i),
                 preco,
-                cercado.isProdutoPronto() ? "[PRONTO]" : "",
+                foto.isProdutoPronto(i) ? "[PRONTO]" : "",
                 produtoNome
             );
         }
         
         System.out.println("\n=== INVENTÁRIO DE MÁQUINAS ===");
-        var inventario = fazenda.getInventarioMaquinas();
         boolean temMaquinas = false;
         for (Maquina maquina : Maquina.values()) {
-            int quantidade = inventario.get(maquina);
+            int quantidade = foto.getQuantidadeInventario(maquina);
             if (quantidade > 0) {
                 System.out.printf("- %s: %d unidade(s)\n", maquina.getNome(), quantidade);
                 temMaquinas = true;
@@ -196,29 +281,28 @@ public class TesteConsole implements GerenciadorEventos {
                 return;
             }
             
-            FazendaEstado fazenda = FazendaEstado.getInstance();
-            Solo solo = fazenda.getSolos().get(soloId);
+            FotografiaFazenda foto = loop.getFotografia();
             
-            if (!solo.isDesbloqueado()) {
+            if (!foto.isDesbloqueado(soloId)) {
                 System.out.println("Este solo está bloqueado! Desbloqueie-o primeiro (opção 6).");
                 return;
             }
             
             // Verifica se o solo está ocupado
-            boolean soloOcupado = solo.isOcupado();
+            boolean soloOcupado = foto.isOcupado(soloId);
             if (soloOcupado) {
                 System.out.printf("\nEste solo já está ocupado com %s (Progresso: %.1f%%).\n", 
-                    solo.getVegetal().getNome(), solo.getProgresso() * 100);
+                    foto.getVegetal(soloId).getNome(), foto.getProgresso(soloId) * 100);
                 
-                if (solo.isPronto()) {
+                if (foto.isPronto(soloId)) {
                     System.out.println("A planta está PRONTA para colheita!");
                     System.out.print("Deseja colher antes de plantar novo vegetal? (S/N): ");
                     String resposta = scanner.nextLine().toUpperCase();
                     
                     if (resposta.equals("S") || resposta.equals("SIM")) {
-                        double valorColheita = solo.colher();
-                        fazenda.ganharDinheiro(valorColheita);
-                        System.out.printf("Colhido! Ganhou R$%.2f.\n", valorColheita);
+                        Comando colheita = loop.enviar(TipoComando.COLHER, soloId, 0);
+                        colheita.aguardar();
+                        System.out.printf("Colhido! Ganhou R$%.2f.\n", colheita.getValor());
                         soloOcupado = false; // Agora está vazio
                     }
                 }
@@ -229,7 +313,7 @@ public class TesteConsole implements GerenciadorEventos {
                     String substituir = scanner.nextLine().toUpperCase();
                     
                     if (substituir.equals("S") || substituir.equals("SIM")) {
-                        solo.arrancar();
+                        loop.enviar(TipoComando.ARRANCAR, soloId, 0).aguardar();
                         System.out.println("Planta arrancada. Solo agora está vazio.");
                         soloOcupado = false;
                     } else {
@@ -243,19 +327,25 @@ public class TesteConsole implements GerenciadorEventos {
             
             // Mostra apenas vegetais disponíveis para o nível do solo
             System.out.println("\n=== VEGETAIS DISPONÍVEIS ===");
-            System.out.println("(Baseado no nível do solo: " + solo.getNivel() + ")");
+            int nivel = foto.getNivel(soloId);
+            boolean irrigador = foto.temMaquina(soloId, Maquina.IRRIGADOR);
+            boolean fertilizante = foto.isFertilizanteAtivado(soloId) && foto.getEstoqueFertilizante() > 0;
+            System.out.println("(Baseado no nível do solo: " + nivel + ")");
             int opcao = 1;
+            Vegetal melhor = TabelaLucro.getMelhorVegetal(nivel, irrigador, fertilizante); // Mesma conta da IA
             
             for (Vegetal vegetal : Vegetal.values()) {
-                if (vegetal.getNivelMinimo() <= solo.getNivel()) {
-                    String disponivel = vegetal.getNivelMinimo() <= solo.getNivel() ? "✅" : "❌";
-                    System.out.printf("%d. %s %s (Nível %d) - %d dias - Vende por: R$%.2f\n",
+                if (vegetal.getNivelMinimo() <= nivel) {
+                    String disponivel = vegetal.getNivelMinimo() <= nivel ? "✅" : "❌";
+                    System.out.printf("%d. %s %s (Nível %d) - %d dias - Vende por: R$%.2f - R$%.2f/s%s\n",
                         opcao++,
                         disponivel,
                         vegetal.getNome(),
                         vegetal.getNivelMinimo(),
                         vegetal.getDiasParaCrescer(),
-                        vegetal.getValorVenda());
+                        vegetal.getValorVenda(),
+                        TabelaLucro.getLucroPorSegundo(vegetal, nivel, irrigador, fertilizante),
+                        vegetal == melhor ? " ⭐ mais lucrativo" : "");
                 }
             }
             
@@ -271,7 +361,7 @@ public class TesteConsole implements GerenciadorEventos {
             Vegetal vegetalSelecionado = null;
             int contador = 1;
             for (Vegetal vegetal : Vegetal.values()) {
-                if (vegetal.getNivelMinimo() <= solo.getNivel()) {
+                if (vegetal.getNivelMinimo() <= nivel) {
                     if (contador == vegetalEscolha) {
                         vegetalSelecionado = vegetal;
                         break;
@@ -286,20 +376,22 @@ public class TesteConsole implements GerenciadorEventos {
             }
             
             // Tenta plantar (agora o solo deve estar vazio)
-            boolean plantou = solo.plantar(vegetalSelecionado);
+            // (o comando também marca o último vegetal plantado, usado pelo Arador)
+            long antes = loop.getFotografia().getTick();
+            boolean plantou = loop.enviar(TipoComando.PLANTAR, soloId, vegetalSelecionado.ordinal()).aguardar();
             if (plantou) {
-                fazenda.setUltimoVegetalPlantado(vegetalSelecionado);
+                foto = fotografiaDepois(antes);
                 System.out.println("\n✅ " + vegetalSelecionado.getNome() + 
                                  " plantado no Solo " + (soloId + 1) + 
-                                 " (Nível " + solo.getNivel() + ")");
+                                 " (Nível " + foto.getNivel(soloId) + ")");
                 System.out.println("Tempo estimado: " + vegetalSelecionado.getDiasParaCrescer() + " dias do jogo.");
                 
                 // Perguntar se quer ativar fertilizante
-                if (fazenda.getEstoqueFertilizante() > 0) {
+                if (foto.getEstoqueFertilizante() > 0) {
                     System.out.print("Ativar fertilizante para este solo? (S/N): ");
                     String ativarFert = scanner.nextLine().toUpperCase();
                     if (ativarFert.equals("S") || ativarFert.equals("SIM")) {
-                        solo.setFertilizanteAtivado(true);
+                        loop.enviar(TipoComando.ATIVAR_FERTILIZANTE, soloId, 1).aguardar();
                         System.out.println("Fertilizante ativado para este solo!");
                     }
                 }
@@ -313,22 +405,26 @@ public class TesteConsole implements GerenciadorEventos {
     }
     
     private void comprarFertilizante() {
-        FazendaEstado fazenda = FazendaEstado.getInstance();
+        FotografiaFazenda foto = loop.getFotografia();
         double custo = 150.0;
         int quantidade = 10;
         
         System.out.printf("\n=== COMPRAR FERTILIZANTE ===\n");
         System.out.printf("Preço: R$%.2f por lote de %d aplicações\n", custo, quantidade);
-        System.out.printf("Seu dinheiro: R$%.2f\n", fazenda.getDinheiro());
+        System.out.printf("Seu dinheiro: R$%.2f\n", foto.getDinheiro());
         
-        if (fazenda.getDinheiro() >= custo) {
+        if (foto.getDinheiro() >= custo) {
             System.out.print("Confirmar compra? (S/N): ");
             String confirmacao = scanner.nextLine().toUpperCase();
             
             if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
-                fazenda.comprarFertilizante();
-                System.out.println("✅ Fertilizante comprado! Estoque: " + 
-                                 fazenda.getEstoqueFertilizante() + " aplicações");
+                long antes = loop.getFotografia().getTick();
+                if (loop.enviar(TipoComando.COMPRAR_FERTILIZANTE, 0, 0).aguardar()) {
+                    System.out.println("✅ Fertilizante comprado! Estoque: " + 
+                                     fotografiaDepois(antes).getEstoqueFertilizante() + " aplicações");
+                } else {
+                    System.out.println("❌ Dinheiro insuficiente! Necessário: R$" + custo);
+                }
             } else {
                 System.out.println("Compra cancelada.");
             }
@@ -348,10 +444,9 @@ public class TesteConsole implements GerenciadorEventos {
                 return;
             }
             
-            FazendaEstado fazenda = FazendaEstado.getInstance();
-            Solo solo = fazenda.getSolos().get(soloId);
+            FotografiaFazenda foto = loop.getFotografia();
             
-            if (solo.isDesbloqueado()) {
+            if (foto.isDesbloqueado(soloId)) {
                 System.out.println("Este solo já está desbloqueado!");
                 return;
             }
@@ -359,12 +454,12 @@ public class TesteConsole implements GerenciadorEventos {
             double custo = 300.0;
             System.out.printf("\n=== DESBLOQUEAR SOLO %d ===\n", soloId + 1);
             System.out.printf("Custo: R$%.2f\n", custo);
-            System.out.printf("Seu dinheiro: R$%.2f\n", fazenda.getDinheiro());
+            System.out.printf("Seu dinheiro: R$%.2f\n", foto.getDinheiro());
             System.out.print("Confirmar desbloqueio? (S/N): ");
             String confirmacao = scanner.nextLine().toUpperCase();
             
             if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
-                boolean sucesso = loop.desbloquearSolo(soloId);
+                boolean sucesso = loop.enviar(TipoComando.DESBLOQUEAR_SOLO, soloId, 0).aguardar();
                 if (sucesso) {
                     System.out.println("✅ Solo " + (soloId + 1) + " desbloqueado com sucesso!");
                 } else {
@@ -388,31 +483,31 @@ public class TesteConsole implements GerenciadorEventos {
                 return;
             }
             
-            FazendaEstado fazenda = FazendaEstado.getInstance();
-            var cercado = fazenda.getCercados().get(cercadoId);
+            FotografiaFazenda foto = loop.getFotografia();
             
-            if (cercado.getQuantidade() >= 3) {
+            if (foto.getQuantidadeAnimais(cercadoId) >= 3) {
                 System.out.println("❌ Este cercado já está cheio! (3/3 animais)");
                 return;
             }
             
-            Animal especie = cercado.getEspecie();
+            Animal especie = foto.getEspecie(cercadoId);
             double preco = especie.getPrecoCompra();
             
             System.out.printf("\n=== COMPRAR ANIMAL ===\n");
             System.out.printf("Espécie: %s\n", especie.getNome());
             System.out.printf("Preço: R$%.2f\n", preco);
-            System.out.printf("Capacidade atual: %d/3\n", cercado.getQuantidade());
-            System.out.printf("Seu dinheiro: R$%.2f\n", fazenda.getDinheiro());
+            System.out.printf("Capacidade atual: %d/3\n", foto.getQuantidadeAnimais(cercadoId));
+            System.out.printf("Seu dinheiro: R$%.2f\n", foto.getDinheiro());
             System.out.print("Confirmar compra? (S/N): ");
             String confirmacao = scanner.nextLine().toUpperCase();
             
             if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
-                boolean sucesso = loop.comprarAnimal(cercadoId);
+                long antes = loop.getFotografia().getTick();
+                boolean sucesso = loop.enviar(TipoComando.COMPRAR_ANIMAL, cercadoId, 0).aguardar();
                 if (sucesso) {
                     System.out.println("✅ Animal comprado com sucesso!");
                     System.out.printf("Cercado %d agora tem %d/3 %s\n", 
-                        cercadoId + 1, cercado.getQuantidade(), especie.getNome());
+                        cercadoId + 1, fotografiaDepois(antes).getQuantidadeAnimais(cercadoId), especie.getNome());
                 } else {
                     System.out.println("❌ Falha ao comprar animal. Verifique o dinheiro.");
                 }
@@ -434,27 +529,26 @@ public class TesteConsole implements GerenciadorEventos {
                 return;
             }
             
-            FazendaEstado fazenda = FazendaEstado.getInstance();
-            Solo solo = fazenda.getSolos().get(soloId);
+            FotografiaFazenda foto = loop.getFotografia();
             
-            if (!solo.isDesbloqueado()) {
+            if (!foto.isDesbloqueado(soloId)) {
                 System.out.println("Este solo está bloqueado! Desbloqueie-o primeiro.");
                 return;
             }
             
-            if (solo.getNivel() >= 10) {
+            if (foto.getNivel(soloId) >= 10) {
                 System.out.println("Este solo já está no nível máximo (10)!");
                 return;
             }
             
-            double custoUpgrade = 100.0 * solo.getNivel();
-            int novoNivel = solo.getNivel() + 1;
+            double custoUpgrade = 100.0 * foto.getNivel(soloId);
+            int novoNivel = foto.getNivel(soloId) + 1;
             
             System.out.printf("\n=== EVOLUIR SOLO %d ===\n", soloId + 1);
-            System.out.printf("Nível atual: %d\n", solo.getNivel());
+            System.out.printf("Nível atual: %d\n", foto.getNivel(soloId));
             System.out.printf("Novo nível: %d\n", novoNivel);
             System.out.printf("Custo: R$%.2f\n", custoUpgrade);
-            System.out.printf("Seu dinheiro: R$%.2f\n", fazenda.getDinheiro());
+            System.out.printf("Seu dinheiro: R$%.2f\n", foto.getDinheiro());
             System.out.println("\nBenefícios do nível " + novoNivel + ":");
             System.out.printf("- +%.0f%% valor de venda\n", (novoNivel - 1) * 20.0);
             System.out.printf("- +%.0f%% velocidade de crescimento\n", (novoNivel - 1) * 10.0);
@@ -472,14 +566,16 @@ public class TesteConsole implements GerenciadorEventos {
             String confirmacao = scanner.nextLine().toUpperCase();
             
             if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
-                boolean sucesso = solo.upgrade();
+                long antes = loop.getFotografia().getTick();
+                boolean sucesso = loop.enviar(TipoComando.EVOLUIR_SOLO, soloId, 0).aguardar();
                 if (sucesso) {
-                    System.out.printf("✅ Solo %d evoluído para nível %d!\n", soloId + 1, solo.getNivel());
+                    int nivel = fotografiaDepois(antes).getNivel(soloId);
+                    System.out.printf("✅ Solo %d evoluído para nível %d!\n", soloId + 1, nivel);
                     
                     // Mostra vegetais agora disponíveis
                     System.out.println("\nVegetais agora disponíveis neste solo:");
                     for (Vegetal vegetal : Vegetal.values()) {
-                        if (vegetal.getNivelMinimo() <= solo.getNivel()) {
+                        if (vegetal.getNivelMinimo() <= nivel) {
                             System.out.printf("- %s (Nível %d)\n", vegetal.getNome(), vegetal.getNivelMinimo());
                         }
                     }
@@ -523,13 +619,12 @@ public class TesteConsole implements GerenciadorEventos {
             
             // 2. Escolher solo para instalar
             System.out.println("\n=== SOLOS DISPONÍVEIS ===");
-            FazendaEstado fazenda = FazendaEstado.getInstance();
+            FotografiaFazenda foto = loop.getFotografia();
             for (int i = 0; i < 6; i++) {
-                Solo solo = fazenda.getSolos().get(i);
-                String status = solo.isDesbloqueado() ? "✅" : "🔒";
-                String ocupado = solo.isOcupado() ? "(Ocupado)" : "(Vazio)";
+                String status = foto.isDesbloqueado(i) ? "✅" : "🔒";
+                String ocupado = foto.isOcupado(i) ? "(Ocupado)" : "(Vazio)";
                 System.out.printf("%d. Solo %d %s Nível %d %s\n",
-                    i + 1, i + 1, status, solo.getNivel(), ocupado);
+                    i + 1, i + 1, status, foto.getNivel(i), ocupado);
             }
             
             System.out.print("\nNúmero do solo para instalar a máquina (1-6): ");
@@ -540,15 +635,13 @@ public class TesteConsole implements GerenciadorEventos {
                 return;
             }
             
-            Solo solo = fazenda.getSolos().get(soloId);
-            
-            if (!solo.isDesbloqueado()) {
+            if (!foto.isDesbloqueado(soloId)) {
                 System.out.println("Este solo está bloqueado! Desbloqueie-o primeiro.");
                 return;
             }
             
             // Verificar se já tem essa máquina instalada
-            if (solo.temMaquina(maquinaSelecionada)) {
+            if (foto.temMaquina(soloId, maquinaSelecionada)) {
                 System.out.println("Este solo já tem essa máquina instalada!");
                 return;
             }
@@ -556,15 +649,15 @@ public class TesteConsole implements GerenciadorEventos {
             // Mostrar custo e confirmar
             System.out.printf("\n=== CONFIRMAR COMPRA ===\n");
             System.out.printf("Máquina: %s\n", maquinaSelecionada.getNome());
-            System.out.printf("Solo: %d (Nível %d)\n", soloId + 1, solo.getNivel());
+            System.out.printf("Solo: %d (Nível %d)\n", soloId + 1, foto.getNivel(soloId));
             System.out.printf("Custo total: R$%.2f\n", maquinaSelecionada.getCusto());
-            System.out.printf("Seu dinheiro: R$%.2f\n", fazenda.getDinheiro());
+            System.out.printf("Seu dinheiro: R$%.2f\n", foto.getDinheiro());
             System.out.print("\nConfirmar compra e instalação? (S/N): ");
             String confirmacao = scanner.nextLine().toUpperCase();
             
             if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
                 // Primeiro compra a máquina
-                boolean compraSucesso = fazenda.comprarMaquina(maquinaSelecionada);
+                boolean compraSucesso = loop.enviar(TipoComando.COMPRAR_MAQUINA, maquinaSelecionada.ordinal(), 0).aguardar();
                 
                 if (!compraSucesso) {
                     System.out.printf("❌ Falha ao comprar máquina. Dinheiro insuficiente (R$%.2f).\n", 
@@ -573,7 +666,8 @@ public class TesteConsole implements GerenciadorEventos {
                 }
                 
                 // Depois instala no solo
-                boolean instalacaoSucesso = fazenda.instalarMaquina(soloId, maquinaSelecionada);
+                long antes = loop.getFotografia().getTick();
+                boolean instalacaoSucesso = loop.enviar(TipoComando.INSTALAR_MAQUINA, soloId, maquinaSelecionada.ordinal()).aguardar();
                 
                 if (instalacaoSucesso) {
                     System.out.printf("\n✅ %s instalada com sucesso no Solo %d!\n", 
@@ -598,9 +692,9 @@ public class TesteConsole implements GerenciadorEventos {
                     
                     // Mostrar inventário atualizado
                     System.out.println("\nInventário de máquinas atualizado:");
-                    var inventario = fazenda.getInventarioMaquinas();
+                    FotografiaFazenda depois = fotografiaDepois(antes);
                     for (Maquina m : Maquina.values()) {
-                        int qtd = inventario.get(m);
+                        int qtd = depois.getQuantidadeInventario(m);
                         if (qtd > 0) {
                             System.out.printf("- %s: %d\n", m.getNome(), qtd);
                         }
@@ -617,6 +711,26 @@ public class TesteConsole implements GerenciadorEventos {
         }
     }
 
+    /**
+     * Fotografia que já mostra os comandos aguardados. O loop aplica os comandos no
+     * início do tick e só publica a fotografia no fim, e quando o comando foi enviado o
+     * tick seguinte a 'tickAnterior' (o da fotografia lida antes de enviar) podia já ter
+     * passado dessa fase: espera a fotografia do tick depois dele.
+     */
+    private FotografiaFazenda fotografiaDepois(long tickAnterior) {
+        FotografiaFazenda foto = loop.getFotografia();
+        while (foto.getTick() <= tickAnterior + 1) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            foto = loop.getFotografia();
+        }
+        return foto;
+    }
+
     // --- MÉTODOS DO GERENCIADOR DE EVENTOS ---
 
     @Override
@@ -626,10 +740,27 @@ public class TesteConsole implements GerenciadorEventos {
 
     @Override
     public void aoAtualizarSolo(Solo solo) {
-        if (solo.isOcupado() && solo.getProgresso() >= 1.0) {
-            System.out.printf("[SISTEMA] Solo %d: %s PRONTO para colheita!\n", 
-                solo.getId() + 1,
-                solo.getVegetal().getNome());
+        // Com o despacho assíncrono chega uma cópia do solo, não a visão que o loop altera
+        avisarSeProntoParaColheita(solo.getId(), solo.isOcupado() && solo.getProgresso() >= 1.0, solo.getVegetal());
+    }
+    
+    @Override
+    public double getTaxaEntregaSolosHz() {
+        return 4.0; // O console não precisa de mais que isso
+    }
+    
+    @Override
+    public void aoAtualizarSolos(BitSet alterados) {
+        // Os valores vêm da fotografia: esta chamada chega por outra thread, no meio dos ticks
+        FotografiaFazenda foto = loop.getFotografia();
+        for (int i = alterados.nextSetBit(0); i >= 0; i = alterados.nextSetBit(i + 1)) {
+            avisarSeProntoParaColheita(i, foto.isOcupado(i) && foto.isPronto(i), foto.getVegetal(i));
+        }
+    }
+    
+    private void avisarSeProntoParaColheita(int soloId, boolean pronto, Vegetal vegetal) {
+        if (pronto) {
+            System.out.printf("[SISTEMA] Solo %d: %s PRONTO para colheita!\n", soloId + 1, vegetal.getNome());
         }
     }
 
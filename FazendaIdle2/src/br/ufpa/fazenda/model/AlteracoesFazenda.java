@@ -0,0 +1,176 @@
+package br.ufpa.fazenda.model;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Cópia imutável só do que mudou na fazenda desde a coleta anterior
+ * (ver FazendaEstado.coletarAlteracoes), para o salvamento incremental.
+ *
+ * Tem o tamanho das mudanças, não da fazenda: os solos alterados vão em colunas
+ * compactas (índice + os mesmos campos do ArmazenamentoSolos), os cercados alterados
+ * idem, e os dados globais só se mudaram.
+ */
+public final class AlteracoesFazenda {
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final Animal[] ANIMAIS = Animal.values();
+    private static final Maquina[] MAQUINAS = Maquina.values();
+
+    // --- Relógio ---
+    private final long tick;
+    private final double tempoNoDia;
+    private final double tempoAnimais;
+
+    // --- Dados globais (só valem se globaisAlterados) ---
+    private final boolean globaisAlterados;
+    private final long centavos;
+    private final int diaAtual;
+    private final int estoqueFertilizante;
+    private final int ultimoVegetalPlantado; // ordinal, -1 = nenhum
+    private final int[] inventarioMaquinas;
+
+    // --- Cercados alterados ---
+    private final int[] idCercado;
+    private final int[] especieCercado;      // ordinal, -1 = vazio
+    private final int[] quantidadeCercado;
+    private final double[] progressoCercado;
+    private final boolean[] prontoCercado;
+
+    // --- Solos alterados ---
+    private final int quantidadeSolosFazenda;
+    private final int[] indiceSolo;
+    private final double[] progresso;
+    private final byte[] vegetal;
+    private final byte[] nivel;
+    private final byte[] maquinas;
+    private final byte[] flags;
+
+    AlteracoesFazenda(FazendaEstado fazenda, ArmazenamentoSolos dados, boolean globaisAlterados,
+                      long tick, double tempoNoDia, double tempoAnimais) {
+        this.tick = tick;
+        this.tempoNoDia = tempoNoDia;
+        this.tempoAnimais = tempoAnimais;
+
+        this.globaisAlterados = globaisAlterados;
+        this.centavos = fazenda.getCentavos();
+        this.diaAtual = fazenda.getDiaAtual();
+        this.estoqueFertilizante = fazenda.getEstoqueFertilizante();
+        Vegetal ultimo = fazenda.getUltimoVegetalPlantado();
+        this.ultimoVegetalPlantado = ultimo == null ? -1 : ultimo.ordinal();
+        this.inventarioMaquinas = new int[MAQUINAS.length];
+        for (Maquina maquina : MAQUINAS) {
+            inventarioMaquinas[maquina.ordinal()] = fazenda.getQuantidadeInventario(maquina);
+        }
+
+        // Cercados: poucos, então basta olhar um a um
+        List<Cercado> cercados = fazenda.getCercados();
+        int alterados = 0;
+        for (Cercado cercado : cercados) {
+            if (cercado.isSujo()) alterados++;
+        }
+        this.idCercado = new int[alterados];
+        this.especieCercado = new int[alterados];
+        this.quantidadeCercado = new int[alterados];
+        this.progressoCercado = new double[alterados];
+        this.prontoCercado = new boolean[alterados];
+        int k = 0;
+        for (int i = 0; i < cercados.size(); i++) {
+            Cercado cercado = cercados.get(i);
+            if (!cercado.isSujo()) continue;
+            idCercado[k] = i;
+            especieCercado[k] = cercado.getEspecie() == null ? -1 : cercado.getEspecie().ordinal();
+            quantidadeCercado[k] = cercado.getQuantidade();
+            progressoCercado[k] = cercado.getProgresso();
+            prontoCercado[k] = cercado.isProdutoPronto();
+            cercado.limparSujo();
+            k++;
+        }
+
+        // Solos: percorre só as palavras com bits marcados
+        this.quantidadeSolosFazenda = dados.getQuantidade();
+        int total = Math.min(dados.contarSujos(), quantidadeSolosFazenda);
+        this.indiceSolo = new int[total];
+        this.progresso = new double[total];
+        this.vegetal = new byte[total];
+        this.nivel = new byte[total];
+        this.maquinas = new byte[total];
+        this.flags = new byte[total];
+        long[] sujos = dados.sujos;
+        k = 0;
+        for (int w = 0; w < sujos.length; w++) {
+            long palavra = sujos[w];
+            if (palavra == 0) continue;
+            sujos[w] = 0;
+            while (palavra != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(palavra);
+                palavra &= palavra - 1;
+                if (i >= quantidadeSolosFazenda) break;
+                indiceSolo[k] = i;
+                progresso[k] = dados.progresso[i];
+                vegetal[k] = dados.vegetal[i];
+                nivel[k] = dados.nivel[i];
+                maquinas[k] = dados.maquinas[i];
+                flags[k] = dados.flags[i];
+                k++;
+            }
+        }
+    }
+
+    // --- Relógio ---
+
+    public long getTick() { return tick; }
+    public double getTempoNoDia() { return tempoNoDia; }
+    public double getTempoAnimais() { return tempoAnimais; }
+
+    // --- Dados globais ---
+
+    public boolean isGlobaisAlterados() { return globaisAlterados; }
+    public long getCentavos() { return centavos; }
+    public int getDiaAtual() { return diaAtual; }
+    public int getEstoqueFertilizante() { return estoqueFertilizante; }
+
+    public Vegetal getUltimoVegetalPlantado() {
+        return ultimoVegetalPlantado < 0 ? null : VEGETAIS[ultimoVegetalPlantado];
+    }
+
+    public int getQuantidadeInventario(Maquina maquina) {
+        return inventarioMaquinas[maquina.ordinal()];
+    }
+
+    // --- Cercados alterados (k = 0 .. getQuantidadeCercados()-1) ---
+
+    public int getQuantidadeCercados() { return idCercado.length; }
+    public int getIdCercado(int k) { return idCercado[k]; }
+    public int getQuantidadeAnimais(int k) { return quantidadeCercado[k]; }
+    public double getProgressoCercado(int k) { return progressoCercado[k]; }
+    public boolean isProdutoPronto(int k) { return prontoCercado[k]; }
+
+    public Animal getEspecie(int k) {
+        int e = especieCercado[k];
+        return e < 0 ? null : ANIMAIS[e];
+    }
+
+    // --- Solos alterados ---
+
+    /** Solos da fazenda inteira (para conferir com o arquivo) */
+    public int getQuantidadeSolosFazenda() { return quantidadeSolosFazenda; }
+
+    public int getQuantidadeSolos() { return indiceSolo.length; }
+
+    /**
+     * Copia, em bloco, os índices e as colunas dos solos alterados para os buffers dados
+     * (mesmo formato de ArmazenamentoSolos.aplicarAlteracoes).
+     */
+    public void copiarColunas(IntBuffer indices, DoubleBuffer progresso, ByteBuffer vegetal,
+                              ByteBuffer nivel, ByteBuffer maquinas, ByteBuffer flags) {
+        indices.put(this.indiceSolo);
+        progresso.put(this.progresso);
+        vegetal.put(this.vegetal);
+        nivel.put(this.nivel);
+        maquinas.put(this.maquinas);
+        flags.put(this.flags);
+    }
+}
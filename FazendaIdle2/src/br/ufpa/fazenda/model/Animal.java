@@ -1,5 +1,7 @@
 package br.ufpa.fazenda.model;
 
+import br.ufpa.fazenda.util.Dinheiro;
+
 /**
  * Define as espécies de animais e seus dados econômicos.
  */
@@ -15,6 +17,11 @@ public enum Animal {
     private final double produtoValor;
     private final double tempoProducaoSegundos; // Tempo para produzir 1 lote
     private final double precoCompra; // Preço para comprar um animal
+    
+    // Os mesmos valores em centavos (conta exata do saldo)
+    private final long custoManutencaoDiariaCentavos;
+    private final long produtoValorCentavos;
+    private final long precoCompraCentavos;
 
     Animal(String nome, String produto, double custoManutencaoDiaria, double produtoValor, 
            double tempoProducaoSegundos, double precoCompra) {
@@ -24,6 +31,9 @@ public enum Animal {
         this.produtoValor = produtoValor;
         this.tempoProducaoSegundos = tempoProducaoSegundos;
         this.precoCompra = precoCompra;
+        this.custoManutencaoDiariaCentavos = Dinheiro.deReais(custoManutencaoDiaria);
+        this.produtoValorCentavos = Dinheiro.deReais(produtoValor);
+        this.precoCompraCentavos = Dinheiro.deReais(precoCompra);
     }
 
     // --- LÓGICA PARA O SISTEMA DE TEMPO ---
@@ -58,4 +68,16 @@ public enum Animal {
     public double getPrecoCompra() {
         return precoCompra;
     }
+    
+    public long getCustoManutencaoDiariaCentavos() {
+        return custoManutencaoDiariaCentavos;
+    }
+    
+    public long getProdutoValorCentavos() {
+        return produtoValorCentavos;
+    }
+    
+    public long getPrecoCompraCentavos() {
+        return precoCompraCentavos;
+    }
 }
\ No newline at end of file
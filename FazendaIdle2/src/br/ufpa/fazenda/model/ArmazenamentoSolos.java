@@ -0,0 +1,436 @@
+package br.ufpa.fazenda.model;
+
+import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Armazena o estado de todos os solos de uma fazenda em arrays primitivos
+ * ("struct of arrays"), em vez de um objeto com HashSet por solo.
+ *
+ * Cada solo ocupa uma posição (índice) em cada array:
+ * - progresso: double, 0.0 a 1.0
+ * - vegetal:   byte, 0 = vazio, senão ordinal + 1
+ * - nivel:     byte, 1 a NIVEL_MAXIMO_SOLO
+ * - maquinas:  byte, bit (1 << ordinal) para cada Maquina instalada
+ * - flags:     byte, desbloqueado / fertilizante ativado / fertilizante aplicado
+ *
+ * A classe Solo é só uma visão (flyweight) sobre um índice daqui. Isso deixa o
+ * crescimento como uma varredura linear nos arrays e reduz muito a memória por solo.
+ */
+public class ArmazenamentoSolos {
+    
+    // Bits de 'flags'
+    static final byte FLAG_DESBLOQUEADO = 1;
+    static final byte FLAG_FERTILIZANTE_ATIVADO = 2;
+    static final byte FLAG_FERTILIZANTE_APLICADO = 4;
+    
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final int MASCARA_AUTOMACAO = bit(Maquina.TRATOR) | bit(Maquina.ARADOR);
+    
+    // Tempo efetivo de crescimento por (vegetal, nível, irrigador, fertilizante), calculado uma vez
+    private static final double[] TEMPOS_CRESCIMENTO = montarTabelaTempos();
+    
+    private final int quantidade;
+    final double[] progresso;
+    final byte[] vegetal;
+    final byte[] nivel;
+    final byte[] maquinas;
+    final byte[] flags;
+    final int[] versao;
+    
+    // Solos alterados desde a última coleta (bit i da palavra i/64), para o salvamento incremental.
+    // As partições do tick têm tamanho múltiplo de 64, então nunca dividem uma palavra e
+    // o tick paralelo pode marcar sem travas.
+    final long[] sujos;
+    
+    private int totalMaquinas = 0; // Soma de máquinas instaladas em todos os solos
+    
+    // Dona dos solos (para upgrade/desbloqueio/fertilizante)
+    private final FazendaEstado fazenda;
+    private ObservadorEstado observador;
+    
+    public ArmazenamentoSolos(int quantidade, FazendaEstado fazenda) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade de solos negativa: " + quantidade);
+        }
+        if (fazenda == null) {
+            throw new IllegalArgumentException("Os solos precisam de uma fazenda dona");
+        }
+        this.quantidade = quantidade;
+        this.fazenda = fazenda;
+        this.progresso = new double[quantidade];
+        this.vegetal = new byte[quantidade];
+        this.nivel = new byte[quantidade];
+        this.maquinas = new byte[quantidade];
+        this.flags = new byte[quantidade];
+        this.versao = new int[quantidade];
+        this.sujos = new long[(quantidade + 63) >>> 6];
+        Arrays.fill(nivel, (byte) 1); // Nível inicial
+        Arrays.fill(sujos, -1L); // Tudo ainda por salvar
+    }
+    
+    // --- Operações em lote ---
+    
+    /**
+     * Crescimento de todos os solos desbloqueados, em uma varredura linear.
+     * @param alterados (opcional) recebe o índice de cada solo que cresceu
+     */
+    public void atualizarCrescimento(double deltaTempoSegundos, BitSet alterados) {
+        atualizarCrescimento(deltaTempoSegundos, 0, quantidade, alterados);
+    }
+    
+    /**
+     * Crescimento dos solos no intervalo [de, ate).
+     * Só escreve nas posições do intervalo, então intervalos disjuntos podem rodar em paralelo.
+     * @param alterados (opcional) recebe o bit (i - de) de cada solo i que cresceu
+     */
+    public void atualizarCrescimento(double deltaTempoSegundos, int de, int ate, BitSet alterados) {
+        for (int i = de; i < ate; i++) {
+            if (vegetal[i] == 0 || (flags[i] & FLAG_DESBLOQUEADO) == 0) continue;
+            double p = progresso[i];
+            if (p >= 1.0) continue; // Já está maduro
+            
+            p += deltaTempoSegundos / getTempoCrescimentoEfetivo(i);
+            if (alterados != null) alterados.set(i - de);
+            sujos[i >>> 6] |= 1L << i;
+            
+            if (p >= 1.0) {
+                progresso[i] = 1.0;
+                aposMudar(i, null); // Ficou pronto
+            } else {
+                progresso[i] = p;
+            }
+        }
+    }
+    
+    /**
+     * Tem Trator ou Arador (e está desbloqueado)?
+     */
+    public boolean temAutomacao(int indice) {
+        return (maquinas[indice] & MASCARA_AUTOMACAO) != 0 && (flags[indice] & FLAG_DESBLOQUEADO) != 0;
+    }
+    
+    /**
+     * A automação tem algo a fazer agora? (Trator com planta pronta, ou Arador com solo
+     * vazio e algo para replantar). Lido direto dos arrays, sem criar a visão do solo.
+     */
+    public boolean temAcaoAutomatica(int indice, boolean podeReplantar) {
+        if (!temAutomacao(indice)) return false;
+        if (vegetal[indice] == 0) {
+            return podeReplantar && temMaquina(indice, Maquina.ARADOR);
+        }
+        return progresso[indice] >= 1.0 && temMaquina(indice, Maquina.TRATOR);
+    }
+    
+    /**
+     * Substitui todos os solos pelas colunas dadas (ex.: lidas de um arquivo salvo),
+     * com cópias em bloco. Cada buffer deve ter exatamente getQuantidade() elementos
+     * restantes, no mesmo formato destes arrays. Não avisa o observador: use antes de a
+     * fazenda estar em jogo.
+     * @throws IllegalArgumentException se algum valor estiver fora do formato
+     */
+    public void carregarColunas(DoubleBuffer progresso, ByteBuffer vegetal, ByteBuffer nivel,
+                                ByteBuffer maquinas, ByteBuffer flags) {
+        if (progresso.remaining() != quantidade || vegetal.remaining() != quantidade
+                || nivel.remaining() != quantidade || maquinas.remaining() != quantidade
+                || flags.remaining() != quantidade) {
+            throw new IllegalArgumentException("Colunas com tamanho diferente de " + quantidade + " solos");
+        }
+        progresso.get(this.progresso);
+        vegetal.get(this.vegetal);
+        nivel.get(this.nivel);
+        maquinas.get(this.maquinas);
+        flags.get(this.flags);
+        
+        int total = 0;
+        for (int i = 0; i < quantidade; i++) {
+            validar(i);
+            total += Integer.bitCount(this.maquinas[i] & 0xFF);
+            this.versao[i]++;
+        }
+        this.totalMaquinas = total;
+        Arrays.fill(sujos, -1L);
+    }
+    
+    /**
+     * Aplica, por cima do estado atual, as linhas de alguns solos (ex.: um bloco de
+     * alterações do jogo salvo): indices[k] recebe progresso[k], vegetal[k], etc.
+     * Mesmo formato e mesmas restrições de carregarColunas().
+     * @throws IllegalArgumentException se algum índice ou valor estiver fora do formato
+     */
+    public void aplicarAlteracoes(IntBuffer indices, DoubleBuffer progresso, ByteBuffer vegetal,
+                                  ByteBuffer nivel, ByteBuffer maquinas, ByteBuffer flags) {
+        int quantidadeAlterada = indices.remaining();
+        if (progresso.remaining() != quantidadeAlterada || vegetal.remaining() != quantidadeAlterada
+                || nivel.remaining() != quantidadeAlterada || maquinas.remaining() != quantidadeAlterada
+                || flags.remaining() != quantidadeAlterada) {
+            throw new IllegalArgumentException("Colunas de alterações com tamanhos diferentes");
+        }
+        for (int k = 0; k < quantidadeAlterada; k++) {
+            int i = indices.get();
+            if (i < 0 || i >= quantidade) {
+                throw new IllegalArgumentException("Solo " + i + " fora de 0.." + (quantidade - 1));
+            }
+            totalMaquinas -= Integer.bitCount(this.maquinas[i] & 0xFF);
+            this.progresso[i] = progresso.get();
+            this.vegetal[i] = vegetal.get();
+            this.nivel[i] = nivel.get();
+            this.maquinas[i] = maquinas.get();
+            this.flags[i] = flags.get();
+            validar(i);
+            totalMaquinas += Integer.bitCount(this.maquinas[i] & 0xFF);
+            this.versao[i]++;
+            sujos[i >>> 6] |= 1L << i;
+        }
+    }
+    
+    private void validar(int i) {
+        int mascaraMaquinas = (1 << Maquina.values().length) - 1;
+        int mascaraFlags = FLAG_DESBLOQUEADO | FLAG_FERTILIZANTE_ATIVADO | FLAG_FERTILIZANTE_APLICADO;
+        double p = progresso[i];
+        if (!(p >= 0.0 && p <= 1.0)
+                || vegetal[i] < 0 || vegetal[i] > VEGETAIS.length
+                || nivel[i] < 1 || nivel[i] > Constantes.NIVEL_MAXIMO_SOLO
+                || (maquinas[i] & ~mascaraMaquinas) != 0
+                || (flags[i] & ~mascaraFlags) != 0) {
+            throw new IllegalArgumentException("Solo " + i + " com valores inválidos");
+        }
+    }
+    
+    /**
+     * Substitui todos os solos pelos de 'origem' (mesma quantidade, já validados), com
+     * cópias em bloco; todos ficam marcados como alterados, como em carregarColunas().
+     */
+    void restaurar(ArmazenamentoSolos origem) {
+        if (origem.quantidade != quantidade) {
+            throw new IllegalArgumentException("Origem com " + origem.quantidade + " solos, aqui são " + quantidade);
+        }
+        System.arraycopy(origem.progresso, 0, progresso, 0, quantidade);
+        System.arraycopy(origem.vegetal, 0, vegetal, 0, quantidade);
+        System.arraycopy(origem.nivel, 0, nivel, 0, quantidade);
+        System.arraycopy(origem.maquinas, 0, maquinas, 0, quantidade);
+        System.arraycopy(origem.flags, 0, flags, 0, quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            versao[i]++;
+        }
+        totalMaquinas = origem.totalMaquinas;
+        Arrays.fill(sujos, -1L);
+    }
+    
+    /**
+     * Cópia independente dos arrays, para a fazenda 'dona' (ver FazendaEstado.copiar).
+     * Sem observador e sem nada marcado para salvar.
+     */
+    ArmazenamentoSolos copiar(FazendaEstado dona) {
+        ArmazenamentoSolos copia = new ArmazenamentoSolos(quantidade, dona);
+        System.arraycopy(progresso, 0, copia.progresso, 0, quantidade);
+        System.arraycopy(vegetal, 0, copia.vegetal, 0, quantidade);
+        System.arraycopy(nivel, 0, copia.nivel, 0, quantidade);
+        System.arraycopy(maquinas, 0, copia.maquinas, 0, quantidade);
+        System.arraycopy(flags, 0, copia.flags, 0, quantidade);
+        System.arraycopy(versao, 0, copia.versao, 0, quantidade);
+        copia.totalMaquinas = totalMaquinas;
+        copia.limparSujos();
+        return copia;
+    }
+    
+    /**
+     * Copia o solo 'indiceOrigem' de 'origem' para a posição 'indice' (ver Solo.copiar).
+     */
+    void copiarSolo(int indice, ArmazenamentoSolos origem, int indiceOrigem) {
+        totalMaquinas -= Integer.bitCount(maquinas[indice] & 0xFF);
+        progresso[indice] = origem.progresso[indiceOrigem];
+        vegetal[indice] = origem.vegetal[indiceOrigem];
+        nivel[indice] = origem.nivel[indiceOrigem];
+        maquinas[indice] = origem.maquinas[indiceOrigem];
+        flags[indice] = origem.flags[indiceOrigem];
+        versao[indice] = origem.versao[indiceOrigem];
+        totalMaquinas += Integer.bitCount(maquinas[indice] & 0xFF);
+    }
+    
+    // --- Solos alterados (salvamento incremental) ---
+    
+    void marcarSujo(int indice) {
+        sujos[indice >>> 6] |= 1L << indice;
+    }
+    
+    /**
+     * Quantos solos estão marcados como alterados (O(solos / 64)).
+     */
+    int contarSujos() {
+        int total = 0;
+        for (long palavra : sujos) {
+            total += Long.bitCount(palavra);
+        }
+        return total;
+    }
+    
+    void limparSujos() {
+        Arrays.fill(sujos, 0L);
+    }
+    
+    // --- Acesso por índice (usado pelo Solo) ---
+    
+    Vegetal getVegetal(int indice) {
+        int v = vegetal[indice];
+        return v == 0 ? null : VEGETAIS[v - 1];
+    }
+    
+    void setVegetal(int indice, Vegetal v) {
+        vegetal[indice] = (byte) (v == null ? 0 : v.ordinal() + 1);
+    }
+    
+    boolean temFlag(int indice, byte flag) {
+        return (flags[indice] & flag) != 0;
+    }
+    
+    void setFlag(int indice, byte flag, boolean ligado) {
+        if (ligado) {
+            flags[indice] |= flag;
+        } else {
+            flags[indice] &= (byte) ~flag;
+        }
+    }
+    
+    boolean temMaquina(int indice, Maquina maquina) {
+        return (maquinas[indice] & bit(maquina)) != 0;
+    }
+    
+    boolean adicionarMaquina(int indice, Maquina maquina) {
+        if (temMaquina(indice, maquina)) return false;
+        maquinas[indice] |= (byte) bit(maquina);
+        totalMaquinas++;
+        return true;
+    }
+    
+    boolean removerMaquina(int indice, Maquina maquina) {
+        if (!temMaquina(indice, maquina)) return false;
+        maquinas[indice] &= (byte) ~bit(maquina);
+        totalMaquinas--;
+        return true;
+    }
+    
+    /**
+     * Tempo de crescimento da planta atual com os redutores (tabela pré-calculada).
+     */
+    double getTempoCrescimentoEfetivo(int indice) {
+        int v = vegetal[indice];
+        if (v == 0) return 0.0;
+        int irrigador = temMaquina(indice, Maquina.IRRIGADOR) ? 1 : 0;
+        int fertilizante = temFlag(indice, FLAG_FERTILIZANTE_APLICADO) ? 1 : 0;
+        return TEMPOS_CRESCIMENTO[indiceTabela(v - 1, nivel[indice], irrigador, fertilizante)];
+    }
+    
+    // --- Observação de Mudanças ---
+    
+    void setObservador(ObservadorEstado observador) {
+        this.observador = observador;
+    }
+    
+    void antesDeMudar(int indice, Solo visao) {
+        if (observador != null) {
+            observador.antesDeMudarSolo(visao != null ? visao : new Solo(this, indice));
+        }
+    }
+    
+    void aposMudar(int indice, Solo visao) {
+        versao[indice]++;
+        sujos[indice >>> 6] |= 1L << indice;
+        if (observador != null) {
+            observador.aoMudarSolo(visao != null ? visao : new Solo(this, indice));
+        }
+    }
+    
+    // --- Getters ---
+    
+    public int getQuantidade() { return quantidade; }
+    public int getTotalMaquinas() { return totalMaquinas; }
+    public FazendaEstado getFazenda() { return fazenda; }
+    
+    /**
+     * Cria a visão (Solo) de uma posição.
+     */
+    public Solo getSolo(int indice) {
+        if (indice < 0 || indice >= quantidade) {
+            throw new IndexOutOfBoundsException("Solo " + indice + " fora de 0.." + (quantidade - 1));
+        }
+        return new Solo(this, indice);
+    }
+    
+    // --- Tabela de tempos ---
+    
+    private static int bit(Maquina maquina) {
+        return 1 << maquina.ordinal();
+    }
+    
+    private static int indiceTabela(int ordinalVegetal, int nivel, int irrigador, int fertilizante) {
+        return ((ordinalVegetal * (Constantes.NIVEL_MAXIMO_SOLO + 1) + nivel) * 2 + irrigador) * 2 + fertilizante;
+    }
+    
+    private static double[] montarTabelaTempos() {
+        double[] tabela = new double[VEGETAIS.length * (Constantes.NIVEL_MAXIMO_SOLO + 1) * 4];
+        for (Vegetal v : VEGETAIS) {
+            for (int nv = 1; nv <= Constantes.NIVEL_MAXIMO_SOLO; nv++) {
+                for (int irrigador = 0; irrigador <= 1; irrigador++) {
+                    for (int fertilizante = 0; fertilizante <= 1; fertilizante++) {
+                        tabela[indiceTabela(v.ordinal(), nv, irrigador, fertilizante)] =
+                            calcularTempoCrescimento(v, nv, irrigador == 1, fertilizante == 1);
+                    }
+                }
+            }
+        }
+        return tabela;
+    }
+    
+    static double calcularTempoCrescimento(Vegetal v, int nivel, boolean irrigador, boolean fertilizante) {
+        // 1. Calcula o tempo base em segundos (Ex: Alface 2 dias * 15s = 30s)
+        double tempoTotalNecessario = v.getTempoEmSegundos();
+        
+        // 2. Aplica REDUTORES de tempo (Irrigador, Fertilizante, Nível do Solo)
+        double fatorReducao = 0.0;
+        
+        if (irrigador) {
+            fatorReducao += Constantes.BONUS_IRRIGADOR_TEMPO;
+        }
+        
+        if (fertilizante) {
+            fatorReducao += Constantes.BONUS_FERTILIZANTE_TEMPO;
+        }
+        
+        // Bônus de nível (Nível 1 não dá bônus, Nível 2 dá 10%...)
+        fatorReducao += (nivel - 1) * Constantes.BONUS_SOLO_NV_CRESCIMENTO;
+        
+        // Limite de segurança: nunca reduzir mais que 90% do tempo
+        if (fatorReducao > 0.9) fatorReducao = 0.9;
+        
+        return tempoTotalNecessario * (1.0 - fatorReducao);
+    }
+    
+    /**
+     * Valor de venda em centavos: os bônus somados em pontos-base e aplicados de uma vez
+     * (uma única conta de arredondamento). Usado pelo Solo e pela TabelaLucro.
+     */
+    static long calcularValorVendaCentavos(Vegetal v, int nivel, boolean irrigador, boolean fertilizante) {
+        long multiplicador = Dinheiro.PONTOS_BASE_INTEIRO; // 1.0x
+        
+        // 1. Bônus por nível do solo (+20% por nível)
+        multiplicador += (nivel - 1) * Constantes.BONUS_SOLO_NV_VALOR_PB;
+        
+        // 2. Bônus do Irrigador (+25% valor)
+        if (irrigador) {
+            multiplicador += Constantes.BONUS_IRRIGADOR_VALOR_PB;
+        }
+        
+        // 3. Bônus do Fertilizante (+50% valor)
+        if (fertilizante) {
+            multiplicador += Constantes.BONUS_FERTILIZANTE_VALOR_PB;
+        }
+        
+        return Dinheiro.multiplicar(v.getValorVendaCentavos(), multiplicador);
+    }
+}
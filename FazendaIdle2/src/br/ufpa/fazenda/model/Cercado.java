@@ -1,6 +1,7 @@
 package br.ufpa.fazenda.model;
 
 import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
 
 public class Cercado {
     
@@ -13,6 +14,11 @@ public class Cercado {
     private double progressoProducao; // 0.0 a 1.0
     private boolean produtoPronto;
     
+    // Quem acompanha as mudanças deste cercado (definido pela FazendaEstado)
+    private ObservadorEstado observador;
+    private int versao; // Incrementa a cada mudança de estado
+    private boolean sujo = true; // Mudou desde o último salvamento incremental
+    
     public Cercado(int id) {
         this.id = id;
         this.quantidadeAnimais = 0;
@@ -34,7 +40,9 @@ public class Cercado {
         if (this.especie != animal) return false; // Espécie errada
         if (quantidadeAnimais >= CAPACIDADE_MAXIMA) return false; // Lotado
         
+        antesDeMudar();
         this.quantidadeAnimais++;
+        aposMudar();
         return true;
     }
     
@@ -50,33 +58,85 @@ public class Cercado {
         
         // Incrementa progresso
         this.progressoProducao += (deltaTempoSegundos / tempoNecessario);
+        this.sujo = true;
         
         if (this.progressoProducao >= 1.0) {
             this.progressoProducao = 1.0;
             this.produtoPronto = true;
+            aposMudar(); // Produto ficou pronto
         }
     }
     
     public double coletarProdutos() {
-        if (!produtoPronto || quantidadeAnimais == 0) return 0.0;
+        return Dinheiro.paraReais(coletarProdutosCentavos());
+    }
+    
+    /**
+     * Coleta os produtos e retorna o valor em centavos (0 se não estava pronto).
+     */
+    public long coletarProdutosCentavos() {
+        if (!produtoPronto || quantidadeAnimais == 0) return 0;
         
         // Valor = Valor do produto * quantidade de animais
-        double valorTotal = especie.getProdutoValor() * quantidadeAnimais;
+        long valorTotal = especie.getProdutoValorCentavos() * quantidadeAnimais;
         
         // Reseta o ciclo
+        antesDeMudar();
         this.produtoPronto = false;
         this.progressoProducao = 0.0;
+        aposMudar();
         
         return valorTotal;
     }
     
     public double calcularCustoManutencao() {
-        if (quantidadeAnimais == 0) return 0.0;
-        return especie.getCustoManutencaoDiaria() * quantidadeAnimais;
+        return Dinheiro.paraReais(calcularCustoManutencaoCentavos());
+    }
+    
+    public long calcularCustoManutencaoCentavos() {
+        if (quantidadeAnimais == 0) return 0;
+        return especie.getCustoManutencaoDiariaCentavos() * quantidadeAnimais;
+    }
+
+    /**
+     * Põe o cercado direto em um estado salvo (sem custos nem validação de compra).
+     * @throws IllegalArgumentException se o estado não for possível
+     */
+    public void restaurar(Animal especie, int quantidade, double progresso, boolean pronto) {
+        if (quantidade < 0 || quantidade > CAPACIDADE_MAXIMA || (quantidade > 0 && especie == null)
+                || !(progresso >= 0.0 && progresso <= 1.0)) {
+            throw new IllegalArgumentException("Estado inválido para o cercado " + id);
+        }
+        antesDeMudar();
+        this.especie = especie;
+        this.quantidadeAnimais = quantidade;
+        this.progressoProducao = progresso;
+        this.produtoPronto = pronto;
+        aposMudar();
+    }
+
+    // --- Observação de Mudanças ---
+    
+    void setObservador(ObservadorEstado observador) {
+        this.observador = observador;
     }
+    
+    private void antesDeMudar() {
+        if (observador != null) observador.antesDeMudarCercado(this);
+    }
+    
+    private void aposMudar() {
+        versao++;
+        sujo = true;
+        if (observador != null) observador.aoMudarCercado(this);
+    }
+
+    boolean isSujo() { return sujo; }
+    void limparSujo() { sujo = false; }
 
     // --- Getters ---
     public int getId() { return id; }
+    public int getVersao() { return versao; }
     public int getQuantidade() { return quantidadeAnimais; }
     public Animal getEspecie() { return especie; }
     public boolean isProdutoPronto() { return produtoPronto; }
@@ -1,25 +1,40 @@
 package br.ufpa.fazenda.model;
 
 import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Singleton que gerencia o estado global do jogo.
+ * Estado de uma fazenda: dinheiro, dia, solos, cercados e inventário. Cada instância é
+ * uma fazenda independente (criar(), uma por jogador; ver HospedeiroFazendas);
+ * getInstance() é só a fazenda padrão do jogo de um jogador.
  */
 public class FazendaEstado {
     
     private static FazendaEstado instance;
     
     // Dados Globais
-    private double dinheiro;
+    private long centavos; // Saldo em centavos (ver util.Dinheiro)
     private int diaAtual;
     private int estoqueFertilizante;
     
-    // Lista de todos os solos da fazenda
-    private List<Solo> solos;
+    // Muda junto com qualquer dado global (saldo, dia, estoque, inventário, último vegetal)
+    private long versaoGlobais;
+    private long versaoGlobaisColetada = -1;
+    
+    // Receita de threads que rodam ao mesmo tempo (tick paralelo), somada em consolidarReceitas()
+    private final LongAdder receitaConcorrente = new LongAdder();
+    
+    // Estado de todos os solos da fazenda (arrays primitivos) e a lista de visões sobre ele
+    private final ArmazenamentoSolos armazenamentoSolos;
+    private final List<Solo> solos;
     
     // Lista de todos os cercados da fazenda
     private List<Cercado> cercados;
@@ -27,33 +42,59 @@ public class FazendaEstado {
     // Inventário de máquinas (quantidade disponível para instalar)
     private Map<Maquina, Integer> inventarioMaquinas;
     
-    // Mapeamento de máquinas instaladas por solo (soloId -> Set<Maquina>)
-    private Map<Integer, List<Maquina>> maquinasInstaladas;
-    
     // Último vegetal plantado (para o Arador lembrar)
     private Vegetal ultimoVegetalPlantado;
     
+    // Quem quer ser avisado das mudanças nos solos e cercados
+    private final List<ObservadorEstado> observadores = new CopyOnWriteArrayList<>();
+    private final ObservadorEstado despachante = new ObservadorEstado() {
+        @Override
+        public void antesDeMudarSolo(Solo solo) {
+            for (ObservadorEstado o : observadores) o.antesDeMudarSolo(solo);
+        }
+        
+        @Override
+        public void aoMudarSolo(Solo solo) {
+            for (ObservadorEstado o : observadores) o.aoMudarSolo(solo);
+        }
+        
+        @Override
+        public void antesDeMudarCercado(Cercado cercado) {
+            for (ObservadorEstado o : observadores) o.antesDeMudarCercado(cercado);
+        }
+        
+        @Override
+        public void aoMudarCercado(Cercado cercado) {
+            for (ObservadorEstado o : observadores) o.aoMudarCercado(cercado);
+        }
+    };
+    
     // Construtor privado (padrão Singleton)
     private FazendaEstado() {
-        this.dinheiro = 500.0; // Dinheiro inicial
+        // 6 solos: 3 desbloqueados, 3 bloqueados
+        this(6, 3);
+    }
+    
+    private FazendaEstado(int quantidadeSolos, int solosDesbloqueados) {
+        this.centavos = 50_000; // Dinheiro inicial (R$ 500)
         this.diaAtual = 1;
         this.estoqueFertilizante = 0;
-        this.solos = new ArrayList<>();
         this.cercados = new ArrayList<>();
         this.inventarioMaquinas = new HashMap<>();
-        this.maquinasInstaladas = new HashMap<>();
         this.ultimoVegetalPlantado = Vegetal.ALFACE; // Default
         
-        // Inicializa 6 solos: 3 desbloqueados, 3 bloqueados
-        for (int i = 0; i < 6; i++) {
-            boolean desbloqueado = (i < 3); // Primeiros 3 desbloqueados
-            solos.add(new Solo(i, desbloqueado));
-            maquinasInstaladas.put(i, new ArrayList<>());
+        // Inicializa os solos: os primeiros 'solosDesbloqueados' já vêm liberados
+        this.armazenamentoSolos = new ArmazenamentoSolos(quantidadeSolos, this);
+        for (int i = 0; i < Math.min(solosDesbloqueados, quantidadeSolos); i++) {
+            armazenamentoSolos.setFlag(i, ArmazenamentoSolos.FLAG_DESBLOQUEADO, true);
         }
+        armazenamentoSolos.setObservador(despachante);
+        this.solos = new VisaoSolos(armazenamentoSolos);
         
         // Inicializa 3 cercados com 1 animal cada da espécie específica
         for (int i = 0; i < 3; i++) {
             Cercado cercado = new Cercado(i);
+            cercado.setObservador(despachante);
             Animal especie = null;
             switch (i) {
                 case 0: especie = Animal.GALINHA; break;
@@ -74,7 +115,29 @@ public class FazendaEstado {
         }
     }
     
-    // Acesso global
+    // Cópia independente (ver copiar())
+    private FazendaEstado(FazendaEstado origem) {
+        this.centavos = origem.centavos + origem.receitaConcorrente.sum();
+        this.diaAtual = origem.diaAtual;
+        this.estoqueFertilizante = origem.estoqueFertilizante;
+        this.inventarioMaquinas = new HashMap<>(origem.inventarioMaquinas);
+        this.ultimoVegetalPlantado = origem.ultimoVegetalPlantado;
+        
+        this.armazenamentoSolos = origem.armazenamentoSolos.copiar(this);
+        armazenamentoSolos.setObservador(despachante);
+        this.solos = new VisaoSolos(armazenamentoSolos);
+        
+        this.cercados = new ArrayList<>(origem.cercados.size());
+        for (Cercado original : origem.cercados) {
+            Cercado cercado = new Cercado(original.getId());
+            cercado.restaurar(original.getEspecie(), original.getQuantidade(),
+                              original.getProgresso(), original.isProdutoPronto());
+            cercado.setObservador(despachante);
+            cercados.add(cercado);
+        }
+    }
+    
+    // Acesso global (jogo de um jogador; para várias fazendas no mesmo processo, use criar())
     public static synchronized FazendaEstado getInstance() {
         if (instance == null) {
             instance = new FazendaEstado();
@@ -82,22 +145,82 @@ public class FazendaEstado {
         return instance;
     }
     
+    /**
+     * Cria uma fazenda independente (não é a instância global) com muitos solos,
+     * para simulações de fazendas grandes. Os solos ficam em arrays primitivos,
+     * então mesmo milhões de solos ocupam poucos bytes cada.
+     */
+    public static FazendaEstado criar(int quantidadeSolos, int solosDesbloqueados) {
+        return new FazendaEstado(quantidadeSolos, solosDesbloqueados);
+    }
+    
+    /**
+     * Cria uma fazenda independente igual à de um jogo novo (6 solos, 3 desbloqueados).
+     * Cada uma tem o próprio dinheiro, solos, cercados e inventário (ver HospedeiroFazendas).
+     */
+    public static FazendaEstado criar() {
+        return new FazendaEstado();
+    }
+    
+    /**
+     * Cópia independente desta fazenda (dinheiro, dia, estoque, inventário, solos e
+     * cercados), sem os observadores: o que acontecer na cópia não avisa ninguém daqui.
+     * Barata (os solos são arrays primitivos), para simular "e se?" sem mexer no jogo
+     * (ver engine.PlanejadorIA). Deve ser chamado pela thread que altera a fazenda,
+     * entre ticks.
+     */
+    public FazendaEstado copiar() {
+        return new FazendaEstado(this);
+    }
+    
     // --- Métodos de Negócio ---
     
     public boolean gastarDinheiro(double valor) {
-        if (dinheiro >= valor) {
-            dinheiro -= valor;
+        return gastarCentavos(Dinheiro.deReais(valor));
+    }
+    
+    public void ganharDinheiro(double valor) {
+        ganharCentavos(Dinheiro.deReais(valor));
+    }
+    
+    public boolean gastarCentavos(long valor) {
+        if (centavos >= valor) {
+            centavos -= valor;
+            versaoGlobais++;
             return true;
         }
         return false;
     }
     
-    public void ganharDinheiro(double valor) {
-        this.dinheiro += valor;
+    public void ganharCentavos(long valor) {
+        this.centavos += valor;
+        versaoGlobais++;
+    }
+    
+    /**
+     * Receita vinda de várias threads ao mesmo tempo (ex.: partições do tick paralelo).
+     * Não entra no saldo na hora: só quando a thread do loop chamar consolidarReceitas().
+     */
+    public void registrarReceitaConcorrente(long valor) {
+        receitaConcorrente.add(valor);
+    }
+    
+    /**
+     * Soma no saldo a receita registrada pelas threads concorrentes.
+     * @return quanto foi somado (centavos)
+     */
+    public long consolidarReceitas() {
+        long receita = receitaConcorrente.sumThenReset();
+        if (receita != 0) {
+            centavos += receita;
+            versaoGlobais++;
+        }
+        return receita;
     }
     
     public void avancarDia() {
         this.diaAtual++;
+        versaoGlobais++;
         // Aplicar custos de manutenção diária dos animais
         aplicarCustosManutencaoAnimais();
         // Aplicar custos de manutenção semanal das máquinas (a cada 7 dias)
@@ -107,43 +230,114 @@ public class FazendaEstado {
     }
     
     private void aplicarCustosManutencaoAnimais() {
-        double custoTotal = 0;
+        long custoTotal = 0;
         for (Cercado cercado : cercados) {
-            custoTotal += cercado.calcularCustoManutencao();
+            custoTotal += cercado.calcularCustoManutencaoCentavos();
         }
         if (custoTotal > 0) {
-            dinheiro -= custoTotal;
+            centavos -= custoTotal;
         }
     }
     
     private void aplicarCustosManutencaoMaquinas() {
-        double custoTotal = 0;
-        int totalMaquinas = 0;
+        long custoTotal = calcularCustoManutencaoMaquinas();
         
-        // Conta todas as máquinas instaladas
-        for (List<Maquina> maqs : maquinasInstaladas.values()) {
-            totalMaquinas += maqs.size();
+        if (custoTotal > 0 && centavos >= custoTotal) {
+            centavos -= custoTotal;
         }
+    }
+    
+    private long calcularCustoManutencaoMaquinas() {
+        // Todas as máquinas instaladas (contador mantido pelo armazenamento)
+        int totalMaquinas = armazenamentoSolos.getTotalMaquinas();
         
         // Custo: R$ 10 por máquina por semana
-        custoTotal = totalMaquinas * 10.0;
+        return totalMaquinas * Constantes.CUSTO_MAQUINA_SEMANA_CENTAVOS;
+    }
+    
+    // --- Avanço Rápido ---
+    
+    /**
+     * Avança a fazenda N dias de uma vez, em forma fechada, sem simular tick a tick.
+     * 
+     * - Cada Solo calcula quantos ciclos completa com o tempo efetivo e as máquinas (Trator/Arador)
+     * - Cada Cercado avança sua produção (fica pronto e espera a coleta manual)
+     * - Custos diários dos animais e semanais das máquinas seguem as regras de avancarDia()
+     * 
+     * Custa O(solos + cercados + semanas). A IA não age durante o avanço, e a receita das
+     * colheitas é creditada antes dos custos do período.
+     */
+    public ResultadoAvancoDias avancarDias(int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("Número de dias negativo: " + dias);
+        }
+        
+        ResultadoAvancoDias resultado = new ResultadoAvancoDias(dias);
+        if (dias == 0) return resultado;
+        versaoGlobais++;
+        
+        double segundos = (double) dias * Constantes.SEGUNDOS_POR_DIA;
+        
+        // 1. Solos (crescimento + automação)
+        for (Solo solo : solos) {
+            solo.avancarAnalitico(segundos, ultimoVegetalPlantado, resultado);
+        }
+        
+        // 2. Cercados (no máximo uma produção fica pronta, pois a coleta é manual)
+        for (Cercado cercado : cercados) {
+            boolean estavaPronto = cercado.isProdutoPronto();
+            cercado.atualizarTempo(segundos);
+            if (!estavaPronto && cercado.isProdutoPronto()) {
+                resultado.registrarProducaoAnimal();
+            }
+        }
+        
+        ganharCentavos(resultado.getReceitaColheitasCentavos());
+        
+        // 3. Custos: animais todo dia, máquinas nos dias múltiplos de 7
+        long custoAnimaisDia = 0;
+        for (Cercado cercado : cercados) {
+            custoAnimaisDia += cercado.calcularCustoManutencaoCentavos();
+        }
+        long custoMaquinasSemana = calcularCustoManutencaoMaquinas();
         
-        if (custoTotal > 0 && dinheiro >= custoTotal) {
-            dinheiro -= custoTotal;
+        int diaFinal = diaAtual + dias;
+        int proximaSemana = (diaAtual / 7 + 1) * 7;
+        while (proximaSemana <= diaFinal) {
+            cobrarCustoAnimais(custoAnimaisDia, proximaSemana - diaAtual, resultado);
+            diaAtual = proximaSemana;
+            if (custoMaquinasSemana > 0 && centavos >= custoMaquinasSemana) {
+                centavos -= custoMaquinasSemana;
+                resultado.registrarCustoMaquinas(custoMaquinasSemana);
+            }
+            proximaSemana += 7;
         }
+        cobrarCustoAnimais(custoAnimaisDia, diaFinal - diaAtual, resultado);
+        diaAtual = diaFinal;
+        
+        return resultado;
+    }
+    
+    private void cobrarCustoAnimais(long custoDia, int dias, ResultadoAvancoDias resultado) {
+        if (custoDia <= 0 || dias <= 0) return;
+        long custo = custoDia * dias;
+        centavos -= custo;
+        resultado.registrarCustoAnimais(custo);
     }
     
     public boolean consumirFertilizanteDoEstoque() {
         if (estoqueFertilizante > 0) {
             estoqueFertilizante--;
+            versaoGlobais++;
             return true;
         }
         return false;
     }
     
     public void comprarFertilizante() {
-        if (gastarDinheiro(Constantes.CUSTO_FERTILIZANTE_LOTE)) {
+        if (gastarCentavos(Constantes.CUSTO_FERTILIZANTE_LOTE_CENTAVOS)) {
             estoqueFertilizante += Constantes.QTD_FERTILIZANTE_LOTE;
+            versaoGlobais++;
         }
     }
     
@@ -167,9 +361,10 @@ public class FazendaEstado {
      * Compra uma máquina e adiciona ao inventário.
      */
     public boolean comprarMaquina(Maquina maquina) {
-        if (gastarDinheiro(maquina.getCusto())) {
+        if (gastarCentavos(maquina.getCustoCentavos())) {
             int quantidadeAtual = inventarioMaquinas.get(maquina);
             inventarioMaquinas.put(maquina, quantidadeAtual + 1);
+            versaoGlobais++;
             return true;
         }
         return false;
@@ -188,14 +383,12 @@ public class FazendaEstado {
         Solo solo = solos.get(soloId);
         if (!solo.isDesbloqueado()) return false;
         
-        // Instala no solo
-        solo.instalarMaquina(maquina);
-        
-        // Adiciona ao mapeamento
-        maquinasInstaladas.get(soloId).add(maquina);
+        // Instala no solo (falha se o solo já tem essa máquina)
+        if (!solo.instalarMaquina(maquina)) return false;
         
         // Remove do inventário
         inventarioMaquinas.put(maquina, quantidadeDisponivel - 1);
+        versaoGlobais++;
         
         return true;
     }
@@ -208,15 +401,13 @@ public class FazendaEstado {
         if (soloId < 0 || soloId >= solos.size()) return false;
         
         // Remove do solo
-        solos.get(soloId).removerMaquina(maquina);
-        
-        // Remove do mapeamento
-        boolean removido = maquinasInstaladas.get(soloId).remove(maquina);
+        boolean removido = solos.get(soloId).removerMaquina(maquina);
         
         // Adiciona de volta ao inventário
         if (removido) {
             int quantidadeAtual = inventarioMaquinas.get(maquina);
             inventarioMaquinas.put(maquina, quantidadeAtual + 1);
+            versaoGlobais++;
         }
         
         return removido;
@@ -250,8 +441,8 @@ public class FazendaEstado {
         }
         
         // Verifica se tem dinheiro para comprar o animal
-        double precoAnimal = especie.getPrecoCompra();
-        if (!gastarDinheiro(precoAnimal)) {
+        long precoAnimal = especie.getPrecoCompraCentavos();
+        if (!gastarCentavos(precoAnimal)) {
             return false;
         }
         
@@ -260,7 +451,7 @@ public class FazendaEstado {
         
         // Se falhar, devolve o dinheiro
         if (!sucesso) {
-            ganharDinheiro(precoAnimal);
+            ganharCentavos(precoAnimal);
         }
         
         return sucesso;
@@ -279,20 +470,123 @@ public class FazendaEstado {
         return cercado.adicionarAnimal(animal);
     }
     
+    // --- Restauração (jogo salvo) ---
+    
+    /**
+     * Põe os dados globais direto em um estado salvo. Só para carregar um jogo,
+     * antes de a fazenda estar em jogo (não passa pela fila de comandos).
+     */
+    public void restaurarGlobais(long centavos, int diaAtual, int estoqueFertilizante, Vegetal ultimoVegetal) {
+        if (diaAtual < 1 || estoqueFertilizante < 0) {
+            throw new IllegalArgumentException("Dia ou estoque inválido: " + diaAtual + ", " + estoqueFertilizante);
+        }
+        this.centavos = centavos;
+        this.diaAtual = diaAtual;
+        this.estoqueFertilizante = estoqueFertilizante;
+        this.ultimoVegetalPlantado = ultimoVegetal;
+        this.receitaConcorrente.reset();
+        versaoGlobais++;
+    }
+    
+    public void restaurarInventario(Maquina maquina, int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade negativa de " + maquina + ": " + quantidade);
+        }
+        inventarioMaquinas.put(maquina, quantidade);
+        versaoGlobais++;
+    }
+    
+    /**
+     * Põe nesta fazenda o estado inteiro de 'origem' (dinheiro, dia, estoque, inventário,
+     * solos e cercados), de uma vez. Para carregar um jogo por cima de uma fazenda
+     * existente: a origem é lida e validada antes, então nada aqui fica pela metade.
+     * @throws IllegalArgumentException se o número de solos ou de cercados for diferente
+     */
+    public void restaurar(FazendaEstado origem) {
+        if (origem.armazenamentoSolos.getQuantidade() != armazenamentoSolos.getQuantidade()
+                || origem.cercados.size() != cercados.size()) {
+            throw new IllegalArgumentException("Fazendas de tamanhos diferentes");
+        }
+        restaurarGlobais(origem.getCentavos(), origem.diaAtual, origem.estoqueFertilizante,
+                         origem.ultimoVegetalPlantado);
+        inventarioMaquinas.putAll(origem.inventarioMaquinas);
+        for (int i = 0; i < cercados.size(); i++) {
+            Cercado original = origem.cercados.get(i);
+            cercados.get(i).restaurar(original.getEspecie(), original.getQuantidade(),
+                                      original.getProgresso(), original.isProdutoPronto());
+        }
+        armazenamentoSolos.restaurar(origem.armazenamentoSolos);
+    }
+    
+    // --- Fotografia ---
+    
+    /**
+     * Copia o estado atual para uma FotografiaFazenda imutável.
+     * Deve ser chamado pela thread que altera a fazenda (o GameLoop, entre ticks).
+     * @param tick número do tick, e tempoNoDia/tempoAnimais os acumuladores do loop
+     */
+    public FotografiaFazenda fotografar(long tick, double tempoNoDia, double tempoAnimais) {
+        return new FotografiaFazenda(this, armazenamentoSolos, tick, tempoNoDia, tempoAnimais);
+    }
+    
+    // --- Alterações (salvamento incremental) ---
+    
+    /**
+     * Copia só o que mudou desde a última coleta (solos e cercados marcados, e os dados
+     * globais se mudaram) e limpa as marcas. Custa O(alterados + solos/64).
+     * Deve ser chamado pela thread que altera a fazenda, na fronteira de um tick.
+     */
+    public AlteracoesFazenda coletarAlteracoes(long tick, double tempoNoDia, double tempoAnimais) {
+        boolean globaisMudaram = versaoGlobais != versaoGlobaisColetada;
+        versaoGlobaisColetada = versaoGlobais;
+        return new AlteracoesFazenda(this, armazenamentoSolos, globaisMudaram, tick, tempoNoDia, tempoAnimais);
+    }
+    
+    /**
+     * Esquece as alterações pendentes (ex.: logo depois de salvar a fazenda inteira).
+     */
+    public void descartarAlteracoes() {
+        armazenamentoSolos.limparSujos();
+        for (Cercado cercado : cercados) {
+            cercado.limparSujo();
+        }
+        versaoGlobaisColetada = versaoGlobais;
+    }
+    
+    public long getVersaoGlobais() {
+        return versaoGlobais;
+    }
+    
+    // --- Observadores ---
+    
+    public void adicionarObservador(ObservadorEstado observador) {
+        observadores.add(observador);
+    }
+    
+    public void removerObservador(ObservadorEstado observador) {
+        observadores.remove(observador);
+    }
+    
     // --- Getters ---
-    public double getDinheiro() { return dinheiro; }
+    public double getDinheiro() { return Dinheiro.paraReais(centavos); }
+    public long getCentavos() { return centavos; }
     public int getDiaAtual() { return diaAtual; }
     public int getEstoqueFertilizante() { return estoqueFertilizante; }
     public List<Solo> getSolos() { return solos; }
+    public ArmazenamentoSolos getArmazenamentoSolos() { return armazenamentoSolos; }
     public List<Cercado> getCercados() { return cercados; }
     
     public Map<Maquina, Integer> getInventarioMaquinas() { 
         return new HashMap<>(inventarioMaquinas); 
     }
     
+    public int getQuantidadeInventario(Maquina maquina) {
+        return inventarioMaquinas.get(maquina);
+    }
+    
     public List<Maquina> getMaquinasInstaladas(int soloId) {
         if (soloId < 0 || soloId >= solos.size()) return new ArrayList<>();
-        return new ArrayList<>(maquinasInstaladas.get(soloId));
+        return new ArrayList<>(solos.get(soloId).getMaquinasInstaladas());
     }
     
     public Vegetal getUltimoVegetalPlantado() { 
@@ -301,5 +595,28 @@ public class FazendaEstado {
     
     public void setUltimoVegetalPlantado(Vegetal vegetal) { 
         this.ultimoVegetalPlantado = vegetal; 
+        versaoGlobais++;
+    }
+    
+    /**
+     * Lista (somente leitura) de visões sobre o armazenamento de solos.
+     * Cada get() devolve uma visão leve; nada é guardado por solo.
+     */
+    private static class VisaoSolos extends AbstractList<Solo> implements RandomAccess {
+        private final ArmazenamentoSolos dados;
+        
+        VisaoSolos(ArmazenamentoSolos dados) {
+            this.dados = dados;
+        }
+        
+        @Override
+        public Solo get(int indice) {
+            return dados.getSolo(indice);
+        }
+        
+        @Override
+        public int size() {
+            return dados.getQuantidade();
+        }
     }
-}
\ No newline at end of file
+}
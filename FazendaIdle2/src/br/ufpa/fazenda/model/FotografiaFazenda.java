@@ -0,0 +1,158 @@
+package br.ufpa.fazenda.model;
+
+import br.ufpa.fazenda.util.Dinheiro;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * Cópia imutável do estado da fazenda em um tick (ver FazendaEstado.fotografar).
+ *
+ * O GameLoop publica uma nova fotografia a cada tick; quem só lê (tela, console, API)
+ * pega a mais recente e lê à vontade, sem travas e sem ver um estado pela metade.
+ * Os solos ficam em arrays primitivos, copiados de uma vez do ArmazenamentoSolos.
+ */
+public final class FotografiaFazenda {
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final Animal[] ANIMAIS = Animal.values();
+    private static final Maquina[] MAQUINAS = Maquina.values();
+
+    // --- Relógio ---
+    private final long tick;
+    private final double tempoNoDia;     // Segundos desde o início do dia atual
+    private final double tempoAnimais;   // Segundos acumulados desde a última produção dos animais
+
+    // --- Dados globais ---
+    private final long centavos;
+    private final int diaAtual;
+    private final int estoqueFertilizante;
+    private final int ultimoVegetalPlantado; // ordinal, -1 = nenhum
+    private final int[] inventarioMaquinas;  // por ordinal de Maquina
+
+    // --- Solos (mesmo formato do ArmazenamentoSolos) ---
+    private final int quantidadeSolos;
+    private final double[] progresso;
+    private final byte[] vegetal;
+    private final byte[] nivel;
+    private final byte[] maquinas;
+    private final byte[] flags;
+
+    // --- Cercados ---
+    private final int[] especieCercado;      // ordinal, -1 = vazio
+    private final int[] quantidadeCercado;
+    private final double[] progressoCercado;
+    private final boolean[] prontoCercado;
+
+    FotografiaFazenda(FazendaEstado fazenda, ArmazenamentoSolos dados, long tick,
+                      double tempoNoDia, double tempoAnimais) {
+        this.tick = tick;
+        this.tempoNoDia = tempoNoDia;
+        this.tempoAnimais = tempoAnimais;
+
+        this.centavos = fazenda.getCentavos();
+        this.diaAtual = fazenda.getDiaAtual();
+        this.estoqueFertilizante = fazenda.getEstoqueFertilizante();
+        Vegetal ultimo = fazenda.getUltimoVegetalPlantado();
+        this.ultimoVegetalPlantado = ultimo == null ? -1 : ultimo.ordinal();
+        this.inventarioMaquinas = new int[MAQUINAS.length];
+        for (Maquina maquina : MAQUINAS) {
+            inventarioMaquinas[maquina.ordinal()] = fazenda.getQuantidadeInventario(maquina);
+        }
+
+        this.quantidadeSolos = dados.getQuantidade();
+        this.progresso = dados.progresso.clone();
+        this.vegetal = dados.vegetal.clone();
+        this.nivel = dados.nivel.clone();
+        this.maquinas = dados.maquinas.clone();
+        this.flags = dados.flags.clone();
+
+        int quantidadeCercados = fazenda.getCercados().size();
+        this.especieCercado = new int[quantidadeCercados];
+        this.quantidadeCercado = new int[quantidadeCercados];
+        this.progressoCercado = new double[quantidadeCercados];
+        this.prontoCercado = new boolean[quantidadeCercados];
+        for (int i = 0; i < quantidadeCercados; i++) {
+            Cercado cercado = fazenda.getCercados().get(i);
+            especieCercado[i] = cercado.getEspecie() == null ? -1 : cercado.getEspecie().ordinal();
+            quantidadeCercado[i] = cercado.getQuantidade();
+            progressoCercado[i] = cercado.getProgresso();
+            prontoCercado[i] = cercado.isProdutoPronto();
+        }
+    }
+
+    // --- Relógio ---
+
+    public long getTick() { return tick; }
+    public double getTempoNoDia() { return tempoNoDia; }
+    public double getTempoAnimais() { return tempoAnimais; }
+
+    // --- Dados globais ---
+
+    public double getDinheiro() { return Dinheiro.paraReais(centavos); }
+    public long getCentavos() { return centavos; }
+    public int getDiaAtual() { return diaAtual; }
+    public int getEstoqueFertilizante() { return estoqueFertilizante; }
+
+    public Vegetal getUltimoVegetalPlantado() {
+        return ultimoVegetalPlantado < 0 ? null : VEGETAIS[ultimoVegetalPlantado];
+    }
+
+    public int getQuantidadeInventario(Maquina maquina) {
+        return inventarioMaquinas[maquina.ordinal()];
+    }
+
+    // --- Solos ---
+
+    public int getQuantidadeSolos() { return quantidadeSolos; }
+    public double getProgresso(int solo) { return progresso[solo]; }
+    public int getNivel(int solo) { return nivel[solo]; }
+    public boolean isOcupado(int solo) { return vegetal[solo] != 0; }
+    public boolean isPronto(int solo) { return progresso[solo] >= 1.0; }
+
+    public Vegetal getVegetal(int solo) {
+        int v = vegetal[solo];
+        return v == 0 ? null : VEGETAIS[v - 1];
+    }
+
+    public boolean temMaquina(int solo, Maquina maquina) {
+        return (maquinas[solo] & (1 << maquina.ordinal())) != 0;
+    }
+
+    public boolean isDesbloqueado(int solo) {
+        return (flags[solo] & ArmazenamentoSolos.FLAG_DESBLOQUEADO) != 0;
+    }
+
+    public boolean isFertilizanteAtivado(int solo) {
+        return (flags[solo] & ArmazenamentoSolos.FLAG_FERTILIZANTE_ATIVADO) != 0;
+    }
+
+    public boolean isEstaComFertilizanteAplicado(int solo) {
+        return (flags[solo] & ArmazenamentoSolos.FLAG_FERTILIZANTE_APLICADO) != 0;
+    }
+
+    /**
+     * Copia as colunas dos solos, em bloco, para os buffers dados (mesmo formato do
+     * ArmazenamentoSolos). Cada buffer avança getQuantidadeSolos() posições.
+     */
+    public void copiarColunas(DoubleBuffer progresso, ByteBuffer vegetal, ByteBuffer nivel,
+                              ByteBuffer maquinas, ByteBuffer flags) {
+        progresso.put(this.progresso, 0, quantidadeSolos);
+        vegetal.put(this.vegetal, 0, quantidadeSolos);
+        nivel.put(this.nivel, 0, quantidadeSolos);
+        maquinas.put(this.maquinas, 0, quantidadeSolos);
+        flags.put(this.flags, 0, quantidadeSolos);
+    }
+
+    // --- Cercados ---
+
+    public int getQuantidadeCercados() { return especieCercado.length; }
+    public int getQuantidadeAnimais(int cercado) { return quantidadeCercado[cercado]; }
+    public double getProgressoCercado(int cercado) { return progressoCercado[cercado]; }
+    public boolean isProdutoPronto(int cercado) { return prontoCercado[cercado]; }
+    public boolean isCercadoVazio(int cercado) { return quantidadeCercado[cercado] == 0; }
+
+    public Animal getEspecie(int cercado) {
+        int e = especieCercado[cercado];
+        return e < 0 ? null : ANIMAIS[e];
+    }
+}
@@ -1,5 +1,7 @@
 package br.ufpa.fazenda.model;
 
+import br.ufpa.fazenda.util.Dinheiro;
+
 /**
  * Define os tipos de máquinas e melhorias que podem ser instaladas no solo.
  */
@@ -11,11 +13,13 @@ public enum Maquina {
 
     private final String nome;
     private final double custo;
+    private final long custoCentavos;
     private final String descricao;
 
     Maquina(String nome, double custo, String descricao) {
         this.nome = nome;
         this.custo = custo;
+        this.custoCentavos = Dinheiro.deReais(custo);
         this.descricao = descricao;
     }
 
@@ -28,5 +32,6 @@ public enum Maquina {
 
     public String getNome() { return nome; }
     public double getCusto() { return custo; }
+    public long getCustoCentavos() { return custoCentavos; }
     public String getDescricao() { return descricao; }
 }
\ No newline at end of file
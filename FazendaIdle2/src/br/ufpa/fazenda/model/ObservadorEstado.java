@@ -0,0 +1,24 @@
+package br.ufpa.fazenda.model;
+
+/**
+ * Interface para quem precisa saber quando um Solo ou Cercado muda de estado
+ * (plantou, colheu, ficou pronto, ganhou máquina, subiu de nível...).
+ * Registrada em FazendaEstado.adicionarObservador().
+ *
+ * Os métodos "antesDe..." são chamados logo antes da mudança, enquanto o estado antigo
+ * ainda está valendo. Os métodos "aoMudar..." são chamados logo depois.
+ */
+public interface ObservadorEstado {
+
+    default void antesDeMudarSolo(Solo solo) {
+    }
+
+    default void aoMudarSolo(Solo solo) {
+    }
+
+    default void antesDeMudarCercado(Cercado cercado) {
+    }
+
+    default void aoMudarCercado(Cercado cercado) {
+    }
+}
@@ -0,0 +1,60 @@
+package br.ufpa.fazenda.model;
+
+import br.ufpa.fazenda.util.Dinheiro;
+
+/**
+ * Resumo do que aconteceu em um FazendaEstado.avancarDias(n).
+ */
+public class ResultadoAvancoDias {
+
+    private final int dias;
+    private long colheitas;
+    private long receitaColheitas; // centavos
+    private int producoesAnimais;
+    private long custoAnimais;     // centavos
+    private long custoMaquinas;    // centavos
+
+    public ResultadoAvancoDias(int dias) {
+        this.dias = dias;
+    }
+
+    // --- Registro (usado por FazendaEstado e Solo durante o avanço) ---
+
+    void registrarColheitas(long quantidade, long receita) {
+        this.colheitas += quantidade;
+        this.receitaColheitas += receita;
+    }
+
+    void registrarProducaoAnimal() {
+        this.producoesAnimais++;
+    }
+
+    void registrarCustoAnimais(long custo) {
+        this.custoAnimais += custo;
+    }
+
+    void registrarCustoMaquinas(long custo) {
+        this.custoMaquinas += custo;
+    }
+
+    // --- Getters ---
+    public int getDias() { return dias; }
+    public long getColheitas() { return colheitas; }
+    public double getReceitaColheitas() { return Dinheiro.paraReais(receitaColheitas); }
+    public int getProducoesAnimais() { return producoesAnimais; }
+    public double getCustoAnimais() { return Dinheiro.paraReais(custoAnimais); }
+    public double getCustoMaquinas() { return Dinheiro.paraReais(custoMaquinas); }
+    public long getReceitaColheitasCentavos() { return receitaColheitas; }
+    public long getCustoAnimaisCentavos() { return custoAnimais; }
+    public long getCustoMaquinasCentavos() { return custoMaquinas; }
+
+    public double getSaldoLiquido() {
+        return Dinheiro.paraReais(receitaColheitas - custoAnimais - custoMaquinas);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d dias: %d colheitas (R$%.2f), %d produções animais, custos R$%.2f (animais) + R$%.2f (máquinas)",
+            dias, colheitas, getReceitaColheitas(), producoesAnimais, getCustoAnimais(), getCustoMaquinas());
+    }
+}
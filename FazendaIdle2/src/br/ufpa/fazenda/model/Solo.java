@@ -1,30 +1,46 @@
 package br.ufpa.fazenda.model;
 
 import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Um solo da fazenda.
+ * É uma visão leve (flyweight) sobre uma posição de ArmazenamentoSolos: o estado
+ * (nível, vegetal, progresso, máquinas, fertilizante) mora nos arrays do armazenamento
+ * e este objeto só guarda o índice. Duas visões do mesmo índice são iguais (equals).
+ */
 public class Solo {
     
-    private int id; // Para identificar o solo
-    private int nivel; // Nível do solo (1-10)
-    private boolean desbloqueado; // Indica se o solo está desbloqueado
-    private Vegetal vegetalPlantado;
-    private double progressoCrescimento; // 0.0 a 1.0 (1.0 = pronto)
-    
-    //Faze de testes, sera implementado depois na classe maquinas
-    // Configurações
-    private Set<Maquina> maquinasInstaladas;
-    private boolean fertilizanteAtivado; // O interruptor do usuário
-    private boolean estaComFertilizanteAplicado; // Se a planta atual recebeu o efeito
+    private final ArmazenamentoSolos dados;
+    private final int indice; // Posição nos arrays do armazenamento
+    private final int id; // Para identificar o solo
     
+    /**
+     * Solo avulso ligado à fazenda global (FazendaEstado.getInstance()).
+     */
     public Solo(int id, boolean desbloqueadoInicialmente) {
+        this(id, desbloqueadoInicialmente, FazendaEstado.getInstance());
+    }
+    
+    /**
+     * Solo avulso: tem o próprio armazenamento de uma posição; upgrade, desbloqueio e
+     * fertilizante são cobrados de 'fazenda'.
+     */
+    public Solo(int id, boolean desbloqueadoInicialmente, FazendaEstado fazenda) {
+        this(new ArmazenamentoSolos(1, fazenda), 0, id);
+        dados.setFlag(0, ArmazenamentoSolos.FLAG_DESBLOQUEADO, desbloqueadoInicialmente);
+    }
+    
+    Solo(ArmazenamentoSolos dados, int indice) {
+        this(dados, indice, indice);
+    }
+    
+    private Solo(ArmazenamentoSolos dados, int indice, int id) {
+        this.dados = dados;
+        this.indice = indice;
         this.id = id;
-        this.nivel = 1; // Nível inicial
-        this.desbloqueado = desbloqueadoInicialmente;
-        this.maquinasInstaladas = new HashSet<>();
-        this.fertilizanteAtivado = false;
-        limparSolo();
     }
     
     /**
@@ -32,20 +48,18 @@ public class Solo {
      * Retorna true se conseguiu, false se já estava ocupado.
      */
     public boolean plantar(Vegetal vegetal) {
-        if (vegetalPlantado != null || !desbloqueado) return false; // Solo ocupado ou bloqueado
+        if (isOcupado() || !isDesbloqueado()) return false; // Solo ocupado ou bloqueado
         
-        this.vegetalPlantado = vegetal;
-        this.progressoCrescimento = 0.0;
+        antesDeMudar();
+        dados.setVegetal(indice, vegetal);
+        dados.progresso[indice] = 0.0;
         
         // Lógica do Fertilizante:
         // Se o botão estiver ligado E a fazenda tiver estoque (verificaremos estoque depois na integração)
-        if (fertilizanteAtivado) {
-            // Aqui futuramente chamaremos FazendaEstado.getInstance().consumirFertilizante()
-            this.estaComFertilizanteAplicado = true; 
-        } else {
-            this.estaComFertilizanteAplicado = false;
-        }
+        // Aqui futuramente chamaremos dados.getFazenda().consumirFertilizante()
+        dados.setFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_APLICADO, isFertilizanteAtivado());
         
+        aposMudar();
         return true;
     }
     
@@ -54,10 +68,10 @@ public class Solo {
      * Retorna true se conseguiu plantar.
      */
     public boolean plantarSubstituindo(Vegetal vegetal) {
-        if (!desbloqueado) return false;
+        if (!isDesbloqueado()) return false;
         
         // Se já estiver ocupado, arranca a planta atual
-        if (vegetalPlantado != null) {
+        if (isOcupado()) {
             arrancar();
         }
         
@@ -69,72 +83,122 @@ public class Solo {
      * Inclui: bônus por nível do solo, irrigador e fertilizante.
      */
     public double calcularValorVenda() {
-        if (vegetalPlantado == null) return 0.0;
-        
-        double valorBase = vegetalPlantado.getValorVenda();
-        double multiplicador = 1.0;
-        
-        // 1. Bônus por nível do solo (+20% por nível)
-        multiplicador += (nivel - 1) * Constantes.BONUS_SOLO_NV_VALOR;
-        
-        // 2. Bônus do Irrigador (+25% valor)
-        if (maquinasInstaladas.contains(Maquina.IRRIGADOR)) {
-            multiplicador += Constantes.BONUS_IRRIGADOR_VALOR;
-        }
-        
-        // 3. Bônus do Fertilizante (+50% valor)
-        if (estaComFertilizanteAplicado) {
-            multiplicador += Constantes.BONUS_FERTILIZANTE_VALOR;
-        }
-        
-        return valorBase * multiplicador;
+        return Dinheiro.paraReais(calcularValorVendaCentavos());
     }
     
+    /**
+     * Valor de venda em centavos, com os bônus somados em pontos-base (conta exata).
+     */
+    public long calcularValorVendaCentavos() {
+        Vegetal vegetalPlantado = getVegetal();
+        if (vegetalPlantado == null) return 0;
+        return ArmazenamentoSolos.calcularValorVendaCentavos(vegetalPlantado, getNivel(),
+            temMaquina(Maquina.IRRIGADOR), isEstaComFertilizanteAplicado());
+    }
+
+    
     /**
      * Método chamado pelo GameLoop a cada X milissegundos.
      * @param deltaTempoSegundos Quanto tempo passou desde o último update
      */
     public void atualizarTempo(double deltaTempoSegundos) {
-        if (vegetalPlantado == null) return;
-        if (progressoCrescimento >= 1.0) return; // Já está maduro
+        if (!isOcupado()) return;
+        if (isPronto()) return; // Já está maduro
         
-        // 1. Calcula o tempo base em segundos (Ex: Alface 2 dias * 15s = 30s)
-        double tempoTotalNecessario = vegetalPlantado.getTempoEmSegundos();
+        double tempoFinal = getTempoCrescimentoEfetivo();
         
-        // 2. Aplica REDUTORES de tempo (Irrigador, Fertilizante, Nível do Solo)
-        double fatorReducao = 0.0;
+        // Incrementa o progresso
+        // Se tempoFinal é 10s e passou 1s, aumentamos 0.1 (10%)
+        double progresso = dados.progresso[indice] + (deltaTempoSegundos / tempoFinal);
         
-        if (maquinasInstaladas.contains(Maquina.IRRIGADOR)) {
-            fatorReducao += Constantes.BONUS_IRRIGADOR_TEMPO;
+        if (progresso >= 1.0) {
+            dados.progresso[indice] = 1.0;
+            aposMudar(); // Ficou pronto
+        } else {
+            dados.progresso[indice] = progresso;
+            dados.marcarSujo(indice);
         }
+    }
+    
+    /**
+     * Tempo (em segundos) que a planta atual leva para crescer neste solo,
+     * já com os redutores de Irrigador, Fertilizante e Nível do Solo.
+     */
+    public double getTempoCrescimentoEfetivo() {
+        return dados.getTempoCrescimentoEfetivo(indice);
+    }
+    
+    /**
+     * Avança este solo 'segundos' de uma vez, em forma fechada, repetindo o que
+     * Trator (colhe quando pronto) e Arador (replanta 'replantio' quando vazio) fariam tick a tick.
+     * Cada ciclo completo é contado em 'resultado'; o dinheiro NÃO é creditado aqui.
+     */
+    void avancarAnalitico(double segundos, Vegetal replantio, ResultadoAvancoDias resultado) {
+        if (!isDesbloqueado()) return;
         
-        if (estaComFertilizanteAplicado) {
-            fatorReducao += Constantes.BONUS_FERTILIZANTE_TEMPO;
+        antesDeMudar();
+        try {
+            avancarCiclos(segundos, replantio, resultado);
+        } finally {
+            aposMudar();
         }
+    }
+    
+    private void avancarCiclos(double segundos, Vegetal replantio, ResultadoAvancoDias resultado) {
+        boolean temTrator = temMaquina(Maquina.TRATOR);
+        boolean temArador = temMaquina(Maquina.ARADOR);
         
-        // Bônus de nível (Nível 1 não dá bônus, Nível 2 dá 10%...)
-        fatorReducao += (nivel - 1) * Constantes.BONUS_SOLO_NV_CRESCIMENTO;
+        // Solo vazio: só o Arador planta sozinho
+        if (!isOcupado()) {
+            if (!temArador || replantio == null) return;
+            plantar(replantio);
+        }
         
-        // Limite de segurança: nunca reduzir mais que 90% do tempo
-        if (fatorReducao > 0.9) fatorReducao = 0.9;
+        // 1. Termina o ciclo atual
+        double tempoCiclo = getTempoCrescimentoEfetivo();
+        double falta = (1.0 - getProgresso()) * tempoCiclo;
+        if (falta > segundos) {
+            atualizarTempo(segundos);
+            return;
+        }
+        dados.progresso[indice] = 1.0;
+        double restante = segundos - falta;
         
-        double tempoFinal = tempoTotalNecessario * (1.0 - fatorReducao);
+        // Sem Trator a planta fica madura esperando a colheita manual
+        if (!temTrator) return;
+        resultado.registrarColheitas(1, colherCentavos());
         
-        // 3. Incrementa o progresso
-        // Se tempoFinal é 10s e passou 1s, aumentamos 0.1 (10%)
-        this.progressoCrescimento += (deltaTempoSegundos / tempoFinal);
+        // 2. Ciclos completos de replantio + colheita
+        if (!temArador || replantio == null) return;
+        plantar(replantio);
+        tempoCiclo = getTempoCrescimentoEfetivo();
+        long ciclos = (long) Math.floor(restante / tempoCiclo);
+        if (ciclos > 0) {
+            resultado.registrarColheitas(ciclos, ciclos * calcularValorVendaCentavos());
+            restante -= ciclos * tempoCiclo;
+        }
         
-        if (this.progressoCrescimento > 1.0) this.progressoCrescimento = 1.0;
+        // 3. O que sobrou vira progresso do ciclo em andamento
+        dados.progresso[indice] = Math.min(1.0, restante / tempoCiclo);
     }
     
     /**
      * Colhe o vegetal e retorna o valor de venda.
      */
     public double colher() {
-        if (progressoCrescimento < 1.0 || vegetalPlantado == null) return 0.0;
+        return Dinheiro.paraReais(colherCentavos());
+    }
+    
+    /**
+     * Colhe o vegetal e retorna o valor de venda em centavos (0 se não estava pronto).
+     */
+    public long colherCentavos() {
+        if (!isPronto() || !isOcupado()) return 0;
         
-        double valorVenda = calcularValorVenda();
+        long valorVenda = calcularValorVendaCentavos();
+        antesDeMudar();
         limparSolo();
+        aposMudar();
         return valorVenda;
     }
     
@@ -142,42 +206,59 @@ public class Solo {
      * Arranca a planta atual sem colher (sem ganhar dinheiro).
      */
     public void arrancar() {
+        antesDeMudar();
         limparSolo();
+        aposMudar();
     }
     
     /**
      * Aplica fertilizante na planta atual (se houver estoque).
      */
     public boolean aplicarFertilizante() {
-        if (vegetalPlantado == null || estaComFertilizanteAplicado) return false;
+        if (!isOcupado() || isEstaComFertilizanteAplicado()) return false;
         
-        FazendaEstado fazenda = FazendaEstado.getInstance();
+        FazendaEstado fazenda = dados.getFazenda();
         if (fazenda.consumirFertilizanteDoEstoque()) {
-            this.estaComFertilizanteAplicado = true;
+            antesDeMudar();
+            dados.setFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_APLICADO, true);
+            aposMudar();
             return true;
         }
         return false;
     }
     
     private void limparSolo() {
-        this.vegetalPlantado = null;
-        this.progressoCrescimento = 0.0;
-        this.estaComFertilizanteAplicado = false;
+        dados.setVegetal(indice, null);
+        dados.progresso[indice] = 0.0;
+        dados.setFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_APLICADO, false);
     }
-
+    
     // --- Instalação de Máquinas ---
     
-    public void instalarMaquina(Maquina maquina) {
-        if (!desbloqueado) return;
-        maquinasInstaladas.add(maquina);
+    /**
+     * Instala uma máquina. Retorna false se o solo está bloqueado ou já tem essa máquina.
+     */
+    public boolean instalarMaquina(Maquina maquina) {
+        if (!isDesbloqueado() || temMaquina(maquina)) return false;
+        antesDeMudar();
+        dados.adicionarMaquina(indice, maquina);
+        aposMudar();
+        return true;
     }
     
-    public void removerMaquina(Maquina maquina) {
-        maquinasInstaladas.remove(maquina);
+    /**
+     * Remove uma máquina. Retorna false se ela não estava instalada.
+     */
+    public boolean removerMaquina(Maquina maquina) {
+        if (!temMaquina(maquina)) return false;
+        antesDeMudar();
+        dados.removerMaquina(indice, maquina);
+        aposMudar();
+        return true;
     }
     
     public boolean temMaquina(Maquina maquina) {
-        return maquinasInstaladas.contains(maquina);
+        return dados.temMaquina(indice, maquina);
     }
     
     // --- Upgrade do Solo ---
@@ -187,13 +268,16 @@ public class Solo {
      * Retorna true se conseguiu fazer o upgrade.
      */
     public boolean upgrade() {
-        if (nivel >= 10 || !desbloqueado) return false; // Nível máximo ou solo bloqueado
+        int nivel = getNivel();
+        if (nivel >= Constantes.NIVEL_MAXIMO_SOLO || !isDesbloqueado()) return false; // Nível máximo ou solo bloqueado
         
-        double custoUpgrade = 100.0 * nivel;
-        FazendaEstado fazenda = FazendaEstado.getInstance();
+        long custoUpgrade = Constantes.CUSTO_UPGRADE_SOLO_POR_NIVEL_CENTAVOS * nivel;
+        FazendaEstado fazenda = dados.getFazenda();
         
-        if (fazenda.gastarDinheiro(custoUpgrade)) {
-            nivel++;
+        if (fazenda.gastarCentavos(custoUpgrade)) {
+            antesDeMudar();
+            dados.nivel[indice] = (byte) (nivel + 1);
+            aposMudar();
             return true;
         }
         return false;
@@ -206,38 +290,88 @@ public class Solo {
      * Retorna true se conseguiu desbloquear.
      */
     public boolean desbloquear() {
-        if (desbloqueado) return true; // Já está desbloqueado
+        if (isDesbloqueado()) return true; // Já está desbloqueado
         
-        double custoDesbloqueio = 300.0;
-        FazendaEstado fazenda = FazendaEstado.getInstance();
+        FazendaEstado fazenda = dados.getFazenda();
         
-        if (fazenda.gastarDinheiro(custoDesbloqueio)) {
-            this.desbloqueado = true;
+        if (fazenda.gastarCentavos(Constantes.CUSTO_DESBLOQUEIO_SOLO_CENTAVOS)) {
+            antesDeMudar();
+            dados.setFlag(indice, ArmazenamentoSolos.FLAG_DESBLOQUEADO, true);
+            aposMudar();
             return true;
         }
         return false;
     }
-
+    
+    // --- Observação de Mudanças ---
+    
+    private void antesDeMudar() {
+        dados.antesDeMudar(indice, this);
+    }
+    
+    private void aposMudar() {
+        dados.aposMudar(indice, this);
+    }
+    
+    FazendaEstado getFazenda() { return dados.getFazenda(); }
+    
+    /**
+     * Solo avulso com o estado atual deste (mesmo id), que não acompanha mais o jogo.
+     * Para entregar um solo a outra thread sem ela ler os arrays que o tick está
+     * alterando (ver engine.DespachanteEventos). Pela thread que altera a fazenda.
+     */
+    public Solo copiar() {
+        ArmazenamentoSolos copia = new ArmazenamentoSolos(1, dados.getFazenda());
+        copia.copiarSolo(0, dados, indice);
+        return new Solo(copia, 0, id);
+    }
+    
     // --- Getters e Setters para a Interface Gráfica ---
     
     public int getId() { return id; }
-    public int getNivel() { return nivel; }
-    public boolean isDesbloqueado() { return desbloqueado; }
-    public boolean isOcupado() { return vegetalPlantado != null; }
-    public boolean isPronto() { return progressoCrescimento >= 1.0; }
-    public double getProgresso() { return progressoCrescimento; }
-    public Vegetal getVegetal() { return vegetalPlantado; }
-    public Set<Maquina> getMaquinasInstaladas() { return new HashSet<>(maquinasInstaladas); }
+    public int getNivel() { return dados.nivel[indice]; }
+    public boolean isDesbloqueado() { return dados.temFlag(indice, ArmazenamentoSolos.FLAG_DESBLOQUEADO); }
+    public boolean isOcupado() { return dados.vegetal[indice] != 0; }
+    public boolean isPronto() { return dados.progresso[indice] >= 1.0; }
+    public double getProgresso() { return dados.progresso[indice]; }
+    public Vegetal getVegetal() { return dados.getVegetal(indice); }
+    public int getVersao() { return dados.versao[indice]; }
     
-    public void setFertilizanteAtivado(boolean ativo) { 
-        this.fertilizanteAtivado = ativo; 
+    public Set<Maquina> getMaquinasInstaladas() {
+        Set<Maquina> maquinas = new HashSet<>();
+        for (Maquina maquina : Maquina.values()) {
+            if (temMaquina(maquina)) maquinas.add(maquina);
+        }
+        return maquinas;
     }
     
-    public boolean isFertilizanteAtivado() { 
-        return fertilizanteAtivado; 
+    public void setFertilizanteAtivado(boolean ativo) {
+        if (isFertilizanteAtivado() == ativo) return;
+        antesDeMudar();
+        dados.setFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_ATIVADO, ativo);
+        aposMudar();
+    }
+    
+    public boolean isFertilizanteAtivado() {
+        return dados.temFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_ATIVADO);
+    }
+    
+    public boolean isEstaComFertilizanteAplicado() {
+        return dados.temFlag(indice, ArmazenamentoSolos.FLAG_FERTILIZANTE_APLICADO);
+    }
+    
+    // --- Identidade da visão ---
+    
+    @Override
+    public boolean equals(Object outro) {
+        if (this == outro) return true;
+        if (!(outro instanceof Solo)) return false;
+        Solo solo = (Solo) outro;
+        return dados == solo.dados && indice == solo.indice;
     }
     
-    public boolean isEstaComFertilizanteAplicado() { 
-        return estaComFertilizanteAplicado; 
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(dados) * 31 + indice;
     }
 }
@@ -0,0 +1,135 @@
+package br.ufpa.fazenda.model;
+
+import br.ufpa.fazenda.util.Constantes;
+import br.ufpa.fazenda.util.Dinheiro;
+
+/**
+ * Lucro esperado de cada plantio, por (vegetal, nível do solo, irrigador, fertilizante),
+ * e o vegetal mais lucrativo para cada combinação. São as únicas entradas que importam,
+ * então tudo é calculado uma vez, ao carregar a classe, a partir do catálogo (Vegetal) e
+ * dos bônus (Constantes). Os dois são fixos no código: mudou, recompila e a tabela se
+ * refaz sozinha. O valor da colheita sai da mesma conta em centavos da venda, então a
+ * tabela e o saldo nunca discordam por arredondamento.
+ *
+ * "Fertilizante" aqui é o solo com fertilizante ativado e estoque para aplicar
+ * (ver comFertilizante). Usada pela PersonagemIA e pela dica de plantio do console.
+ */
+public final class TabelaLucro {
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final int COMBINACOES = (Constantes.NIVEL_MAXIMO_SOLO + 1) * 4;
+
+    // Por (vegetal, nível, irrigador, fertilizante)
+    private static final double[] VALOR_COLHEITA = new double[VEGETAIS.length * COMBINACOES];
+    private static final double[] TEMPO_CRESCIMENTO = new double[VEGETAIS.length * COMBINACOES];
+    private static final double[] LUCRO_POR_SEGUNDO = new double[VEGETAIS.length * COMBINACOES];
+
+    // Por (nível, irrigador, fertilizante): ordinal do melhor vegetal, -1 se nenhum cabe
+    private static final byte[] MELHOR_VEGETAL = new byte[COMBINACOES];
+
+    static {
+        for (Vegetal v : VEGETAIS) {
+            for (int nv = 1; nv <= Constantes.NIVEL_MAXIMO_SOLO; nv++) {
+                for (int irrigador = 0; irrigador <= 1; irrigador++) {
+                    for (int fertilizante = 0; fertilizante <= 1; fertilizante++) {
+                        int i = v.ordinal() * COMBINACOES + combinacao(nv, irrigador == 1, fertilizante == 1);
+                        VALOR_COLHEITA[i] = calcularValorColheita(v, nv, irrigador == 1, fertilizante == 1);
+                        TEMPO_CRESCIMENTO[i] = ArmazenamentoSolos.calcularTempoCrescimento(
+                            v, nv, irrigador == 1, fertilizante == 1);
+                        LUCRO_POR_SEGUNDO[i] = VALOR_COLHEITA[i] / TEMPO_CRESCIMENTO[i];
+                    }
+                }
+            }
+        }
+        for (int nv = 1; nv <= Constantes.NIVEL_MAXIMO_SOLO; nv++) {
+            for (int irrigador = 0; irrigador <= 1; irrigador++) {
+                for (int fertilizante = 0; fertilizante <= 1; fertilizante++) {
+                    int c = combinacao(nv, irrigador == 1, fertilizante == 1);
+                    // Primeiro do catálogo entre os de maior lucro por segundo (e lucro > 0)
+                    int melhor = -1;
+                    double melhorLucro = 0;
+                    for (Vegetal v : VEGETAIS) {
+                        double lucro = LUCRO_POR_SEGUNDO[v.ordinal() * COMBINACOES + c];
+                        if (v.getNivelMinimo() <= nv && lucro > melhorLucro) {
+                            melhorLucro = lucro;
+                            melhor = v.ordinal();
+                        }
+                    }
+                    MELHOR_VEGETAL[c] = (byte) melhor;
+                }
+            }
+        }
+    }
+
+    private TabelaLucro() {}
+
+    // --- Consultas ---
+
+    /**
+     * Valor de venda esperado na colheita (R$).
+     */
+    public static double getValorColheita(Vegetal vegetal, int nivel, boolean irrigador, boolean fertilizante) {
+        return VALOR_COLHEITA[indice(vegetal, nivel, irrigador, fertilizante)];
+    }
+
+    /**
+     * Tempo de crescimento esperado (segundos).
+     */
+    public static double getTempoCrescimento(Vegetal vegetal, int nivel, boolean irrigador, boolean fertilizante) {
+        return TEMPO_CRESCIMENTO[indice(vegetal, nivel, irrigador, fertilizante)];
+    }
+
+    /**
+     * Lucro por segundo de solo ocupado (quanto maior, melhor).
+     */
+    public static double getLucroPorSegundo(Vegetal vegetal, int nivel, boolean irrigador, boolean fertilizante) {
+        return LUCRO_POR_SEGUNDO[indice(vegetal, nivel, irrigador, fertilizante)];
+    }
+
+    /**
+     * Vegetal de maior lucro por segundo que o nível permite (null se nenhum).
+     */
+    public static Vegetal getMelhorVegetal(int nivel, boolean irrigador, boolean fertilizante) {
+        int melhor = MELHOR_VEGETAL[combinacao(validarNivel(nivel), irrigador, fertilizante)];
+        return melhor < 0 ? null : VEGETAIS[melhor];
+    }
+
+    // --- Atalhos a partir de um solo ---
+
+    /**
+     * O plantio neste solo teria o bônus do fertilizante? (ativado e com estoque)
+     */
+    public static boolean comFertilizante(Solo solo) {
+        return solo.isFertilizanteAtivado() && solo.getFazenda().getEstoqueFertilizante() > 0;
+    }
+
+    public static Vegetal getMelhorVegetal(Solo solo) {
+        return getMelhorVegetal(solo.getNivel(), solo.temMaquina(Maquina.IRRIGADOR), comFertilizante(solo));
+    }
+
+    public static double getLucroPorSegundo(Vegetal vegetal, Solo solo) {
+        return getLucroPorSegundo(vegetal, solo.getNivel(), solo.temMaquina(Maquina.IRRIGADOR), comFertilizante(solo));
+    }
+
+    // --- Cálculo (só na montagem) ---
+
+    private static double calcularValorColheita(Vegetal v, int nivel, boolean irrigador, boolean fertilizante) {
+        // A mesma conta em centavos da venda de verdade (Solo.calcularValorVendaCentavos)
+        return Dinheiro.paraReais(ArmazenamentoSolos.calcularValorVendaCentavos(v, nivel, irrigador, fertilizante));
+    }
+
+    private static int combinacao(int nivel, boolean irrigador, boolean fertilizante) {
+        return (nivel * 2 + (irrigador ? 1 : 0)) * 2 + (fertilizante ? 1 : 0);
+    }
+
+    private static int indice(Vegetal vegetal, int nivel, boolean irrigador, boolean fertilizante) {
+        return vegetal.ordinal() * COMBINACOES + combinacao(validarNivel(nivel), irrigador, fertilizante);
+    }
+
+    private static int validarNivel(int nivel) {
+        if (nivel < 1 || nivel > Constantes.NIVEL_MAXIMO_SOLO) {
+            throw new IllegalArgumentException("Nível de solo fora de 1.." + Constantes.NIVEL_MAXIMO_SOLO + ": " + nivel);
+        }
+        return nivel;
+    }
+}
@@ -1,5 +1,7 @@
 package br.ufpa.fazenda.model;
 
+import br.ufpa.fazenda.util.Dinheiro;
+
 /**
  * Define o catálogo de plantas disponíveis no jogo.
  * Funciona como um banco de dados estático.
@@ -15,6 +17,7 @@ public enum Vegetal {
     private final int nivelMinimo;
     private final int diasParaCrescer; // Tempo em "dias do jogo"
     private final double valorVenda;
+    private final long valorVendaCentavos;
 
     // Construtor do Enum
     Vegetal(String nome, int nivelMinimo, int diasParaCrescer, double valorVenda) {
@@ -22,6 +25,7 @@ public enum Vegetal {
         this.nivelMinimo = nivelMinimo;
         this.diasParaCrescer = diasParaCrescer;
         this.valorVenda = valorVenda;
+        this.valorVendaCentavos = Dinheiro.deReais(valorVenda);
     }
 
     // --- MÉTODOS AUXILIARES (Os Fios) ---
@@ -36,4 +40,5 @@ public enum Vegetal {
     public int getNivelMinimo() { return nivelMinimo; }
     public int getDiasParaCrescer() { return diasParaCrescer; }
     public double getValorVenda() { return valorVenda; }
+    public long getValorVendaCentavos() { return valorVendaCentavos; }
 }
\ No newline at end of file
@@ -0,0 +1,470 @@
+package br.ufpa.fazenda.persistencia;
+
+import br.ufpa.fazenda.model.AlteracoesFazenda;
+import br.ufpa.fazenda.model.Animal;
+import br.ufpa.fazenda.model.Cercado;
+import br.ufpa.fazenda.model.FazendaEstado;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Vegetal;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Jogo salvo em formato binário compacto, por colunas (little-endian).
+ *
+ * Layout (versões 1 a 3):
+ * <pre>
+ * cabeçalho (64 bytes)
+ *   int    MAGICO ("FZI2")      short versão      short reservado
+ *   int    solos                int   cercados    int   máquinas (Maquina.values().length)
+ *   long   tick                 double tempoNoDia double tempoAnimais
+ *   long   centavos             int   dia         int   estoqueFertilizante
+ *   int    últimoVegetal (ordinal, -1 = nenhum)
+ * corpo
+ *   int[máquinas]   inventário
+ *   int[cercados]   espécie (ordinal, -1 = vazio)    int[cercados]    quantidade
+ *   double[cercados] progresso                        byte[cercados]   pronto (0/1)
+ *   (zeros até alinhar em 8 bytes)
+ *   double[solos] progresso   byte[solos] vegetal, nível, máquinas, flags
+ * int CRC32C do cabeçalho e do corpo (versões 1 e 2: só do corpo)
+ * (versões 2 e 3: zeros até alinhar em 8 bytes, seguidos de zero ou mais blocos de alterações)
+ * </pre>
+ *
+ * Bloco de alterações (versões 2 e 3), acrescentado pelo SalvamentoIncremental:
+ * <pre>
+ *   int    MAGICO_BLOCO ("FZD1")   int tamanho do bloco (com cabeçalho, zeros e CRC)
+ *   long   tick                    double tempoNoDia   double tempoAnimais
+ *   int    solos alterados (k)     int cercados alterados (c)
+ *   int    globais (0/1)           int reservado
+ *   [globais] long centavos  int dia  int estoqueFertilizante  int últimoVegetal  int[máquinas] inventário
+ *   int[c] id  int[c] espécie  int[c] quantidade  double[c] progresso  byte[c] pronto
+ *   (zeros até alinhar em 8 bytes)
+ *   double[k] progresso  int[k] índice do solo  byte[k] vegetal, nível, máquinas, flags
+ *   (zeros até o CRC)  int CRC32C do bloco inteiro até aqui
+ * </pre>
+ * Os blocos são aplicados em ordem por cima da base; o carregamento para no primeiro
+ * bloco incompleto ou com CRC errado (gravação interrompida no meio).
+ *
+ * Os solos vão como os arrays do ArmazenamentoSolos, então salvar e carregar são
+ * cópias em bloco: o carregamento mapeia o arquivo (MappedByteBuffer) e copia cada
+ * coluna direto para os arrays, sem interpretar solo por solo.
+ */
+public final class ArquivoFazenda {
+
+    public static final int MAGICO = 0x465A4932; // "FZI2"
+    public static final short VERSAO = 3;
+    public static final int MAGICO_BLOCO = 0x465A4431; // "FZD1"
+
+    private static final int TAMANHO_CABECALHO = 64;
+    private static final int TAMANHO_CABECALHO_BLOCO = 48;
+    private static final int TAMANHO_CRC = 4;
+
+    private static final Vegetal[] VEGETAIS = Vegetal.values();
+    private static final Animal[] ANIMAIS = Animal.values();
+    private static final Maquina[] MAQUINAS = Maquina.values();
+
+    private ArquivoFazenda() {}
+
+    /**
+     * Dados do cabeçalho que não ficam na FazendaEstado (relógio do loop).
+     */
+    public static final class Cabecalho {
+        private final int versao;
+        private final int quantidadeSolos;
+        private final int quantidadeCercados;
+        private final long tick;
+        private final double tempoNoDia;
+        private final double tempoAnimais;
+
+        Cabecalho(int versao, int quantidadeSolos, int quantidadeCercados,
+                  long tick, double tempoNoDia, double tempoAnimais) {
+            this.versao = versao;
+            this.quantidadeSolos = quantidadeSolos;
+            this.quantidadeCercados = quantidadeCercados;
+            this.tick = tick;
+            this.tempoNoDia = tempoNoDia;
+            this.tempoAnimais = tempoAnimais;
+        }
+
+        public int getVersao() { return versao; }
+        public int getQuantidadeSolos() { return quantidadeSolos; }
+        public int getQuantidadeCercados() { return quantidadeCercados; }
+        public long getTick() { return tick; }
+        public double getTempoNoDia() { return tempoNoDia; }
+        public double getTempoAnimais() { return tempoAnimais; }
+    }
+
+    // --- Salvar ---
+
+    /**
+     * Grava a fotografia em 'destino'. Escreve num arquivo temporário ao lado e só então
+     * o move por cima do destino, então um salvamento interrompido não estraga o anterior.
+     * Pode ser chamado de qualquer thread (a fotografia é imutável).
+     */
+    public static void salvar(FotografiaFazenda foto, Path destino) throws IOException {
+        int solos = foto.getQuantidadeSolos();
+        int cercados = foto.getQuantidadeCercados();
+        long tamanhoCorpo = tamanhoCorpo(solos, cercados);
+        long tamanho = tamanhoBase(solos, cercados);
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Fazenda grande demais para o formato: " + solos + " solos");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) tamanho).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Cabeçalho
+        buffer.putInt(MAGICO).putShort(VERSAO).putShort((short) 0);
+        buffer.putInt(solos).putInt(cercados).putInt(MAQUINAS.length);
+        buffer.putLong(foto.getTick()).putDouble(foto.getTempoNoDia()).putDouble(foto.getTempoAnimais());
+        buffer.putLong(foto.getCentavos()).putInt(foto.getDiaAtual()).putInt(foto.getEstoqueFertilizante());
+        Vegetal ultimo = foto.getUltimoVegetalPlantado();
+        buffer.putInt(ultimo == null ? -1 : ultimo.ordinal());
+
+        // Inventário e cercados
+        for (Maquina maquina : MAQUINAS) {
+            buffer.putInt(foto.getQuantidadeInventario(maquina));
+        }
+        for (int i = 0; i < cercados; i++) {
+            Animal especie = foto.getEspecie(i);
+            buffer.putInt(especie == null ? -1 : especie.ordinal());
+        }
+        for (int i = 0; i < cercados; i++) buffer.putInt(foto.getQuantidadeAnimais(i));
+        for (int i = 0; i < cercados; i++) buffer.putDouble(foto.getProgressoCercado(i));
+        for (int i = 0; i < cercados; i++) buffer.put((byte) (foto.isProdutoPronto(i) ? 1 : 0));
+        while ((buffer.position() & 7) != 0) buffer.put((byte) 0);
+
+        // Solos, coluna por coluna
+        int inicioSolos = buffer.position();
+        foto.copiarColunas(
+            buffer.slice(inicioSolos, solos * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+            buffer.slice(inicioSolos + solos * 8, solos),
+            buffer.slice(inicioSolos + solos * 9, solos),
+            buffer.slice(inicioSolos + solos * 10, solos),
+            buffer.slice(inicioSolos + solos * 11, solos));
+        buffer.position(inicioSolos + solos * 12);
+
+        // CRC do cabeçalho e do corpo
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, TAMANHO_CABECALHO + (int) tamanhoCorpo));
+        buffer.putInt((int) crc.getValue());
+        while (buffer.hasRemaining()) buffer.put((byte) 0);
+        buffer.flip();
+
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // --- Carregar ---
+
+    /**
+     * Carrega o arquivo em uma fazenda nova, com o número de solos que estiver salvo
+     * (como FazendaEstado.criar). Não mexe na instância global.
+     */
+    public static FazendaEstado carregar(Path origem) throws IOException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            ByteBuffer buffer = mapear(canal);
+            Cabecalho cabecalho = lerCabecalho(buffer);
+            FazendaEstado fazenda = FazendaEstado.criar(cabecalho.quantidadeSolos, 0);
+            preencher(buffer, cabecalho, fazenda);
+            return fazenda;
+        }
+    }
+
+    /**
+     * Carrega o arquivo por cima de uma fazenda existente, que precisa ter o mesmo número
+     * de solos e cercados. Use antes de o GameLoop começar a rodar sobre ela.
+     * Tudo é lido e validado numa fazenda à parte e só então copiado para 'destino', de
+     * uma vez: um arquivo inválido não deixa 'destino' pela metade.
+     * @return o cabeçalho (tick e relógios do loop no momento do salvamento; com blocos de
+     *         alterações, os do último bloco aplicado)
+     */
+    public static Cabecalho carregar(Path origem, FazendaEstado destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            ByteBuffer buffer = mapear(canal);
+            Cabecalho cabecalho = lerCabecalho(buffer);
+            if (cabecalho.quantidadeSolos != destino.getArmazenamentoSolos().getQuantidade()) {
+                throw new IOException("Jogo salvo tem " + cabecalho.quantidadeSolos + " solos, a fazenda tem "
+                                      + destino.getArmazenamentoSolos().getQuantidade());
+            }
+            if (cabecalho.quantidadeCercados != destino.getCercados().size()) {
+                throw new IOException("Jogo salvo tem " + cabecalho.quantidadeCercados + " cercados, a fazenda tem "
+                                      + destino.getCercados().size());
+            }
+            FazendaEstado lida = FazendaEstado.criar(cabecalho.quantidadeSolos, 0);
+            Cabecalho atual = preencher(buffer, cabecalho, lida);
+            destino.restaurar(lida);
+            return atual;
+        }
+    }
+
+    /**
+     * Só o cabeçalho (valida magia e versão, sem conferir o corpo).
+     */
+    public static Cabecalho lerCabecalho(Path origem) throws IOException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && canal.read(buffer) >= 0) {
+                // lê até completar o cabeçalho
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Arquivo curto demais para um jogo salvo");
+            }
+            buffer.flip();
+            return lerCabecalho(buffer);
+        }
+    }
+
+    private static ByteBuffer mapear(FileChannel canal) throws IOException {
+        long tamanho = canal.size();
+        if (tamanho < TAMANHO_CABECALHO + TAMANHO_CRC || tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Tamanho inválido para um jogo salvo: " + tamanho);
+        }
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        return mapa.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static Cabecalho lerCabecalho(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGICO) {
+            throw new IOException("Não é um jogo salvo da Fazenda Idle");
+        }
+        int versao = buffer.getShort(4);
+        if (versao < 1 || versao > VERSAO) {
+            throw new IOException("Versão do jogo salvo não suportada: " + versao);
+        }
+        int solos = buffer.getInt(8);
+        int cercados = buffer.getInt(12);
+        int maquinas = buffer.getInt(16);
+        if (solos < 0 || cercados < 0 || maquinas != MAQUINAS.length) {
+            throw new IOException("Cabeçalho inválido (solos=" + solos + ", cercados=" + cercados
+                                  + ", máquinas=" + maquinas + ")");
+        }
+        return new Cabecalho(versao, solos, cercados,
+                             buffer.getLong(20), buffer.getDouble(28), buffer.getDouble(36));
+    }
+
+    private static Cabecalho preencher(ByteBuffer buffer, Cabecalho cabecalho, FazendaEstado fazenda) throws IOException {
+        int solos = cabecalho.quantidadeSolos;
+        int cercados = cabecalho.quantidadeCercados;
+        long tamanhoCorpo = tamanhoCorpo(solos, cercados);
+        long fimBase = TAMANHO_CABECALHO + tamanhoCorpo + TAMANHO_CRC;
+        if (cabecalho.versao == 1 ? buffer.capacity() != fimBase : buffer.capacity() < fimBase) {
+            throw new IOException("Tamanho do arquivo não bate com o cabeçalho");
+        }
+        List<Cercado> destinoCercados = fazenda.getCercados();
+        if (cercados != destinoCercados.size()) {
+            throw new IOException("Jogo salvo tem " + cercados + " cercados, a fazenda tem " + destinoCercados.size());
+        }
+
+        // Até a versão 2 o CRC cobria só o corpo; a partir da 3, o cabeçalho também
+        int inicioCrc = cabecalho.versao < 3 ? TAMANHO_CABECALHO : 0;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(inicioCrc, TAMANHO_CABECALHO + (int) tamanhoCorpo - inicioCrc));
+        if ((int) crc.getValue() != buffer.getInt(TAMANHO_CABECALHO + (int) tamanhoCorpo)) {
+            throw new IOException("Jogo salvo corrompido (CRC não confere)");
+        }
+
+        try {
+            int ultimo = buffer.getInt(60);
+            fazenda.restaurarGlobais(buffer.getLong(44), buffer.getInt(52), buffer.getInt(56),
+                                     ultimo < 0 ? null : VEGETAIS[ultimo]);
+
+            buffer.position(TAMANHO_CABECALHO);
+            for (Maquina maquina : MAQUINAS) {
+                fazenda.restaurarInventario(maquina, buffer.getInt());
+            }
+
+            int inicioCercados = buffer.position();
+            for (int i = 0; i < cercados; i++) {
+                int especie = buffer.getInt(inicioCercados + i * 4);
+                int quantidade = buffer.getInt(inicioCercados + (cercados + i) * 4);
+                double progresso = buffer.getDouble(inicioCercados + cercados * 8 + i * 8);
+                boolean pronto = buffer.get(inicioCercados + cercados * 16 + i) != 0;
+                destinoCercados.get(i).restaurar(especie < 0 ? null : ANIMAIS[especie], quantidade, progresso, pronto);
+            }
+
+            int inicioSolos = alinhar8(inicioCercados + cercados * 17);
+            fazenda.getArmazenamentoSolos().carregarColunas(
+                buffer.slice(inicioSolos, solos * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+                buffer.slice(inicioSolos + solos * 8, solos),
+                buffer.slice(inicioSolos + solos * 9, solos),
+                buffer.slice(inicioSolos + solos * 10, solos),
+                buffer.slice(inicioSolos + solos * 11, solos));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Jogo salvo com dados inválidos: " + e.getMessage(), e);
+        }
+        if (cabecalho.versao == 1) {
+            return cabecalho;
+        }
+        
+        // Blocos de alterações, em ordem, até o fim ou até o primeiro incompleto
+        Cabecalho atual = cabecalho;
+        int posicao = alinhar8(fimBase);
+        int tamanho;
+        while ((tamanho = validarBloco(buffer, posicao, solos, cercados)) > 0) {
+            atual = aplicarBloco(buffer.slice(posicao, tamanho).order(ByteOrder.LITTLE_ENDIAN), atual, fazenda);
+            posicao += tamanho;
+        }
+        return atual;
+    }
+
+    // --- Blocos de alterações ---
+
+    /**
+     * Monta o bloco de alterações (pronto para escrita) que leva a base até 'alteracoes'.
+     */
+    static ByteBuffer montarBloco(AlteracoesFazenda alteracoes) throws IOException {
+        int solos = alteracoes.getQuantidadeSolos();
+        int cercados = alteracoes.getQuantidadeCercados();
+        boolean globais = alteracoes.isGlobaisAlterados();
+        long tamanho = tamanhoBloco(solos, cercados, globais);
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Alterações grandes demais para um bloco: " + solos + " solos");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) tamanho).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGICO_BLOCO).putInt((int) tamanho);
+        buffer.putLong(alteracoes.getTick()).putDouble(alteracoes.getTempoNoDia()).putDouble(alteracoes.getTempoAnimais());
+        buffer.putInt(solos).putInt(cercados).putInt(globais ? 1 : 0).putInt(0);
+
+        if (globais) {
+            Vegetal ultimo = alteracoes.getUltimoVegetalPlantado();
+            buffer.putLong(alteracoes.getCentavos()).putInt(alteracoes.getDiaAtual())
+                  .putInt(alteracoes.getEstoqueFertilizante()).putInt(ultimo == null ? -1 : ultimo.ordinal());
+            for (Maquina maquina : MAQUINAS) {
+                buffer.putInt(alteracoes.getQuantidadeInventario(maquina));
+            }
+        }
+        for (int k = 0; k < cercados; k++) buffer.putInt(alteracoes.getIdCercado(k));
+        for (int k = 0; k < cercados; k++) {
+            Animal especie = alteracoes.getEspecie(k);
+            buffer.putInt(especie == null ? -1 : especie.ordinal());
+        }
+        for (int k = 0; k < cercados; k++) buffer.putInt(alteracoes.getQuantidadeAnimais(k));
+        for (int k = 0; k < cercados; k++) buffer.putDouble(alteracoes.getProgressoCercado(k));
+        for (int k = 0; k < cercados; k++) buffer.put((byte) (alteracoes.isProdutoPronto(k) ? 1 : 0));
+        while ((buffer.position() & 7) != 0) buffer.put((byte) 0);
+
+        int inicioSolos = buffer.position();
+        alteracoes.copiarColunas(
+            buffer.slice(inicioSolos + solos * 8, solos * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+            buffer.slice(inicioSolos, solos * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+            buffer.slice(inicioSolos + solos * 12, solos),
+            buffer.slice(inicioSolos + solos * 13, solos),
+            buffer.slice(inicioSolos + solos * 14, solos),
+            buffer.slice(inicioSolos + solos * 15, solos));
+        buffer.position(inicioSolos + solos * 16);
+        while (buffer.position() < tamanho - TAMANHO_CRC) buffer.put((byte) 0);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, (int) tamanho - TAMANHO_CRC));
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Confere o bloco que começa em 'posicao'.
+     * @return o tamanho dele, ou -1 se não há bloco completo e íntegro ali
+     */
+    private static int validarBloco(ByteBuffer buffer, int posicao, int solosFazenda, int cercadosFazenda) {
+        int restante = buffer.capacity() - posicao;
+        if (restante < TAMANHO_CABECALHO_BLOCO || buffer.getInt(posicao) != MAGICO_BLOCO) {
+            return -1;
+        }
+        int tamanho = buffer.getInt(posicao + 4);
+        int solos = buffer.getInt(posicao + 32);
+        int cercados = buffer.getInt(posicao + 36);
+        int globais = buffer.getInt(posicao + 40);
+        if (tamanho < TAMANHO_CABECALHO_BLOCO + TAMANHO_CRC || tamanho > restante
+                || solos < 0 || solos > solosFazenda || cercados < 0 || cercados > cercadosFazenda
+                || (globais != 0 && globais != 1)
+                || tamanhoBloco(solos, cercados, globais == 1) != tamanho) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(posicao, tamanho - TAMANHO_CRC));
+        return (int) crc.getValue() == buffer.getInt(posicao + tamanho - TAMANHO_CRC) ? tamanho : -1;
+    }
+
+    private static Cabecalho aplicarBloco(ByteBuffer bloco, Cabecalho base, FazendaEstado fazenda) throws IOException {
+        int solos = bloco.getInt(32);
+        int cercados = bloco.getInt(36);
+        List<Cercado> destinoCercados = fazenda.getCercados();
+        try {
+            bloco.position(TAMANHO_CABECALHO_BLOCO);
+            if (bloco.getInt(40) == 1) {
+                long centavos = bloco.getLong();
+                int dia = bloco.getInt();
+                int estoque = bloco.getInt();
+                int ultimo = bloco.getInt();
+                fazenda.restaurarGlobais(centavos, dia, estoque, ultimo < 0 ? null : VEGETAIS[ultimo]);
+                for (Maquina maquina : MAQUINAS) {
+                    fazenda.restaurarInventario(maquina, bloco.getInt());
+                }
+            }
+
+            int inicioCercados = bloco.position();
+            for (int k = 0; k < cercados; k++) {
+                int id = bloco.getInt(inicioCercados + k * 4);
+                int especie = bloco.getInt(inicioCercados + (cercados + k) * 4);
+                int quantidade = bloco.getInt(inicioCercados + (cercados * 2 + k) * 4);
+                double progresso = bloco.getDouble(inicioCercados + cercados * 12 + k * 8);
+                boolean pronto = bloco.get(inicioCercados + cercados * 20 + k) != 0;
+                destinoCercados.get(id).restaurar(especie < 0 ? null : ANIMAIS[especie], quantidade, progresso, pronto);
+            }
+
+            int inicioSolos = alinhar8(inicioCercados + cercados * 21);
+            fazenda.getArmazenamentoSolos().aplicarAlteracoes(
+                bloco.slice(inicioSolos + solos * 8, solos * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+                bloco.slice(inicioSolos, solos * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+                bloco.slice(inicioSolos + solos * 12, solos),
+                bloco.slice(inicioSolos + solos * 13, solos),
+                bloco.slice(inicioSolos + solos * 14, solos),
+                bloco.slice(inicioSolos + solos * 15, solos));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Bloco de alterações com dados inválidos: " + e.getMessage(), e);
+        }
+        return new Cabecalho(base.versao, base.quantidadeSolos, base.quantidadeCercados,
+                             bloco.getLong(8), bloco.getDouble(16), bloco.getDouble(24));
+    }
+
+    private static long tamanhoBloco(int solos, int cercados, boolean globais) {
+        long fimCercados = TAMANHO_CABECALHO_BLOCO + (globais ? 20 + MAQUINAS.length * 4L : 0) + cercados * 21L;
+        long fimSolos = ((fimCercados + 7) & ~7L) + solos * 16L;
+        return (fimSolos + TAMANHO_CRC + 7) & ~7L;
+    }
+
+    private static long tamanhoCorpo(int solos, int cercados) {
+        long inicioSolos = alinhar8(TAMANHO_CABECALHO + MAQUINAS.length * 4L + cercados * 17L);
+        return inicioSolos - TAMANHO_CABECALHO + solos * 12L;
+    }
+
+    private static int alinhar8(long posicao) {
+        return (int) ((posicao + 7) & ~7L);
+    }
+
+    /**
+     * Onde termina a base (e começam os blocos de alterações) num arquivo desta versão.
+     */
+    static long tamanhoBase(int solos, int cercados) {
+        return (TAMANHO_CABECALHO + tamanhoCorpo(solos, cercados) + TAMANHO_CRC + 7) & ~7L;
+    }
+}
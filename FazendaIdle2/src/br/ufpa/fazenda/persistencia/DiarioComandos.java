@@ -0,0 +1,352 @@
+package br.ufpa.fazenda.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário (write-ahead log) de tudo que muda a fazenda fora da simulação: comandos
+ * aplicados pelo GameLoop e decisões da IA, cada um marcado com o tick em que aconteceu.
+ *
+ * A thread do loop só copia o registro para um buffer em memória (registrar()); uma
+ * thread de fundo junta o que chegou a cada intervalo e grava tudo de uma vez com um
+ * único fsync (group commit). Uma queda perde no máximo um intervalo.
+ *
+ * Os registros ficam em segmentos "diario-&lt;tick&gt;.log" dentro da pasta: um novo começa a
+ * cada checkpoint (iniciarSegmento) e os anteriores são apagados depois que o checkpoint
+ * foi gravado (descartarSegmentosAntes). Para recuperar: carrega o checkpoint do tick S
+ * e repete os registros com tick &gt;= S (ler()).
+ *
+ * Registro (24 bytes, little-endian):
+ * long tick, byte origem, byte tipo, short reservado, int arg1, int arg2, int CRC32C dos 20 anteriores.
+ */
+public class DiarioComandos {
+
+    /** Comando aplicado no início do tick (tipo = TipoComando) */
+    public static final byte ORIGEM_COMANDO = 0;
+    /** Decisão da IA no fim do tick (tipo = PersonagemIA.Tarefa, arg2 = Vegetal ou -1) */
+    public static final byte ORIGEM_IA = 1;
+    /** Marca: todos os ticks antes de 'tick' terminaram (escrita a cada commit) */
+    public static final byte ORIGEM_MARCA = 2;
+
+    public static final int TAMANHO_REGISTRO = 24;
+
+    private static final String PREFIXO = "diario-";
+    private static final String SUFIXO = ".log";
+
+    /**
+     * Um registro lido do diário.
+     */
+    public static final class Registro {
+        private final long tick;
+        private final byte origem;
+        private final int tipo;
+        private final int arg1;
+        private final int arg2;
+
+        Registro(long tick, byte origem, int tipo, int arg1, int arg2) {
+            this.tick = tick;
+            this.origem = origem;
+            this.tipo = tipo;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+
+        public long getTick() { return tick; }
+        public byte getOrigem() { return origem; }
+        public int getTipo() { return tipo; }
+        public int getArg1() { return arg1; }
+        public int getArg2() { return arg2; }
+
+        @Override
+        public String toString() {
+            return "Registro(tick=" + tick + ", origem=" + origem + ", tipo=" + tipo
+                   + ", " + arg1 + ", " + arg2 + ")";
+        }
+    }
+
+    // Pontos do buffer em que começa um novo segmento
+    private static final class Corte {
+        final int posicao;
+        final long tick;
+
+        Corte(int posicao, long tick) {
+            this.posicao = posicao;
+            this.tick = tick;
+        }
+    }
+
+    private final Path pasta;
+    private final long intervaloNanos;
+
+    // --- Protegidos por 'this' (a thread do loop escreve, a de gravação troca) ---
+    private ByteBuffer pendente = novoBuffer(64 * 1024);
+    private List<Corte> cortes = new ArrayList<>();
+    private final CRC32C crcRegistro = new CRC32C();
+
+    // --- Só da thread de gravação ---
+    private ByteBuffer gravando = novoBuffer(64 * 1024);
+    private FileChannel canal;
+    private long ultimaMarcaGravada = -1;
+    private final ByteBuffer marca = novoBuffer(TAMANHO_REGISTRO);
+    private final CRC32C crcMarca = new CRC32C();
+    private volatile Path segmentoAtual;
+
+    private volatile long tickConcluido;
+    private volatile boolean aberto = true;
+    private volatile IOException erro;
+    private volatile long commits;
+    private final Thread gravador;
+
+    /**
+     * Abre (ou continua) o segmento que começa em 'tickInicial' e inicia a thread de gravação.
+     * @param intervaloCommitMillis de quanto em quanto tempo o buffer vai para o disco
+     */
+    public DiarioComandos(Path pasta, long tickInicial, long intervaloCommitMillis) throws IOException {
+        if (intervaloCommitMillis <= 0) {
+            throw new IllegalArgumentException("Intervalo de commit deve ser positivo: " + intervaloCommitMillis);
+        }
+        Files.createDirectories(pasta);
+        this.pasta = pasta;
+        this.intervaloNanos = intervaloCommitMillis * 1_000_000L;
+        this.tickConcluido = tickInicial;
+        this.canal = abrirSegmento(tickInicial);
+        this.gravador = new Thread(this::gravarPeriodicamente, "diario-comandos");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    // --- Thread do loop ---
+
+    /**
+     * Acrescenta um registro ao buffer. Não faz I/O: só segura a trava pelo tempo da cópia.
+     */
+    public synchronized void registrar(long tick, byte origem, int tipo, int arg1, int arg2) {
+        if (pendente.remaining() < TAMANHO_REGISTRO) {
+            ByteBuffer maior = novoBuffer(pendente.capacity() * 2);
+            pendente.flip();
+            maior.put(pendente);
+            pendente = maior;
+        }
+        escrever(pendente, crcRegistro, tick, origem, tipo, arg1, arg2);
+    }
+
+    /**
+     * Avisa que todos os ticks antes de 'tick' terminaram (vai para o disco como marca).
+     */
+    public void marcarTickConcluido(long tick) {
+        this.tickConcluido = tick;
+    }
+
+    /**
+     * Os próximos registros vão para um segmento novo que começa em 'tick'.
+     * Chame na fronteira de um tick, junto com a fotografia do checkpoint.
+     */
+    public synchronized void iniciarSegmento(long tick) {
+        cortes.add(new Corte(pendente.position(), tick));
+    }
+
+    // --- Qualquer thread ---
+
+    /**
+     * Apaga os segmentos que começam antes de 'tick'. Chame só depois que o
+     * checkpoint desse tick estiver gravado.
+     */
+    public void descartarSegmentosAntes(long tick) throws IOException {
+        for (Path segmento : listarSegmentos(pasta)) {
+            if (tickDoSegmento(segmento) < tick && !segmento.equals(segmentoAtual)) {
+                Files.deleteIfExists(segmento);
+            }
+        }
+    }
+
+    /**
+     * Grava o que falta e para a thread de gravação.
+     */
+    public void fechar() throws IOException {
+        if (!aberto) return;
+        aberto = false;
+        LockSupport.unpark(gravador);
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (erro != null) throw erro;
+    }
+
+    /** Primeiro erro de gravação (depois dele o diário para de gravar) */
+    public IOException getErro() { return erro; }
+
+    /** Quantos commits (fsync) já foram feitos */
+    public long getCommits() { return commits; }
+
+    public Path getPasta() { return pasta; }
+
+    // --- Thread de gravação ---
+
+    private void gravarPeriodicamente() {
+        while (aberto) {
+            LockSupport.parkNanos(intervaloNanos);
+            if (!commitar()) return;
+        }
+        if (commitar()) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                erro = e;
+            }
+        }
+    }
+
+    /**
+     * Um group commit: troca os buffers, grava o que chegou (mudando de segmento nos
+     * cortes) e termina com a marca do último tick concluído e um fsync.
+     */
+    private boolean commitar() {
+        long concluido;
+        List<Corte> cortesAgora;
+        synchronized (this) {
+            // A marca é lida antes da troca: todo registro de um tick < concluido já está no buffer
+            concluido = tickConcluido;
+            ByteBuffer cheio = pendente;
+            pendente = gravando;
+            gravando = cheio;
+            cortesAgora = cortes;
+            cortes = new ArrayList<>();
+        }
+        gravando.flip();
+        if (!gravando.hasRemaining() && cortesAgora.isEmpty() && concluido <= ultimaMarcaGravada) {
+            gravando.clear();
+            return true; // Nada de novo: sem fsync
+        }
+        try {
+            int inicio = 0;
+            for (Corte corte : cortesAgora) {
+                gravarTudo(gravando.slice(inicio, corte.posicao - inicio));
+                canal.force(false);
+                canal.close();
+                canal = abrirSegmento(corte.tick);
+                inicio = corte.posicao;
+            }
+            gravarTudo(gravando.slice(inicio, gravando.limit() - inicio));
+            if (concluido > ultimaMarcaGravada) {
+                marca.clear();
+                escrever(marca, crcMarca, concluido, ORIGEM_MARCA, 0, 0, 0);
+                marca.flip();
+                gravarTudo(marca);
+                ultimaMarcaGravada = concluido;
+            }
+            canal.force(false);
+            commits++;
+            return true;
+        } catch (IOException e) {
+            erro = e;
+            System.err.println("Diário de comandos parou de gravar: " + e.getMessage());
+            return false;
+        } finally {
+            gravando.clear();
+        }
+    }
+
+    private void gravarTudo(ByteBuffer dados) throws IOException {
+        while (dados.hasRemaining()) {
+            canal.write(dados);
+        }
+    }
+
+    private FileChannel abrirSegmento(long tick) throws IOException {
+        Path segmento = pasta.resolve(nomeSegmento(tick));
+        FileChannel novo = FileChannel.open(segmento, StandardOpenOption.CREATE,
+                                            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentoAtual = segmento;
+        return novo;
+    }
+
+    private static void escrever(ByteBuffer destino, CRC32C crc, long tick, byte origem,
+                                 int tipo, int arg1, int arg2) {
+        int inicio = destino.position();
+        destino.putLong(tick).put(origem).put((byte) tipo).putShort((short) 0).putInt(arg1).putInt(arg2);
+        crc.reset();
+        crc.update(destino.slice(inicio, TAMANHO_REGISTRO - 4));
+        destino.putInt((int) crc.getValue());
+    }
+
+    // --- Leitura (recuperação) ---
+
+    /**
+     * Lê, em ordem, os registros de todos os segmentos da pasta a partir de 'aPartirDoTick'.
+     * Se o último segmento terminar em um registro incompleto ou corrompido (queda no meio
+     * de uma gravação), ele é truncado no último registro válido.
+     * @throws IOException se um segmento que não é o último estiver corrompido
+     */
+    public static List<Registro> ler(Path pasta, long aPartirDoTick) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        if (!Files.isDirectory(pasta)) return registros;
+
+        List<Path> segmentos = listarSegmentos(pasta);
+        CRC32C crc = new CRC32C();
+        for (int s = 0; s < segmentos.size(); s++) {
+            Path segmento = segmentos.get(s);
+            boolean ultimo = s == segmentos.size() - 1;
+            try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long tamanho = canal.size();
+                ByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho).order(ByteOrder.LITTLE_ENDIAN);
+                int validos = 0;
+                while (validos + TAMANHO_REGISTRO <= tamanho) {
+                    crc.reset();
+                    crc.update(buffer.slice(validos, TAMANHO_REGISTRO - 4));
+                    if ((int) crc.getValue() != buffer.getInt(validos + TAMANHO_REGISTRO - 4)) break;
+
+                    long tick = buffer.getLong(validos);
+                    if (tick >= aPartirDoTick) {
+                        registros.add(new Registro(tick, buffer.get(validos + 8), buffer.get(validos + 9),
+                                                   buffer.getInt(validos + 12), buffer.getInt(validos + 16)));
+                    }
+                    validos += TAMANHO_REGISTRO;
+                }
+                if (validos < tamanho) {
+                    if (!ultimo) {
+                        throw new IOException("Segmento do diário corrompido: " + segmento);
+                    }
+                    canal.truncate(validos);
+                }
+            }
+        }
+        return registros;
+    }
+
+    private static List<Path> listarSegmentos(Path pasta) throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> lista = Files.newDirectoryStream(pasta, PREFIXO + "*" + SUFIXO)) {
+            for (Path segmento : lista) {
+                segmentos.add(segmento);
+            }
+        }
+        // O nome tem o tick com zeros à esquerda, então a ordem alfabética é a dos ticks
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    private static String nomeSegmento(long tick) {
+        return String.format("%s%020d%s", PREFIXO, tick, SUFIXO);
+    }
+
+    private static long tickDoSegmento(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    private static ByteBuffer novoBuffer(int capacidade) {
+        return ByteBuffer.allocateDirect(capacidade).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,89 @@
+package br.ufpa.fazenda.persistencia;
+
+import br.ufpa.fazenda.model.AlteracoesFazenda;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Salvamento automático que grava só o que mudou: depois de uma base completa
+ * (ArquivoFazenda.salvar), cada salvamento acrescenta ao fim do mesmo arquivo um bloco
+ * com os solos, cercados e dados globais alterados (ver ArquivoFazenda). O custo de cada
+ * salvamento é proporcional às mudanças, não ao tamanho da fazenda.
+ *
+ * Quando os blocos somados passam do tamanho da base, precisaCompactar() avisa que vale
+ * mais gravar uma base nova (o carregamento reaplica todos os blocos).
+ *
+ * Não é thread-safe: use sempre da mesma thread (o GameLoop usa a do checkpoint).
+ * Só precisaCompactar() pode ser lido de outra thread.
+ */
+public class SalvamentoIncremental {
+
+    private final Path arquivo;
+
+    private long tamanhoBase = -1;  // -1 = ainda não gravou a base
+    private int quantidadeSolos;
+    private long fim;               // Onde entra o próximo bloco
+    private volatile long bytesAlteracoes;
+
+    public SalvamentoIncremental(Path arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    /**
+     * Grava uma base nova com a fotografia inteira (substituindo o arquivo e os blocos).
+     */
+    public void gravarCompleto(FotografiaFazenda foto) throws IOException {
+        ArquivoFazenda.salvar(foto, arquivo);
+        quantidadeSolos = foto.getQuantidadeSolos();
+        tamanhoBase = ArquivoFazenda.tamanhoBase(quantidadeSolos, foto.getQuantidadeCercados());
+        fim = tamanhoBase;
+        bytesAlteracoes = 0;
+    }
+
+    /**
+     * Acrescenta um bloco com as alterações e força para o disco antes de retornar.
+     * Se a gravação falhar no meio, o bloco incompleto é ignorado no carregamento e
+     * sobrescrito pelo próximo; mesmo assim, as alterações dele só voltam ao arquivo
+     * com uma base nova (quem chama deve gravarCompleto() em seguida).
+     * @return quantos bytes foram gravados
+     */
+    public int acrescentar(AlteracoesFazenda alteracoes) throws IOException {
+        if (tamanhoBase < 0) {
+            throw new IllegalStateException("Grave a base antes das alterações (gravarCompleto)");
+        }
+        if (alteracoes.getQuantidadeSolosFazenda() != quantidadeSolos) {
+            throw new IllegalArgumentException("Alterações de uma fazenda com outro número de solos");
+        }
+        ByteBuffer bloco = ArquivoFazenda.montarBloco(alteracoes);
+        int tamanho = bloco.remaining();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            long posicao = fim;
+            while (bloco.hasRemaining()) {
+                posicao += canal.write(bloco, posicao);
+            }
+            canal.force(false);
+        }
+        fim += tamanho;
+        bytesAlteracoes += tamanho;
+        return tamanho;
+    }
+
+    /**
+     * true quando os blocos acumulados já são maiores que a própria base
+     */
+    public boolean precisaCompactar() {
+        return bytesAlteracoes > tamanhoBase;
+    }
+
+    public long getBytesAlteracoes() {
+        return bytesAlteracoes;
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+}
@@ -0,0 +1,188 @@
+package br.ufpa.fazenda.sessao;
+
+import br.ufpa.fazenda.engine.Comando;
+import br.ufpa.fazenda.engine.GameLoop;
+import br.ufpa.fazenda.engine.TipoComando;
+import br.ufpa.fazenda.model.FotografiaFazenda;
+import br.ufpa.fazenda.model.Maquina;
+import br.ufpa.fazenda.model.Vegetal;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Traduz uma linha de texto ("plantar 0 alface", "status"...) em um comando do GameLoop
+ * e devolve a resposta em texto.
+ *
+ * Mudanças vão pela fila de comandos do loop e a resposta espera o tick que as aplica
+ * (bloqueia quem chamou, por isso cada sessão roda na sua thread virtual); consultas
+ * leem a fotografia publicada, sem esperar nada.
+ */
+public class InterpretadorComandos {
+
+    /** Quanto uma linha espera o loop aplicar o comando */
+    private static final long ESPERA_MAXIMA_MS = 5000;
+
+    public static final String AJUDA = String.join("\n",
+        "status                      dinheiro, dia, fertilizante e solos",
+        "plantar <solo> <vegetal>    alface | cenoura | abobora",
+        "colher <solo>               arrancar <solo>",
+        "fertilizante <solo> liga|desliga      comprar-fertilizante",
+        "desbloquear <solo>          evoluir <solo>",
+        "comprar-maquina <maquina>   trator | arador | irrigador",
+        "instalar <solo> <maquina>   remover <solo> <maquina>",
+        "comprar-animal <cercado>    coletar <cercado>",
+        "ia liga|desliga             ajudantes <quantidade>",
+        "sair");
+
+    private final GameLoop loop;
+
+    public InterpretadorComandos(GameLoop loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * Executa uma linha.
+     * @return a resposta, ou null se a linha pede para encerrar a sessão
+     */
+    public String executar(String linha) {
+        String[] partes = linha.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        try {
+            switch (partes[0]) {
+                case "":
+                    return "";
+                case "sair":
+                    return null;
+                case "ajuda":
+                    return AJUDA;
+                case "status":
+                    return status(loop.getFotografia());
+                default:
+                    return enviar(traduzir(partes));
+            }
+        } catch (IllegalArgumentException e) {
+            return "erro: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Traduz uma linha de mudança ("plantar 0 alface"...) no comando correspondente,
+     * sem enviar. Usado também pela API HTTP.
+     * @throws IllegalArgumentException se a linha não é um comando de mudança válido
+     */
+    public static Comando traduzir(String linha) {
+        return traduzir(linha.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+    }
+
+    private static Comando traduzir(String[] partes) {
+        switch (partes[0]) {
+            case "plantar":
+                return new Comando(TipoComando.PLANTAR, inteiro(partes, 1), vegetal(partes, 2));
+            case "colher":
+                return new Comando(TipoComando.COLHER, inteiro(partes, 1));
+            case "arrancar":
+                return new Comando(TipoComando.ARRANCAR, inteiro(partes, 1));
+            case "fertilizante":
+                return new Comando(TipoComando.ATIVAR_FERTILIZANTE, inteiro(partes, 1), ligado(partes, 2));
+            case "comprar-fertilizante":
+                return new Comando(TipoComando.COMPRAR_FERTILIZANTE);
+            case "desbloquear":
+                return new Comando(TipoComando.DESBLOQUEAR_SOLO, inteiro(partes, 1));
+            case "evoluir":
+                return new Comando(TipoComando.EVOLUIR_SOLO, inteiro(partes, 1));
+            case "comprar-maquina":
+                return new Comando(TipoComando.COMPRAR_MAQUINA, maquina(partes, 1));
+            case "instalar":
+                return new Comando(TipoComando.INSTALAR_MAQUINA, inteiro(partes, 1), maquina(partes, 2));
+            case "remover":
+                return new Comando(TipoComando.REMOVER_MAQUINA, inteiro(partes, 1), maquina(partes, 2));
+            case "comprar-animal":
+                return new Comando(TipoComando.COMPRAR_ANIMAL, inteiro(partes, 1));
+            case "coletar":
+                return new Comando(TipoComando.COLETAR_CERCADO, inteiro(partes, 1));
+            case "ia":
+                return new Comando(TipoComando.ATIVAR_IA, ligado(partes, 1));
+            case "ajudantes":
+                return new Comando(TipoComando.AJUDANTES_IA, inteiro(partes, 1));
+            default:
+                throw new IllegalArgumentException("comando desconhecido '" + partes[0] + "' (digite ajuda)");
+        }
+    }
+
+    private String enviar(Comando comando) {
+        loop.enviar(comando);
+        try {
+            boolean sucesso = comando.getResultado().get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+            if (!sucesso) return "falhou";
+            double valor = comando.getValor();
+            return valor > 0 ? String.format("ok R$ %.2f", valor) : "ok";
+        } catch (TimeoutException e) {
+            return "erro: a fazenda não respondeu";
+        } catch (ExecutionException e) {
+            return "erro: " + e.getCause().getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "erro: sessão interrompida";
+        }
+    }
+
+    private static String status(FotografiaFazenda foto) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Dia %d | R$ %.2f | Fertilizante: %d", foto.getDiaAtual(),
+                                foto.getDinheiro(), foto.getEstoqueFertilizante()));
+        for (int i = 0; i < foto.getQuantidadeSolos(); i++) {
+            sb.append("\nSolo ").append(i).append(": ");
+            if (!foto.isDesbloqueado(i)) {
+                sb.append("bloqueado");
+            } else if (!foto.isOcupado(i)) {
+                sb.append("vazio");
+            } else {
+                sb.append(foto.getVegetal(i).getNome())
+                  .append(String.format(" %.0f%%", foto.getProgresso(i) * 100));
+            }
+        }
+        return sb.toString();
+    }
+
+    // --- Argumentos ---
+
+    private static String argumento(String[] partes, int posicao) {
+        if (posicao >= partes.length) {
+            throw new IllegalArgumentException("faltam argumentos para '" + partes[0] + "'");
+        }
+        return partes[posicao];
+    }
+
+    private static int inteiro(String[] partes, int posicao) {
+        String texto = argumento(partes, posicao);
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("número inválido: " + texto);
+        }
+    }
+
+    private static int ligado(String[] partes, int posicao) {
+        String texto = argumento(partes, posicao);
+        if (texto.equals("liga")) return 1;
+        if (texto.equals("desliga")) return 0;
+        throw new IllegalArgumentException("use liga ou desliga: " + texto);
+    }
+
+    private static int vegetal(String[] partes, int posicao) {
+        String texto = argumento(partes, posicao);
+        for (Vegetal vegetal : Vegetal.values()) {
+            if (vegetal.name().equalsIgnoreCase(texto)) return vegetal.ordinal();
+        }
+        throw new IllegalArgumentException("vegetal desconhecido: " + texto);
+    }
+
+    private static int maquina(String[] partes, int posicao) {
+        String texto = argumento(partes, posicao);
+        for (Maquina maquina : Maquina.values()) {
+            if (maquina.name().equalsIgnoreCase(texto)) return maquina.ordinal();
+        }
+        throw new IllegalArgumentException("máquina desconhecida: " + texto);
+    }
+}
@@ -0,0 +1,181 @@
+package br.ufpa.fazenda.sessao;
+
+import br.ufpa.fazenda.engine.HospedeiroFazendas;
+import br.ufpa.fazenda.engine.HospedeiroFazendas.FazendaHospedada;
+import br.ufpa.fazenda.model.FazendaEstado;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Abre sessões interativas (jogador conectado ou roteiro) sobre fazendas hospedadas.
+ *
+ * Cada sessão roda em uma thread virtual: pode ficar bloqueada lendo a entrada ou
+ * esperando o tick sem prender uma thread do sistema. A simulação de todas as fazendas
+ * continua no HospedeiroFazendas, com o número fixo de threads dele. Assim, milhares
+ * de sessões simultâneas custam memória de pilhas virtuais (KB cada), não uma thread
+ * do sistema para a sessão e outra para o GameLoop de cada fazenda.
+ */
+public class ServidorSessoes implements AutoCloseable {
+
+    // Linhas de comando são curtas: um buffer pequeno por sessão (o padrão é 8K chars)
+    private static final int TAMANHO_BUFFER_LINHA = 256;
+
+    private final HospedeiroFazendas hospedeiro;
+    private final ExecutorService sessoes = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger proximoId = new AtomicInteger();
+    private final AtomicInteger abertas = new AtomicInteger();
+
+    public ServidorSessoes(HospedeiroFazendas hospedeiro) {
+        this.hospedeiro = hospedeiro;
+    }
+
+    /**
+     * Abre uma sessão com uma fazenda nova, hospedada enquanto a sessão durar.
+     * @return termina quando a sessão termina
+     */
+    public Future<?> abrir(Reader entrada, Writer saida) {
+        FazendaHospedada hospedada = hospedeiro.adicionar(FazendaEstado.criar());
+        return abrir(hospedada, entrada, saida, true);
+    }
+
+    /**
+     * Abre uma sessão sobre uma fazenda já hospedada (que continua lá depois da sessão).
+     */
+    public Future<?> abrir(FazendaHospedada hospedada, Reader entrada, Writer saida) {
+        return abrir(hospedada, entrada, saida, false);
+    }
+
+    private Future<?> abrir(FazendaHospedada hospedada, Reader entrada, Writer saida, boolean removerNoFim) {
+        BufferedReader leitor = entrada instanceof BufferedReader
+            ? (BufferedReader) entrada : new BufferedReader(entrada, TAMANHO_BUFFER_LINHA);
+        PrintWriter escritor = saida instanceof PrintWriter ? (PrintWriter) saida : new PrintWriter(saida);
+        SessaoFazenda sessao = new SessaoFazenda(proximoId.getAndIncrement(), hospedada.getLoop(), leitor, escritor);
+        abertas.incrementAndGet();
+        return sessoes.submit(() -> {
+            try {
+                sessao.run();
+            } finally {
+                abertas.decrementAndGet();
+                if (removerNoFim) hospedeiro.remover(hospedada);
+            }
+        });
+    }
+
+    public int getSessoesAbertas() {
+        return abertas.get();
+    }
+
+    /**
+     * Não aceita novas sessões e espera as abertas terminarem.
+     */
+    @Override
+    public void close() {
+        sessoes.close();
+    }
+
+    /**
+     * Uso: ServidorSessoes                 (uma sessão no console)
+     *      ServidorSessoes roteiro [n]     (n sessões roteirizadas simultâneas, padrão 10000)
+     */
+    public static void main(String[] args) throws Exception {
+        HospedeiroFazendas hospedeiro = new HospedeiroFazendas(Runtime.getRuntime().availableProcessors());
+        hospedeiro.iniciar();
+
+        if (args.length == 0 || !args[0].equals("roteiro")) {
+            try (ServidorSessoes servidor = new ServidorSessoes(hospedeiro)) {
+                servidor.abrir(new InputStreamReader(System.in), new PrintWriter(System.out, true)).get();
+            }
+            hospedeiro.parar();
+            return;
+        }
+
+        int quantidade = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        String roteiro = String.join("\n", "status", "plantar 0 alface", "plantar 1 cenoura",
+                                     "comprar-fertilizante", "status", "colher 0", "sair");
+        long inicio = System.nanoTime();
+        int maxAbertas = 0;
+        int maxThreadsSistema = 0;
+        long heapComTodasAbertas = 0;
+        try (ServidorSessoes servidor = new ServidorSessoes(hospedeiro)) {
+            List<Future<?>> fim = new ArrayList<>();
+            for (int i = 0; i < quantidade; i++) {
+                fim.add(servidor.abrir(new InputStreamReader(new RoteiroComPausas(roteiro, 200)), Writer.nullWriter()));
+            }
+            // Memória viva com todas as sessões (e fazendas) abertas
+            System.gc();
+            Runtime rt = Runtime.getRuntime();
+            heapComTodasAbertas = rt.totalMemory() - rt.freeMemory();
+            while (servidor.getSessoesAbertas() > 0) {
+                maxAbertas = Math.max(maxAbertas, servidor.getSessoesAbertas());
+                maxThreadsSistema = Math.max(maxThreadsSistema, ManagementFactory.getThreadMXBean().getThreadCount());
+                Thread.sleep(100);
+            }
+            for (Future<?> f : fim) f.get();
+        }
+        System.out.printf("%d sessões em %.1f s | até %d abertas ao mesmo tempo | até %d threads do sistema"
+                          + " | heap vivo com todas abertas %d MB | %d fazendas ainda hospedadas%n",
+            quantidade, (System.nanoTime() - inicio) / 1e9, maxAbertas, maxThreadsSistema,
+            heapComTodasAbertas >> 20, hospedeiro.getQuantidadeFazendas());
+        hospedeiro.parar();
+    }
+
+    /**
+     * Entrada de um jogador simulado: entrega uma linha do roteiro a cada 'pausaMillis'
+     * (bloqueando a thread virtual nesse meio-tempo, como um jogador digitando).
+     * É um InputStream, como o de um socket: um Reader próprio embaixo do BufferedReader
+     * faria a leitura segurar um monitor e prender a thread portadora durante a pausa.
+     */
+    private static class RoteiroComPausas extends InputStream {
+        private final byte[][] linhas;
+        private final long pausaMillis;
+        private int proxima = 0;
+        private byte[] atual = new byte[0];
+        private int posicao = 0;
+
+        RoteiroComPausas(String roteiro, long pausaMillis) {
+            String[] texto = roteiro.split("\n");
+            this.linhas = new byte[texto.length][];
+            for (int i = 0; i < texto.length; i++) {
+                linhas[i] = (texto[i] + "\n").getBytes(StandardCharsets.UTF_8);
+            }
+            this.pausaMillis = pausaMillis;
+        }
+
+        @Override
+        public int read() {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) {
+            if (posicao == atual.length) {
+                if (proxima == linhas.length) return -1;
+                try {
+                    Thread.sleep(pausaMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+                atual = linhas[proxima++];
+                posicao = 0;
+            }
+            int n = Math.min(tamanho, atual.length - posicao);
+            System.arraycopy(atual, posicao, destino, inicio, n);
+            posicao += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package br.ufpa.fazenda.sessao;
+
+import br.ufpa.fazenda.engine.GameLoop;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Uma sessão interativa: lê linhas de comando de 'entrada', executa na fazenda do loop
+ * e escreve as respostas em 'saida', até "sair" ou o fim da entrada.
+ *
+ * Pode bloquear à vontade (esperando o jogador digitar ou o tick aplicar o comando):
+ * o ServidorSessoes roda cada sessão em uma thread virtual, e a simulação fica no
+ * HospedeiroFazendas. A entrada deve ser de um leitor do JDK (InputStreamReader sobre
+ * socket/stream): um Reader próprio que bloqueia faz o BufferedReader segurar um monitor
+ * e prende a thread portadora.
+ */
+public class SessaoFazenda implements Runnable {
+
+    private final int id;
+    private final BufferedReader entrada;
+    private final PrintWriter saida;
+    private final InterpretadorComandos interpretador;
+    private volatile long comandosExecutados;
+
+    public SessaoFazenda(int id, GameLoop loop, BufferedReader entrada, PrintWriter saida) {
+        this.id = id;
+        this.entrada = entrada;
+        this.saida = saida;
+        this.interpretador = new InterpretadorComandos(loop);
+    }
+
+    @Override
+    public void run() {
+        try {
+            saida.println("Fazenda " + id + " pronta. Digite 'ajuda' para ver os comandos.");
+            saida.flush();
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                String resposta = interpretador.executar(linha);
+                if (resposta == null) break;
+                comandosExecutados++;
+                saida.println(resposta);
+                saida.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Sessão " + id + " caiu: " + e.getMessage());
+        } finally {
+            saida.flush();
+        }
+    }
+
+    public int getId() { return id; }
+    public long getComandosExecutados() { return comandosExecutados; }
+}
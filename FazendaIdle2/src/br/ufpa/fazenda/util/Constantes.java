@@ -8,9 +8,28 @@ public class Constantes {
     // Tempo
     public static final int SEGUNDOS_POR_DIA = 15;
     
+    // Jogo salvo (formato em persistencia.ArquivoFazenda)
+    public static final String ARQUIVO_JOGO_SALVO = "fazenda.sav";
+    public static final String PASTA_DIARIO = "diario"; // Diário de comandos (persistencia.DiarioComandos)
+    public static final long INTERVALO_COMMIT_DIARIO_MS = 100; // Máximo perdido numa queda
+    public static final int TICKS_ENTRE_CHECKPOINTS = 60 * 60; // 1 minuto em passo fixo
+    
+    // Motor (passo fixo de simulação)
+    public static final double PASSO_SIMULACAO_SEGUNDOS = 1.0 / 60.0; // 60 passos por segundo
+    public static final int MAX_PASSOS_POR_QUADRO = 5; // Limite de recuperação após um quadro lento
+    
+    // Tick paralelo: tamanho de cada partição (não depende do número de threads)
+    public static final int TAMANHO_PARTICAO_SOLOS = 4096;
+    public static final int TAMANHO_PARTICAO_CERCADOS = 64;
+    
     // Economia
     public static final double CUSTO_FERTILIZANTE_LOTE = 150.0;
     public static final int QTD_FERTILIZANTE_LOTE = 10;
+    public static final long CUSTO_FERTILIZANTE_LOTE_CENTAVOS = Dinheiro.deReais(CUSTO_FERTILIZANTE_LOTE);
+    public static final long CUSTO_FERTILIZANTE_UNIDADE_CENTAVOS = CUSTO_FERTILIZANTE_LOTE_CENTAVOS / QTD_FERTILIZANTE_LOTE;
+    public static final long CUSTO_DESBLOQUEIO_SOLO_CENTAVOS = Dinheiro.deReais(300.0);
+    public static final long CUSTO_UPGRADE_SOLO_POR_NIVEL_CENTAVOS = Dinheiro.deReais(100.0); // × nível atual
+    public static final long CUSTO_MAQUINA_SEMANA_CENTAVOS = Dinheiro.deReais(10.0); // Por máquina instalada
     
     // Bônus de Máquinas e Itens
     public static final double BONUS_IRRIGADOR_TEMPO = 0.15; // Reduz 15% do tempo
@@ -21,4 +40,10 @@ public class Constantes {
     
     public static final double BONUS_SOLO_NV_VALOR = 0.20; // +20% valor por nível do solo
     public static final double BONUS_SOLO_NV_CRESCIMENTO = 0.10; // +10% velocidade por nível
+    
+    // Os mesmos bônus de valor em pontos-base (1/100 de 1%), para a conta exata em centavos
+    public static final long BONUS_IRRIGADOR_VALOR_PB = Dinheiro.pontosBase(BONUS_IRRIGADOR_VALOR);
+    public static final long BONUS_FERTILIZANTE_VALOR_PB = Dinheiro.pontosBase(BONUS_FERTILIZANTE_VALOR);
+    public static final long BONUS_SOLO_NV_VALOR_PB = Dinheiro.pontosBase(BONUS_SOLO_NV_VALOR);
+    public static final int NIVEL_MAXIMO_SOLO = 10;
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package br.ufpa.fazenda.util;
+
+/**
+ * Conversões e contas de dinheiro em centavos (long), sem ponto flutuante.
+ *
+ * O saldo da fazenda e todos os preços do jogo viram centavos. Bônus percentuais são
+ * expressos em pontos-base (1 ponto-base = 0,01%), então "+25%" é 2500 e a conta
+ * valor * (10000 + bônus) / 10000 é exata até o arredondamento final do centavo.
+ * Somas de longs não dependem da ordem, por isso acumular em paralelo dá sempre o mesmo saldo.
+ */
+public final class Dinheiro {
+
+    public static final long CENTAVOS_POR_REAL = 100;
+    public static final long PONTOS_BASE_INTEIRO = 10_000; // 100%
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Reais (double) para centavos, arredondando para o centavo mais próximo.
+     */
+    public static long deReais(double reais) {
+        return Math.round(reais * CENTAVOS_POR_REAL);
+    }
+
+    /**
+     * Fração (0.25 = 25%) para pontos-base, arredondando para o ponto-base mais próximo.
+     */
+    public static long pontosBase(double fracao) {
+        return Math.round(fracao * PONTOS_BASE_INTEIRO);
+    }
+
+    public static double paraReais(long centavos) {
+        return centavos / (double) CENTAVOS_POR_REAL;
+    }
+
+    /**
+     * Aplica um multiplicador em pontos-base (10000 = 1,0x) e arredonda meio centavo para cima.
+     */
+    public static long multiplicar(long centavos, long pontosBase) {
+        return Math.floorDiv(centavos * pontosBase + PONTOS_BASE_INTEIRO / 2, PONTOS_BASE_INTEIRO);
+    }
+
+    /**
+     * Texto no formato usado no jogo ("12.34").
+     */
+    public static String formatar(long centavos) {
+        return String.format("%.2f", paraReais(centavos));
+    }
+}
@@ -2,6 +2,7 @@ package br.ufpa.fazenda.view;
 
 import br.ufpa.fazenda.engine.GerenciadorEventos;
 import br.ufpa.fazenda.model.Solo;
+import java.util.BitSet;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import java.awt.BorderLayout;
@@ -47,6 +48,17 @@ public class JanelaPrincipal extends JFrame implements GerenciadorEventos {
         // painelFazenda.repaint();
     }
 
+    @Override
+    public double getTaxaEntregaSolosHz() {
+        return 30.0; // Mais que isso o jogador nem percebe
+    }
+
+    @Override
+    public void aoAtualizarSolos(BitSet alterados) {
+        // Um redesenho por lote, em vez de um por solo
+        repaint();
+    }
+
     @Override
     public void aoNotificarEvento(String mensagem) {
         System.out.println("GUI Diz: " + mensagem);